@@ -0,0 +1,105 @@
+package org.example.herizon.common;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 按键批量加载并记忆结果的加载器
+ * <p>
+ * 组装DTO时先把需要的键全部登记（enqueue），第一次取值时对所有未加载的键只调用一次批量函数：
+ * - 同一个键无论登记多少次只查询一次，已加载的键（包括不存在的键）不会再次查询
+ * - 批量函数一般对应一条 IN (...) 查询，返回结果中缺失的键视为不存在，记为null
+ * - 没有预先登记的键在取值时随当前待加载的键一起批量加载
+ *
+ * @author Kokoa
+ */
+public final class BatchLoader<K, V>{
+
+    private final Function<Collection<K>, Map<K, V>> batchFunction;
+    private final Set<K> pending = new LinkedHashSet<>();
+    private final Map<K, V> loaded = new HashMap<>();
+
+    public BatchLoader(Function<Collection<K>, Map<K, V>> batchFunction){
+        this.batchFunction = batchFunction;
+    }
+
+    /**
+     * 登记待加载的键，下一次取值时统一加载
+     */
+    public synchronized void enqueue(K key){
+        if( key!=null && !loaded.containsKey(key) ){
+            pending.add(key);
+        }
+    }
+
+    /**
+     * 批量登记待加载的键
+     */
+    public synchronized void enqueueAll(Collection<? extends K> keys){
+        for( K key : keys ){
+            enqueue(key);
+        }
+    }
+
+    /**
+     * 写入调用方已持有的值，之后对该键取值不再查询
+     */
+    public synchronized void prime(K key, V value){
+        if( key!=null && !loaded.containsKey(key) ){
+            pending.remove(key);
+            loaded.put(key, value);
+        }
+    }
+
+    /**
+     * 获取单个键的值，未加载时连同其他待加载的键一次加载
+     *
+     * @return 值，不存在时返回null
+     */
+    public synchronized V load(K key){
+        if( key==null ){
+            return null;
+        }
+        enqueue(key);
+        dispatch();
+        return loaded.get(key);
+    }
+
+    /**
+     * 获取一组键的值，未加载的键连同其他待加载的键一次加载
+     *
+     * @return 键到值的映射，按传入顺序，不存在的键不包含在结果中
+     */
+    public synchronized Map<K, V> loadAll(Collection<? extends K> keys){
+        enqueueAll(keys);
+        dispatch();
+        Map<K, V> result = new LinkedHashMap<>();
+        for( K key : keys ){
+            V value = key==null ? null : loaded.get(key);
+            if( value!=null ){
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 立即加载全部待加载的键，没有待加载的键时不查询
+     */
+    public synchronized void dispatch(){
+        if( pending.isEmpty() ){
+            return;
+        }
+        Set<K> keys = new LinkedHashSet<>(pending);
+        pending.clear();
+        Map<K, V> values = batchFunction.apply(keys);
+        for( K key : keys ){
+            loaded.put(key, values==null ? null : values.get(key));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.herizon.common;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch 频次估计
+ * <p>
+ * 用 depth × width 的计数矩阵近似统计任意多个不同元素的出现次数，内存固定：
+ * - 每次累加对每一行按不同哈希落到一个计数器上
+ * - 估计值取各行计数器的最小值，只会高估不会低估
+ * - 误差上界约为 总次数 × e / width，置信度 1 - e^(-depth)
+ *
+ * @author Kokoa
+ */
+public final class CountMinSketch{
+
+    private final int depth;
+    private final int width;
+    private final long[][] counters;
+    private long total;
+
+    public CountMinSketch(int depth, int width){
+        this.depth = depth;
+        this.width = width;
+        this.counters = new long[depth][width];
+    }
+
+    /**
+     * 累加元素出现次数
+     *
+     * @param item  元素
+     * @param count 增量
+     */
+    public void add(String item, long count){
+        long hash = hash(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for( int row = 0; row < depth; row++ ){
+            counters[row][index(h1, h2, row)] += count;
+        }
+        total += count;
+    }
+
+    /**
+     * 估计元素出现次数（可能高估）
+     *
+     * @param item 元素
+     * @return 估计次数
+     */
+    public long estimate(String item){
+        long hash = hash(item);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for( int row = 0; row < depth; row++ ){
+            min = Math.min(min, counters[row][index(h1, h2, row)]);
+        }
+        return min;
+    }
+
+    /**
+     * 累加的总次数
+     */
+    public long total(){
+        return total;
+    }
+
+    /**
+     * 清零，复用同一块内存
+     */
+    public void clear(){
+        for( long[] row : counters ){
+            Arrays.fill(row, 0L);
+        }
+        total = 0;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException{
+        out.writeInt(depth);
+        out.writeInt(width);
+        out.writeLong(total);
+        for( long[] row : counters ){
+            for( long counter : row ){
+                out.writeLong(counter);
+            }
+        }
+    }
+
+    public static CountMinSketch readFrom(DataInputStream in) throws IOException{
+        CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+        sketch.total = in.readLong();
+        for( long[] row : sketch.counters ){
+            for( int i = 0; i < row.length; i++ ){
+                row[i] = in.readLong();
+            }
+        }
+        return sketch;
+    }
+
+    /**
+     * 双重哈希：第row行使用 h1 + row * h2，只需计算一次64位哈希
+     */
+    private int index(int h1, int h2, int row){
+        int combined = h1 + row * h2;
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+
+    /**
+     * 64位FNV-1a哈希
+     */
+    private static long hash(String item){
+        long hash = 0xcbf29ce484222325L;
+        for( byte b : item.getBytes(StandardCharsets.UTF_8) ){
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.herizon.common;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog 基数估计
+ * <p>
+ * 用固定的 2^11 = 2048 个寄存器估计不同元素的个数，标准误差约 1.04 / √2048 ≈ 2.3%：
+ * - 元素哈希的低11位选择寄存器，其余位中首个1出现的位置作为寄存器候选值，寄存器保留最大值
+ * - 两个草图按寄存器取最大值即可合并，合并满足交换律与幂等性，重复合并不会多计
+ * - 序列化时寄存器较少时采用稀疏格式（下标+值），访问量少的帖子只占几十字节
+ *
+ * @author Kokoa
+ */
+public final class HyperLogLog{
+
+    private static final int PRECISION = 11;
+
+    private static final int REGISTERS = 1 << PRECISION;
+
+    private static final byte FORMAT_SPARSE = 0;
+
+    private static final byte FORMAT_DENSE = 1;
+
+    private final byte[] registers;
+
+    public HyperLogLog(){
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers){
+        this.registers = registers;
+    }
+
+    /**
+     * 加入元素
+     *
+     * @param item 元素
+     */
+    public synchronized void add(String item){
+        long hash = hash(item);
+        int index = (int) (hash & (REGISTERS - 1));
+        // 剩余高位中第一个1的位置（从1开始），最低位补1防止全0
+        long rest = (hash >>> PRECISION) | (1L << (64 - PRECISION));
+        byte rank = (byte) (Long.numberOfTrailingZeros(rest) + 1);
+        if( rank > registers[index] ){
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * 合并另一个草图（寄存器逐个取最大值）
+     *
+     * @param other 另一个草图
+     */
+    public synchronized void merge(HyperLogLog other){
+        byte[] source = other.snapshot();
+        for( int i = 0; i < REGISTERS; i++ ){
+            if( source[i] > registers[i] ){
+                registers[i] = source[i];
+            }
+        }
+    }
+
+    /**
+     * 估计不同元素的个数
+     */
+    public synchronized long estimate(){
+        double sum = 0;
+        int zeros = 0;
+        for( byte register : registers ){
+            sum += 1.0 / (1L << register);
+            if( register==0 ){
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+        // 小基数时使用线性计数修正
+        if( estimate <= 2.5 * REGISTERS && zeros > 0 ){
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * 序列化，非零寄存器不超过1/3时使用稀疏格式
+     */
+    public synchronized byte[] toBytes(){
+        int nonZero = 0;
+        for( byte register : registers ){
+            if( register!=0 ){
+                nonZero++;
+            }
+        }
+        if( nonZero * 3 < REGISTERS ){
+            ByteBuffer buffer = ByteBuffer.allocate(1 + nonZero * 3);
+            buffer.put(FORMAT_SPARSE);
+            for( int i = 0; i < REGISTERS; i++ ){
+                if( registers[i]!=0 ){
+                    buffer.putShort((short) i);
+                    buffer.put(registers[i]);
+                }
+            }
+            return buffer.array();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1 + REGISTERS);
+        buffer.put(FORMAT_DENSE);
+        buffer.put(registers);
+        return buffer.array();
+    }
+
+    /**
+     * 反序列化，数据为空时返回空草图
+     */
+    public static HyperLogLog fromBytes(byte[] data){
+        byte[] registers = new byte[REGISTERS];
+        if( data==null || data.length==0 ){
+            return new HyperLogLog(registers);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if( buffer.get()==FORMAT_DENSE ){
+            buffer.get(registers);
+        } else {
+            while( buffer.remaining() >= 3 ){
+                int index = buffer.getShort() & 0xFFFF;
+                registers[index] = buffer.get();
+            }
+        }
+        return new HyperLogLog(registers);
+    }
+
+    private synchronized byte[] snapshot(){
+        return registers.clone();
+    }
+
+    /**
+     * 64位哈希：FNV-1a后接MurmurHash3的fmix64混淆，保证低位与高位都充分随机
+     */
+    private static long hash(String item){
+        long hash = 0xcbf29ce484222325L;
+        for( byte b : item.getBytes(StandardCharsets.UTF_8) ){
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53ec53bL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
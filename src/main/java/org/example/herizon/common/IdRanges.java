@@ -0,0 +1,110 @@
+package org.example.herizon.common;
+
+import com.mybatisflex.core.BaseMapper;
+import com.mybatisflex.core.query.QueryWrapper;
+
+/**
+ * 按主键ID分段处理整张表
+ * <p>
+ * 计数校准、统计重建等全表任务先查出 MAX(id)，再按 [from, to] 闭区间分段执行，
+ * 每段一条语句，避免长事务和大范围锁；ID 不连续时空段的语句只是影响0行
+ *
+ * @author Kokoa
+ */
+public final class IdRanges{
+
+    private IdRanges(){
+    }
+
+    /**
+     * 分段执行的更新
+     */
+    @FunctionalInterface
+    public interface RangeUpdate{
+
+        /**
+         * @param fromId 起始ID（含）
+         * @param toId   结束ID（含）
+         * @return 影响行数
+         */
+        int apply(long fromId, long toId);
+    }
+
+    /**
+     * 分段执行的读取
+     */
+    @FunctionalInterface
+    public interface RangeVisitor{
+
+        /**
+         * @param fromId 起始ID（含）
+         * @param toId   结束ID（含）
+         */
+        void accept(long fromId, long toId);
+    }
+
+    /**
+     * 查询表的最大ID
+     *
+     * @param mapper 用于执行查询的Mapper
+     * @param table  表名
+     * @return 最大ID，空表时返回0
+     */
+    public static long maxId(BaseMapper<?> mapper, String table){
+        return maxId(mapper, QueryWrapper.create().select("MAX(id)").from(table));
+    }
+
+    /**
+     * 按给定查询取最大ID，用于只需覆盖部分行的任务
+     *
+     * @param mapper   用于执行查询的Mapper
+     * @param maxQuery 返回单个 MAX(id) 的查询
+     * @return 最大ID，没有数据时返回0
+     */
+    public static long maxId(BaseMapper<?> mapper, QueryWrapper maxQuery){
+        Object value = mapper.selectObjectByQuery(maxQuery);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    /**
+     * 对 [1, maxId] 按段依次执行读取
+     *
+     * @param maxId     最大ID
+     * @param chunkSize 每段覆盖的ID数量
+     * @param visitor   每段的读取
+     */
+    public static void forEach(long maxId, int chunkSize, RangeVisitor visitor){
+        for( long from = 1; from<=maxId; from += chunkSize ){
+            visitor.accept(from, Math.min(from + chunkSize - 1, maxId));
+        }
+    }
+
+    /**
+     * 对 [1, maxId] 按段依次执行更新
+     *
+     * @param maxId     最大ID
+     * @param chunkSize 每段覆盖的ID数量
+     * @param update    每段的更新
+     * @return 各段影响行数之和
+     */
+    public static int sum(long maxId, int chunkSize, RangeUpdate update){
+        int affected = 0;
+        for( long from = 1; from<=maxId; from += chunkSize ){
+            affected += update.apply(from, Math.min(from + chunkSize - 1, maxId));
+        }
+        return affected;
+    }
+
+    /**
+     * 查询表的最大ID后按段依次执行更新
+     *
+     * @param mapper    用于查询最大ID的Mapper
+     * @param table     表名
+     * @param chunkSize 每段覆盖的ID数量
+     * @param update    每段的更新
+     * @return 各段影响行数之和
+     */
+    public static int sum(BaseMapper<?> mapper, String table, int chunkSize, RangeUpdate update){
+        return sum(maxId(mapper, table), chunkSize, update);
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.herizon.common;
+
+import java.util.Arrays;
+
+/**
+ * long 键到 int 计数的开放寻址哈希表
+ * <p>
+ * 用于批量计算中大量累加的场景（如按二度关系统计共同关注人数）：
+ * - 键与计数分别存放在 long[] 与 int[] 中，没有装箱对象，累加一次只做一次线性探测
+ * - 键 0 作为空槽标记，因此不能作为键（用户ID等自增主键从1开始）
+ * - clear 后复用已分配的数组，同一线程依次处理多个用户时不必重复分配
+ *
+ * @author Kokoa
+ */
+public final class LongIntCounter{
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    public LongIntCounter(int expectedSize){
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.counts = new int[capacity];
+    }
+
+    /**
+     * 计数加一
+     *
+     * @param key 键，不能为0
+     */
+    public void increment(long key){
+        if( key==0 ){
+            throw new IllegalArgumentException("键不能为0");
+        }
+        int slot = find(keys, key);
+        if( keys[slot]==0 ){
+            keys[slot] = key;
+            size++;
+            if( size * 2 > keys.length ){
+                grow();
+                slot = find(keys, key);
+            }
+        }
+        counts[slot]++;
+    }
+
+    /**
+     * 获取计数，不存在时返回0
+     */
+    public int get(long key){
+        if( key==0 ){
+            return 0;
+        }
+        int slot = find(keys, key);
+        return keys[slot]==key ? counts[slot] : 0;
+    }
+
+    /**
+     * 不同键的数量
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * 当前所有键，顺序不确定
+     */
+    public long[] keys(){
+        long[] result = new long[size];
+        int i = 0;
+        for( long key : keys ){
+            if( key!=0 ){
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 清空全部计数，保留已分配的容量
+     */
+    public void clear(){
+        if( size==0 ){
+            return;
+        }
+        Arrays.fill(keys, 0L);
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    private void grow(){
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        for( int i = 0; i < oldKeys.length; i++ ){
+            if( oldKeys[i]!=0 ){
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    /**
+     * 线性探测：返回键所在的槽，键不存在时返回应插入的空槽
+     */
+    private static int find(long[] table, long key){
+        int mask = table.length - 1;
+        int slot = (int) mix(key) & mask;
+        while( table[slot]!=0 && table[slot]!=key ){
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static long mix(long key){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.herizon.common;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页的游标
+ * <p>
+ * 记录上一页最后一条数据的排序键和ID，下一页从该位置之后继续查询：
+ * WHERE sort_key &lt; ? OR (sort_key = ? AND id &lt; ?)
+ * <p>
+ * 对前端来说游标是不透明字符串（Base64URL编码的 "排序键|ID"），
+ * 只需原样带回即可，无需关心其内容。
+ *
+ * @author Kokoa
+ */
+@Getter
+public final class PageCursor{
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 排序键（时间或分数的字符串形式）
+     */
+    private final String sortKey;
+
+    /**
+     * 最后一条数据的ID，排序键相同时用于区分先后
+     */
+    private final Long id;
+
+    private PageCursor(String sortKey, Long id){
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * 以创建时间为排序键生成游标
+     *
+     * @param createdAt 最后一条数据的创建时间
+     * @param id        最后一条数据的ID
+     * @return 编码后的游标字符串
+     */
+    public static String ofTime(LocalDateTime createdAt, Long id){
+        return encode(createdAt.toString(), id);
+    }
+
+    /**
+     * 以分数为排序键生成游标
+     *
+     * @param score 最后一条数据的分数
+     * @param id    最后一条数据的ID
+     * @return 编码后的游标字符串
+     */
+    public static String ofScore(double score, Long id){
+        return encode(Double.toString(score), id);
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param cursor 前端带回的游标，为空表示第一页
+     * @return 游标对象，第一页返回null
+     * @throws RuntimeException 游标格式不正确时抛出
+     */
+    public static PageCursor decode(String cursor){
+        if( cursor==null || cursor.isBlank() ){
+            return null;
+        }
+        try{
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if( index <= 0 ){
+                throw new IllegalArgumentException(raw);
+            }
+            return new PageCursor(raw.substring(0, index), Long.parseLong(raw.substring(index + 1)));
+        } catch( IllegalArgumentException e ){
+            throw new RuntimeException("分页游标无效");
+        }
+    }
+
+    /**
+     * 按时间解析排序键
+     */
+    public LocalDateTime getTime(){
+        try{
+            return LocalDateTime.parse(sortKey);
+        } catch( DateTimeParseException e ){
+            throw new RuntimeException("分页游标无效");
+        }
+    }
+
+    /**
+     * 按分数解析排序键
+     */
+    public double getScore(){
+        try{
+            return Double.parseDouble(sortKey);
+        } catch( NumberFormatException e ){
+            throw new RuntimeException("分页游标无效");
+        }
+    }
+
+    private static String encode(String sortKey, Long id){
+        String raw = sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
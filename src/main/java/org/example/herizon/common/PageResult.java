@@ -15,6 +15,15 @@ import java.util.List;
  * "size": 10,         // 每页大小
  * "pages": 10         // 总页数
  * }
+ * <p>
+ * 免COUNT分页模式下额外返回hasMore，total来自缓存的统计值；
+ * 游标分页模式下不统计总数，改为返回：
+ * {
+ * "records": [],
+ * "size": 10,
+ * "nextCursor": "...", // 下一页游标，原样传回即可获取下一页
+ * "hasMore": true      // 是否还有更多数据
+ * }
  *
  * @param <T> 数据记录的泛型类型
  * @author Kokoa
@@ -46,6 +55,16 @@ public class PageResult<T>{
      */
     private Long pages;
 
+    /**
+     * 下一页游标（仅游标分页模式，没有更多数据时为null）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据（游标分页和免COUNT分页模式）
+     */
+    private Boolean hasMore;
+
     /**
      * 创建分页结果对象
      *
@@ -66,4 +85,65 @@ public class PageResult<T>{
         pageResult.setPages((total + size - 1)/size);
         return pageResult;
     }
-}
\ No newline at end of file
+
+    /**
+     * 创建免COUNT分页结果对象
+     *
+     * @param records 当前页数据列表
+     * @param total   总记录数（来自缓存，可为null）
+     * @param current 当前页码
+     * @param size    每页大小
+     * @param hasMore 是否还有下一页
+     * @param <T>     数据类型
+     * @return 分页结果对象
+     */
+    public static <T> PageResult<T> ofHasMore(List<T> records, Long total, Long current, Long size, boolean hasMore){
+        PageResult<T> pageResult = new PageResult<>();
+        pageResult.setRecords(records);
+        pageResult.setTotal(total);
+        pageResult.setCurrent(current);
+        pageResult.setSize(size);
+        if( total!=null ){
+            pageResult.setPages((total + size - 1)/size);
+        }
+        pageResult.setHasMore(hasMore);
+        return pageResult;
+    }
+
+    /**
+     * 保留分页信息，替换数据列表（用于实体转换为DTO）
+     *
+     * @param records 转换后的数据列表
+     * @param <R>     新的数据类型
+     * @return 新的分页结果对象
+     */
+    public <R> PageResult<R> withRecords(List<R> records){
+        PageResult<R> pageResult = new PageResult<>();
+        pageResult.setRecords(records);
+        pageResult.setTotal(total);
+        pageResult.setCurrent(current);
+        pageResult.setSize(size);
+        pageResult.setPages(pages);
+        pageResult.setNextCursor(nextCursor);
+        pageResult.setHasMore(hasMore);
+        return pageResult;
+    }
+
+    /**
+     * 创建游标分页结果对象
+     *
+     * @param records    当前页数据列表
+     * @param nextCursor 下一页游标，没有更多数据时为null
+     * @param size       每页大小
+     * @param <T>        数据类型
+     * @return 分页结果对象
+     */
+    public static <T> PageResult<T> ofCursor(List<T> records, String nextCursor, Long size){
+        PageResult<T> pageResult = new PageResult<>();
+        pageResult.setRecords(records);
+        pageResult.setSize(size);
+        pageResult.setNextCursor(nextCursor);
+        pageResult.setHasMore(nextCursor != null);
+        return pageResult;
+    }
+}
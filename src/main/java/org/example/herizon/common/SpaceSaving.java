@@ -0,0 +1,101 @@
+package org.example.herizon.common;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving 高频元素（heavy hitters）追踪
+ * <p>
+ * 只保留固定数量的候选元素：
+ * - 已在候选中的元素直接累加
+ * - 候选未满时直接加入
+ * - 候选已满时替换计数最小的元素，新元素继承其计数（因此计数只会高估）
+ * <p>
+ * 出现频率超过 总次数 / capacity 的元素一定会留在候选中
+ *
+ * @author Kokoa
+ */
+public final class SpaceSaving{
+
+    private final int capacity;
+    private final Map<String, Long> counts;
+
+    public SpaceSaving(int capacity){
+        this.capacity = capacity;
+        this.counts = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * 累加元素出现次数
+     *
+     * @param item  元素
+     * @param count 增量
+     */
+    public void add(String item, long count){
+        Long current = counts.get(item);
+        if( current!=null ){
+            counts.put(item, current + count);
+            return;
+        }
+        if( counts.size() < capacity ){
+            counts.put(item, count);
+            return;
+        }
+        // 候选数量很小（默认几十到一百），线性查找最小值即可
+        Map.Entry<String, Long> min = null;
+        for( Map.Entry<String, Long> entry : counts.entrySet() ){
+            if( min==null || entry.getValue() < min.getValue() ){
+                min = entry;
+            }
+        }
+        long inherited = min.getValue();
+        counts.remove(min.getKey());
+        counts.put(item, inherited + count);
+    }
+
+    /**
+     * 当前候选元素
+     */
+    public List<String> candidates(){
+        return new ArrayList<>(counts.keySet());
+    }
+
+    /**
+     * 按计数降序返回前k个候选
+     */
+    public List<Map.Entry<String, Long>> top(int k){
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(k)
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    public void clear(){
+        counts.clear();
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException{
+        out.writeInt(capacity);
+        out.writeInt(counts.size());
+        for( Map.Entry<String, Long> entry : counts.entrySet() ){
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    public static SpaceSaving readFrom(DataInputStream in) throws IOException{
+        SpaceSaving tracker = new SpaceSaving(in.readInt());
+        int size = in.readInt();
+        for( int i = 0; i < size; i++ ){
+            tracker.counts.put(in.readUTF(), in.readLong());
+        }
+        return tracker;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.herizon.common;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务提交后执行的回调
+ * <p>
+ * 内存缓存、索引、排行等派生状态要在数据库事务提交后再更新，回滚时保持不变：
+ * - 在事务中调用时登记到提交之后执行，不在事务中时立即执行
+ * - 在另一个提交后回调中调用时立即执行：Spring 遍历的是回调列表的副本，此时再登记的回调永远不会执行，
+ *   而外层事务已经提交，直接执行即满足“提交之后”
+ *
+ * @author Kokoa
+ */
+public final class TransactionHooks{
+
+    /**
+     * 当前线程是否正在执行提交后回调
+     */
+    private static final ThreadLocal<Boolean> RUNNING_AFTER_COMMIT = ThreadLocal.withInitial(() -> false);
+
+    private TransactionHooks(){
+    }
+
+    /**
+     * 在当前事务提交后执行任务，没有事务时立即执行
+     *
+     * @param task 任务
+     */
+    public static void afterCommit(Runnable task){
+        if( RUNNING_AFTER_COMMIT.get() || !TransactionSynchronizationManager.isSynchronizationActive() ){
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization(){
+            @Override
+            public void afterCommit(){
+                RUNNING_AFTER_COMMIT.set(true);
+                try{
+                    task.run();
+                }finally{
+                    RUNNING_AFTER_COMMIT.set(false);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.herizon.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置
+ * <p>
+ * 开启@Scheduled支持，用于内存排行、计数器等组件的周期性刷盘与对账
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
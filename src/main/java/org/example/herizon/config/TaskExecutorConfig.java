@@ -0,0 +1,34 @@
+package org.example.herizon.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 后台任务线程池配置
+ * <p>
+ * 提供后台任务线程池，用于关注时间线扇出等不应阻塞请求线程的写操作
+ */
+@Configuration
+public class TaskExecutorConfig {
+
+    /**
+     * 时间线扇出线程池
+     * <p>
+     * 队列满时由提交线程自己执行，保证扇出任务不会被丢弃
+     */
+    @Bean
+    public ThreadPoolTaskExecutor feedTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("feed-fanout-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
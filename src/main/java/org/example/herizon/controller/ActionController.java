@@ -5,15 +5,26 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.example.herizon.common.PageResult;
 import org.example.herizon.common.Result;
+import org.example.herizon.dto.BatchActionRequest;
+import org.example.herizon.dto.BatchActionResultDTO;
 import org.example.herizon.dto.FollowResponseDTO;
+import org.example.herizon.dto.FollowSuggestionDTO;
 import org.example.herizon.entity.User;
 import org.example.herizon.mapper.UserMapper;
 import org.example.herizon.service.ActionService;
 import org.example.herizon.service.FollowService;
+import org.example.herizon.service.FollowSuggestionService;
+import org.example.herizon.service.InteractionStateService;
+import org.example.herizon.service.PostService;
+import org.example.herizon.service.ReportService;
+import org.example.herizon.service.UserStatsService;
 import org.example.herizon.dto.FollowUserDTO;
+import org.example.herizon.dto.PostDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * 用户行为管理
  * <p>
@@ -21,6 +32,7 @@ import org.springframework.web.bind.annotation.*;
  * - 点赞/取消点赞
  * - 收藏/取消收藏
  * - 举报
+ * - 批量切换（离线排队的点击一次提交）
  * <p>
  * 接口路径前缀：/api/actions
  *
@@ -40,6 +52,21 @@ public class ActionController{
     @Autowired
     private FollowService followService;
 
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private InteractionStateService interactionStateService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private FollowSuggestionService followSuggestionService;
+
 
     /**
      * 点赞或取消点赞
@@ -101,10 +128,37 @@ public class ActionController{
         return Result.success(collected);
     }
 
+    /**
+     * 批量切换点赞、收藏、关注状态
+     * <p>
+     * 客户端离线期间排队的点击在恢复网络后按顺序一次提交，整批在一个事务中执行，
+     * 同一目标多次点击按次数合并，返回每个目标的最终状态
+     *
+     * @param request 按点击顺序排列的操作列表
+     * @param userId  操作用户ID，从请求头获取
+     * @return 每个目标的最终状态
+     */
+    @Operation (summary = "批量切换行为状态", description = "按顺序执行一组点赞/收藏/关注切换，返回每个目标的最终状态")
+    @PostMapping ("/batch")
+    public Result<List<BatchActionResultDTO>> batch(
+        @Parameter (description = "批量操作请求") @RequestBody BatchActionRequest request,
+        @Parameter (description = "操作用户ID") @RequestHeader ("userId") Long userId){
+
+        if( userId==null ){
+            return Result.error("用户未登录");
+        }
+        if( request==null || request.getActions()==null || request.getActions().isEmpty() ){
+            return Result.error("操作列表不能为空");
+        }
+
+        return Result.success(actionService.batch(userId, request.getActions()));
+    }
+
     /**
      * 举报内容
      * <p>
      * 用户举报不当内容，记录举报行为和举报原因
+     * 同一用户重复举报同一内容只计一次，举报人数达到阈值后内容自动隐藏等待管理员审核
      *
      * @param targetId   目标对象ID（如帖子ID、评论ID）
      * @param targetType 目标对象类型，默认"post"
@@ -120,7 +174,11 @@ public class ActionController{
         @Parameter (description = "举报原因") @RequestParam String reason,
         @Parameter (description = "操作用户ID") @RequestHeader ("userId") Long userId){
 
-        actionService.report(userId, targetId, targetType, reason);
+        String normalizedTargetType = (targetType==null || targetType.trim().isEmpty())
+            ? "post"
+            : targetType.trim().toLowerCase();
+
+        reportService.report(userId, targetId, normalizedTargetType, reason);
         return Result.success();
     }
 
@@ -159,7 +217,7 @@ public class ActionController{
         boolean isFollowing = followService.toggleFollow(userId, targetUserId);
 
         // ��ѯĿ���û��ķ�˿��
-        Long followersCount = followService.countFollowers(targetUserId);
+        Long followersCount = userStatsService.get(targetUserId).getFollowerCount().longValue();
 
         // ������Ӧ
         FollowResponseDTO response = new FollowResponseDTO();
@@ -243,22 +301,52 @@ public class ActionController{
         return Result.success(followersPage);
     }
 
+    /**
+     * 获取可能认识的人
+     * <p>
+     * 按二度关注关系推荐：当前用户关注的人中关注了同一用户的人数越多越靠前，结果由定时任务预先计算
+     *
+     * @param limit  返回数量，默认10
+     * @param userId 当前用户ID，从请求头获取
+     * @return 推荐用户列表
+     */
+    @Operation (summary = "获取可能认识的人", description = "按共同关注与共同兴趣标签推荐可关注的用户")
+    @GetMapping ("/follow-suggestions")
+    public Result<List<FollowSuggestionDTO>> getFollowSuggestions(
+        @Parameter (description = "返回数量") @RequestParam (defaultValue = "10") Integer limit,
+        @Parameter (description = "当前用户ID") @RequestHeader (value = "userId", required = false) Long userId){
+
+        if( userId==null ){
+            return Result.error("用户未登录");
+        }
+
+        if( limit==null || limit < 1 || limit > 50 ){
+            limit = 10;
+        }
+
+        return Result.success(followSuggestionService.getSuggestions(userId, limit));
+    }
+
     /**
      * 获取收藏列表
      * <p>
-     * 查询用户收藏的所有帖子，支持分页
+     * 查询用户收藏的所有帖子，按收藏时间倒序，返回完整的帖子DTO（作者、标签、投票选项）
      *
-     * @param userId  用户ID
-     * @param current 当前页码，默认1
-     * @param size    每页数量，默认20
+     * @param userId        用户ID
+     * @param current       当前页码，默认1
+     * @param size          每页数量，默认20
+     * @param cursor        分页游标，可选；传入后忽略current，改为游标分页
+     * @param currentUserId 当前用户ID，可选；提供时标记每条帖子的点赞/收藏状态
      * @return 分页的帖子列表
      */
-    @Operation (summary = "获取收藏列表", description = "查询用户收藏的所有帖子")
+    @Operation (summary = "获取收藏列表", description = "查询用户收藏的所有帖子，按收藏时间倒序")
     @GetMapping ("/collections")
-    public Result<PageResult<org.example.herizon.entity.Post>> getCollections(
+    public Result<PageResult<PostDTO>> getCollections(
         @Parameter (description = "用户ID") @RequestParam Long userId,
         @Parameter (description = "当前页码") @RequestParam (defaultValue = "1") Integer current,
-        @Parameter (description = "每页数量") @RequestParam (defaultValue = "20") Integer size){
+        @Parameter (description = "每页数量") @RequestParam (defaultValue = "20") Integer size,
+        @Parameter (description = "分页游标，传入后使用游标分页（首次传空字符串）") @RequestParam (required = false) String cursor,
+        @Parameter (description = "当前用户ID") @RequestHeader (value = "userId", required = false) Long currentUserId){
 
         // 输入验证
         if( userId==null ){
@@ -274,7 +362,17 @@ public class ActionController{
         }
 
         // 查询收藏列表
-        PageResult<org.example.herizon.entity.Post> collectionsPage = actionService.getCollections(userId, current, size);
+        PageResult<PostDTO> collectionsPage;
+        if( cursor!=null ){
+            try{
+                collectionsPage = postService.getCollectionsByCursor(userId, cursor, size);
+            } catch( RuntimeException e ){
+                return Result.error(400, e.getMessage());
+            }
+        } else {
+            collectionsPage = postService.getCollections(userId, current, size);
+        }
+        interactionStateService.stamp(currentUserId, collectionsPage.getRecords());
 
         return Result.success(collectionsPage);
     }
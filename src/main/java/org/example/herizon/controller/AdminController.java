@@ -8,6 +8,7 @@ import org.example.herizon.common.Result;
 import org.example.herizon.dto.AdminUserDTO;
 import org.example.herizon.dto.PostDTO;
 import org.example.herizon.dto.VerifyUserRequest;
+import org.example.herizon.entity.ReportAggregate;
 import org.example.herizon.service.AdminService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
  * <p>
  * 提供管理员专用的核心功能，包括：
  * - 用户身份认证审核（体验用户升级为正式用户）
+ * - 举报审核队列与处理
  * - 平台基础数据统计
  * <p>
  * 标签管理功能复用TagController的现有API
@@ -172,6 +174,52 @@ public class AdminController {
         return Result.success();
     }
 
+    /**
+     * 获取举报审核队列
+     * <p>
+     * 按举报汇总表分页，举报人数多的排在前面；默认返回已自动隐藏、等待审核的内容
+     *
+     * @param status  汇总状态：pending/hidden/dismissed/confirmed
+     * @param current 当前页码
+     * @param size    每页大小
+     * @param adminId 管理员ID
+     * @return 举报汇总分页列表
+     */
+    @Operation(summary = "获取举报审核队列", description = "按举报人数排序的被举报内容列表")
+    @GetMapping("/reports")
+    public Result<PageResult<ReportAggregate>> getReportQueue(
+            @Parameter(description = "汇总状态") @RequestParam(required = false) String status,
+            @Parameter(description = "当前页码") @RequestParam(defaultValue = "1") Integer current,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer size,
+            @Parameter(description = "管理员ID") @RequestHeader("userId") Long adminId) {
+
+        PageResult<ReportAggregate> result = adminService.getReportQueue(status, current, size, adminId);
+        return Result.success(result);
+    }
+
+    /**
+     * 处理举报
+     * <p>
+     * 确认违规时删除被举报内容；驳回时恢复被自动隐藏的内容
+     *
+     * @param targetType 被举报对象类型：post / comment
+     * @param targetId   被举报对象ID
+     * @param violation  是否确认违规
+     * @param adminId    管理员ID
+     * @return 操作结果
+     */
+    @Operation(summary = "处理举报", description = "确认违规删除内容，或驳回举报恢复内容")
+    @PostMapping("/reports/{targetType}/{targetId}/resolve")
+    public Result<Void> resolveReport(
+            @Parameter(description = "被举报对象类型") @PathVariable String targetType,
+            @Parameter(description = "被举报对象ID") @PathVariable Long targetId,
+            @Parameter(description = "是否确认违规") @RequestParam Boolean violation,
+            @Parameter(description = "管理员ID") @RequestHeader("userId") Long adminId) {
+
+        adminService.resolveReport(targetType, targetId, Boolean.TRUE.equals(violation), adminId);
+        return Result.success();
+    }
+
     /**
      * 获取平台统计数据
      * <p>
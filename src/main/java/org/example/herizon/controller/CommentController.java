@@ -79,6 +79,30 @@ public class CommentController {
         return Result.success(result);
     }
 
+    /**
+     * 获取评论的完整回复树
+     * <p>
+     * 按先序遍历顺序平铺返回评论本身及其下所有层级的回复，前端按level缩进展示
+     *
+     * @param id     评论ID
+     * @param cursor 上一页返回的nextCursor，第一页不传
+     * @param size   每页大小，默认50
+     * @return 游标分页的评论列表
+     */
+    @Operation(summary = "获取评论回复树", description = "按树的先序顺序获取评论及其所有层级的回复")
+    @GetMapping("/{id}/thread")
+    public Result<PageResult<CommentDTO>> getCommentThread(
+            @Parameter(description = "评论ID") @PathVariable Long id,
+            @Parameter(description = "分页游标") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "50") Integer size) {
+
+        if( size < 1 || size > 200 ){
+            return Result.error(400, "每页大小需在1到200之间");
+        }
+        PageResult<CommentDTO> result = commentService.getCommentThread(id, cursor, size);
+        return Result.success(result);
+    }
+
     /**
      * 创建新评论
      * <p>
@@ -6,8 +6,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.example.herizon.common.PageResult;
 import org.example.herizon.common.Result;
 import org.example.herizon.dto.CreatePostRequest;
+import org.example.herizon.dto.HotSearchDTO;
 import org.example.herizon.dto.PostDTO;
 import org.example.herizon.entity.Post;
+import org.example.herizon.service.HotSearchService;
+import org.example.herizon.service.InteractionStateService;
 import org.example.herizon.service.PostService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -16,7 +19,7 @@ import org.springframework.web.bind.annotation.*;
  * 帖子管理
  * <p>
  * 提供帖子相关的REST API接口，包括：
- * - 分页查询帖子列表
+ * - 分页查询帖子列表（支持页码分页和游标分页两种模式）
  * - 根据ID查询帖子详情
  * - 创建新帖子
  * - 增加浏览量
@@ -33,39 +36,71 @@ public class PostController{
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private HotSearchService hotSearchService;
+
+    @Autowired
+    private InteractionStateService interactionStateService;
+
     /**
-     * 搜索帖子（模糊匹配）
+     * 搜索帖子（全文检索）
      * <p>
-     * 根据关键词搜索帖子，支持对标题和内容的模糊匹配
-     * 搜索结果按时间倒序排列（最新的在前）
+     * 根据关键词搜索帖子，对标题和内容做全文检索
+     * 搜索结果按相关性排序，较新的帖子得分更高
      * <p>
      * 技术实现路径：
      * 1. Controller层：接收搜索参数（keyword, current, size）
-     * 2. Service层：PostService.searchPosts() 执行模糊查询
-     * 3. Mapper层：使用 MyBatis-Flex QueryWrapper 构建 LIKE 查询
+     * 2. Service层：PostService.searchPosts() 调用 PostSearchService 查询内存倒排索引
+     * 3. Mapper层：按命中的帖子ID批量加载帖子（索引构建完成前退回 LIKE 查询）
      * 4. 返回：PageResult<PostDTO> 包含完整帖子信息和分页元数据
      *
      * @param keyword 搜索关键词（必需参数）
      * @param current 当前页码，默认1
      * @param size    每页大小，默认10
-     * @return 分页的帖子DTO列表，按创建时间倒序
+     * @param cursor  分页游标，可选；传入后忽略current，改为游标分页
+     * @param currentUserId 当前用户ID，可选；提供时标记每条帖子的点赞/收藏状态
+     * @return 分页的帖子DTO列表，按相关性排序
      */
-    @Operation(summary = "搜索帖子", description = "根据关键词搜索帖子，支持标题和内容的模糊匹配，结果按时间倒序")
+    @Operation(summary = "搜索帖子", description = "根据关键词全文检索标题和内容，结果按相关性与新鲜度排序")
     @GetMapping("/search")
     public Result<PageResult<PostDTO>> searchPosts(
             @Parameter(description = "搜索关键词") @RequestParam String keyword,
             @Parameter(description = "当前页码") @RequestParam(defaultValue = "1") Integer current,
-            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer size) {
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer size,
+            @Parameter(description = "分页游标，传入后使用游标分页（首次传空字符串）") @RequestParam(required = false) String cursor,
+            @Parameter(description = "当前用户ID") @RequestHeader(value = "userId", required = false) Long currentUserId) {
 
         // 参数校验：关键词不能为空
         if (keyword == null || keyword.trim().isEmpty()) {
             return Result.error("搜索关键词不能为空");
         }
 
+        if (cursor != null) {
+            try {
+                return Result.success(stamp(postService.searchPostsByCursor(keyword, cursor, size), currentUserId));
+            } catch (RuntimeException e) {
+                return Result.error(400, e.getMessage());
+            }
+        }
+
         // 调用Service层执行搜索
-        // 代码路径：PostService.searchPosts() -> PostMapper.paginate() -> MySQL LIKE查询
+        // 代码路径：PostService.searchPosts() -> PostSearchService.search() -> 按ID批量加载帖子
         PageResult<PostDTO> result = postService.searchPosts(keyword, current, size);
-        return Result.success(result);
+        return Result.success(stamp(result, currentUserId));
+    }
+
+    /**
+     * 热搜榜
+     * <p>
+     * 返回最近一小时和最近一天搜索次数最多的关键词，榜单每隔几秒在内存中重新计算，
+     * 次数为概率统计的估计值
+     *
+     * @return 热搜榜
+     */
+    @Operation(summary = "热搜榜", description = "最近一小时与最近一天的热门搜索词")
+    @GetMapping("/search/hot")
+    public Result<HotSearchDTO> getHotSearches() {
+        return Result.success(hotSearchService.getHotSearches());
     }
 
     /**
@@ -76,16 +111,52 @@ public class PostController{
      *
      * @param current 当前页码，默认1
      * @param size    每页大小，默认10
+     * @param cursor  分页游标，可选；传入后忽略current，改为游标分页
+     * @param currentUserId 当前用户ID，可选；提供时标记每条帖子的点赞/收藏状态
      * @return 分页的帖子DTO列表，按推荐算法排序
      */
     @Operation(summary = "首页帖子列表", description = "首页展示全部帖子，按推荐算法排序")
     @GetMapping
     public Result<PageResult<PostDTO>> getHomePostList(
             @Parameter(description = "当前页码") @RequestParam (defaultValue = "1") Integer current,
-            @Parameter(description = "每页大小") @RequestParam (defaultValue = "10") Integer size){
+            @Parameter(description = "每页大小") @RequestParam (defaultValue = "10") Integer size,
+            @Parameter(description = "分页游标，传入后使用游标分页（首次传空字符串）") @RequestParam(required = false) String cursor,
+            @Parameter(description = "当前用户ID") @RequestHeader (value = "userId", required = false) Long currentUserId){
+
+        if( cursor!=null ){
+            try{
+                return Result.success(stamp(postService.getHomePostListByCursor(cursor, size), currentUserId));
+            } catch( RuntimeException e ){
+                return Result.error(400, e.getMessage());
+            }
+        }
 
         PageResult<PostDTO> result = postService.getHomePostList(current, size);
-        return Result.success(result);
+        return Result.success(stamp(result, currentUserId));
+    }
+
+    /**
+     * 关注时间线
+     * <p>
+     * 展示当前用户关注的人发布的帖子，按发布时间倒序，使用游标分页
+     *
+     * @param userId 当前用户ID，从请求头获取
+     * @param cursor 分页游标，首页不传
+     * @param size   每页大小，默认10
+     * @return 游标分页的帖子DTO列表
+     */
+    @Operation(summary = "关注时间线", description = "展示关注的人发布的帖子，按发布时间倒序，游标分页")
+    @GetMapping("/following")
+    public Result<PageResult<PostDTO>> getFollowingFeed(
+            @Parameter(description = "当前用户ID") @RequestHeader("userId") Long userId,
+            @Parameter(description = "分页游标，首页不传") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer size) {
+
+        try {
+            return Result.success(stamp(postService.getFollowingFeed(userId, cursor, size), userId));
+        } catch (RuntimeException e) {
+            return Result.error(400, e.getMessage());
+        }
     }
 
     /**
@@ -96,6 +167,8 @@ public class PostController{
      * @param tagId   标签ID，必需参数
      * @param current 当前页码，默认1
      * @param size    每页大小，默认10
+     * @param cursor  分页游标，可选；传入后忽略current，改为游标分页
+     * @param currentUserId 当前用户ID，可选；提供时标记每条帖子的点赞/收藏状态
      * @return 分页的帖子DTO列表
      */
     @Operation(summary = "根据标签查询帖子", description = "话题页面专用，显示指定标签下的所有帖子")
@@ -103,10 +176,20 @@ public class PostController{
     public Result<PageResult<PostDTO>> getPostsByTag(
             @Parameter(description = "标签ID") @PathVariable Long tagId,
             @Parameter(description = "当前页码") @RequestParam (defaultValue = "1") Integer current,
-            @Parameter(description = "每页大小") @RequestParam (defaultValue = "10") Integer size){
+            @Parameter(description = "每页大小") @RequestParam (defaultValue = "10") Integer size,
+            @Parameter(description = "分页游标，传入后使用游标分页（首次传空字符串）") @RequestParam(required = false) String cursor,
+            @Parameter(description = "当前用户ID") @RequestHeader (value = "userId", required = false) Long currentUserId){
+
+        if( cursor!=null ){
+            try{
+                return Result.success(stamp(postService.getPostsByTagByCursor(tagId, cursor, size), currentUserId));
+            } catch( RuntimeException e ){
+                return Result.error(400, e.getMessage());
+            }
+        }
 
         PageResult<PostDTO> result = postService.getPostsByTag(tagId, current, size);
-        return Result.success(result);
+        return Result.success(stamp(result, currentUserId));
     }
 
     /**
@@ -134,20 +217,22 @@ public class PostController{
     /**
      * 根据ID查询帖子详情
      * <p>
-     * 查询帖子详情时会自动增加浏览量，如果提供了当前用户ID，
+     * 查询帖子详情时会自动增加浏览量，并以用户ID或设备ID计入独立访客数；如果提供了当前用户ID，
      * 还会返回用户对该帖子的操作状态（是否点赞、收藏等）
      *
      * @param id            帖子ID
      * @param currentUserId 当前用户ID，可选，用于查询用户操作状态
+     * @param deviceId      设备ID，可选，未登录时作为独立访客标识
      * @return 帖子详情DTO
      */
     @Operation(summary = "查询帖子详情", description = "根据ID查询帖子详情，自动增加浏览量")
     @GetMapping ("/{id}")
     public Result<PostDTO> getPostById(
             @Parameter(description = "帖子ID") @PathVariable Long id,
-            @Parameter(description = "当前用户ID") @RequestHeader (value = "userId", required = false) Long currentUserId){
+            @Parameter(description = "当前用户ID") @RequestHeader (value = "userId", required = false) Long currentUserId,
+            @Parameter(description = "设备ID，未登录时用于统计独立访客") @RequestHeader (value = "deviceId", required = false) String deviceId){
 
-        PostDTO post = postService.getPostById(id, currentUserId);
+        PostDTO post = postService.getPostById(id, currentUserId, deviceId);
         if( post==null ){
             return Result.error(404, "帖子不存在");
         }
@@ -174,13 +259,15 @@ public class PostController{
     /**
      * 增加帖子浏览量
      * <p>
-     * 注意：浏览量增加已经在getPostById方法中自动处理，
-     * 这个接口主要用于兼容客户端的显式调用
+     * 注意：浏览量与独立访客数已经在getPostById方法中自动处理，
+     * 这个接口不再计数，仅为兼容旧版客户端的显式调用而保留
      *
      * @param id 帖子ID
      * @return 成功响应
+     * @deprecated 详情接口已自动计数，客户端无需再调用
      */
-    @Operation(summary = "增加帖子浏览量", description = "手动增加帖子浏览量")
+    @Deprecated
+    @Operation(summary = "增加帖子浏览量", description = "已废弃：详情接口已自动统计浏览量与独立访客数，本接口不做任何处理", deprecated = true)
     @PostMapping ("/{id}/view")
     public Result<Void> increaseViewCount(@Parameter(description = "帖子ID") @PathVariable Long id){
         // 浏览量增加已在getPostById中处理
@@ -249,6 +336,8 @@ public class PostController{
      * @param userId  用户ID
      * @param current 当前页码，默认1
      * @param size    每页大小，默认10
+     * @param cursor  分页游标，可选；传入后忽略current，改为游标分页
+     * @param currentUserId 当前用户ID，可选；提供时标记每条帖子的点赞/收藏状态
      * @return 分页的帖子DTO列表
      */
     @Operation(summary = "查询用户帖子列表", description = "获取指定用户发布的所有帖子，用于我的帖子页面")
@@ -256,14 +345,24 @@ public class PostController{
     public Result<PageResult<PostDTO>> getUserPosts(
             @Parameter(description = "用户ID") @PathVariable Long userId,
             @Parameter(description = "当前页码") @RequestParam(defaultValue = "1") Integer current,
-            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer size) {
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer size,
+            @Parameter(description = "分页游标，传入后使用游标分页（首次传空字符串）") @RequestParam(required = false) String cursor,
+            @Parameter(description = "当前用户ID") @RequestHeader(value = "userId", required = false) Long currentUserId) {
 
         if (userId == null) {
             return Result.error("用户ID不能为空");
         }
 
+        if (cursor != null) {
+            try {
+                return Result.success(stamp(postService.getUserPostsByCursor(userId, cursor, size), currentUserId));
+            } catch (RuntimeException e) {
+                return Result.error(400, e.getMessage());
+            }
+        }
+
         PageResult<PostDTO> result = postService.getUserPosts(userId, current, size);
-        return Result.success(result);
+        return Result.success(stamp(result, currentUserId));
     }
 
     /**
@@ -284,4 +383,14 @@ public class PostController{
         postService.deletePost(id, userId);
         return Result.success();
     }
+
+    /**
+     * 为列表中的帖子标记当前用户的点赞/收藏状态（内存位图查找），未登录时原样返回
+     */
+    private PageResult<PostDTO> stamp(PageResult<PostDTO> page, Long currentUserId) {
+        if (page != null) {
+            interactionStateService.stamp(currentUserId, page.getRecords());
+        }
+        return page;
+    }
 }
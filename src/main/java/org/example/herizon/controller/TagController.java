@@ -7,9 +7,12 @@ import org.example.herizon.common.PageResult;
 import org.example.herizon.common.Result;
 import org.example.herizon.dto.TagDTO;
 import org.example.herizon.dto.CreateTagRequest;
+import org.example.herizon.dto.TagDictionaryDTO;
+import org.example.herizon.service.TagDictionaryService;
 import org.example.herizon.service.TagService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,6 +26,7 @@ import java.util.List;
  * - 更新标签信息
  * - 搜索标签
  * - 获取热门标签
+ * - 获取完整标签字典（支持ETag缓存）
  * <p>
  * 接口路径前缀：/api/tags
  *
@@ -36,6 +40,9 @@ public class TagController {
     @Autowired
     private TagService tagService;
 
+    @Autowired
+    private TagDictionaryService tagDictionaryService;
+
     /**
      * 分页查询标签列表
      * <p>
@@ -57,6 +64,29 @@ public class TagController {
         return Result.success(result);
     }
 
+    /**
+     * 获取完整标签字典
+     * <p>
+     * 返回全部标签及版本号，响应头带 ETag（即版本号）。
+     * 客户端缓存字典后携带 If-None-Match 请求，版本未变化时返回304且无响应体
+     *
+     * @param webRequest 当前请求，用于比对 If-None-Match
+     * @return 标签字典，未变化时返回null（304）
+     */
+    @Operation(summary = "获取标签字典", description = "全量标签及版本号，支持If-None-Match条件请求")
+    @GetMapping("/dictionary")
+    public Result<TagDictionaryDTO> getTagDictionary(WebRequest webRequest) {
+        try {
+            TagDictionaryDTO dictionary = tagDictionaryService.getDictionary();
+            if (webRequest.checkNotModified("\"" + dictionary.getVersion() + "\"")) {
+                return null;
+            }
+            return Result.success(dictionary);
+        } catch (RuntimeException e) {
+            return Result.error(503, e.getMessage());
+        }
+    }
+
     /**
      * 根据ID查询标签详情
      * <p>
@@ -119,17 +149,17 @@ public class TagController {
     /**
      * 搜索标签
      * <p>
-     * 根据关键词搜索标签名称，支持模糊匹配
+     * 根据关键词搜索标签名称，支持模糊匹配以及全拼、拼音首字母联想
      *
      * @param keyword 搜索关键词
-     * @param limit   返回结果数量限制，默认10
+     * @param limit   返回结果数量限制，默认10，最多50
      * @return 匹配的标签列表
      */
-    @Operation(summary = "搜索标签", description = "根据关键词搜索标签，支持模糊匹配")
+    @Operation(summary = "搜索标签", description = "根据关键词搜索标签，支持模糊匹配与拼音联想（如 zc、zhichang）")
     @GetMapping("/search")
     public Result<List<TagDTO>> searchTags(
             @Parameter(description = "搜索关键词") @RequestParam String keyword,
-            @Parameter(description = "返回结果数量限制") @RequestParam(defaultValue = "10") Integer limit) {
+            @Parameter(description = "返回结果数量限制，最多50，超过时按50返回") @RequestParam(defaultValue = "10") Integer limit) {
 
         List<TagDTO> tags = tagService.searchTags(keyword, limit);
         return Result.success(tags);
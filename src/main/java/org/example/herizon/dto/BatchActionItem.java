@@ -0,0 +1,28 @@
+package org.example.herizon.dto;
+
+import lombok.Data;
+
+/**
+ * 批量行为中的单个操作
+ * <p>
+ * 每个操作与对应的单次接口语义相同，都是切换状态
+ *
+ * @author Kokoa
+ */
+@Data
+public class BatchActionItem {
+    /**
+     * 操作类型：like=点赞，collect=收藏，follow=关注
+     */
+    private String action;
+
+    /**
+     * 目标对象ID（帖子、评论或用户ID）
+     */
+    private Long targetId;
+
+    /**
+     * 目标对象类型，点赞/收藏时默认post，关注时忽略
+     */
+    private String targetType;
+}
@@ -0,0 +1,21 @@
+package org.example.herizon.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量行为请求DTO
+ * <p>
+ * 用于POST /api/actions/batch接口，客户端离线期间排队的点赞、收藏、关注操作
+ * 在恢复网络后按点击顺序一次提交
+ *
+ * @author Kokoa
+ */
+@Data
+public class BatchActionRequest {
+    /**
+     * 按点击顺序排列的操作列表
+     */
+    private List<BatchActionItem> actions;
+}
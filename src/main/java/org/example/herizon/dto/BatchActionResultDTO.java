@@ -0,0 +1,37 @@
+package org.example.herizon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量行为结果DTO
+ * <p>
+ * 每个目标返回一条，表示整批操作执行后的最终状态
+ *
+ * @author Kokoa
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchActionResultDTO {
+    /**
+     * 操作类型：like / collect / follow
+     */
+    private String action;
+
+    /**
+     * 目标对象ID
+     */
+    private Long targetId;
+
+    /**
+     * 目标对象类型，关注时为user
+     */
+    private String targetType;
+
+    /**
+     * 最终状态：true=已点赞/已收藏/已关注
+     */
+    private Boolean active;
+}
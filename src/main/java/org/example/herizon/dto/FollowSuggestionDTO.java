@@ -0,0 +1,36 @@
+package org.example.herizon.dto;
+
+import lombok.Data;
+
+/**
+ * 可能认识的人DTO
+ *
+ * @author Kokoa
+ */
+@Data
+public class FollowSuggestionDTO {
+    /**
+     * 被推荐用户ID
+     */
+    private Long id;
+
+    private String username;
+
+    private String nickname;
+
+    private String avatar;
+
+    private Integer role;
+
+    private Boolean isVerified;
+
+    /**
+     * 当前用户关注的人中有多少人也关注了该用户
+     */
+    private Integer mutualFollowCount;
+
+    /**
+     * 双方发帖使用过的相同标签数量
+     */
+    private Integer sharedTagCount;
+}
@@ -0,0 +1,35 @@
+package org.example.herizon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 热搜榜数据传输对象
+ * <p>
+ * 包含最近一小时和最近一天两个时间窗口的热搜词，按搜索次数降序
+ *
+ * @author Kokoa
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotSearchDTO {
+    /**
+     * 最近一小时热搜
+     */
+    private List<HotSearchTermDTO> hour;
+
+    /**
+     * 最近一天热搜
+     */
+    private List<HotSearchTermDTO> day;
+
+    /**
+     * 榜单计算时间
+     */
+    private LocalDateTime updatedAt;
+}
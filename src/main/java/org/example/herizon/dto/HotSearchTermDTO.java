@@ -0,0 +1,25 @@
+package org.example.herizon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 热搜词数据传输对象
+ *
+ * @author Kokoa
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotSearchTermDTO {
+    /**
+     * 搜索词（规范化后）
+     */
+    private String keyword;
+
+    /**
+     * 时间窗口内的估计搜索次数（Count-Min Sketch估计值，可能略有高估）
+     */
+    private Long count;
+}
@@ -36,7 +36,7 @@ public class PollOptionDTO {
 
     /**
      * 该选项的投票数
-     * 实时统计user_votes表中选择该选项的记录数
+     * 取自poll_options.vote_count冗余计数
      */
     @Schema(description = "该选项的投票数", example = "128")
     private Integer voteCount;
@@ -67,6 +67,11 @@ public class PostDTO{
      */
     private Integer viewCount;
 
+    /**
+     * 独立访客数（HyperLogLog估计值，仅详情接口返回）
+     */
+    private Long uniqueViewerCount;
+
     /**
      * 点赞数
      */
@@ -107,6 +112,11 @@ public class PostDTO{
      */
     private Integer commentCount;
 
+    /**
+     * 投票帖总票数（仅当postType=1时有值）
+     */
+    private Integer voteCount;
+
     /**
      * 当前用户是否已点赞
      */
@@ -0,0 +1,29 @@
+package org.example.herizon.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 标签字典数据传输对象
+ * <p>
+ * 全量标签列表及其版本号，小程序可整体缓存，版本号不变时无需重新下载
+ *
+ * @author Kokoa
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagDictionaryDTO {
+    /**
+     * 字典版本号，由标签内容计算，内容不变时版本号不变
+     */
+    private String version;
+
+    /**
+     * 全部未删除的标签，按ID升序
+     */
+    private List<TagDTO> tags;
+}
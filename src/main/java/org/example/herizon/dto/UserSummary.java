@@ -0,0 +1,51 @@
+package org.example.herizon.dto;
+
+import lombok.Value;
+import org.example.herizon.entity.User;
+
+/**
+ * 用户摘要
+ * <p>
+ * 展示作者信息和校验角色时只需要的少量字段，不包含问卷数据、微信会话密钥等敏感或大字段。
+ * 不可变对象，可在进程内缓存中安全共享
+ *
+ * @author Kokoa
+ */
+@Value
+public class UserSummary {
+    /**
+     * 用户ID
+     */
+    Long id;
+
+    /**
+     * 用户名
+     */
+    String username;
+
+    /**
+     * 昵称
+     */
+    String nickname;
+
+    /**
+     * 头像URL
+     */
+    String avatar;
+
+    /**
+     * 用户角色：0=体验用户，1=正式用户，2=管理员
+     */
+    Integer role;
+
+    public static UserSummary of(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getNickname(), user.getAvatar(), user.getRole());
+    }
+
+    /**
+     * 是否为管理员
+     */
+    public boolean isAdmin() {
+        return role != null && role == 2;
+    }
+}
@@ -39,11 +39,37 @@ public class Comment{
      */
     private Long parentId;
 
+    /**
+     * 所在评论树的顶级评论ID，顶级评论为自身ID
+     */
+    private Long rootId;
+
+    /**
+     * 层级深度，0表示顶级评论
+     */
+    private Integer depth;
+
+    /**
+     * 物化路径：从顶级评论到自身的ID依次补零到12位并以"/"结尾拼接，
+     * 按路径排序即为整棵评论树的先序遍历顺序，子树是以自身路径为前缀的连续区间
+     */
+    private String path;
+
     /**
      * 评论内容
      */
     private String content;
 
+    /**
+     * 点赞数量，随点赞/取消点赞原子增减
+     */
+    private Integer likeCount;
+
+    /**
+     * 有效直接回复数量（状态正常且未删除），随回复的发表、删除、隐藏原子增减
+     */
+    private Integer replyCount;
+
     /**
      * 创建时间
      */
@@ -0,0 +1,36 @@
+package org.example.herizon.entity;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 可能认识的人推荐实体类
+ * <p>
+ * 对应数据库表：follow_suggestions
+ * 每个用户一行，保存定时任务算好的推荐候选列表，推荐接口按主键读取
+ *
+ * @author Kokoa
+ */
+@Data
+@Table("follow_suggestions")
+public class FollowSuggestion {
+    /**
+     * 用户ID
+     */
+    @Id(keyType = KeyType.None)
+    private Long userId;
+
+    /**
+     * 按排名顺序打包的推荐候选，每人16字节：用户ID(8) + 共同关注人数(4) + 共同兴趣标签数(4)
+     */
+    private byte[] candidates;
+
+    /**
+     * 本次计算时间
+     */
+    private LocalDateTime generatedAt;
+}
@@ -23,6 +23,7 @@ import java.time.LocalDateTime;
  * - postId: 关联的帖子ID（外键关联到posts.id）
  * - optionText: 投票选项文本内容（最大200字符）
  * - displayOrder: 选项显示顺序（从1开始）
+ * - voteCount: 得票数（冗余计数）
  * - createdAt: 创建时间
  * - deleted: 逻辑删除标记（0=正常, 1=删除）
  *
@@ -60,6 +61,12 @@ public class PollOption {
      */
     private Integer displayOrder;
 
+    /**
+     * 得票数
+     * 投票与改投时原子增减，定时任务按user_votes校准
+     */
+    private Integer voteCount;
+
     /**
      * 创建时间
      * 投票选项的创建时间（与帖子创建时间一致）
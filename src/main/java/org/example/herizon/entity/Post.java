@@ -36,6 +36,11 @@ public class Post{
      */
     private Integer commentCount;
 
+    /**
+     * 投票帖总票数（仅postType=1时有意义）
+     */
+    private Integer voteCount;
+
     /**
      * 图片URL列表（存储为JSON数组）
      * 系统变更后支持最多3张图片上传
@@ -0,0 +1,39 @@
+package org.example.herizon.entity;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 帖子热度分实体类
+ * <p>
+ * 对应数据库表：post_hot_scores
+ * 保存首页热门排序引擎的时间衰减热度分，服务重启后据此恢复内存排行
+ *
+ * @author Kokoa
+ */
+@Data
+@Table("post_hot_scores")
+public class PostHotScore {
+    /**
+     * 帖子ID，主键（与posts.id一一对应）
+     */
+    @Id(keyType = KeyType.None)
+    private Long postId;
+
+    /**
+     * 热度分（对数空间）
+     * <p>
+     * 由互动权重按发生时间做指数放大后累加得到，数值越大越热门，
+     * 不同时间写入的分数可以直接比较，无需定期重算
+     */
+    private Double score;
+
+    /**
+     * 最近一次刷盘时间
+     */
+    private LocalDateTime updatedAt;
+}
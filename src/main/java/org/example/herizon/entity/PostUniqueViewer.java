@@ -0,0 +1,36 @@
+package org.example.herizon.entity;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 帖子累计独立访客草图实体类
+ * <p>
+ * 对应数据库表：post_unique_viewers
+ * 保存已合并的每日草图之并，用于估计帖子的累计独立访客数
+ *
+ * @author Kokoa
+ */
+@Data
+@Table("post_unique_viewers")
+public class PostUniqueViewer {
+    /**
+     * 帖子ID，主键
+     */
+    @Id(keyType = KeyType.None)
+    private Long postId;
+
+    /**
+     * 序列化后的HyperLogLog草图
+     */
+    private byte[] sketch;
+
+    /**
+     * 最近一次合并时间
+     */
+    private LocalDateTime updatedAt;
+}
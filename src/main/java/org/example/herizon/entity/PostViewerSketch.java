@@ -0,0 +1,48 @@
+package org.example.herizon.entity;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 帖子每日独立访客草图实体类
+ * <p>
+ * 对应数据库表：post_viewer_sketches
+ * 每个帖子每天一行，保存当天访客的HyperLogLog草图，次日由合并任务并入累计草图
+ *
+ * @author Kokoa
+ */
+@Data
+@Table("post_viewer_sketches")
+public class PostViewerSketch {
+    /**
+     * 帖子ID
+     */
+    @Id(keyType = KeyType.None)
+    private Long postId;
+
+    /**
+     * 统计日期
+     */
+    @Id(keyType = KeyType.None)
+    private LocalDate statDate;
+
+    /**
+     * 序列化后的HyperLogLog草图
+     */
+    private byte[] sketch;
+
+    /**
+     * 是否已合并进累计草图：0-否，1-是
+     */
+    private Integer rolledUp;
+
+    /**
+     * 最近一次写入时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,67 @@
+package org.example.herizon.entity;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 举报汇总实体类
+ * <p>
+ * 对应数据库表：report_aggregates
+ * 每个被举报的帖子或评论一行，举报人数在举报时原子累加，管理员审核队列直接按此表查询
+ *
+ * @author Kokoa
+ */
+@Data
+@Table("report_aggregates")
+public class ReportAggregate {
+    /**
+     * 被举报对象类型：post / comment
+     */
+    @Id(keyType = KeyType.None)
+    private String targetType;
+
+    /**
+     * 被举报对象ID
+     */
+    @Id(keyType = KeyType.None)
+    private Long targetId;
+
+    /**
+     * 举报人数（同一用户重复举报只计一次）
+     */
+    private Integer reportCount;
+
+    /**
+     * 处理状态，见 {@link org.example.herizon.enums.ReportStatus}
+     */
+    private Integer status;
+
+    /**
+     * 最近一次举报原因
+     */
+    private String lastReason;
+
+    /**
+     * 最近一次举报时间
+     */
+    private LocalDateTime lastReportedAt;
+
+    /**
+     * 达到阈值被自动隐藏的时间
+     */
+    private LocalDateTime hiddenAt;
+
+    /**
+     * 处理管理员ID
+     */
+    private Long resolvedBy;
+
+    /**
+     * 处理时间
+     */
+    private LocalDateTime resolvedAt;
+}
@@ -0,0 +1,36 @@
+package org.example.herizon.entity;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 内存统计快照实体类
+ * <p>
+ * 对应数据库表：sketch_snapshots
+ * 保存热搜等内存概率统计结构的序列化结果，服务重启后据此恢复
+ *
+ * @author Kokoa
+ */
+@Data
+@Table("sketch_snapshots")
+public class SketchSnapshot {
+    /**
+     * 快照名称，主键
+     */
+    @Id(keyType = KeyType.None)
+    private String name;
+
+    /**
+     * 序列化后的统计结构
+     */
+    private byte[] payload;
+
+    /**
+     * 最近一次快照时间
+     */
+    private LocalDateTime updatedAt;
+}
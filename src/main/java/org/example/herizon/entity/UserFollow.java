@@ -31,4 +31,9 @@ public class UserFollow {
      * 关注时间
      */
     private LocalDateTime createdAt;
+
+    /**
+     * 逻辑删除标记: 0=关注中, 1=已取消
+     */
+    private Integer deleted;
 }
@@ -0,0 +1,43 @@
+package org.example.herizon.entity;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 关注时间线收件箱实体类
+ * <p>
+ * 对应数据库表：user_inbox
+ * 作者发帖后，帖子ID被写入每个关注者的收件箱，关注时间线直接按收件人读取，
+ * 无需在读取时对所有关注对象做 user_id IN (...) 合并排序
+ *
+ * @author Kokoa
+ */
+@Data
+@Table("user_inbox")
+public class UserInbox {
+    /**
+     * 收件人用户ID（关注者），联合主键之一
+     */
+    @Id(keyType = KeyType.None)
+    private Long userId;
+
+    /**
+     * 帖子ID，联合主键之一
+     */
+    @Id(keyType = KeyType.None)
+    private Long postId;
+
+    /**
+     * 帖子作者ID，取消关注时按作者清理收件箱
+     */
+    private Long authorId;
+
+    /**
+     * 帖子发布时间，时间线按该字段倒序排列
+     */
+    private LocalDateTime createdAt;
+}
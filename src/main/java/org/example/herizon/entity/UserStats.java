@@ -0,0 +1,56 @@
+package org.example.herizon.entity;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户统计实体类
+ * <p>
+ * 对应数据库表：user_stats
+ * 每个用户一行，资料页与统计接口按主键读取；各计数随发帖、删帖、点赞收藏、关注在同一事务中增减
+ *
+ * @author Kokoa
+ */
+@Data
+@Table("user_stats")
+public class UserStats {
+    /**
+     * 用户ID
+     */
+    @Id(keyType = KeyType.None)
+    private Long userId;
+
+    /**
+     * 公开帖子数（未删除且状态正常）
+     */
+    private Integer postCount;
+
+    /**
+     * 关注数
+     */
+    private Integer followingCount;
+
+    /**
+     * 粉丝数
+     */
+    private Integer followerCount;
+
+    /**
+     * 帖子累计获赞数
+     */
+    private Long likeCount;
+
+    /**
+     * 帖子累计被收藏数
+     */
+    private Long collectCount;
+
+    /**
+     * 最近一次变更时间
+     */
+    private LocalDateTime updatedAt;
+}
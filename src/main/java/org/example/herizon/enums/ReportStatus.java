@@ -0,0 +1,63 @@
+package org.example.herizon.enums;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * 举报汇总处理状态枚举，对应 report_aggregates.status
+ */
+@Getter
+public enum ReportStatus {
+
+    PENDING(0, "pending", "待处理"),
+    HIDDEN(1, "hidden", "已自动隐藏待审核"),
+    DISMISSED(2, "dismissed", "已驳回"),
+    CONFIRMED(3, "confirmed", "已确认违规");
+
+    private final int value;
+    private final String code;
+    private final String label;
+
+    ReportStatus(int value, String code, String label) {
+        this.value = value;
+        this.code = code;
+        this.label = label;
+    }
+
+    /**
+     * 根据数据库取值解析状态，未知值按待处理
+     *
+     * @param value 数据库中的状态值
+     * @return 举报状态枚举
+     */
+    public static ReportStatus fromValue(Integer value) {
+        if (value != null) {
+            for (ReportStatus status : values()) {
+                if (status.value == value) {
+                    return status;
+                }
+            }
+        }
+        return PENDING;
+    }
+
+    /**
+     * 根据查询参数解析状态，为空时默认已自动隐藏（审核队列的首要关注对象），非法值抛出异常
+     *
+     * @param rawCode 传入的状态编码
+     * @return 举报状态枚举
+     */
+    public static ReportStatus fromCode(String rawCode) {
+        if (rawCode == null || rawCode.trim().isEmpty()) {
+            return HIDDEN;
+        }
+        String normalized = rawCode.trim().toLowerCase(Locale.ROOT);
+        for (ReportStatus status : values()) {
+            if (status.code.equals(normalized)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("无效的举报状态: " + rawCode);
+    }
+}
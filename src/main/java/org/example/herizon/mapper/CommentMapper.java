@@ -2,8 +2,109 @@ package org.example.herizon.mapper;
 
 import com.mybatisflex.core.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 import org.example.herizon.entity.Comment;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 @Mapper
 public interface CommentMapper extends BaseMapper<Comment>{
-}
\ No newline at end of file
+
+    /**
+     * 原子增减评论点赞数
+     *
+     * @param commentId 评论ID
+     * @param delta     增量
+     * @return 影响行数
+     */
+    @Update("UPDATE comments SET like_count = GREATEST(like_count + #{delta}, 0) WHERE id = #{commentId}")
+    int incrementLikeCount(@Param("commentId") Long commentId, @Param("delta") long delta);
+
+    /**
+     * 批量增减评论点赞数，一条语句更新多条评论
+     *
+     * @param deltas 评论ID → 点赞数增量
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE comments SET like_count = GREATEST(like_count + CASE id " +
+            "<foreach collection='deltas' index='commentId' item='delta' separator=' '>WHEN #{commentId} THEN #{delta}</foreach>" +
+            " END, 0) WHERE id IN " +
+            "<foreach collection='deltas' index='commentId' open='(' separator=',' close=')'>#{commentId}</foreach>" +
+            "</script>")
+    int incrementLikeCounts(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 按user_actions重新统计指定ID区间内评论的点赞数，只更新不一致的行
+     *
+     * @param fromCommentId 起始评论ID（含）
+     * @param toCommentId   结束评论ID（含）
+     * @return 被校正的评论数
+     */
+    @Update("UPDATE comments c " +
+            "LEFT JOIN (SELECT target_id, COUNT(*) AS likes FROM user_actions " +
+            "WHERE target_type = 'comment' AND action_type = 0 AND deleted = 0 " +
+            "AND target_id BETWEEN #{fromCommentId} AND #{toCommentId} GROUP BY target_id) a " +
+            "ON a.target_id = c.id " +
+            "SET c.like_count = COALESCE(a.likes, 0) " +
+            "WHERE c.id BETWEEN #{fromCommentId} AND #{toCommentId} AND c.like_count <> COALESCE(a.likes, 0)")
+    int reconcileLikeCounts(@Param("fromCommentId") long fromCommentId, @Param("toCommentId") long toCommentId);
+
+    /**
+     * 按预期的当前状态切换评论状态（举报隐藏与恢复），状态已被其他操作改变时不更新
+     *
+     * @param commentId  评论ID
+     * @param fromStatus 预期的当前状态
+     * @param toStatus   目标状态
+     * @return 1=已切换，0=评论不存在或状态不符
+     */
+    @Update("UPDATE comments SET status = #{toStatus} WHERE id = #{commentId} AND status = #{fromStatus} AND deleted = 0")
+    int updateStatus(@Param("commentId") Long commentId, @Param("fromStatus") int fromStatus, @Param("toStatus") int toStatus);
+
+    /**
+     * 一次查询多条评论各自最早的若干条有效回复
+     * <p>
+     * 按父评论分区编号取前limit条，结果按父评论、时间升序排列
+     *
+     * @param parentIds 父评论ID
+     * @param limit     每条父评论最多返回的回复数
+     * @return 回复列表
+     */
+    @Select("<script>" +
+            "SELECT id, post_id, user_id, parent_id, root_id, depth, path, content, like_count, reply_count, created_at, status, deleted FROM (" +
+            "SELECT c.*, ROW_NUMBER() OVER (PARTITION BY parent_id ORDER BY created_at, id) AS rn FROM comments c " +
+            "WHERE status = 0 AND deleted = 0 AND parent_id IN " +
+            "<foreach collection='parentIds' item='parentId' open='(' separator=',' close=')'>#{parentId}</foreach>" +
+            ") r WHERE rn &lt;= #{limit} ORDER BY parent_id, rn" +
+            "</script>")
+    List<Comment> selectFirstReplies(@Param("parentIds") Collection<Long> parentIds, @Param("limit") int limit);
+
+    /**
+     * 原子增减评论的有效回复数
+     *
+     * @param commentId 评论ID
+     * @param delta     增量
+     * @return 影响行数
+     */
+    @Update("UPDATE comments SET reply_count = GREATEST(reply_count + #{delta}, 0) WHERE id = #{commentId}")
+    int incrementReplyCount(@Param("commentId") Long commentId, @Param("delta") int delta);
+
+    /**
+     * 按直接子评论重新统计指定ID区间内评论的有效回复数，只更新不一致的行
+     *
+     * @param fromCommentId 起始评论ID（含）
+     * @param toCommentId   结束评论ID（含）
+     * @return 被校正的评论数
+     */
+    @Update("UPDATE comments c " +
+            "LEFT JOIN (SELECT parent_id, COUNT(*) AS replies FROM comments " +
+            "WHERE status = 0 AND deleted = 0 AND parent_id BETWEEN #{fromCommentId} AND #{toCommentId} GROUP BY parent_id) r " +
+            "ON r.parent_id = c.id " +
+            "SET c.reply_count = COALESCE(r.replies, 0) " +
+            "WHERE c.id BETWEEN #{fromCommentId} AND #{toCommentId} AND c.reply_count <> COALESCE(r.replies, 0)")
+    int reconcileReplyCounts(@Param("fromCommentId") long fromCommentId, @Param("toCommentId") long toCommentId);
+}
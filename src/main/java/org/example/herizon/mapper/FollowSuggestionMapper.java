@@ -0,0 +1,42 @@
+package org.example.herizon.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.herizon.entity.FollowSuggestion;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * 可能认识的人推荐Mapper
+ */
+@Mapper
+public interface FollowSuggestionMapper extends BaseMapper<FollowSuggestion> {
+
+    /**
+     * 批量写入推荐候选，已存在时覆盖
+     *
+     * @param suggestions 推荐行
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO follow_suggestions (user_id, candidates, generated_at) VALUES " +
+            "<foreach collection='suggestions' item='s' separator=','>" +
+            "(#{s.userId}, #{s.candidates}, #{s.generatedAt})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE candidates = VALUES(candidates), generated_at = VALUES(generated_at)" +
+            "</script>")
+    int upsertBatch(@Param("suggestions") Collection<FollowSuggestion> suggestions);
+
+    /**
+     * 删除早于指定时间计算的推荐（本轮已没有候选的用户）
+     *
+     * @param before 截止时间（不含）
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM follow_suggestions WHERE generated_at < #{before}")
+    int deleteGeneratedBefore(@Param("before") LocalDateTime before);
+}
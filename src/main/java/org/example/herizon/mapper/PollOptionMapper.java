@@ -1,6 +1,8 @@
 package org.example.herizon.mapper;
 
 import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 import org.example.herizon.entity.PollOption;
 
 /**
@@ -33,6 +35,29 @@ import org.example.herizon.entity.PollOption;
  * @since 2025-10-01
  */
 public interface PollOptionMapper extends BaseMapper<PollOption> {
-    // MyBatis-Flex的BaseMapper已提供所有基础CRUD方法
-    // 如需自定义SQL查询，可在此添加方法并使用@Select/@Insert等注解
+
+    /**
+     * 原子增减选项得票数，结果不小于0
+     *
+     * @param optionId 选项ID
+     * @param delta    增量（+1投票，-1改投撤出）
+     * @return 影响行数
+     */
+    @Update("UPDATE poll_options SET vote_count = GREATEST(vote_count + #{delta}, 0) WHERE id = #{optionId}")
+    int incrementVoteCount(@Param("optionId") Long optionId, @Param("delta") int delta);
+
+    /**
+     * 按user_votes重新统计指定帖子ID区间内各选项的得票数，只更新不一致的行
+     *
+     * @param fromPostId 起始帖子ID（含）
+     * @param toPostId   结束帖子ID（含）
+     * @return 被校正的选项数
+     */
+    @Update("UPDATE poll_options o " +
+            "LEFT JOIN (SELECT option_id, COUNT(*) AS cnt FROM user_votes " +
+            "WHERE deleted = 0 AND post_id BETWEEN #{fromPostId} AND #{toPostId} GROUP BY option_id) v " +
+            "ON v.option_id = o.id " +
+            "SET o.vote_count = COALESCE(v.cnt, 0) " +
+            "WHERE o.post_id BETWEEN #{fromPostId} AND #{toPostId} AND o.vote_count <> COALESCE(v.cnt, 0)")
+    int reconcileVoteCounts(@Param("fromPostId") long fromPostId, @Param("toPostId") long toPostId);
 }
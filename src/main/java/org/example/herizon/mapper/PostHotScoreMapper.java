@@ -0,0 +1,31 @@
+package org.example.herizon.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.herizon.entity.PostHotScore;
+
+import java.util.Collection;
+
+/**
+ * 帖子热度分Mapper
+ */
+@Mapper
+public interface PostHotScoreMapper extends BaseMapper<PostHotScore> {
+
+    /**
+     * 批量写入热度分，已存在的记录直接覆盖
+     *
+     * @param scores 待写入的热度分
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO post_hot_scores (post_id, score, updated_at) VALUES " +
+            "<foreach collection='scores' item='item' separator=','>" +
+            "(#{item.postId}, #{item.score}, #{item.updatedAt})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE score = VALUES(score), updated_at = VALUES(updated_at)" +
+            "</script>")
+    int upsertBatch(@Param("scores") Collection<PostHotScore> scores);
+}
@@ -2,8 +2,135 @@ package org.example.herizon.mapper;
 
 import com.mybatisflex.core.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 import org.example.herizon.entity.Post;
 
+import java.util.Map;
+
 @Mapper
 public interface PostMapper extends BaseMapper<Post>{
-}
\ No newline at end of file
+
+    /**
+     * 原子增减投票帖总票数（保持updated_at不变，计数变化不算作帖子内容更新）
+     *
+     * @param postId 帖子ID
+     * @param delta  增量
+     * @return 影响行数
+     */
+    @Update("UPDATE posts SET vote_count = GREATEST(vote_count + #{delta}, 0), updated_at = updated_at WHERE id = #{postId}")
+    int incrementVoteCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    /**
+     * 原子增减帖子的有效评论数（保持updated_at不变）
+     *
+     * @param postId 帖子ID
+     * @param delta  增量
+     * @return 影响行数
+     */
+    @Update("UPDATE posts SET comment_count = GREATEST(comment_count + #{delta}, 0), updated_at = updated_at WHERE id = #{postId}")
+    int incrementCommentCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    /**
+     * 按comments重新统计指定ID区间内帖子的有效评论数（含各层回复），只更新不一致的行
+     *
+     * @param fromPostId 起始帖子ID（含）
+     * @param toPostId   结束帖子ID（含）
+     * @return 被校正的帖子数
+     */
+    @Update("UPDATE posts p " +
+            "LEFT JOIN (SELECT post_id, COUNT(*) AS cnt FROM comments " +
+            "WHERE status = 0 AND deleted = 0 AND post_id BETWEEN #{fromPostId} AND #{toPostId} GROUP BY post_id) c " +
+            "ON c.post_id = p.id " +
+            "SET p.comment_count = COALESCE(c.cnt, 0), p.updated_at = p.updated_at " +
+            "WHERE p.id BETWEEN #{fromPostId} AND #{toPostId} AND p.comment_count <> COALESCE(c.cnt, 0)")
+    int reconcileCommentCounts(@Param("fromPostId") long fromPostId, @Param("toPostId") long toPostId);
+
+    /**
+     * 按user_votes重新统计指定ID区间内投票帖的总票数，只更新不一致的行
+     *
+     * @param fromPostId 起始帖子ID（含）
+     * @param toPostId   结束帖子ID（含）
+     * @return 被校正的帖子数
+     */
+    @Update("UPDATE posts p " +
+            "LEFT JOIN (SELECT post_id, COUNT(*) AS cnt FROM user_votes " +
+            "WHERE deleted = 0 AND post_id BETWEEN #{fromPostId} AND #{toPostId} GROUP BY post_id) v " +
+            "ON v.post_id = p.id " +
+            "SET p.vote_count = COALESCE(v.cnt, 0), p.updated_at = p.updated_at " +
+            "WHERE p.post_type = 1 AND p.id BETWEEN #{fromPostId} AND #{toPostId} AND p.vote_count <> COALESCE(v.cnt, 0)")
+    int reconcileVoteCounts(@Param("fromPostId") long fromPostId, @Param("toPostId") long toPostId);
+
+    /**
+     * 批量累加浏览量，一条语句更新多个帖子（保持updated_at不变）
+     *
+     * @param deltas 帖子ID → 浏览量增量
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE posts SET view_count = view_count + CASE id " +
+            "<foreach collection='deltas' index='postId' item='delta' separator=' '>WHEN #{postId} THEN #{delta}</foreach>" +
+            " END, updated_at = updated_at WHERE id IN " +
+            "<foreach collection='deltas' index='postId' open='(' separator=',' close=')'>#{postId}</foreach>" +
+            "</script>")
+    int incrementViewCounts(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 原子增减点赞数与收藏数（保持updated_at不变，计数变化不算作帖子内容更新）
+     *
+     * @param postId       帖子ID
+     * @param likeDelta    点赞数增量
+     * @param collectDelta 收藏数增量
+     * @return 影响行数
+     */
+    @Update("UPDATE posts SET like_count = GREATEST(like_count + #{likeDelta}, 0), " +
+            "collect_count = GREATEST(collect_count + #{collectDelta}, 0), updated_at = updated_at WHERE id = #{postId}")
+    int incrementActionCounts(@Param("postId") Long postId, @Param("likeDelta") long likeDelta,
+                              @Param("collectDelta") long collectDelta);
+
+    /**
+     * 批量增减点赞数与收藏数，一条语句更新多个帖子（保持updated_at不变）
+     *
+     * @param likeDeltas    帖子ID → 点赞数增量
+     * @param collectDeltas 帖子ID → 收藏数增量，键集合须与likeDeltas相同
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE posts SET like_count = GREATEST(like_count + CASE id " +
+            "<foreach collection='likeDeltas' index='postId' item='delta' separator=' '>WHEN #{postId} THEN #{delta}</foreach>" +
+            " END, 0), collect_count = GREATEST(collect_count + CASE id " +
+            "<foreach collection='collectDeltas' index='postId' item='delta' separator=' '>WHEN #{postId} THEN #{delta}</foreach>" +
+            " END, 0), updated_at = updated_at WHERE id IN " +
+            "<foreach collection='likeDeltas' index='postId' open='(' separator=',' close=')'>#{postId}</foreach>" +
+            "</script>")
+    int incrementActionCountsBatch(@Param("likeDeltas") Map<Long, Long> likeDeltas,
+                                   @Param("collectDeltas") Map<Long, Long> collectDeltas);
+
+    /**
+     * 按user_actions重新统计指定ID区间内帖子的点赞数与收藏数，只更新不一致的行
+     *
+     * @param fromPostId 起始帖子ID（含）
+     * @param toPostId   结束帖子ID（含）
+     * @return 被校正的帖子数
+     */
+    @Update("UPDATE posts p " +
+            "LEFT JOIN (SELECT target_id, SUM(action_type = 0) AS likes, SUM(action_type = 1) AS collects " +
+            "FROM user_actions WHERE target_type = 'post' AND action_type IN (0, 1) AND deleted = 0 " +
+            "AND target_id BETWEEN #{fromPostId} AND #{toPostId} GROUP BY target_id) a " +
+            "ON a.target_id = p.id " +
+            "SET p.like_count = COALESCE(a.likes, 0), p.collect_count = COALESCE(a.collects, 0), p.updated_at = p.updated_at " +
+            "WHERE p.id BETWEEN #{fromPostId} AND #{toPostId} " +
+            "AND (p.like_count <> COALESCE(a.likes, 0) OR p.collect_count <> COALESCE(a.collects, 0))")
+    int reconcileActionCounts(@Param("fromPostId") long fromPostId, @Param("toPostId") long toPostId);
+
+    /**
+     * 按预期的当前状态切换帖子状态（举报隐藏与恢复），状态已被其他操作改变时不更新
+     *
+     * @param postId     帖子ID
+     * @param fromStatus 预期的当前状态
+     * @param toStatus   目标状态
+     * @return 1=已切换，0=帖子不存在或状态不符
+     */
+    @Update("UPDATE posts SET status = #{toStatus} WHERE id = #{postId} AND status = #{fromStatus} AND deleted = 0")
+    int updateStatus(@Param("postId") Long postId, @Param("fromStatus") int fromStatus, @Param("toStatus") int toStatus);
+}
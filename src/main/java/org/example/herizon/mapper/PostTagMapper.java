@@ -2,8 +2,25 @@ package org.example.herizon.mapper;
 
 import com.mybatisflex.core.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import org.example.herizon.entity.PostTag;
 
+import java.util.List;
+import java.util.Map;
+
 @Mapper
 public interface PostTagMapper extends BaseMapper<PostTag>{
-}
\ No newline at end of file
+
+    /**
+     * 查询ID区间内各用户公开帖子使用过的标签（去重），按用户ID排序
+     *
+     * @param fromUserId 起始用户ID（含）
+     * @param toUserId   结束用户ID（含）
+     * @return 每行包含 user_id 与 tag_id
+     */
+    @Select("SELECT DISTINCT p.user_id, pt.tag_id FROM posts p JOIN post_tags pt ON pt.post_id = p.id " +
+            "WHERE p.user_id BETWEEN #{fromUserId} AND #{toUserId} AND p.deleted = 0 AND p.status = 0 AND pt.deleted = 0 " +
+            "ORDER BY p.user_id")
+    List<Map<String, Object>> selectUserTags(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId);
+}
@@ -0,0 +1,25 @@
+package org.example.herizon.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.herizon.entity.PostUniqueViewer;
+
+/**
+ * 帖子累计独立访客草图Mapper
+ */
+@Mapper
+public interface PostUniqueViewerMapper extends BaseMapper<PostUniqueViewer> {
+
+    /**
+     * 写入累计草图，已存在时覆盖（调用方负责先与旧草图合并）
+     *
+     * @param postId 帖子ID
+     * @param sketch 序列化后的草图
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO post_unique_viewers (post_id, sketch, updated_at) VALUES (#{postId}, #{sketch}, NOW()) " +
+            "ON DUPLICATE KEY UPDATE sketch = VALUES(sketch), updated_at = VALUES(updated_at)")
+    int upsert(@Param("postId") Long postId, @Param("sketch") byte[] sketch);
+}
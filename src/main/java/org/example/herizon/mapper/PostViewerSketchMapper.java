@@ -0,0 +1,106 @@
+package org.example.herizon.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.example.herizon.entity.PostViewerSketch;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 帖子每日独立访客草图Mapper
+ */
+@Mapper
+public interface PostViewerSketchMapper extends BaseMapper<PostViewerSketch> {
+
+    /**
+     * 查询某帖子某天的草图
+     *
+     * @param postId   帖子ID
+     * @param statDate 统计日期
+     * @return 序列化后的草图，不存在时返回null
+     */
+    @Select("SELECT sketch FROM post_viewer_sketches WHERE post_id = #{postId} AND stat_date = #{statDate}")
+    byte[] selectSketch(@Param("postId") Long postId, @Param("statDate") LocalDate statDate);
+
+    /**
+     * 插入某天的首个草图，已存在时不写入
+     *
+     * @param postId   帖子ID
+     * @param statDate 统计日期
+     * @param sketch   序列化后的草图
+     * @return 影响行数，已存在时为0
+     */
+    @Insert("INSERT IGNORE INTO post_viewer_sketches (post_id, stat_date, sketch, rolled_up, updated_at) " +
+            "VALUES (#{postId}, #{statDate}, #{sketch}, 0, NOW())")
+    int insertIfAbsent(@Param("postId") Long postId, @Param("statDate") LocalDate statDate, @Param("sketch") byte[] sketch);
+
+    /**
+     * 以读取到的旧草图为条件覆盖每日草图，并重新标记为未合并；读取后草图被其他实例改写时不更新
+     *
+     * @param postId   帖子ID
+     * @param statDate 统计日期
+     * @param expected 读取到的旧草图
+     * @param sketch   与旧草图合并后的草图
+     * @return 影响行数，旧草图已变化时为0
+     */
+    @Update("UPDATE post_viewer_sketches SET sketch = #{sketch}, rolled_up = 0, updated_at = NOW() " +
+            "WHERE post_id = #{postId} AND stat_date = #{statDate} AND sketch = #{expected}")
+    int compareAndSet(@Param("postId") Long postId, @Param("statDate") LocalDate statDate,
+                      @Param("expected") byte[] expected, @Param("sketch") byte[] sketch);
+
+    /**
+     * 估计访客数所需的全部草图：累计草图加上尚未合并的每日草图
+     *
+     * @param postId 帖子ID
+     * @return 序列化后的草图列表
+     */
+    @Select("SELECT sketch FROM post_unique_viewers WHERE post_id = #{postId} " +
+            "UNION ALL " +
+            "SELECT sketch FROM post_viewer_sketches WHERE post_id = #{postId} AND rolled_up = 0")
+    List<byte[]> selectSketchesForEstimate(@Param("postId") Long postId);
+
+    /**
+     * 按 (post_id, stat_date) 游标分页查询指定日期之前尚未合并的每日草图
+     *
+     * @param before        截止日期（不含）
+     * @param afterPostId   游标帖子ID
+     * @param afterStatDate 游标日期
+     * @param limit         每页条数
+     * @return 每日草图列表
+     */
+    @Select("SELECT post_id, stat_date, sketch FROM post_viewer_sketches " +
+            "WHERE rolled_up = 0 AND stat_date < #{before} " +
+            "AND (post_id > #{afterPostId} OR (post_id = #{afterPostId} AND stat_date > #{afterStatDate})) " +
+            "ORDER BY post_id, stat_date LIMIT #{limit}")
+    List<PostViewerSketch> selectUnrolled(@Param("before") LocalDate before,
+                                          @Param("afterPostId") long afterPostId,
+                                          @Param("afterStatDate") LocalDate afterStatDate,
+                                          @Param("limit") int limit);
+
+    /**
+     * 标记每日草图已合并；读取后草图又被写入过时不标记，留待下次合并
+     *
+     * @param postId   帖子ID
+     * @param statDate 统计日期
+     * @param sketch   合并时读取到的草图
+     * @return 影响行数
+     */
+    @Update("UPDATE post_viewer_sketches SET rolled_up = 1 " +
+            "WHERE post_id = #{postId} AND stat_date = #{statDate} AND sketch = #{sketch}")
+    int markRolledUp(@Param("postId") Long postId, @Param("statDate") LocalDate statDate, @Param("sketch") byte[] sketch);
+
+    /**
+     * 删除早于指定日期且已合并的每日草图
+     *
+     * @param before 截止日期（不含）
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM post_viewer_sketches WHERE stat_date < #{before} AND rolled_up = 1")
+    int deleteRolledUpBefore(@Param("before") LocalDate before);
+}
@@ -0,0 +1,60 @@
+package org.example.herizon.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+import org.example.herizon.entity.ReportAggregate;
+
+/**
+ * 举报汇总Mapper
+ */
+@Mapper
+public interface ReportAggregateMapper extends BaseMapper<ReportAggregate> {
+
+    /**
+     * 举报人数原子加一，首次被举报时创建汇总行
+     *
+     * @param targetType 被举报对象类型
+     * @param targetId   被举报对象ID
+     * @param reason     举报原因
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO report_aggregates (target_type, target_id, report_count, status, last_reason, last_reported_at) " +
+            "VALUES (#{targetType}, #{targetId}, 1, 0, #{reason}, NOW()) " +
+            "ON DUPLICATE KEY UPDATE report_count = report_count + 1, " +
+            "last_reason = VALUES(last_reason), last_reported_at = VALUES(last_reported_at)")
+    int increment(@Param("targetType") String targetType, @Param("targetId") Long targetId,
+                  @Param("reason") String reason);
+
+    /**
+     * 举报人数达到阈值时把待处理的汇总标记为已自动隐藏
+     * <p>
+     * 条件更新保证每个对象只会被标记一次，返回1的调用方负责隐藏内容
+     *
+     * @param targetType 被举报对象类型
+     * @param targetId   被举报对象ID
+     * @param threshold  自动隐藏阈值
+     * @return 1=本次越过阈值，0=未达到或已处理过
+     */
+    @Update("UPDATE report_aggregates SET status = 1, hidden_at = NOW() " +
+            "WHERE target_type = #{targetType} AND target_id = #{targetId} " +
+            "AND status = 0 AND report_count >= #{threshold}")
+    int markHidden(@Param("targetType") String targetType, @Param("targetId") Long targetId,
+                   @Param("threshold") int threshold);
+
+    /**
+     * 管理员处理举报，只处理待处理或已自动隐藏的汇总
+     *
+     * @param targetType 被举报对象类型
+     * @param targetId   被举报对象ID
+     * @param status     处理结果状态：2=已驳回，3=已确认违规
+     * @param adminId    处理管理员ID
+     * @return 1=处理成功，0=汇总不存在或已处理
+     */
+    @Update("UPDATE report_aggregates SET status = #{status}, resolved_by = #{adminId}, resolved_at = NOW() " +
+            "WHERE target_type = #{targetType} AND target_id = #{targetId} AND status IN (0, 1)")
+    int resolve(@Param("targetType") String targetType, @Param("targetId") Long targetId,
+                @Param("status") int status, @Param("adminId") Long adminId);
+}
@@ -0,0 +1,28 @@
+package org.example.herizon.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.herizon.entity.SketchSnapshot;
+
+import java.time.LocalDateTime;
+
+/**
+ * 内存统计快照Mapper
+ */
+@Mapper
+public interface SketchSnapshotMapper extends BaseMapper<SketchSnapshot> {
+
+    /**
+     * 写入快照，已存在时覆盖
+     *
+     * @param name      快照名称
+     * @param payload   序列化后的统计结构
+     * @param updatedAt 快照时间
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO sketch_snapshots (name, payload, updated_at) VALUES (#{name}, #{payload}, #{updatedAt}) " +
+            "ON DUPLICATE KEY UPDATE payload = VALUES(payload), updated_at = VALUES(updated_at)")
+    int upsert(@Param("name") String name, @Param("payload") byte[] payload, @Param("updatedAt") LocalDateTime updatedAt);
+}
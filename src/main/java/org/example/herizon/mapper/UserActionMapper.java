@@ -1,9 +1,109 @@
 package org.example.herizon.mapper;
 
 import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 import org.example.herizon.entity.UserAction;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper
 public interface UserActionMapper extends BaseMapper<UserAction>{
-}
\ No newline at end of file
+
+    /**
+     * 切换行为状态：记录不存在时插入，已存在时翻转deleted（重新生效时刷新时间）
+     * <p>
+     * 依赖唯一键 uk_user_target_action，一条语句完成判断与写入，并发重复点击不会产生重复的有效记录
+     *
+     * @param userId     用户ID
+     * @param targetId   目标ID
+     * @param targetType 目标类型
+     * @param actionType 行为类型
+     * @return 影响行数：1=新插入（已生效），2=已翻转
+     */
+    @Insert("INSERT INTO user_actions (user_id, target_id, target_type, action_type, created_at, deleted) " +
+            "VALUES (#{userId}, #{targetId}, #{targetType}, #{actionType}, NOW(), 0) " +
+            "ON DUPLICATE KEY UPDATE deleted = 1 - deleted, " +
+            "created_at = IF(deleted = 0, VALUES(created_at), created_at)")
+    int toggle(@Param("userId") Long userId, @Param("targetId") Long targetId,
+               @Param("targetType") String targetType, @Param("actionType") Integer actionType);
+
+    /**
+     * 查询行为记录的删除标记与生效时间（不经过逻辑删除过滤）
+     * <p>
+     * 取消时 {@link #toggle} 不刷新created_at，已取消记录的created_at即被取消的那次行为的发生时间
+     *
+     * @return 记录（含deleted：0=生效中，1=已取消；createdAt），不存在时返回null
+     */
+    @Select("SELECT deleted, created_at FROM user_actions WHERE user_id = #{userId} AND target_id = #{targetId} " +
+            "AND target_type = #{targetType} AND action_type = #{actionType}")
+    UserAction selectState(@Param("userId") Long userId, @Param("targetId") Long targetId,
+                           @Param("targetType") String targetType, @Param("actionType") Integer actionType);
+
+    /**
+     * 记录举报，同一用户对同一目标已举报过时不插入
+     *
+     * @param userId     举报用户ID
+     * @param targetId   目标ID
+     * @param targetType 目标类型
+     * @param extraData  举报信息（JSON）
+     * @return 1=首次举报，0=重复举报
+     */
+    @Insert("INSERT IGNORE INTO user_actions (user_id, target_id, target_type, action_type, extra_data, created_at, deleted) " +
+            "VALUES (#{userId}, #{targetId}, #{targetType}, 3, #{extraData}, NOW(), 0)")
+    int insertReport(@Param("userId") Long userId, @Param("targetId") Long targetId,
+                     @Param("targetType") String targetType, @Param("extraData") String extraData);
+
+    /**
+     * 重复举报时更新举报原因与时间，不影响举报人数
+     *
+     * @param userId     举报用户ID
+     * @param targetId   目标ID
+     * @param targetType 目标类型
+     * @param extraData  举报信息（JSON）
+     * @return 影响行数
+     */
+    @Update("UPDATE user_actions SET extra_data = #{extraData}, created_at = NOW(), deleted = 0 " +
+            "WHERE user_id = #{userId} AND target_id = #{targetId} AND target_type = #{targetType} AND action_type = 3")
+    int updateReport(@Param("userId") Long userId, @Param("targetId") Long targetId,
+                     @Param("targetType") String targetType, @Param("extraData") String extraData);
+
+    /**
+     * 批量切换行为状态，一条多行upsert完成，语义与 {@link #toggle} 相同
+     * <p>
+     * 传入的目标不能重复；调用方按唯一键排序后传入，使并发的批量请求以相同顺序加锁
+     *
+     * @param userId  用户ID
+     * @param actions 待切换的目标（使用targetId、targetType、actionType）
+     * @return 影响行数（新插入计1，翻转计2）
+     */
+    @Insert("<script>" +
+            "INSERT INTO user_actions (user_id, target_id, target_type, action_type, created_at, deleted) VALUES " +
+            "<foreach collection='actions' item='action' separator=','>" +
+            "(#{userId}, #{action.targetId}, #{action.targetType}, #{action.actionType}, NOW(), 0)" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE deleted = 1 - deleted, " +
+            "created_at = IF(deleted = 0, VALUES(created_at), created_at)" +
+            "</script>")
+    int toggleBatch(@Param("userId") Long userId, @Param("actions") Collection<UserAction> actions);
+
+    /**
+     * 批量查询行为记录的删除标记（不经过逻辑删除过滤），不存在的记录不返回
+     *
+     * @param userId  用户ID
+     * @param actions 查询的目标（使用targetId、targetType、actionType）
+     * @return 已存在的记录（含targetId、targetType、actionType、deleted、createdAt）
+     */
+    @Select("<script>" +
+            "SELECT target_id, target_type, action_type, deleted, created_at FROM user_actions " +
+            "WHERE user_id = #{userId} AND (target_id, target_type, action_type) IN " +
+            "<foreach collection='actions' item='action' open='(' separator=',' close=')'>" +
+            "(#{action.targetId}, #{action.targetType}, #{action.actionType})" +
+            "</foreach>" +
+            "</script>")
+    List<UserAction> selectStates(@Param("userId") Long userId, @Param("actions") Collection<UserAction> actions);
+}
@@ -1,12 +1,94 @@
 package org.example.herizon.mapper;
 
 import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import org.example.herizon.entity.UserFollow;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 用户关注关系Mapper
  */
 @Mapper
 public interface UserFollowMapper extends BaseMapper<UserFollow> {
+
+    /**
+     * 查询粉丝数超过阈值的用户（大V）
+     *
+     * @param threshold 粉丝数阈值
+     * @return 用户ID列表
+     */
+    @Select("SELECT followee_id FROM user_follow WHERE deleted = 0 GROUP BY followee_id HAVING COUNT(*) > #{threshold}")
+    List<Long> selectFolloweeIdsWithFollowersOver(@Param("threshold") int threshold);
+
+    /**
+     * 切换关注状态：关系不存在时插入，已存在时翻转deleted（重新关注时刷新关注时间）
+     * <p>
+     * 依赖唯一键 uk_follower_followee，一条语句完成判断与写入，并发重复点击不会产生重复关系
+     *
+     * @param followerId 关注人ID
+     * @param followeeId 被关注人ID
+     * @return 影响行数：1=新插入（已关注），2=已翻转
+     */
+    @Insert("INSERT INTO user_follow (follower_id, followee_id, created_at, deleted) " +
+            "VALUES (#{followerId}, #{followeeId}, NOW(), 0) " +
+            "ON DUPLICATE KEY UPDATE deleted = 1 - deleted, " +
+            "created_at = IF(deleted = 0, VALUES(created_at), created_at)")
+    int toggle(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    /**
+     * 查询关注关系的删除标记（不经过逻辑删除过滤）
+     *
+     * @param followerId 关注人ID
+     * @param followeeId 被关注人ID
+     * @return 0=关注中，1=已取消，关系不存在时返回null
+     */
+    @Select("SELECT deleted FROM user_follow WHERE follower_id = #{followerId} AND followee_id = #{followeeId}")
+    Integer selectDeleted(@Param("followerId") Long followerId, @Param("followeeId") Long followeeId);
+
+    /**
+     * 批量切换关注状态，一条多行upsert完成，语义与 {@link #toggle} 相同
+     *
+     * @param followerId  关注人ID
+     * @param followeeIds 被关注人ID（不能重复，按升序传入使并发请求以相同顺序加锁）
+     * @return 影响行数（新插入计1，翻转计2）
+     */
+    @Insert("<script>" +
+            "INSERT INTO user_follow (follower_id, followee_id, created_at, deleted) VALUES " +
+            "<foreach collection='followeeIds' item='followeeId' separator=','>" +
+            "(#{followerId}, #{followeeId}, NOW(), 0)" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE deleted = 1 - deleted, " +
+            "created_at = IF(deleted = 0, VALUES(created_at), created_at)" +
+            "</script>")
+    int toggleBatch(@Param("followerId") Long followerId, @Param("followeeIds") Collection<Long> followeeIds);
+
+    /**
+     * 批量查询关注关系的删除标记（不经过逻辑删除过滤），不存在的关系不返回
+     *
+     * @param followerId  关注人ID
+     * @param followeeIds 被关注人ID
+     * @return 已存在的关系（含followeeId、deleted）
+     */
+    @Select("<script>" +
+            "SELECT followee_id, deleted FROM user_follow WHERE follower_id = #{followerId} AND followee_id IN " +
+            "<foreach collection='followeeIds' item='followeeId' open='(' separator=',' close=')'>#{followeeId}</foreach>" +
+            "</script>")
+    List<UserFollow> selectStates(@Param("followerId") Long followerId, @Param("followeeIds") Collection<Long> followeeIds);
+
+    /**
+     * 按关注人ID区间查询有效关注关系，按 (follower_id, followee_id) 排序
+     *
+     * @param fromFollowerId 起始关注人ID（含）
+     * @param toFollowerId   结束关注人ID（含）
+     * @return 关注关系列表，只包含 followerId 与 followeeId
+     */
+    @Select("SELECT follower_id, followee_id FROM user_follow " +
+            "WHERE follower_id BETWEEN #{fromFollowerId} AND #{toFollowerId} AND deleted = 0 " +
+            "ORDER BY follower_id, followee_id")
+    List<UserFollow> selectEdges(@Param("fromFollowerId") long fromFollowerId, @Param("toFollowerId") long toFollowerId);
 }
@@ -0,0 +1,102 @@
+package org.example.herizon.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.example.herizon.entity.UserInbox;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 关注时间线收件箱Mapper
+ */
+@Mapper
+public interface UserInboxMapper extends BaseMapper<UserInbox> {
+
+    /**
+     * 将一个帖子批量写入多个关注者的收件箱，已存在的记录忽略
+     *
+     * @param userIds   收件人ID列表
+     * @param postId    帖子ID
+     * @param authorId  作者ID
+     * @param createdAt 帖子发布时间
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO user_inbox (user_id, post_id, author_id, created_at) VALUES " +
+            "<foreach collection='userIds' item='userId' separator=','>" +
+            "(#{userId}, #{postId}, #{authorId}, #{createdAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("userIds") Collection<Long> userIds,
+                    @Param("postId") Long postId,
+                    @Param("authorId") Long authorId,
+                    @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * 将作者最近的帖子补入新关注者的收件箱
+     *
+     * @param userId   收件人ID
+     * @param authorId 作者ID
+     * @param limit    补入的帖子数量
+     * @return 影响行数
+     */
+    @Insert("INSERT IGNORE INTO user_inbox (user_id, post_id, author_id, created_at) " +
+            "SELECT #{userId}, id, user_id, created_at FROM posts " +
+            "WHERE user_id = #{authorId} AND status = 0 AND deleted = 0 " +
+            "ORDER BY created_at DESC LIMIT #{limit}")
+    int backfillFromAuthor(@Param("userId") Long userId,
+                           @Param("authorId") Long authorId,
+                           @Param("limit") int limit);
+
+    /**
+     * 将作者最近的帖子补入一批关注者的收件箱，语义与 {@link #backfillFromAuthor} 相同，已存在的记录忽略
+     *
+     * @param userIds  收件人ID列表
+     * @param authorId 作者ID
+     * @param limit    补入的帖子数量
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO user_inbox (user_id, post_id, author_id, created_at) " +
+            "SELECT u.user_id, p.id, p.user_id, p.created_at FROM (" +
+            "<foreach collection='userIds' item='userId' separator=' UNION ALL '>SELECT #{userId} AS user_id</foreach>" +
+            ") u CROSS JOIN (" +
+            "SELECT id, user_id, created_at FROM posts " +
+            "WHERE user_id = #{authorId} AND status = 0 AND deleted = 0 " +
+            "ORDER BY created_at DESC LIMIT #{limit}) p" +
+            "</script>")
+    int backfillFromAuthorBatch(@Param("userIds") Collection<Long> userIds,
+                                @Param("authorId") Long authorId,
+                                @Param("limit") int limit);
+
+    /**
+     * 查询收件箱超出上限的用户
+     *
+     * @param maxSize 收件箱长度上限
+     * @return 用户ID列表
+     */
+    @Select("SELECT user_id FROM user_inbox GROUP BY user_id HAVING COUNT(*) > #{maxSize}")
+    List<Long> selectOversizedUserIds(@Param("maxSize") int maxSize);
+
+    /**
+     * 裁剪收件箱，只保留最新的maxSize条
+     * <p>
+     * MySQL不允许在DELETE的子查询中直接引用目标表，因此多包一层派生表
+     *
+     * @param userId  收件人ID
+     * @param maxSize 保留条数
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM user_inbox WHERE user_id = #{userId} AND created_at < (" +
+            "SELECT boundary.created_at FROM (" +
+            "SELECT created_at FROM user_inbox WHERE user_id = #{userId} " +
+            "ORDER BY created_at DESC, post_id DESC LIMIT 1 OFFSET #{maxSize}" +
+            ") boundary)")
+    int trim(@Param("userId") Long userId, @Param("maxSize") int maxSize);
+}
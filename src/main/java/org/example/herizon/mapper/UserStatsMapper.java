@@ -0,0 +1,97 @@
+package org.example.herizon.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+import org.example.herizon.entity.UserStats;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 用户统计Mapper
+ */
+@Mapper
+public interface UserStatsMapper extends BaseMapper<UserStats> {
+
+    /**
+     * 批量累加已有统计行的用户计数（计数不会减到0以下）
+     * <p>
+     * 统计行不存在的用户不写入：若按增量插入会把增量当作总数，这些用户在首次读取时按当前数据重建。
+     * 每个元素的计数字段表示增量；调用方按user_id升序传入，使并发事务以相同顺序加锁
+     *
+     * @param deltas 各用户的计数增量
+     * @return 匹配的统计行数
+     */
+    @Update("<script>" +
+            "UPDATE user_stats s JOIN (" +
+            "<foreach collection='deltas' item='d' separator=' UNION ALL '>" +
+            "SELECT #{d.userId} AS user_id, #{d.postCount} AS post_count, #{d.followingCount} AS following_count, " +
+            "#{d.followerCount} AS follower_count, #{d.likeCount} AS like_count, #{d.collectCount} AS collect_count" +
+            "</foreach>" +
+            ") d ON d.user_id = s.user_id SET " +
+            "s.post_count = GREATEST(s.post_count + d.post_count, 0), " +
+            "s.following_count = GREATEST(s.following_count + d.following_count, 0), " +
+            "s.follower_count = GREATEST(s.follower_count + d.follower_count, 0), " +
+            "s.like_count = GREATEST(s.like_count + d.like_count, 0), " +
+            "s.collect_count = GREATEST(s.collect_count + d.collect_count, 0)" +
+            "</script>")
+    int increment(@Param("deltas") Collection<UserStats> deltas);
+
+    /**
+     * 按帖子的点赞/收藏增量累加作者的获赞数与被收藏数，同一作者的多个帖子合并为一行
+     * <p>
+     * 与 {@link #increment} 相同，只更新已有的统计行
+     *
+     * @param likeDeltas    帖子ID → 点赞数增量
+     * @param collectDeltas 帖子ID → 收藏数增量，键集合须与likeDeltas相同
+     * @return 匹配的统计行数
+     */
+    @Update("<script>" +
+            "UPDATE user_stats s JOIN (" +
+            "SELECT user_id, SUM(CASE id " +
+            "<foreach collection='likeDeltas' index='postId' item='delta' separator=' '>WHEN #{postId} THEN #{delta}</foreach>" +
+            " ELSE 0 END) AS like_delta, SUM(CASE id " +
+            "<foreach collection='collectDeltas' index='postId' item='delta' separator=' '>WHEN #{postId} THEN #{delta}</foreach>" +
+            " ELSE 0 END) AS collect_delta FROM posts WHERE deleted = 0 AND id IN " +
+            "<foreach collection='likeDeltas' index='postId' open='(' separator=',' close=')'>#{postId}</foreach>" +
+            " GROUP BY user_id) d ON d.user_id = s.user_id SET " +
+            "s.like_count = GREATEST(s.like_count + d.like_delta, 0), " +
+            "s.collect_count = GREATEST(s.collect_count + d.collect_delta, 0)" +
+            "</script>")
+    int incrementReceived(@Param("likeDeltas") Map<Long, Long> likeDeltas,
+                          @Param("collectDeltas") Map<Long, Long> collectDeltas);
+
+    /**
+     * 按posts与user_follow重新统计用户计数并覆盖写入
+     * <p>
+     * 传入userIds时只重建这些用户，否则重建ID区间内的全部用户
+     *
+     * @param fromUserId 起始用户ID（含）
+     * @param toUserId   结束用户ID（含）
+     * @param userIds    指定用户ID，可为null
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO user_stats (user_id, post_count, following_count, follower_count, like_count, collect_count) " +
+            "SELECT u.id, " +
+            "(SELECT COUNT(*) FROM posts p WHERE p.user_id = u.id AND p.deleted = 0 AND p.status = 0), " +
+            "(SELECT COUNT(*) FROM user_follow f WHERE f.follower_id = u.id AND f.deleted = 0), " +
+            "(SELECT COUNT(*) FROM user_follow f WHERE f.followee_id = u.id AND f.deleted = 0), " +
+            "(SELECT COALESCE(SUM(p.like_count), 0) FROM posts p WHERE p.user_id = u.id AND p.deleted = 0), " +
+            "(SELECT COALESCE(SUM(p.collect_count), 0) FROM posts p WHERE p.user_id = u.id AND p.deleted = 0) " +
+            "FROM users u WHERE " +
+            "<choose>" +
+            "<when test='userIds != null'>u.id IN " +
+            "<foreach collection='userIds' item='userId' open='(' separator=',' close=')'>#{userId}</foreach>" +
+            "</when>" +
+            "<otherwise>u.id BETWEEN #{fromUserId} AND #{toUserId}</otherwise>" +
+            "</choose>" +
+            " ON DUPLICATE KEY UPDATE post_count = VALUES(post_count), following_count = VALUES(following_count), " +
+            "follower_count = VALUES(follower_count), like_count = VALUES(like_count), collect_count = VALUES(collect_count)" +
+            "</script>")
+    int rebuild(@Param("fromUserId") long fromUserId, @Param("toUserId") long toUserId,
+                @Param("userIds") Collection<Long> userIds);
+}
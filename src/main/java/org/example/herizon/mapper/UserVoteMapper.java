@@ -1,6 +1,8 @@
 package org.example.herizon.mapper;
 
 import com.mybatisflex.core.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 import org.example.herizon.entity.UserVote;
 
 /**
@@ -44,12 +46,24 @@ import org.example.herizon.entity.UserVote;
  * 业务规则：
  * - 唯一约束 uk_user_post(user_id, post_id) 确保每人每帖只能有一个有效投票
  * - 撤回投票：设置deleted=1，允许用户重新投票
- * - 切换投票：先撤回原投票，再创建新投票记录
+ * - 切换投票：在原投票记录上修改option_id（uk_user_post不含deleted，不能再插入新记录）
  *
  * @author Kokoa
  * @since 2025-10-01
  */
 public interface UserVoteMapper extends BaseMapper<UserVote> {
-    // MyBatis-Flex的BaseMapper已提供所有基础CRUD方法
-    // 如需自定义SQL查询（如复杂的统计查询），可在此添加方法并使用@Select注解
+
+    /**
+     * 改投：在原投票记录上直接修改所选选项
+     * <p>
+     * 以原选项作为条件，并发改投时只有一个请求能成功，避免重复扣减计数
+     *
+     * @param id          投票记录ID
+     * @param oldOptionId 原选项ID
+     * @param newOptionId 新选项ID
+     * @return 影响行数，0表示投票已被并发修改
+     */
+    @Update("UPDATE user_votes SET option_id = #{newOptionId}, created_at = NOW() " +
+            "WHERE id = #{id} AND option_id = #{oldOptionId} AND deleted = 0")
+    int switchOption(@Param("id") Long id, @Param("oldOptionId") Long oldOptionId, @Param("newOptionId") Long newOptionId);
 }
@@ -0,0 +1,248 @@
+package org.example.herizon.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.IdRanges;
+import org.example.herizon.common.TransactionHooks;
+import org.example.herizon.mapper.CommentMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 点赞/收藏计数维护服务
+ * <p>
+ * posts.like_count、posts.collect_count 与 comments.like_count 随 user_actions 的切换同步增减，
+ * 帖子计数写库时作者的获赞数与被收藏数（user_stats）一并累加：
+ * - 默认模式：在切换行为的同一事务中执行 UPDATE ... SET like_count = like_count ± 1，与行为记录一起提交或回滚
+ * - 合并写模式（app.action-count.write-behind=true）：事务提交后把增量累加到内存，定时每个目标只执行一条UPDATE，
+ *   适合热门帖子短时间内大量点赞的场景，代价是计数最多滞后一个刷写周期，进程异常退出时可能丢失未刷写的增量
+ * <p>
+ * 两种模式下计数都可能因手工修数据、整行更新覆盖等原因偏离，定时校准任务按 user_actions 分段重新统计
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class ActionCountService {
+
+    @Autowired
+    private PostMapper postMapper;
+
+    @Autowired
+    private CommentMapper commentMapper;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    /**
+     * 是否启用合并写模式
+     */
+    @Value("${app.action-count.write-behind:false}")
+    private boolean writeBehind;
+
+    /**
+     * 校准时每段覆盖的ID数量
+     */
+    @Value("${app.action-count.reconcile-chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 合并写模式下尚未写库的增量：计数目标 → 点赞/收藏增量
+     */
+    private final ConcurrentHashMap<Target, Delta> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 点赞/收藏切换后调整目标的计数
+     * <p>
+     * 只处理帖子的点赞、收藏和评论的点赞，其他目标类型与行为类型忽略
+     *
+     * @param targetType 目标类型：post / comment
+     * @param targetId   目标ID
+     * @param actionType 行为类型：0=点赞，1=收藏
+     * @param delta      增量，+1或-1
+     */
+    public void onToggle(String targetType, Long targetId, Integer actionType, int delta) {
+        Target target = Target.of(targetType, targetId, actionType);
+        if (target == null) {
+            return;
+        }
+        Delta change = Delta.of(actionType, delta);
+        if (!writeBehind) {
+            apply(target, change);
+            return;
+        }
+        // 合并写模式下只累加已提交的切换，回滚的点赞不计入
+        TransactionHooks.afterCommit(() -> pending.merge(target, change, Delta::plus));
+    }
+
+    /**
+     * 批量切换后调整各目标的计数
+     * <p>
+     * 默认模式下同一事务中帖子与评论各执行一条多行UPDATE；合并写模式下提交后一并累加
+     *
+     * @param toggles 各次切换
+     */
+    public void onToggles(Collection<Toggle> toggles) {
+        Map<Target, Delta> changes = new LinkedHashMap<>();
+        for (Toggle toggle : toggles) {
+            Target target = Target.of(toggle.targetType(), toggle.targetId(), toggle.actionType());
+            if (target != null) {
+                changes.merge(target, Delta.of(toggle.actionType(), toggle.delta()), Delta::plus);
+            }
+        }
+        changes.values().removeIf(Delta::isZero);
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (!writeBehind) {
+            applyAll(changes);
+            return;
+        }
+        TransactionHooks.afterCommit(() -> changes.forEach((target, delta) -> pending.merge(target, delta, Delta::plus)));
+    }
+
+    /**
+     * 合并写模式下定时把累积的增量写入数据库，每个计数目标一条UPDATE
+     */
+    @Scheduled(fixedDelayString = "${app.action-count.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        for (Target target : new ArrayList<>(pending.keySet())) {
+            // remove与merge对同一键是原子的，取出后的新增量会重新累加
+            Delta delta = pending.remove(target);
+            if (delta == null || delta.isZero()) {
+                continue;
+            }
+            try {
+                apply(target, delta);
+            } catch (RuntimeException e) {
+                pending.merge(target, delta, Delta::plus);
+                log.warn("{}{}的计数刷写失败，将在下次重试: {}", target.label(), target.targetId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 按 user_actions 分段重新统计帖子点赞/收藏数与评论点赞数
+     *
+     * @return 被校正的行数（帖子与评论合计）
+     */
+    @Scheduled(cron = "${app.action-count.reconcile-cron:0 30 5 * * *}")
+    public int reconcile() {
+        // 先写入内存中的增量，避免校准后再叠加一次已统计在内的增量
+        flush();
+        int corrected = 0;
+        try {
+            corrected += IdRanges.sum(postMapper, "posts", chunkSize, postMapper::reconcileActionCounts);
+            corrected += IdRanges.sum(commentMapper, "comments", chunkSize, commentMapper::reconcileLikeCounts);
+        } catch (RuntimeException e) {
+            log.warn("点赞/收藏计数校准失败: {}", e.getMessage());
+        }
+        if (corrected > 0) {
+            log.info("点赞/收藏计数校准完成，校正{}行", corrected);
+        }
+        return corrected;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void apply(Target target, Delta delta) {
+        if (target.comment()) {
+            commentMapper.incrementLikeCount(target.targetId(), delta.likes());
+        } else {
+            postMapper.incrementActionCounts(target.targetId(), delta.likes(), delta.collects());
+            userStatsService.onPostCountersChanged(Map.of(target.targetId(), delta.likes()),
+                    Map.of(target.targetId(), delta.collects()));
+        }
+    }
+
+    private void applyAll(Map<Target, Delta> changes) {
+        Map<Long, Long> postLikes = new LinkedHashMap<>();
+        Map<Long, Long> postCollects = new LinkedHashMap<>();
+        Map<Long, Long> commentLikes = new LinkedHashMap<>();
+        changes.forEach((target, delta) -> {
+            if (target.comment()) {
+                commentLikes.put(target.targetId(), delta.likes());
+            } else {
+                postLikes.put(target.targetId(), delta.likes());
+                postCollects.put(target.targetId(), delta.collects());
+            }
+        });
+        if (!postLikes.isEmpty()) {
+            postMapper.incrementActionCountsBatch(postLikes, postCollects);
+            userStatsService.onPostCountersChanged(postLikes, postCollects);
+        }
+        if (!commentLikes.isEmpty()) {
+            commentMapper.incrementLikeCounts(commentLikes);
+        }
+    }
+
+    /**
+     * 一次点赞/收藏切换
+     *
+     * @param targetType 目标类型：post / comment
+     * @param targetId   目标ID
+     * @param actionType 行为类型：0=点赞，1=收藏
+     * @param delta      增量，+1或-1
+     */
+    public record Toggle(String targetType, Long targetId, Integer actionType, int delta) {
+    }
+
+    /**
+     * 计数目标
+     *
+     * @param comment  是否为评论
+     * @param targetId 目标ID
+     */
+    private record Target(boolean comment, Long targetId) {
+
+        static Target of(String targetType, Long targetId, Integer actionType) {
+            if (targetId == null || actionType == null) {
+                return null;
+            }
+            if ("post".equals(targetType) && (actionType == 0 || actionType == 1)) {
+                return new Target(false, targetId);
+            }
+            if ("comment".equals(targetType) && actionType == 0) {
+                return new Target(true, targetId);
+            }
+            return null;
+        }
+
+        String label() {
+            return comment ? "评论" : "帖子";
+        }
+    }
+
+    /**
+     * 计数增量
+     *
+     * @param likes    点赞数增量
+     * @param collects 收藏数增量
+     */
+    private record Delta(long likes, long collects) {
+
+        static Delta of(int actionType, long delta) {
+            return actionType == 0 ? new Delta(delta, 0) : new Delta(0, delta);
+        }
+
+        Delta plus(Delta other) {
+            return new Delta(likes + other.likes, collects + other.collects);
+        }
+
+        boolean isZero() {
+            return likes == 0 && collects == 0;
+        }
+    }
+}
@@ -1,22 +1,29 @@
 package org.example.herizon.service;
 
-import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
 import org.example.herizon.common.PageResult;
-import org.example.herizon.entity.Post;
+import org.example.herizon.dto.BatchActionItem;
+import org.example.herizon.dto.BatchActionResultDTO;
 import org.example.herizon.entity.UserAction;
-import org.example.herizon.mapper.PostMapper;
 import org.example.herizon.mapper.UserActionMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * 用户行为服务
  * <p>
- * 提供点赞、收藏、举报等通用操作能力。
+ * 提供点赞、收藏等通用操作能力，举报由 {@link ReportService} 处理。
  */
 @Service
 public class ActionService {
@@ -25,7 +32,25 @@ public class ActionService {
     private UserActionMapper userActionMapper;
 
     @Autowired
-    private PostMapper postMapper;
+    private HotRankingService hotRankingService;
+
+    @Autowired
+    private PaginationService paginationService;
+
+    @Autowired
+    private ActionCountService actionCountService;
+
+    @Autowired
+    private InteractionStateService interactionStateService;
+
+    @Autowired
+    private FollowService followService;
+
+    /**
+     * 单次批量请求最多包含的操作数
+     */
+    @Value("${app.action-batch.max-size:100}")
+    private int batchMaxSize;
 
     /**
      * 切换点赞状态。
@@ -40,71 +65,221 @@ public class ActionService {
      */
     @Transactional
     public boolean toggleCollect(Long userId, Long targetId, String targetType) {
+        paginationService.evict("collections:" + userId);
         return toggleAction(userId, targetId, targetType, 1);
     }
 
     /**
-     * 记录举报。
+     * 批量执行点赞、收藏、关注切换
+     * <p>
+     * 客户端离线排队的点击按顺序整体提交，在一个事务中完成：
+     * - 同一目标的多次点击先按次数合并，偶数次相互抵消不写库，奇数次等价于一次切换
+     * - 点赞/收藏与关注各由一条多行upsert翻转，再各由一条查询读回整批目标的最终状态
+     * - 计数调整合并为帖子、评论各一条多行UPDATE
+     * 任一操作不合法时整批拒绝
+     *
+     * @param userId 操作用户ID
+     * @param items  按点击顺序排列的操作
+     * @return 每个目标一条最终状态，按首次出现的顺序排列
      */
     @Transactional
-    public void report(Long userId, Long targetId, String targetType, String reason) {
-        UserAction action = new UserAction();
-        action.setUserId(userId);
-        action.setTargetId(targetId);
-        action.setTargetType(targetType);
-        action.setActionType(3);
-        action.setExtraData("{\"reason\":\"" + reason + "\"}");
-        action.setCreatedAt(LocalDateTime.now());
-        action.setDeleted(0);
-        userActionMapper.insert(action);
+    public List<BatchActionResultDTO> batch(Long userId, List<BatchActionItem> items) {
+        if (items.size() > batchMaxSize) {
+            throw new RuntimeException("单次最多提交" + batchMaxSize + "个操作");
+        }
+
+        Map<BatchTarget, Integer> taps = new LinkedHashMap<>();
+        for (BatchActionItem item : items) {
+            taps.merge(BatchTarget.of(item), 1, Integer::sum);
+        }
+
+        Map<Long, Integer> followTaps = new LinkedHashMap<>();
+        List<UserAction> actions = new ArrayList<>();
+        List<UserAction> toggled = new ArrayList<>();
+        taps.forEach((target, count) -> {
+            if (target.actionType() == null) {
+                followTaps.put(target.targetId(), count);
+                return;
+            }
+            UserAction action = target.toUserAction();
+            actions.add(action);
+            if (count % 2 == 1) {
+                toggled.add(action);
+            }
+        });
+
+        Map<BatchTarget, Boolean> states = new HashMap<>();
+        Map<BatchTarget, LocalDateTime> actedAt = new HashMap<>();
+        if (!actions.isEmpty()) {
+            // 按唯一键顺序翻转，并发的批量请求以相同顺序加锁，避免死锁
+            toggled.sort(Comparator.comparing(UserAction::getTargetId)
+                .thenComparing(UserAction::getTargetType)
+                .thenComparing(UserAction::getActionType));
+            if (!toggled.isEmpty()) {
+                userActionMapper.toggleBatch(userId, toggled);
+            }
+            for (UserAction state : userActionMapper.selectStates(userId, actions)) {
+                states.put(BatchTarget.of(state), Integer.valueOf(0).equals(state.getDeleted()));
+                actedAt.put(BatchTarget.of(state), state.getCreatedAt());
+            }
+            applyToggles(userId, toggled, states, actedAt);
+        }
+        followService.toggleFollows(userId, followTaps)
+            .forEach((followeeId, following) -> states.put(BatchTarget.follow(followeeId), following));
+
+        List<BatchActionResultDTO> results = new ArrayList<>(taps.size());
+        for (BatchTarget target : taps.keySet()) {
+            results.add(new BatchActionResultDTO(target.action(), target.targetId(), target.targetType(),
+                states.getOrDefault(target, false)));
+        }
+        return results;
+    }
+
+    /**
+     * 批量翻转后同步计数、点赞/收藏状态缓存和热门排行
+     */
+    private void applyToggles(Long userId, List<UserAction> toggled, Map<BatchTarget, Boolean> states,
+                              Map<BatchTarget, LocalDateTime> actedAt) {
+        List<ActionCountService.Toggle> counts = new ArrayList<>(toggled.size());
+        boolean collected = false;
+        for (UserAction action : toggled) {
+            boolean active = states.getOrDefault(BatchTarget.of(action), false);
+            counts.add(new ActionCountService.Toggle(action.getTargetType(), action.getTargetId(),
+                action.getActionType(), active ? 1 : -1));
+            interactionStateService.onToggle(userId, action.getTargetType(), action.getTargetId(),
+                action.getActionType(), active);
+            updateHotScore(action.getTargetId(), action.getTargetType(), action.getActionType(), active,
+                actedAt.get(BatchTarget.of(action)));
+            collected |= action.getActionType() == 1;
+        }
+        actionCountService.onToggles(counts);
+        if (collected) {
+            paginationService.evict("collections:" + userId);
+        }
     }
 
+    /**
+     * 切换行为状态
+     * <p>
+     * 由一条 INSERT ... ON DUPLICATE KEY UPDATE deleted = 1 - deleted 完成判断与写入，
+     * 唯一键保证同一用户对同一目标只有一条记录，并发重复点击依次翻转而不会产生重复的有效记录。
+     * 语句返回1表示新插入（已生效）；返回2表示翻转了已有记录，此时本事务持有该行的锁，
+     * 按唯一键读回的状态就是本次翻转的结果，取消时读回的created_at是被取消的那次行为的发生时间
+     */
     private boolean toggleAction(Long userId,
                                  Long targetId,
                                  String targetType,
                                  Integer actionType) {
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .where("user_id = ?", userId)
-            .and("target_id = ?", targetId)
-            .and("target_type = ?", targetType)
-            .and("action_type = ?", actionType)
-            .and("(deleted = 0 OR deleted IS NULL)");
+        int affected = userActionMapper.toggle(userId, targetId, targetType, actionType);
+        UserAction state = affected == 1 ? null : userActionMapper.selectState(userId, targetId, targetType, actionType);
+        boolean active = affected == 1 || (state != null && Integer.valueOf(0).equals(state.getDeleted()));
 
-        UserAction existingAction = userActionMapper.selectOneByQuery(queryWrapper);
+        actionCountService.onToggle(targetType, targetId, actionType, active ? 1 : -1);
+        interactionStateService.onToggle(userId, targetType, targetId, actionType, active);
+        updateHotScore(targetId, targetType, actionType, active, state != null ? state.getCreatedAt() : null);
+        return active;
+    }
 
-        if (existingAction != null) {
-            existingAction.setDeleted(1);
-            userActionMapper.update(existingAction);
-            return false;
+    /**
+     * 帖子的点赞、收藏变化同步到首页热门排行。
+     * 取消时按被取消的那次行为的发生时间扣除热度，actedAt为null时按当前时间计算
+     */
+    private void updateHotScore(Long targetId, String targetType, Integer actionType, boolean added,
+                                LocalDateTime actedAt) {
+        if (!"post".equals(targetType)) {
+            return;
         }
+        double weight = actionType == 0 ? HotRankingService.WEIGHT_LIKE : HotRankingService.WEIGHT_COLLECT;
+        hotRankingService.onInteraction(targetId, weight, added, actedAt);
+    }
 
-        UserAction action = new UserAction();
-        action.setUserId(userId);
-        action.setTargetId(targetId);
-        action.setTargetType(targetType);
-        action.setActionType(actionType);
-        action.setCreatedAt(LocalDateTime.now());
-        action.setDeleted(0);
-        userActionMapper.insert(action);
-        return true;
+    /**
+     * 分页获取收藏记录，按收藏时间倒序
+     * <p>
+     * 收藏时间即 user_actions.created_at（取消后重新收藏时刷新），
+     * 查询走 idx_user_collect 覆盖索引，不再回表关联帖子
+     *
+     * @param userId  用户ID
+     * @param current 当前页码
+     * @param size    每页大小
+     * @return 收藏记录分页结果（含targetId与createdAt）
+     */
+    public PageResult<UserAction> getCollectionPage(Long userId, Integer current, Integer size) {
+        QueryWrapper queryWrapper = buildCollectionQuery(userId)
+            .orderBy("created_at DESC", "target_id DESC");
+        return paginationService.paginate(userActionMapper, queryWrapper, current, size, "collections:" + userId);
     }
 
     /**
-     * 获取收藏的帖子列表。
+     * 按收藏时间游标获取收藏记录
+     *
+     * @param userId      用户ID
+     * @param collectedAt 上一页最后一条的收藏时间，为空表示第一页
+     * @param postId      上一页最后一条的帖子ID
+     * @param limit       最多返回条数
+     * @return 收藏记录（含targetId与createdAt），按收藏时间倒序
      */
-    public PageResult<Post> getCollections(Long userId, Integer current, Integer size) {
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .select("posts.*, users.nickname AS authorNickname, users.username AS authorUsername")
-            .from("posts")
-            .leftJoin("users").on("users.id = posts.user_id")
-            .where("EXISTS (SELECT 1 FROM user_actions WHERE user_actions.target_id = posts.id " +
-                   "AND user_actions.user_id = ? AND user_actions.action_type = 1 " +
-                   "AND (user_actions.deleted = 0 OR user_actions.deleted IS NULL) AND user_actions.target_type = 'post')", userId)
-            .and("posts.deleted = 0")
-            .orderBy("posts.created_at DESC");
-
-        Page<Post> page = Page.of(current, size);
-        Page<Post> postPage = postMapper.paginate(page, queryWrapper);
-        return PageResult.of(postPage.getRecords(), postPage.getTotalRow(), (long) current, (long) size);
+    public List<UserAction> getCollectionEntries(Long userId, LocalDateTime collectedAt, Long postId, int limit) {
+        QueryWrapper queryWrapper = buildCollectionQuery(userId)
+            .orderBy("created_at DESC", "target_id DESC")
+            .limit(limit);
+        if (collectedAt != null) {
+            queryWrapper.and("(created_at < ? OR (created_at = ? AND target_id < ?))", collectedAt, collectedAt, postId);
+        }
+        return userActionMapper.selectListByQuery(queryWrapper);
+    }
+
+    private QueryWrapper buildCollectionQuery(Long userId) {
+        return QueryWrapper.create()
+            .select("target_id, created_at")
+            .from("user_actions")
+            .where("user_id = ?", userId)
+            .and("action_type = 1")
+            .and("target_type = 'post'")
+            .and("deleted = 0");
+    }
+
+    /**
+     * 批量操作的目标
+     *
+     * @param action     操作类型：like / collect / follow
+     * @param targetType 目标类型，关注时为user
+     * @param targetId   目标ID
+     * @param actionType 行为类型：0=点赞，1=收藏，关注时为null
+     */
+    private record BatchTarget(String action, String targetType, Long targetId, Integer actionType) {
+
+        static BatchTarget of(BatchActionItem item) {
+            if (item == null || item.getTargetId() == null) {
+                throw new RuntimeException("目标ID不能为空");
+            }
+            String action = item.getAction() == null ? "" : item.getAction().trim().toLowerCase(Locale.ROOT);
+            String targetType = (item.getTargetType() == null || item.getTargetType().trim().isEmpty())
+                ? "post"
+                : item.getTargetType().trim().toLowerCase(Locale.ROOT);
+            return switch (action) {
+                case "like" -> new BatchTarget(action, targetType, item.getTargetId(), 0);
+                case "collect" -> new BatchTarget(action, targetType, item.getTargetId(), 1);
+                case "follow" -> follow(item.getTargetId());
+                default -> throw new RuntimeException("不支持的操作类型: " + item.getAction());
+            };
+        }
+
+        static BatchTarget of(UserAction action) {
+            return new BatchTarget(action.getActionType() == 0 ? "like" : "collect",
+                action.getTargetType(), action.getTargetId(), action.getActionType());
+        }
+
+        static BatchTarget follow(Long followeeId) {
+            return new BatchTarget("follow", "user", followeeId, null);
+        }
+
+        UserAction toUserAction() {
+            UserAction action = new UserAction();
+            action.setTargetId(targetId);
+            action.setTargetType(targetType);
+            action.setActionType(actionType);
+            return action;
+        }
     }
 }
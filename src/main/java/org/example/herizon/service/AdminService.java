@@ -1,12 +1,14 @@
 package org.example.herizon.service;
 
-import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
 import org.example.herizon.common.PageResult;
 import org.example.herizon.dto.AdminUserDTO;
 import org.example.herizon.dto.PostDTO;
+import org.example.herizon.dto.UserSummary;
 import org.example.herizon.entity.User;
 import org.example.herizon.entity.Post;
+import org.example.herizon.entity.ReportAggregate;
+import org.example.herizon.enums.ReportStatus;
 import org.example.herizon.mapper.PostMapper;
 import org.example.herizon.mapper.TagMapper;
 import org.example.herizon.mapper.UserActionMapper;
@@ -49,12 +51,21 @@ public class AdminService {
     @Autowired
     private PostService postService;
 
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private PaginationService paginationService;
+
+    @Autowired
+    private UserSummaryService userSummaryService;
+
     /**
      * 验证管理员权限
      */
     private void validateAdminPermission(Long adminId) {
-        User admin = userMapper.selectOneById(adminId);
-        if (admin == null || admin.getRole() != 2) {
+        UserSummary admin = userSummaryService.get(adminId);
+        if (admin == null || !admin.isAdmin()) {
             throw new RuntimeException("无管理员权限");
         }
     }
@@ -71,12 +82,12 @@ public class AdminService {
                 .and("deleted = 0")
                 .orderBy("created_at DESC");
 
-        Page<User> page = userMapper.paginate(Page.of(current, size), queryWrapper);
+        PageResult<User> page = paginationService.paginate(userMapper, queryWrapper, current, size, "users:pending");
         List<AdminUserDTO> userDTOs = page.getRecords().stream()
                 .map(this::convertToAdminUserDTO)
                 .collect(Collectors.toList());
 
-        return PageResult.of(userDTOs, page.getTotalRow(), (long) current, (long) size);
+        return page.withRecords(userDTOs);
     }
 
     /**
@@ -96,6 +107,8 @@ public class AdminService {
         }
         user.setUpdatedAt(LocalDateTime.now());
         userMapper.update(user);
+        userSummaryService.invalidate(userId);
+        paginationService.invalidate("users:");
     }
 
     /**
@@ -123,6 +136,7 @@ public class AdminService {
         targetUser.setRole(2);
         targetUser.setUpdatedAt(LocalDateTime.now());
         userMapper.update(targetUser);
+        userSummaryService.invalidate(targetUserId);
     }
 
     /**
@@ -150,6 +164,8 @@ public class AdminService {
         targetUser.setDeleted(1);
         targetUser.setUpdatedAt(LocalDateTime.now());
         userMapper.update(targetUser);
+        userSummaryService.invalidate(targetUserId);
+        paginationService.invalidate("users:");
 
         QueryWrapper postQuery = QueryWrapper.create()
                 .where("user_id = ?", targetUserId)
@@ -175,12 +191,12 @@ public class AdminService {
                 .where("deleted = 0")
                 .orderBy("created_at DESC");
 
-        Page<User> page = userMapper.paginate(Page.of(current, size), queryWrapper);
+        PageResult<User> page = paginationService.paginate(userMapper, queryWrapper, current, size, "users:all");
         List<AdminUserDTO> users = page.getRecords().stream()
                 .map(this::convertToAdminUserDTO)
                 .collect(Collectors.toList());
 
-        return PageResult.of(users, page.getTotalRow(), (long) current, (long) size);
+        return page.withRecords(users);
     }
 
     /**
@@ -207,6 +223,33 @@ public class AdminService {
         postService.deletePost(postId, adminId);
     }
 
+    /**
+     * 获取举报审核队列
+     *
+     * @param status  汇总状态编码（pending/hidden/dismissed/confirmed），为空时默认hidden
+     * @param current 当前页码
+     * @param size    每页大小
+     * @param adminId 管理员ID
+     * @return 按举报人数排序的举报汇总
+     */
+    public PageResult<ReportAggregate> getReportQueue(String status, Integer current, Integer size, Long adminId) {
+        validateAdminPermission(adminId);
+        return reportService.getQueue(ReportStatus.fromCode(status), current, size);
+    }
+
+    /**
+     * 处理举报
+     *
+     * @param targetType 被举报对象类型
+     * @param targetId   被举报对象ID
+     * @param violation  true=确认违规并删除内容，false=驳回并恢复内容
+     * @param adminId    管理员ID
+     */
+    public void resolveReport(String targetType, Long targetId, boolean violation, Long adminId) {
+        validateAdminPermission(adminId);
+        reportService.resolve(targetType, targetId, violation, adminId);
+    }
+
     /**
      * 获取平台统计数据（简化版 - 符合MVP原则）
      * <p>
@@ -0,0 +1,57 @@
+package org.example.herizon.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.IdRanges;
+import org.example.herizon.mapper.CommentMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 评论计数校准服务
+ * <p>
+ * comments.reply_count 与 posts.comment_count 在评论发表、删除、举报隐藏/恢复时原子增减，
+ * 列表直接读取，不再逐条 COUNT。冗余计数可能因手工修数据等原因偏离，本服务定期按 comments 重新统计：
+ * - 评论与帖子分别按ID分段执行，每段一条 UPDATE ... JOIN (SELECT ... GROUP BY)
+ * - 只统计状态正常且未删除的评论，只更新与统计结果不一致的行
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class CommentCountService {
+
+    @Autowired
+    private CommentMapper commentMapper;
+
+    @Autowired
+    private PostMapper postMapper;
+
+    /**
+     * 每段覆盖的评论/帖子ID数量
+     */
+    @Value("${app.comment-count.reconcile-chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 全量校准评论回复数与帖子评论数
+     *
+     * @return 被校正的行数（评论与帖子合计）
+     */
+    @Scheduled(cron = "${app.comment-count.reconcile-cron:0 45 5 * * *}")
+    public int reconcile() {
+        int corrected = 0;
+        try {
+            corrected += IdRanges.sum(commentMapper, "comments", chunkSize, commentMapper::reconcileReplyCounts);
+            corrected += IdRanges.sum(postMapper, "posts", chunkSize, postMapper::reconcileCommentCounts);
+        } catch (RuntimeException e) {
+            log.warn("评论计数校准失败: {}", e.getMessage());
+        }
+        if (corrected > 0) {
+            log.info("评论计数校准完成，校正{}行", corrected);
+        }
+        return corrected;
+    }
+}
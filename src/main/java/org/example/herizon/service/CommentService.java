@@ -1,13 +1,13 @@
 package org.example.herizon.service;
 
-import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.common.BatchLoader;
 import org.example.herizon.common.PageResult;
 import org.example.herizon.dto.CommentDTO;
 import org.example.herizon.dto.CreateCommentRequest;
+import org.example.herizon.dto.UserSummary;
 import org.example.herizon.entity.Comment;
 import org.example.herizon.entity.Post;
-import org.example.herizon.entity.User;
 import org.example.herizon.mapper.CommentMapper;
 import org.example.herizon.mapper.PostMapper;
 import org.example.herizon.mapper.UserMapper;
@@ -18,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -36,6 +37,16 @@ import java.util.stream.Collectors;
 @Service
 public class CommentService {
 
+    /**
+     * 最大层级深度，保证物化路径不超过 comments.path 的1000个字符（每层13个字符）
+     */
+    private static final int MAX_DEPTH = 75;
+
+    /**
+     * 返回给前端的最大显示层级，更深的回复按此层级显示（与原先逐级查询父评论时的上限一致）
+     */
+    private static final int MAX_DISPLAY_LEVEL = 10;
+
     @Autowired
     private CommentMapper commentMapper;
 
@@ -45,6 +56,15 @@ public class CommentService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private PaginationService paginationService;
+
+    @Autowired
+    private UserSummaryService userSummaryService;
+
+    @Autowired
+    private DataLoaderService dataLoaderService;
+
     /**
      * 分页查询帖子的评论列表
      * <p>
@@ -64,15 +84,13 @@ public class CommentService {
                 .and("deleted = 0")
                 .orderBy("created_at ASC"); // 按时间升序，便于按顺序阅读
 
-        // 执行分页查询
-        Page<Comment> page = commentMapper.paginate(Page.of(current, size), queryWrapper);
+        // 执行分页查询（不执行COUNT，总数取缓存值）
+        PageResult<Comment> page = paginationService.paginate(commentMapper, queryWrapper, current, size, "comments:post:" + postId);
 
         // 转换为DTO并加载子评论
-        List<CommentDTO> commentDTOs = page.getRecords().stream()
-                .map(comment -> convertToDTO(comment, true, 2)) // 加载前2条子评论
-                .collect(Collectors.toList());
+        List<CommentDTO> commentDTOs = convertToDTOList(page.getRecords(), 2); // 加载前2条子评论
 
-        return PageResult.of(commentDTOs, page.getTotalRow(), (long) current, (long) size);
+        return page.withRecords(commentDTOs);
     }
 
     /**
@@ -90,13 +108,52 @@ public class CommentService {
                 .and("deleted = 0")
                 .orderBy("created_at ASC");
 
-        Page<Comment> page = commentMapper.paginate(Page.of(current, size), queryWrapper);
+        PageResult<Comment> page = paginationService.paginate(commentMapper, queryWrapper, current, size, "comments:replies:" + parentId);
 
-        List<CommentDTO> commentDTOs = page.getRecords().stream()
-                .map(comment -> convertToDTO(comment, false, 0)) // 子评论不再加载孙评论
-                .collect(Collectors.toList());
+        List<CommentDTO> commentDTOs = convertToDTOList(page.getRecords(), 0); // 子评论不再加载孙评论
 
-        return PageResult.of(commentDTOs, page.getTotalRow(), (long) current, (long) size);
+        return page.withRecords(commentDTOs);
+    }
+
+    /**
+     * 获取评论及其下整棵子树
+     * <p>
+     * 子树在物化路径上是连续区间，按路径顺序一次范围查询，结果为先序遍历顺序，层级由level表示；
+     * 包含仍有回复的占位评论，以便保持树结构完整
+     *
+     * @param id      评论ID
+     * @param afterId 上一页最后一条评论ID，为null表示第一页
+     * @param size    每页大小
+     * @return 游标分页结果，nextCursor为本页最后一条评论ID
+     */
+    public PageResult<CommentDTO> getCommentThread(Long id, Long afterId, Integer size) {
+        Comment comment = commentMapper.selectOneById(id);
+        if (comment == null || comment.getDeleted() == 1) {
+            throw new RuntimeException("评论不存在");
+        }
+
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .where("root_id = ?", comment.getRootId())
+                .and("path LIKE ?", comment.getPath() + "%")
+                .and("status IN (0, 1)")
+                .and("deleted = 0")
+                .orderBy("path ASC")
+                .limit(size + 1);
+        if (afterId != null) {
+            Comment after = commentMapper.selectOneById(afterId);
+            if (after == null || !after.getPath().startsWith(comment.getPath())) {
+                throw new RuntimeException("分页游标无效");
+            }
+            queryWrapper.and("path > ?", after.getPath());
+        }
+
+        List<Comment> comments = commentMapper.selectListByQuery(queryWrapper);
+        String nextCursor = null;
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            nextCursor = String.valueOf(comments.get(size - 1).getId());
+        }
+        return PageResult.ofCursor(convertToDTOList(comments, 0), nextCursor, (long) size);
     }
 
     /**
@@ -116,8 +173,9 @@ public class CommentService {
         }
 
         // 如果是回复评论，验证父评论是否存在
+        Comment parentComment = null;
         if (request.getParentId() != null) {
-            Comment parentComment = commentMapper.selectOneById(request.getParentId());
+            parentComment = commentMapper.selectOneById(request.getParentId());
             if (parentComment == null || parentComment.getDeleted() == 1 || parentComment.getStatus() != 0) {
                 throw new RuntimeException("回复的评论不存在或已被删除");
             }
@@ -125,6 +183,9 @@ public class CommentService {
             if (!parentComment.getPostId().equals(request.getPostId())) {
                 throw new RuntimeException("不能回复其他帖子的评论");
             }
+            if (parentComment.getDepth() >= MAX_DEPTH) {
+                throw new RuntimeException("回复层级过深");
+            }
         }
 
         // 创建评论实体
@@ -140,13 +201,25 @@ public class CommentService {
         comment.setPostId(request.getPostId());
         comment.setUserId(userId);
         comment.setParentId(request.getParentId());
+        comment.setRootId(parentComment != null ? parentComment.getRootId() : null);
+        comment.setDepth(parentComment != null ? parentComment.getDepth() + 1 : 0);
+        comment.setPath("");
         comment.setContent(request.getContent());
+        comment.setLikeCount(0);
+        comment.setReplyCount(0);
         comment.setCreatedAt(LocalDateTime.now());
         comment.setStatus(0);
         comment.setDeleted(0);
 
-        // 保存到数据库
+        // 保存到数据库，路径包含自身ID，插入后补写
         commentMapper.insert(comment);
+        if (comment.getRootId() == null) {
+            comment.setRootId(comment.getId());
+        }
+        comment.setPath((parentComment != null ? parentComment.getPath() : "") + pathSegment(comment.getId()));
+        commentMapper.update(comment);
+        adjustCounts(comment, 1);
+        evictPageCounts(comment);
 
         return comment;
     }
@@ -169,33 +242,66 @@ public class CommentService {
         }
 
         // 验证权限：用户只能删除自己的评论，管理员可以删除任何评论
-        User user = userMapper.selectOneById(userId);
+        UserSummary user = userSummaryService.get(userId);
         if (user == null) {
             throw new RuntimeException("用户不存在");
         }
 
-        boolean canDelete = comment.getUserId().equals(userId) || user.getRole() == 2;
+        boolean canDelete = comment.getUserId().equals(userId) || user.isAdmin();
         if (!canDelete) {
             throw new RuntimeException("无权限删除此评论");
         }
 
-        // 检查是否有子评论
-        QueryWrapper childCountQuery = QueryWrapper.create()
-                .where("parent_id = ?", id)
-                .and("status = 0")
-                .and("deleted = 0");
-        long childCount = commentMapper.selectCountByQuery(childCountQuery);
-
-        if (childCount > 0) {
+        // 只更新变化的字段，避免用读取时的旧值覆盖并发变化的计数
+        Comment update = new Comment();
+        update.setId(id);
+        if (comment.getReplyCount() > 0) {
             // 有子评论时，保留评论但标记为删除状态，内容替换为占位符
-            comment.setStatus(1);
-            comment.setContent("[该评论已被删除]");
+            update.setStatus(1);
+            update.setContent("[该评论已被删除]");
         } else {
             // 无子评论时，直接逻辑删除
-            comment.setDeleted(1);
+            update.setDeleted(1);
         }
 
-        commentMapper.update(comment);
+        commentMapper.update(update);
+        if (comment.getStatus() == 0) {
+            adjustCounts(comment, -1);
+        }
+        evictPageCounts(comment);
+    }
+
+    /**
+     * 评论被举报隐藏或恢复后同步计数并使列表总数缓存过期
+     *
+     * @param comment 评论实体
+     * @param visible true=恢复显示，false=已隐藏
+     */
+    void onVisibilityChanged(Comment comment, boolean visible) {
+        adjustCounts(comment, visible ? 1 : -1);
+        evictPageCounts(comment);
+    }
+
+    /**
+     * 评论变为可见或不可见时增减父评论的回复数与帖子的评论数
+     */
+    private void adjustCounts(Comment comment, int delta) {
+        if (comment.getParentId() != null) {
+            commentMapper.incrementReplyCount(comment.getParentId(), delta);
+        }
+        postMapper.incrementCommentCount(comment.getPostId(), delta);
+    }
+
+    /**
+     * 评论增删或被举报隐藏后使相关列表的总数缓存过期
+     */
+    void evictPageCounts(Comment comment) {
+        paginationService.evict("comments:user:" + comment.getUserId());
+        if (comment.getParentId() == null) {
+            paginationService.evict("comments:post:" + comment.getPostId());
+        } else {
+            paginationService.evict("comments:replies:" + comment.getParentId());
+        }
     }
 
     /**
@@ -213,13 +319,11 @@ public class CommentService {
                 .and("deleted = 0")
                 .orderBy("created_at DESC"); // 按时间倒序，显示最新评论
 
-        Page<Comment> page = commentMapper.paginate(Page.of(current, size), queryWrapper);
+        PageResult<Comment> page = paginationService.paginate(commentMapper, queryWrapper, current, size, "comments:user:" + userId);
 
-        List<CommentDTO> commentDTOs = page.getRecords().stream()
-                .map(comment -> convertToDTO(comment, false, 0))
-                .collect(Collectors.toList());
+        List<CommentDTO> commentDTOs = convertToDTOList(page.getRecords(), 0);
 
-        return PageResult.of(commentDTOs, page.getTotalRow(), (long) current, (long) size);
+        return page.withRecords(commentDTOs);
     }
 
     /**
@@ -233,7 +337,7 @@ public class CommentService {
         if (comment == null || comment.getDeleted() == 1) {
             return null;
         }
-        return convertToDTO(comment, true, 5); // 加载前5条子评论
+        return convertToDTOList(List.of(comment), 5).get(0); // 加载前5条子评论
     }
 
     /**
@@ -250,104 +354,119 @@ public class CommentService {
                 .limit(limit);
 
         List<Comment> comments = commentMapper.selectListByQuery(queryWrapper);
-        return comments.stream()
-                .map(comment -> convertToDTO(comment, false, 0))
-                .collect(Collectors.toList());
+        return convertToDTOList(comments, 0);
     }
 
     /**
-     * 将评论实体转换为DTO
+     * 批量将评论实体转换为DTO
+     * <p>
+     * 查询次数与评论数量无关：
+     * - 子评论一次窗口查询，回复数量直接取自 reply_count 字段
+     * - 父评论、评论者（含父评论作者）和所属帖子各一次批量查询，并在本次请求内复用
+     * - 层级深度直接取自 depth 字段
      *
-     * @param comment           评论实体
-     * @param includeReplies    是否包含子评论
-     * @param maxReplies        最多包含的子评论数量
-     * @return 评论DTO
+     * @param comments   评论实体列表
+     * @param maxReplies 每条评论最多包含的子评论数量，0表示不加载子评论
+     * @return 评论DTO列表，顺序与传入一致
+     */
+    private List<CommentDTO> convertToDTOList(List<Comment> comments, int maxReplies) {
+        if (comments.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 一次窗口查询加载有回复的评论的前几条子评论
+        List<Long> repliedIds = comments.stream()
+                .filter(comment -> comment.getReplyCount() > 0)
+                .map(Comment::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<Comment>> repliesByParent = new HashMap<>();
+        List<Comment> allComments = new ArrayList<>(comments);
+        if (maxReplies > 0 && !repliedIds.isEmpty()) {
+            for (Comment reply : commentMapper.selectFirstReplies(repliedIds, maxReplies)) {
+                repliesByParent.computeIfAbsent(reply.getParentId(), key -> new ArrayList<>()).add(reply);
+                allComments.add(reply);
+            }
+        }
+
+        BatchLoader<Long, Comment> commentLoader = dataLoaderService.comments();
+        BatchLoader<Long, UserSummary> userLoader = dataLoaderService.users();
+        BatchLoader<Long, Post> postLoader = dataLoaderService.posts();
+        for (Comment comment : allComments) {
+            commentLoader.prime(comment.getId(), comment);
+        }
+        for (Comment comment : allComments) {
+            commentLoader.enqueue(comment.getParentId());
+        }
+
+        for (Comment comment : allComments) {
+            userLoader.enqueue(comment.getUserId());
+            postLoader.enqueue(comment.getPostId());
+            Comment parentComment = comment.getParentId() != null ? commentLoader.load(comment.getParentId()) : null;
+            if (parentComment != null) {
+                userLoader.enqueue(parentComment.getUserId());
+            }
+        }
+
+        List<CommentDTO> result = new ArrayList<>(comments.size());
+        for (Comment comment : comments) {
+            CommentDTO dto = buildDTO(comment, commentLoader, userLoader, postLoader);
+            List<CommentDTO> replyDTOs = new ArrayList<>();
+            for (Comment reply : repliesByParent.getOrDefault(comment.getId(), List.of())) {
+                CommentDTO replyDTO = buildDTO(reply, commentLoader, userLoader, postLoader);
+                replyDTO.setReplies(new ArrayList<>()); // 子评论不再递归加载
+                replyDTOs.add(replyDTO);
+            }
+            dto.setReplies(replyDTOs);
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * 使用已加载的关联数据构建单条评论DTO（不含子评论列表）
      */
-    private CommentDTO convertToDTO(Comment comment, boolean includeReplies, int maxReplies) {
+    private CommentDTO buildDTO(Comment comment,
+                                BatchLoader<Long, Comment> commentLoader,
+                                BatchLoader<Long, UserSummary> userLoader,
+                                BatchLoader<Long, Post> postLoader) {
         CommentDTO dto = new CommentDTO();
         BeanUtils.copyProperties(comment, dto);
 
         // 获取评论者用户名
-        User user = userMapper.selectOneById(comment.getUserId());
+        UserSummary user = userLoader.load(comment.getUserId());
         if (user != null) {
             dto.setUsername(user.getUsername());
         }
 
         // 获取所属帖子标题，安全处理可能为null的标题字段
-        Post post = postMapper.selectOneById(comment.getPostId());
+        Post post = postLoader.load(comment.getPostId());
         if (post != null) {
             dto.setPostTitle(post.getTitle() != null ? post.getTitle() : "");
         }
 
         // 如果是回复评论，获取父评论作者用户名
         if (comment.getParentId() != null) {
-            Comment parentComment = commentMapper.selectOneById(comment.getParentId());
+            Comment parentComment = commentLoader.load(comment.getParentId());
             if (parentComment != null) {
-                User parentUser = userMapper.selectOneById(parentComment.getUserId());
+                UserSummary parentUser = userLoader.load(parentComment.getUserId());
                 if (parentUser != null) {
                     dto.setParentUsername(parentUser.getUsername());
                 }
             }
         }
 
-        // 计算回复数量
-        QueryWrapper replyCountQuery = QueryWrapper.create()
-                .where("parent_id = ?", comment.getId())
-                .and("status = 0")
-                .and("deleted = 0");
-        int replyCount = (int) commentMapper.selectCountByQuery(replyCountQuery);
-        dto.setReplyCount(replyCount);
-
-        // 计算层级深度
-        dto.setLevel(calculateCommentLevel(comment));
+        dto.setReplyCount(comment.getReplyCount());
+        dto.setLevel(comment.getDepth() != null ? Math.min(comment.getDepth(), MAX_DISPLAY_LEVEL) : 0);
 
         // 检查是否为占位符（已删除但有子评论的评论）
         dto.setIsPlaceholder(comment.getStatus() == 1);
-
-        // 如果需要包含子评论，加载子评论列表
-        if (includeReplies && maxReplies > 0 && replyCount > 0) {
-            QueryWrapper repliesQuery = QueryWrapper.create()
-                    .where("parent_id = ?", comment.getId())
-                    .and("status = 0")
-                    .and("deleted = 0")
-                    .orderBy("created_at ASC")
-                    .limit(maxReplies);
-
-            List<Comment> replies = commentMapper.selectListByQuery(repliesQuery);
-            List<CommentDTO> replyDTOs = replies.stream()
-                    .map(reply -> convertToDTO(reply, false, 0)) // 子评论不再递归加载
-                    .collect(Collectors.toList());
-            dto.setReplies(replyDTOs);
-        } else {
-            dto.setReplies(new ArrayList<>());
-        }
-
         return dto;
     }
 
     /**
-     * 计算评论的层级深度
-     *
-     * @param comment 评论实体
-     * @return 层级深度，0表示顶级评论
+     * 物化路径中单个评论ID对应的片段，与回填脚本中的 lpad(id, 12, '0') 一致
      */
-    private Integer calculateCommentLevel(Comment comment) {
-        if (comment.getParentId() == null) {
-            return 0; // 顶级评论
-        }
-
-        // 递归查找父评论计算层级
-        int level = 0;
-        Long currentParentId = comment.getParentId();
-        while (currentParentId != null && level < 10) { // 限制最大层级防止死循环
-            Comment parentComment = commentMapper.selectOneById(currentParentId);
-            if (parentComment == null) {
-                break;
-            }
-            level++;
-            currentParentId = parentComment.getParentId();
-        }
-
-        return level;
+    static String pathSegment(Long commentId) {
+        return String.format("%012d/", commentId);
     }
-}
\ No newline at end of file
+}
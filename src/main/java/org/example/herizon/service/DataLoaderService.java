@@ -0,0 +1,101 @@
+package org.example.herizon.service;
+
+import org.example.herizon.common.BatchLoader;
+import org.example.herizon.dto.UserSummary;
+import org.example.herizon.entity.Comment;
+import org.example.herizon.entity.Post;
+import org.example.herizon.entity.UserStats;
+import org.example.herizon.mapper.CommentMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 请求级批量加载服务
+ * <p>
+ * 为DTO组装提供按实体类型划分的 {@link BatchLoader}：
+ * - 同一个HTTP请求内每种实体共用一个加载器，各个DTO构建方法登记的ID合并去重后一次 IN 查询加载
+ * - 加载结果在请求结束前一直有效，同一请求中重复出现的用户、帖子不会再次查询
+ * - 不在HTTP请求中（定时任务等）时每次返回新的加载器，由调用方在一次组装内持有
+ *
+ * @author Kokoa
+ */
+@Service
+public class DataLoaderService {
+
+    private static final String ATTRIBUTE = DataLoaderService.class.getName();
+
+    @Autowired
+    private UserSummaryService userSummaryService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private PostMapper postMapper;
+
+    @Autowired
+    private CommentMapper commentMapper;
+
+    /**
+     * 用户摘要加载器
+     */
+    public BatchLoader<Long, UserSummary> users() {
+        return loader("users", userSummaryService::getAll);
+    }
+
+    /**
+     * 用户统计（发帖数、粉丝数等）加载器
+     */
+    public BatchLoader<Long, UserStats> userStats() {
+        return loader("user-stats", userStatsService::getAll);
+    }
+
+    /**
+     * 帖子加载器，已逻辑删除的帖子视为不存在
+     */
+    public BatchLoader<Long, Post> posts() {
+        return loader("posts", ids -> postMapper.selectListByIds(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity())));
+    }
+
+    /**
+     * 评论加载器，已逻辑删除的评论视为不存在
+     */
+    public BatchLoader<Long, Comment> comments() {
+        return loader("comments", ids -> commentMapper.selectListByIds(ids).stream()
+                .collect(Collectors.toMap(Comment::getId, Function.identity())));
+    }
+
+    /**
+     * 获取当前请求中指定名称的加载器，不存在时用给定的批量函数创建
+     * <p>
+     * 供各服务注册自己的关联数据加载器（如帖子标签），名称在整个应用内需唯一
+     *
+     * @param name          加载器名称
+     * @param batchFunction 批量加载函数，参数为去重后的键
+     * @return 加载器
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> BatchLoader<K, V> loader(String name, Function<Collection<K>, Map<K, V>> batchFunction) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return new BatchLoader<>(batchFunction);
+        }
+        Map<String, BatchLoader<?, ?>> loaders =
+                (Map<String, BatchLoader<?, ?>>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (loaders == null) {
+            loaders = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, loaders, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (BatchLoader<K, V>) loaders.computeIfAbsent(name, key -> new BatchLoader<>(batchFunction));
+    }
+}
@@ -6,6 +6,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.herizon.dto.FeedbackAdminViewDTO;
 import org.example.herizon.dto.FeedbackRequest;
 import org.example.herizon.dto.FeedbackSummaryDTO;
+import org.example.herizon.dto.UserSummary;
 import org.example.herizon.entity.Feedback;
 import org.example.herizon.entity.User;
 import org.example.herizon.enums.FeedbackStatus;
@@ -15,7 +16,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -33,6 +33,8 @@ public class FeedbackService {
 
     private final FeedbackMapper feedbackMapper;
     private final UserMapper userMapper;
+    private final UserSummaryService userSummaryService;
+    private final DataLoaderService dataLoaderService;
 
     /**
      * 提交反馈
@@ -111,7 +113,9 @@ public class FeedbackService {
         }
 
         List<Feedback> feedbacks = feedbackMapper.selectListByQuery(queryWrapper);
-        Map<Long, User> userMap = loadUsers(feedbacks);
+        Map<Long, UserSummary> userMap = dataLoaderService.users().loadAll(feedbacks.stream()
+                .map(Feedback::getUserId)
+                .collect(Collectors.toSet()));
 
         return feedbacks.stream()
                 .map(feedback -> toAdminDto(feedback, userMap.get(feedback.getUserId())))
@@ -127,7 +131,7 @@ public class FeedbackService {
      */
     @Transactional
     public void replyFeedback(Long feedbackId, String replyContent, Long adminId) {
-        User admin = requireAdminUser(adminId);
+        UserSummary admin = requireAdminUser(adminId);
 
         if (replyContent == null || replyContent.trim().isEmpty()) {
             throw new IllegalArgumentException("回复内容不能为空");
@@ -173,7 +177,7 @@ public class FeedbackService {
         return dto;
     }
 
-    private FeedbackAdminViewDTO toAdminDto(Feedback feedback, User user) {
+    private FeedbackAdminViewDTO toAdminDto(Feedback feedback, UserSummary user) {
         FeedbackAdminViewDTO dto = new FeedbackAdminViewDTO();
         dto.setId(feedback.getId());
         dto.setUserId(feedback.getUserId());
@@ -194,21 +198,6 @@ public class FeedbackService {
         return dto;
     }
 
-    private Map<Long, User> loadUsers(List<Feedback> feedbacks) {
-        Map<Long, User> result = new HashMap<>();
-        for (Feedback feedback : feedbacks) {
-            Long userId = feedback.getUserId();
-            if (userId == null || result.containsKey(userId)) {
-                continue;
-            }
-            User user = userMapper.selectOneById(userId);
-            if (user != null) {
-                result.put(userId, user);
-            }
-        }
-        return result;
-    }
-
     private User requireExistingUser(Long userId) {
         if (userId == null) {
             throw new IllegalArgumentException("请先登录后再提交反馈");
@@ -220,9 +209,15 @@ public class FeedbackService {
         return user;
     }
 
-    private User requireAdminUser(Long adminId) {
-        User admin = requireExistingUser(adminId);
-        if (admin.getRole() == null || admin.getRole() != 2) {
+    private UserSummary requireAdminUser(Long adminId) {
+        if (adminId == null) {
+            throw new IllegalArgumentException("请先登录后再提交反馈");
+        }
+        UserSummary admin = userSummaryService.get(adminId);
+        if (admin == null) {
+            throw new IllegalArgumentException("用户不存在或已被删除");
+        }
+        if (!admin.isAdmin()) {
             throw new IllegalStateException("仅管理员可以执行该操作");
         }
         return admin;
@@ -269,7 +264,7 @@ public class FeedbackService {
         return 2;
     }
 
-    private String resolveDisplayName(User user) {
+    private String resolveDisplayName(UserSummary user) {
         if (user.getNickname() != null && !user.getNickname().trim().isEmpty()) {
             return user.getNickname();
         }
@@ -0,0 +1,176 @@
+package org.example.herizon.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.util.LambdaGetter;
+import org.example.herizon.common.TransactionHooks;
+import org.example.herizon.entity.UserFollow;
+import org.example.herizon.mapper.UserFollowMapper;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 关注关系图服务
+ * <p>
+ * 每个活跃用户在内存中保存两个压缩位图（Roaring Bitmap）：关注的用户ID集合与粉丝的用户ID集合，
+ * 帖子详情、用户资料、关注/粉丝列表的"是否已关注""是否互关"判断都是内存查找，不再逐次查询 user_follow：
+ * - 首次访问时一次查询加载该用户的关注（或粉丝）集合，按关系总条数限制内存，长时间未访问的用户过期释放
+ * - 关注切换在事务提交后更新双方已缓存的位图；位图按写时复制替换，读取无需加锁
+ * <p>
+ * 关注数与粉丝数不从这里读取：列表中每个用户都要计数，为此加载各自完整的粉丝集合得不偿失，计数由 user_stats 维护
+ *
+ * @author Kokoa
+ */
+@Service
+public class FollowGraphService {
+
+    @Autowired
+    private UserFollowMapper userFollowMapper;
+
+    /**
+     * 用户ID → 其关注的用户ID
+     */
+    private final Cache<Long, Roaring64Bitmap> followees;
+
+    /**
+     * 用户ID → 关注其的用户ID
+     */
+    private final Cache<Long, Roaring64Bitmap> followers;
+
+    public FollowGraphService(@Value("${app.follow-graph.max-edges:2000000}") long maxEdges,
+                              @Value("${app.follow-graph.ttl-minutes:30}") long ttlMinutes) {
+        // 关注集合与粉丝集合各占一半容量，按集合大小计重，单个大V的粉丝集合不会挤占全部内存
+        this.followees = buildCache(maxEdges / 2, ttlMinutes);
+        this.followers = buildCache(maxEdges / 2, ttlMinutes);
+    }
+
+    /**
+     * followerId 是否关注了 followeeId
+     */
+    public boolean isFollowing(Long followerId, Long followeeId) {
+        if (followerId == null || followeeId == null || followerId.equals(followeeId)) {
+            return false;
+        }
+        return followeesOf(followerId).contains(followeeId);
+    }
+
+    /**
+     * followerId 是否关注了 userId（从 userId 的粉丝集合查找）
+     */
+    public boolean isFollowedBy(Long userId, Long followerId) {
+        if (userId == null || followerId == null || userId.equals(followerId)) {
+            return false;
+        }
+        return followersOf(userId).contains(followerId);
+    }
+
+    /**
+     * 候选用户中 followerId 已关注的用户
+     *
+     * @param followerId 关注人ID
+     * @param candidates 候选用户ID
+     * @return 已关注的候选用户ID
+     */
+    public Set<Long> followingAmong(Long followerId, Collection<Long> candidates) {
+        if (followerId == null || candidates == null || candidates.isEmpty()) {
+            return Set.of();
+        }
+        return filter(followeesOf(followerId), candidates);
+    }
+
+    /**
+     * 候选用户中关注了 userId 的用户
+     *
+     * @param userId     被关注人ID
+     * @param candidates 候选用户ID
+     * @return 关注了 userId 的候选用户ID
+     */
+    public Set<Long> followersAmong(Long userId, Collection<Long> candidates) {
+        if (userId == null || candidates == null || candidates.isEmpty()) {
+            return Set.of();
+        }
+        return filter(followersOf(userId), candidates);
+    }
+
+    /**
+     * 关注切换后更新双方已缓存的位图，在事务中调用时推迟到提交之后
+     *
+     * @param followerId 关注人ID
+     * @param followeeId 被关注人ID
+     * @param following  true=关注，false=取消关注
+     */
+    public void onToggle(Long followerId, Long followeeId, boolean following) {
+        if (followerId == null || followeeId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> apply(followerId, followeeId, following));
+    }
+
+    private void apply(Long followerId, Long followeeId, boolean following) {
+        // 未缓存的用户无需处理，下次访问时从数据库加载；加载进行中时等待加载完成后再更新
+        followees.asMap().computeIfPresent(followerId, (key, ids) -> with(ids, followeeId, following));
+        followers.asMap().computeIfPresent(followeeId, (key, ids) -> with(ids, followerId, following));
+    }
+
+    private Roaring64Bitmap followeesOf(Long userId) {
+        return followees.get(userId, id -> load("followee_id", UserFollow::getFollowerId, id));
+    }
+
+    private Roaring64Bitmap followersOf(Long userId) {
+        return followers.get(userId, id -> load("follower_id", UserFollow::getFolloweeId, id));
+    }
+
+    private Roaring64Bitmap load(String column, LambdaGetter<UserFollow> owner, Long userId) {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(column)
+                .from("user_follow")
+                .where(owner).eq(userId);
+        Roaring64Bitmap ids = new Roaring64Bitmap();
+        for (Object id : userFollowMapper.selectObjectListByQuery(queryWrapper)) {
+            if (id instanceof Number number) {
+                ids.addLong(number.longValue());
+            }
+        }
+        ids.runOptimize();
+        return ids;
+    }
+
+    private static Set<Long> filter(Roaring64Bitmap ids, Collection<Long> candidates) {
+        Set<Long> result = new LinkedHashSet<>();
+        for (Long candidate : candidates) {
+            if (candidate != null && ids.contains(candidate)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    private static Roaring64Bitmap with(Roaring64Bitmap source, Long userId, boolean added) {
+        if (source.contains(userId) == added) {
+            return source;
+        }
+        Roaring64Bitmap copy = source.clone();
+        if (added) {
+            copy.addLong(userId);
+        } else {
+            copy.removeLong(userId);
+        }
+        return copy;
+    }
+
+    private static Cache<Long, Roaring64Bitmap> buildCache(long maxEdges, long ttlMinutes) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxEdges)
+                .weigher((Long userId, Roaring64Bitmap ids) -> (int) Math.min(ids.getLongCardinality() + 1, Integer.MAX_VALUE))
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+}
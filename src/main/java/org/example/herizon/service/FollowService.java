@@ -1,29 +1,25 @@
 package org.example.herizon.service;
 
-import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
-import com.mybatisflex.core.row.Row;
 import org.example.herizon.common.PageResult;
 import org.example.herizon.dto.FollowUserDTO;
-import org.example.herizon.entity.Post;
+import org.example.herizon.dto.UserSummary;
 import org.example.herizon.entity.User;
 import org.example.herizon.entity.UserFollow;
-import org.example.herizon.mapper.PostMapper;
+import org.example.herizon.entity.UserStats;
 import org.example.herizon.mapper.UserFollowMapper;
 import org.example.herizon.mapper.UserMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -39,7 +35,19 @@ public class FollowService {
     private UserMapper userMapper;
 
     @Autowired
-    private PostMapper postMapper;
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private PaginationService paginationService;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private DataLoaderService dataLoaderService;
 
     @Transactional
     public boolean toggleFollow(Long followerId, Long followeeId) {
@@ -47,85 +55,129 @@ public class FollowService {
             throw new RuntimeException("不能关注自己");
         }
 
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .where(UserFollow::getFollowerId).eq(followerId)
-            .and(UserFollow::getFolloweeId).eq(followeeId);
+        // 一条upsert完成判断与写入：1=新插入（已关注），2=翻转已有关系，翻转后本事务持有行锁，读回的即本次结果
+        int affected = userFollowMapper.toggle(followerId, followeeId);
+        boolean following = affected == 1
+            || Integer.valueOf(0).equals(userFollowMapper.selectDeleted(followerId, followeeId));
 
-        UserFollow existing = userFollowMapper.selectOneByQuery(queryWrapper);
-        if (existing != null) {
-            userFollowMapper.deleteById(existing.getId());
-            return false;
-        }
+        userStatsService.onFollowToggled(followerId, Map.of(followeeId, following ? 1 : -1));
+        followGraphService.onToggle(followerId, followeeId, following);
+        paginationService.evict("follow:following:" + followerId);
+        paginationService.evict("follow:followers:" + followeeId);
 
-        UserFollow follow = new UserFollow();
-        follow.setFollowerId(followerId);
-        follow.setFolloweeId(followeeId);
-        follow.setCreatedAt(LocalDateTime.now());
-        userFollowMapper.insert(follow);
-        return true;
+        if (following) {
+            timelineService.onFollow(followerId, followeeId);
+        } else {
+            timelineService.onUnfollow(followerId, followeeId);
+        }
+        return following;
     }
 
-    public boolean isFollowing(Long followerId, Long followeeId) {
-        if (followerId == null || followeeId == null || Objects.equals(followerId, followeeId)) {
-            return false;
+    /**
+     * 批量切换关注状态
+     * <p>
+     * 同一目标点击偶数次时状态不变，不写库；奇数次的目标由一条多行upsert翻转，
+     * 再由一条查询读回整批目标的最终状态（翻转过的行由本事务持锁，读回的即本次结果）
+     *
+     * @param followerId 关注人ID
+     * @param taps       被关注人ID → 点击次数，按首次点击顺序排列
+     * @return 被关注人ID → 最终是否关注，顺序与taps相同
+     */
+    @Transactional
+    public Map<Long, Boolean> toggleFollows(Long followerId, Map<Long, Integer> taps) {
+        if (taps.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (taps.containsKey(followerId)) {
+            throw new RuntimeException("不能关注自己");
+        }
+        QueryWrapper existQuery = QueryWrapper.create()
+            .select("id")
+            .from("users")
+            .where(User::getId).in(taps.keySet());
+        Set<Long> existing = userMapper.selectObjectListByQuery(existQuery).stream()
+            .map(id -> ((Number) id).longValue())
+            .collect(Collectors.toSet());
+        for (Long followeeId : taps.keySet()) {
+            if (!existing.contains(followeeId)) {
+                throw new RuntimeException("目标用户不存在: " + followeeId);
+            }
         }
 
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .select("1")
-            .from("user_follow")
-            .where(UserFollow::getFollowerId).eq(followerId)
-            .and(UserFollow::getFolloweeId).eq(followeeId)
-            .limit(1);
+        // 按ID升序翻转，并发的批量请求以相同顺序加锁，避免死锁
+        List<Long> toggled = taps.entrySet().stream()
+            .filter(entry -> entry.getValue() % 2 == 1)
+            .map(Map.Entry::getKey)
+            .sorted()
+            .toList();
+        if (!toggled.isEmpty()) {
+            userFollowMapper.toggleBatch(followerId, toggled);
+        }
 
-        return userFollowMapper.selectObjectByQuery(queryWrapper) != null;
-    }
+        Set<Long> following = userFollowMapper.selectStates(followerId, taps.keySet()).stream()
+            .filter(relation -> Integer.valueOf(0).equals(relation.getDeleted()))
+            .map(UserFollow::getFolloweeId)
+            .collect(Collectors.toSet());
 
-    public long countFollowing(Long userId) {
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .select("COUNT(*)")
-            .from("user_follow")
-            .where(UserFollow::getFollowerId).eq(userId);
+        if (!toggled.isEmpty()) {
+            Map<Long, Integer> changes = new HashMap<>();
+            for (Long followeeId : toggled) {
+                changes.put(followeeId, following.contains(followeeId) ? 1 : -1);
+            }
+            userStatsService.onFollowToggled(followerId, changes);
+            paginationService.evict("follow:following:" + followerId);
+        }
+        for (Long followeeId : toggled) {
+            paginationService.evict("follow:followers:" + followeeId);
+            followGraphService.onToggle(followerId, followeeId, following.contains(followeeId));
+            if (following.contains(followeeId)) {
+                timelineService.onFollow(followerId, followeeId);
+            } else {
+                timelineService.onUnfollow(followerId, followeeId);
+            }
+        }
 
-        Object count = userFollowMapper.selectObjectByQuery(queryWrapper);
-        return count == null ? 0L : ((Number) count).longValue();
+        Map<Long, Boolean> states = new LinkedHashMap<>();
+        for (Long followeeId : taps.keySet()) {
+            states.put(followeeId, following.contains(followeeId));
+        }
+        return states;
     }
 
-    public long countFollowers(Long userId) {
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .select("COUNT(*)")
-            .from("user_follow")
-            .where(UserFollow::getFolloweeId).eq(userId);
+    /**
+     * followerId 是否关注了 followeeId，从内存关注关系图判断
+     */
+    public boolean isFollowing(Long followerId, Long followeeId) {
+        return followGraphService.isFollowing(followerId, followeeId);
+    }
 
-        Object count = userFollowMapper.selectObjectByQuery(queryWrapper);
-        return count == null ? 0L : ((Number) count).longValue();
+    /**
+     * followerId 是否关注了 userId，从 userId 的粉丝集合判断
+     */
+    public boolean isFollowedBy(Long userId, Long followerId) {
+        return followGraphService.isFollowedBy(userId, followerId);
     }
 
     public PageResult<FollowUserDTO> getFollowing(Long ownerId, Long viewerId, Integer current, Integer size) {
-        Page<UserFollow> page = Page.of(current, size);
         QueryWrapper queryWrapper = QueryWrapper.create()
             .where(UserFollow::getFollowerId).eq(ownerId)
             .orderBy(UserFollow::getCreatedAt, false);
 
-        Page<UserFollow> followPage = userFollowMapper.paginate(page, queryWrapper);
+        PageResult<UserFollow> followPage = paginationService.paginate(userFollowMapper, queryWrapper, current, size,
+            "follow:following:" + ownerId);
         List<FollowUserDTO> records = buildFollowUserList(followPage.getRecords(), viewerId, ownerId, false);
-        return PageResult.of(records,
-            followPage.getTotalRow(),
-            (long) followPage.getPageNumber(),
-            (long) followPage.getPageSize());
+        return followPage.withRecords(records);
     }
 
     public PageResult<FollowUserDTO> getFollowers(Long ownerId, Long viewerId, Integer current, Integer size) {
-        Page<UserFollow> page = Page.of(current, size);
         QueryWrapper queryWrapper = QueryWrapper.create()
             .where(UserFollow::getFolloweeId).eq(ownerId)
             .orderBy(UserFollow::getCreatedAt, false);
 
-        Page<UserFollow> followPage = userFollowMapper.paginate(page, queryWrapper);
+        PageResult<UserFollow> followPage = paginationService.paginate(userFollowMapper, queryWrapper, current, size,
+            "follow:followers:" + ownerId);
         List<FollowUserDTO> records = buildFollowUserList(followPage.getRecords(), viewerId, ownerId, true);
-        return PageResult.of(records,
-            followPage.getTotalRow(),
-            (long) followPage.getPageNumber(),
-            (long) followPage.getPageSize());
+        return followPage.withRecords(records);
     }
 
     private List<FollowUserDTO> buildFollowUserList(List<UserFollow> relations,
@@ -146,18 +198,16 @@ public class FollowService {
             return Collections.emptyList();
         }
 
-        Map<Long, User> userMap = loadUsers(targetUserIds);
-        Map<Long, Long> followersCountMap = loadFollowersCount(targetUserIds);
-        Map<Long, Long> followingCountMap = loadFollowingCount(targetUserIds);
-        Map<Long, Long> postsCountMap = loadPostsCount(targetUserIds);
+        Map<Long, UserSummary> userMap = dataLoaderService.users().loadAll(targetUserIds);
+        Map<Long, UserStats> statsMap = dataLoaderService.userStats().loadAll(targetUserIds);
 
         Set<Long> ownerFollowingTargets = asFollowersList
-            ? findFollowTargets(ownerId, targetUserIds)
+            ? followGraphService.followingAmong(ownerId, targetUserIds)
             : Collections.emptySet();
 
         Set<Long> targetsFollowOwner = asFollowersList
             ? Collections.emptySet()
-            : findFollowersOfOwner(ownerId, targetUserIds);
+            : followGraphService.followersAmong(ownerId, targetUserIds);
 
         Set<Long> viewerFollowingTargets;
         if (viewerId == null) {
@@ -169,7 +219,7 @@ public class FollowService {
                 viewerFollowingTargets = new HashSet<>(targetUserIds);
             }
         } else {
-            viewerFollowingTargets = findFollowTargets(viewerId, targetUserIds);
+            viewerFollowingTargets = followGraphService.followingAmong(viewerId, targetUserIds);
         }
 
         List<FollowUserDTO> result = new ArrayList<>(relations.size());
@@ -179,7 +229,7 @@ public class FollowService {
                 continue;
             }
 
-            User user = userMap.get(targetUserId);
+            UserSummary user = userMap.get(targetUserId);
             if (user == null) {
                 continue;
             }
@@ -193,9 +243,10 @@ public class FollowService {
             dto.setIsVerified(user.getRole() != null && user.getRole() > 0);
             dto.setFollowTime(relation.getCreatedAt());
             dto.setIsSelf(viewerId != null && Objects.equals(viewerId, user.getId()));
-            dto.setFollowersCount(followersCountMap.getOrDefault(user.getId(), 0L));
-            dto.setFollowingCount(followingCountMap.getOrDefault(user.getId(), 0L));
-            dto.setPostsCount(postsCountMap.getOrDefault(user.getId(), 0L));
+            UserStats stats = statsMap.get(user.getId());
+            dto.setFollowersCount(stats.getFollowerCount().longValue());
+            dto.setFollowingCount(stats.getFollowingCount().longValue());
+            dto.setPostsCount(stats.getPostCount().longValue());
 
             boolean ownerFollowsTarget = asFollowersList ? ownerFollowingTargets.contains(user.getId()) : true;
             boolean targetFollowsOwner = asFollowersList || targetsFollowOwner.contains(user.getId());
@@ -216,154 +267,4 @@ public class FollowService {
 
         return result;
     }
-
-    private Map<Long, User> loadUsers(Collection<Long> userIds) {
-        if (userIds == null || userIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .where(User::getId).in(userIds);
-        List<User> users = userMapper.selectListByQuery(queryWrapper);
-        return users.stream()
-            .filter(user -> user.getId() != null)
-            .collect(Collectors.toMap(User::getId, user -> user));
-    }
-
-    private Map<Long, Long> loadFollowersCount(List<Long> userIds) {
-        if (userIds == null || userIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .select("followee_id AS userId")
-            .select("COUNT(*) AS followersCount")
-            .from("user_follow")
-            .where(UserFollow::getFolloweeId).in(userIds)
-            .groupBy("followee_id");
-        List<Row> rows = userFollowMapper.selectRowsByQuery(queryWrapper);
-        return buildCountMap(rows, "userId", "followersCount");
-    }
-
-    private Map<Long, Long> loadFollowingCount(List<Long> userIds) {
-        if (userIds == null || userIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .select("follower_id AS userId")
-            .select("COUNT(*) AS followingCount")
-            .from("user_follow")
-            .where(UserFollow::getFollowerId).in(userIds)
-            .groupBy("follower_id");
-        List<Row> rows = userFollowMapper.selectRowsByQuery(queryWrapper);
-        return buildCountMap(rows, "userId", "followingCount");
-    }
-
-    private Map<Long, Long> loadPostsCount(List<Long> userIds) {
-        if (userIds == null || userIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .select("user_id AS userId")
-            .select("COUNT(*) AS postsCount")
-            .from("posts")
-            .where(Post::getUserId).in(userIds)
-            .and(Post::getDeleted).eq(0)
-            .and(Post::getStatus).eq(0)
-            .groupBy("user_id");
-        List<Row> rows = postMapper.selectRowsByQuery(queryWrapper);
-        return buildCountMap(rows, "userId", "postsCount");
-    }
-
-    private Set<Long> findFollowTargets(Long followerId, List<Long> candidateUserIds) {
-        if (followerId == null || candidateUserIds == null || candidateUserIds.isEmpty()) {
-            return Collections.emptySet();
-        }
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .select("followee_id")
-            .from("user_follow")
-            .where(UserFollow::getFollowerId).eq(followerId)
-            .and(UserFollow::getFolloweeId).in(candidateUserIds);
-        List<Object> rows = userFollowMapper.selectObjectListByQuery(queryWrapper);
-        return rows.stream()
-            .map(this::toLong)
-            .filter(Objects::nonNull)
-            .collect(Collectors.toSet());
-    }
-
-    private Set<Long> findFollowersOfOwner(Long ownerId, List<Long> candidateUserIds) {
-        if (ownerId == null || candidateUserIds == null || candidateUserIds.isEmpty()) {
-            return Collections.emptySet();
-        }
-        QueryWrapper queryWrapper = QueryWrapper.create()
-            .select("follower_id")
-            .from("user_follow")
-            .where(UserFollow::getFolloweeId).eq(ownerId)
-            .and(UserFollow::getFollowerId).in(candidateUserIds);
-        List<Object> rows = userFollowMapper.selectObjectListByQuery(queryWrapper);
-        return rows.stream()
-            .map(this::toLong)
-            .filter(Objects::nonNull)
-            .collect(Collectors.toSet());
-    }
-
-    private Map<Long, Long> buildCountMap(List<Row> rows, String userIdAlias, String countAlias) {
-        if (rows == null || rows.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        Map<Long, Long> result = new HashMap<>();
-        for (Row row : rows) {
-            if (row == null) {
-                continue;
-            }
-            Long userId = toLong(resolveColumnValue(row, userIdAlias));
-            Long count = toLong(resolveColumnValue(row, countAlias));
-            if (userId != null && count != null) {
-                result.put(userId, count);
-            }
-        }
-        return result;
-    }
-
-    private Object resolveColumnValue(Row row, String alias) {
-        if (row == null || alias == null) {
-            return null;
-        }
-        Object value = row.get(alias);
-        if (value != null) {
-            return value;
-        }
-        String upper = alias.toUpperCase(Locale.ROOT);
-        value = row.get(upper);
-        if (value != null) {
-            return value;
-        }
-        String snakeUpper = toUpperSnake(alias);
-        return row.get(snakeUpper);
-    }
-
-    private String toUpperSnake(String alias) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < alias.length(); i++) {
-            char ch = alias.charAt(i);
-            if (Character.isUpperCase(ch)) {
-                sb.append('_').append(ch);
-            } else {
-                sb.append(Character.toUpperCase(ch));
-            }
-        }
-        return sb.toString();
-    }
-
-    private Long toLong(Object value) {
-        if (value instanceof Number) {
-            return ((Number) value).longValue();
-        }
-        if (value instanceof String) {
-            try {
-                return Long.parseLong((String) value);
-            } catch (NumberFormatException ignored) {
-                return null;
-            }
-        }
-        return null;
-    }
 }
@@ -0,0 +1,348 @@
+package org.example.herizon.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.IdRanges;
+import org.example.herizon.common.LongIntCounter;
+import org.example.herizon.dto.FollowSuggestionDTO;
+import org.example.herizon.dto.UserSummary;
+import org.example.herizon.entity.FollowSuggestion;
+import org.example.herizon.entity.UserFollow;
+import org.example.herizon.mapper.FollowSuggestionMapper;
+import org.example.herizon.mapper.PostTagMapper;
+import org.example.herizon.mapper.UserFollowMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 可能认识的人推荐服务
+ * <p>
+ * 推荐按二度关注关系打分：当前用户关注的人又关注了谁，被越多"我关注的人"关注的用户排名越靠前，
+ * 共同关注人数相同时按双方发帖用过的相同标签数排序；已关注的用户和自己不推荐。
+ * <p>
+ * 打分是定时批量任务，请求时不做图查询：
+ * - 按用户ID分段把有效关注关系与发帖标签读入内存，每个用户的关注列表是有序的 long[]
+ * - 用户分区后交给 ForkJoinPool 并行打分，二度计数用 {@link LongIntCounter}，不产生装箱对象
+ * - 每个用户保留前 app.follow-suggestion.size 个候选，打包成定长字节写入 follow_suggestions
+ * <p>
+ * 推荐接口按主键读取一行，再用内存关注关系图剔除计算之后新关注的用户
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class FollowSuggestionService {
+
+    /**
+     * 每个候选打包后的字节数：用户ID(8) + 共同关注人数(4) + 共同标签数(4)
+     */
+    private static final int CANDIDATE_BYTES = 16;
+
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparingInt(Candidate::mutualFollowCount).reversed()
+            .thenComparing(Comparator.comparingInt(Candidate::sharedTagCount).reversed())
+            .thenComparingLong(Candidate::userId);
+
+    @Autowired
+    private FollowSuggestionMapper followSuggestionMapper;
+
+    @Autowired
+    private UserFollowMapper userFollowMapper;
+
+    @Autowired
+    private PostTagMapper postTagMapper;
+
+    @Autowired
+    private FollowGraphService followGraphService;
+
+    @Autowired
+    private UserSummaryService userSummaryService;
+
+    /**
+     * 每个用户保留的候选数量
+     */
+    @Value("${app.follow-suggestion.size:50}")
+    private int suggestionSize;
+
+    /**
+     * 中间人关注数超过该值时不经由其扩展，避免关注了大量账号的用户把所有人都带进候选
+     */
+    @Value("${app.follow-suggestion.max-fanout:2000}")
+    private int maxFanout;
+
+    /**
+     * 并行打分的线程数
+     */
+    @Value("${app.follow-suggestion.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * 读取关系时每段覆盖的用户ID数量，也是每个打分分区的用户数
+     */
+    @Value("${app.follow-suggestion.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 获取可能认识的人
+     *
+     * @param userId 当前用户ID
+     * @param limit  返回数量
+     * @return 推荐用户列表，按推荐程度排序；尚未计算或没有二度关系时为空
+     */
+    public List<FollowSuggestionDTO> getSuggestions(Long userId, int limit) {
+        FollowSuggestion row = followSuggestionMapper.selectOneById(userId);
+        if (row == null || row.getCandidates() == null) {
+            return List.of();
+        }
+        List<Candidate> candidates = unpack(row.getCandidates());
+        // 计算之后新关注的用户不再推荐
+        Set<Long> followed = followGraphService.followingAmong(userId,
+                candidates.stream().map(Candidate::userId).toList());
+
+        List<Candidate> picked = new ArrayList<>(limit);
+        for (Candidate candidate : candidates) {
+            if (picked.size() >= limit) {
+                break;
+            }
+            if (!followed.contains(candidate.userId())) {
+                picked.add(candidate);
+            }
+        }
+        Map<Long, UserSummary> users = userSummaryService.getAll(picked.stream().map(Candidate::userId).toList());
+
+        List<FollowSuggestionDTO> result = new ArrayList<>(picked.size());
+        for (Candidate candidate : picked) {
+            UserSummary user = users.get(candidate.userId());
+            if (user == null) {
+                continue;
+            }
+            FollowSuggestionDTO dto = new FollowSuggestionDTO();
+            dto.setId(user.getId());
+            dto.setUsername(user.getUsername());
+            dto.setNickname(user.getNickname() != null ? user.getNickname() : user.getUsername());
+            dto.setAvatar(user.getAvatar());
+            dto.setRole(user.getRole());
+            dto.setIsVerified(user.getRole() != null && user.getRole() > 0);
+            dto.setMutualFollowCount(candidate.mutualFollowCount());
+            dto.setSharedTagCount(candidate.sharedTagCount());
+            result.add(dto);
+        }
+        return result;
+    }
+
+    /**
+     * 重新计算全部用户的推荐
+     *
+     * @return 写入推荐的用户数
+     */
+    @Scheduled(cron = "${app.follow-suggestion.rebuild-cron:0 30 6 * * *}")
+    public int rebuild() {
+        LocalDateTime generatedAt = LocalDateTime.now().withNano(0);
+        int written = 0;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long maxUserId = IdRanges.maxId(userFollowMapper, "users");
+            Map<Long, long[]> following = loadFollowing(maxUserId);
+            Map<Long, long[]> tags = loadTags(maxUserId);
+
+            List<Long> userIds = following.keySet().stream().sorted().toList();
+            List<List<Long>> partitions = new ArrayList<>();
+            for (int from = 0; from < userIds.size(); from += chunkSize) {
+                partitions.add(userIds.subList(from, Math.min(from + chunkSize, userIds.size())));
+            }
+            written = pool.submit(() -> partitions.parallelStream()
+                    .mapToInt(partition -> scorePartition(partition, following, tags, generatedAt))
+                    .sum()).get();
+            followSuggestionMapper.deleteGeneratedBefore(generatedAt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            log.warn("可能认识的人推荐计算失败: {}", e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+        if (written > 0) {
+            log.info("可能认识的人推荐计算完成，{}个用户", written);
+        }
+        return written;
+    }
+
+    private int scorePartition(List<Long> userIds, Map<Long, long[]> following, Map<Long, long[]> tags,
+                               LocalDateTime generatedAt) {
+        // 分区内依次处理，计数表在用户之间复用
+        LongIntCounter counter = new LongIntCounter(1024);
+        List<FollowSuggestion> rows = new ArrayList<>();
+        for (Long userId : userIds) {
+            List<Candidate> candidates = rank(userId, following, tags, counter, suggestionSize, maxFanout);
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            FollowSuggestion row = new FollowSuggestion();
+            row.setUserId(userId);
+            row.setCandidates(pack(candidates));
+            row.setGeneratedAt(generatedAt);
+            rows.add(row);
+        }
+        if (!rows.isEmpty()) {
+            followSuggestionMapper.upsertBatch(rows);
+        }
+        return rows.size();
+    }
+
+    /**
+     * 为一个用户按二度关注关系打分并取前 size 个候选
+     *
+     * @param userId    用户ID
+     * @param following 用户ID → 有序的关注列表
+     * @param tags      用户ID → 有序的发帖标签列表
+     * @param counter   计数表，调用前后内容无意义
+     * @param size      候选数量上限
+     * @param maxFanout 中间人关注数上限
+     * @return 排好序的候选
+     */
+    static List<Candidate> rank(long userId, Map<Long, long[]> following, Map<Long, long[]> tags,
+                                LongIntCounter counter, int size, int maxFanout) {
+        long[] mine = following.get(userId);
+        if (mine == null || mine.length == 0) {
+            return List.of();
+        }
+        counter.clear();
+        for (long via : mine) {
+            long[] theirs = following.get(via);
+            if (theirs == null || theirs.length > maxFanout) {
+                continue;
+            }
+            for (long candidate : theirs) {
+                if (candidate != userId && Arrays.binarySearch(mine, candidate) < 0) {
+                    counter.increment(candidate);
+                }
+            }
+        }
+        if (counter.size() == 0) {
+            return List.of();
+        }
+
+        long[] ids = counter.keys();
+        int[] counts = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            counts[i] = counter.get(ids[i]);
+        }
+        // 只有共同关注人数不低于第 size 名的候选才可能入选，只为它们计算共同标签数
+        int cutoff = 0;
+        if (ids.length > size) {
+            int[] sorted = counts.clone();
+            Arrays.sort(sorted);
+            cutoff = sorted[sorted.length - size];
+        }
+        long[] myTags = tags.getOrDefault(userId, new long[0]);
+        List<Candidate> ranked = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (counts[i] >= cutoff) {
+                ranked.add(new Candidate(ids[i], counts[i], intersectionSize(myTags, tags.get(ids[i]))));
+            }
+        }
+        ranked.sort(RANKING);
+        return ranked.size() > size ? ranked.subList(0, size) : ranked;
+    }
+
+    private Map<Long, long[]> loadFollowing(long maxUserId) {
+        Map<Long, long[]> following = new HashMap<>();
+        IdRanges.forEach(maxUserId, chunkSize, (from, to) -> {
+            List<UserFollow> edges = userFollowMapper.selectEdges(from, to);
+            // 结果按 (follower_id, followee_id) 排序，每个关注人的一段即为其有序关注列表
+            int start = 0;
+            for (int i = 1; i <= edges.size(); i++) {
+                if (i == edges.size() || !edges.get(i).getFollowerId().equals(edges.get(start).getFollowerId())) {
+                    long[] followees = new long[i - start];
+                    for (int j = start; j < i; j++) {
+                        followees[j - start] = edges.get(j).getFolloweeId();
+                    }
+                    following.put(edges.get(start).getFollowerId(), followees);
+                    start = i;
+                }
+            }
+        });
+        return following;
+    }
+
+    private Map<Long, long[]> loadTags(long maxUserId) {
+        Map<Long, List<Long>> grouped = new HashMap<>();
+        IdRanges.forEach(maxUserId, chunkSize, (from, to) -> {
+            for (Map<String, Object> row : postTagMapper.selectUserTags(from, to)) {
+                if (row.get("user_id") instanceof Number userId && row.get("tag_id") instanceof Number tagId) {
+                    grouped.computeIfAbsent(userId.longValue(), id -> new ArrayList<>()).add(tagId.longValue());
+                }
+            }
+        });
+        Map<Long, long[]> tags = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((userId, tagIds) -> {
+            long[] sorted = tagIds.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            tags.put(userId, sorted);
+        });
+        return tags;
+    }
+
+    private static int intersectionSize(long[] a, long[] b) {
+        if (b == null) {
+            return 0;
+        }
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    static byte[] pack(List<Candidate> candidates) {
+        ByteBuffer buffer = ByteBuffer.allocate(candidates.size() * CANDIDATE_BYTES);
+        for (Candidate candidate : candidates) {
+            buffer.putLong(candidate.userId());
+            buffer.putInt(candidate.mutualFollowCount());
+            buffer.putInt(candidate.sharedTagCount());
+        }
+        return buffer.array();
+    }
+
+    static List<Candidate> unpack(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        List<Candidate> candidates = new ArrayList<>(bytes.length / CANDIDATE_BYTES);
+        while (buffer.remaining() >= CANDIDATE_BYTES) {
+            candidates.add(new Candidate(buffer.getLong(), buffer.getInt(), buffer.getInt()));
+        }
+        return candidates;
+    }
+
+    /**
+     * 推荐候选
+     *
+     * @param userId            被推荐用户ID
+     * @param mutualFollowCount 共同关注人数
+     * @param sharedTagCount    共同标签数
+     */
+    record Candidate(long userId, int mutualFollowCount, int sharedTagCount) {
+    }
+}
@@ -0,0 +1,573 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.TransactionHooks;
+import org.example.herizon.entity.Post;
+import org.example.herizon.entity.PostHotScore;
+import org.example.herizon.mapper.PostHotScoreMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 首页热门排序引擎
+ * <p>
+ * 在内存中维护热度最高的前N个帖子ID，首页分页直接从内存排行中截取，
+ * 不再对posts表做 like_count/collect_count/share_count 多列排序。
+ * <p>
+ * 热度分计算方式：
+ * - 每次互动（发帖、点赞、收藏等）贡献 weight * e^(λ * t)，t为互动发生时间
+ * - 分数保存在对数空间，λ = ln2 / 半衰期，新互动天然比旧互动权重更高
+ * - 由于所有分数共享同一时间基准，历史分数无需随时间重算即可直接比较
+ * <p>
+ * 持久化：分数变更先记入脏表，定时批量刷入post_hot_scores，停机前再刷一次；
+ * 启动时从post_hot_scores恢复排行，缺失分数的帖子按现有计数补算。
+ * <p>
+ * 在事务中调用的变更推迟到事务提交之后再作用于内存排行，回滚的发帖与互动不会留在排行中。
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class HotRankingService implements ApplicationRunner {
+
+    /**
+     * 互动权重：发帖本身、点赞、收藏、分享、评论
+     */
+    static final double WEIGHT_POST = 2.0;
+    static final double WEIGHT_LIKE = 1.0;
+    static final double WEIGHT_COLLECT = 2.0;
+    static final double WEIGHT_SHARE = 3.0;
+    static final double WEIGHT_COMMENT = 1.5;
+
+    /**
+     * 衰减时间基准，所有分数都相对这一时刻计算
+     */
+    private static final long EPOCH_SECONDS = LocalDateTime.of(2025, 1, 1, 0, 0)
+            .atZone(ZoneId.systemDefault())
+            .toEpochSecond();
+
+    private static final int CHUNK_SIZE = 500;
+
+    /**
+     * 排序规则：分数降序，分数相同按帖子ID降序（新帖优先）
+     */
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::postId).reversed());
+
+    @Autowired
+    private PostMapper postMapper;
+
+    @Autowired
+    private PostHotScoreMapper postHotScoreMapper;
+
+    @Value("${app.feed.hot.capacity:1000}")
+    private int capacity;
+
+    @Value("${app.feed.hot.half-life-hours:24}")
+    private double halfLifeHours;
+
+    /**
+     * 内存排行，entries与ranking由this锁保护
+     */
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(ORDER);
+
+    /**
+     * 尚未刷盘的分数（包含已被挤出排行的帖子）
+     */
+    private final Map<Long, Entry> dirty = new ConcurrentHashMap<>();
+
+    /**
+     * 排行快照，读多写少，变更后置空并在下次读取时重建
+     */
+    private volatile long[] snapshot;
+
+    private volatile boolean ready = false;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            backfillMissingScores();
+            loadRanking();
+            ready = true;
+            log.info("热门排行加载完成，共{}个帖子", entries.size());
+        } catch (RuntimeException e) {
+            // 加载失败时首页退回数据库排序，不影响服务启动
+            log.warn("热门排行加载失败，首页将使用数据库排序: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 排行是否已完成加载
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 当前内存排行中的帖子数量
+     */
+    public int size() {
+        return currentSnapshot().length;
+    }
+
+    /**
+     * 新帖子进入排行，在事务中调用时推迟到提交之后
+     *
+     * @param post 新创建的帖子
+     */
+    public void onPostCreated(Post post) {
+        if (post == null || post.getId() == null) {
+            return;
+        }
+        double base = exponent(WEIGHT_POST, post.getCreatedAt());
+        Entry entry = new Entry(post.getId(), base, base);
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                place(entry);
+            }
+            dirty.put(entry.postId(), entry);
+        });
+    }
+
+    /**
+     * 记录一次互动，增量更新帖子热度，在事务中调用时推迟到提交之后
+     * <p>
+     * 撤销互动时扣除的是原互动发生时的贡献，需传入原互动时间；
+     * 按撤销时刻计算会扣掉比当初加上的更多的分数
+     *
+     * @param postId  帖子ID
+     * @param weight  互动权重（见WEIGHT_*常量）
+     * @param added   true=新增互动，false=撤销互动
+     * @param actedAt 互动发生时间，撤销时为被撤销互动的发生时间；为null时取当前时间
+     */
+    public void onInteraction(Long postId, double weight, boolean added, LocalDateTime actedAt) {
+        if (!ready || postId == null || weight <= 0) {
+            return;
+        }
+        double delta = exponent(weight, actedAt);
+        TransactionHooks.afterCommit(() -> applyInteraction(postId, delta, added));
+    }
+
+    private void applyInteraction(Long postId, double delta, boolean added) {
+        Entry known;
+        synchronized (this) {
+            known = entries.get(postId);
+        }
+        if (known == null) {
+            known = dirty.get(postId);
+        }
+        Entry loaded = known == null ? loadEntry(postId) : null;
+        if (known == null && loaded == null) {
+            return;
+        }
+
+        Entry updated;
+        synchronized (this) {
+            // 加锁后重新取最新值，避免并发更新互相覆盖
+            Entry current = entries.get(postId);
+            if (current == null) {
+                current = dirty.getOrDefault(postId, known != null ? known : loaded);
+            }
+            double score = added
+                    ? logAdd(current.score(), delta)
+                    : logSubtract(current.score(), delta, current.floor());
+            updated = new Entry(postId, score, current.floor());
+            place(updated);
+            dirty.put(postId, updated);
+        }
+    }
+
+    /**
+     * 帖子被删除或下架时移出排行，在事务中调用时推迟到提交之后
+     *
+     * @param postId 帖子ID
+     */
+    public void remove(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            evict(postId);
+            dirty.remove(postId);
+            postHotScoreMapper.deleteById(postId);
+        });
+    }
+
+    /**
+     * 被隐藏的帖子恢复显示后重新进入排行，热度按当前计数补算，在事务中调用时推迟到提交之后
+     *
+     * @param postId 帖子ID
+     */
+    public void restore(Long postId) {
+        if (!ready || postId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            Entry entry = loadEntry(postId);
+            if (entry == null) {
+                return;
+            }
+            synchronized (this) {
+                place(entry);
+            }
+            dirty.put(postId, entry);
+        });
+    }
+
+    /**
+     * 按热度分页获取帖子ID
+     * <p>
+     * 排行窗口内的页直接从内存快照截取；超出窗口的部分按post_hot_scores的分数索引顺序补齐
+     *
+     * @param offset 起始位置
+     * @param limit  获取数量
+     * @return 按热度降序的帖子ID列表
+     */
+    public List<Long> getPage(long offset, int limit) {
+        long[] ids = currentSnapshot();
+        List<Long> result = new ArrayList<>(limit);
+        for (long i = offset; i < ids.length && result.size() < limit; i++) {
+            result.add(ids[(int) i]);
+        }
+        if (result.size() >= limit || ids.length < capacity) {
+            // 排行未满说明所有有效帖子都已在内存中
+            return result;
+        }
+
+        Entry last = lastEntry();
+        if (last == null) {
+            return result;
+        }
+        long tailOffset = Math.max(0, offset - ids.length);
+        for (PostHotScore score : selectTail(last.score(), last.postId(), tailOffset, limit - result.size())) {
+            result.add(score.getPostId());
+        }
+        return result;
+    }
+
+    /**
+     * 游标方式获取热度排在(score, postId)之后的帖子
+     * <p>
+     * 与偏移分页不同，新帖子进入排行或分数变化时不会导致已翻过的页整体错位
+     *
+     * @param score  上一页最后一个帖子的热度分，为null表示第一页
+     * @param postId 上一页最后一个帖子的ID
+     * @param limit  获取数量
+     * @return 按热度降序的帖子ID及其分数
+     */
+    public List<PostHotScore> getPageAfter(Double score, Long postId, int limit) {
+        List<PostHotScore> result = new ArrayList<>(limit);
+        Entry from = score != null ? new Entry(postId, score, score) : null;
+        Entry last = from;
+        boolean complete;
+        synchronized (this) {
+            Iterable<Entry> candidates = from != null ? ranking.tailSet(from, false) : ranking;
+            for (Entry entry : candidates) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                result.add(toRow(entry, null));
+                last = entry;
+            }
+            complete = ready && ranking.size() < capacity;
+        }
+        if (result.size() >= limit || complete) {
+            return result;
+        }
+
+        // 超出内存排行的部分按数据库索引顺序继续
+        List<PostHotScore> tail = last != null
+                ? selectTail(last.score(), last.postId(), 0, limit - result.size())
+                : selectTail(null, null, 0, limit - result.size());
+        result.addAll(tail);
+        return result;
+    }
+
+    /**
+     * 定时将变更的热度分刷入数据库
+     */
+    @Scheduled(fixedDelayString = "${app.feed.hot.flush-interval-ms:30000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Entry> pending = new ArrayList<>(dirty.values());
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < pending.size(); from += CHUNK_SIZE) {
+            List<Entry> chunk = pending.subList(from, Math.min(from + CHUNK_SIZE, pending.size()));
+            List<PostHotScore> rows = chunk.stream()
+                    .map(entry -> toRow(entry, now))
+                    .collect(Collectors.toList());
+            try {
+                postHotScoreMapper.upsertBatch(rows);
+            } catch (DataIntegrityViolationException e) {
+                // 整批因个别记录（如帖子已不存在）失败时逐条写入，丢弃写不进去的记录，不让它反复阻塞整批
+                log.warn("热度分批量刷盘失败，改为逐条写入: {}", e.getMessage());
+                chunk.forEach(entry -> flushOne(entry, now));
+            }
+            // 仅移除刷盘期间未再变化的记录
+            chunk.forEach(entry -> dirty.remove(entry.postId(), entry));
+        }
+    }
+
+    private void flushOne(Entry entry, LocalDateTime now) {
+        try {
+            postHotScoreMapper.upsertBatch(List.of(toRow(entry, now)));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("丢弃无法写入的热度分，postId={}: {}", entry.postId(), e.getMessage());
+            evict(entry.postId());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("停机前刷写热度分失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 查询post_hot_scores中排在(score, postId)之后的记录，跳过仍在内存排行中的帖子
+     * <p>
+     * 刚刷盘的旧分数可能低于内存中的新分数，已在排行中的帖子在SQL中排除，
+     * 先排除再分页，返回的条数和偏移量都不会因重复帖子而缺少
+     */
+    private List<PostHotScore> selectTail(Double score, Long postId, long offset, int limit) {
+        QueryWrapper tailQuery = QueryWrapper.create();
+        if (score != null) {
+            tailQuery.where("(score < ? OR (score = ? AND post_id < ?))", score, score, postId);
+        }
+        long[] ranked = currentSnapshot();
+        if (ranked.length > 0) {
+            tailQuery.and(PostHotScore::getPostId).notIn(Arrays.stream(ranked).boxed().collect(Collectors.toList()));
+        }
+        tailQuery.orderBy("score DESC", "post_id DESC")
+                .limit(offset, limit);
+        return postHotScoreMapper.selectListByQuery(tailQuery);
+    }
+
+    /**
+     * 为尚无热度分的有效帖子按现有计数补算分数
+     * <p>
+     * 历史互动的发生时间未知，统一视为发帖时刻发生
+     */
+    private void backfillMissingScores() {
+        long lastId = 0;
+        while (true) {
+            QueryWrapper query = QueryWrapper.create()
+                    .select("posts.id, posts.created_at, posts.like_count, posts.collect_count, posts.share_count, posts.comment_count")
+                    .from("posts")
+                    .leftJoin("post_hot_scores").on("post_hot_scores.post_id = posts.id")
+                    .where("posts.id > ?", lastId)
+                    .and("posts.status = 0")
+                    .and("posts.deleted = 0")
+                    .and("post_hot_scores.post_id IS NULL")
+                    .orderBy("posts.id ASC")
+                    .limit(CHUNK_SIZE);
+            List<Post> posts = postMapper.selectListByQuery(query);
+            if (posts.isEmpty()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<PostHotScore> rows = posts.stream()
+                    .map(post -> toRow(seed(post), now))
+                    .collect(Collectors.toList());
+            postHotScoreMapper.upsertBatch(rows);
+            lastId = posts.get(posts.size() - 1).getId();
+        }
+    }
+
+    private void loadRanking() {
+        QueryWrapper query = QueryWrapper.create()
+                .select("post_hot_scores.*")
+                .from("post_hot_scores")
+                .innerJoin("posts").on("posts.id = post_hot_scores.post_id")
+                .where("posts.status = 0")
+                .and("posts.deleted = 0")
+                .orderBy("post_hot_scores.score DESC", "post_hot_scores.post_id DESC")
+                .limit(capacity);
+        List<PostHotScore> scores = postHotScoreMapper.selectListByQuery(query);
+        Map<Long, Post> posts = loadPosts(scores.stream().map(PostHotScore::getPostId).collect(Collectors.toList()));
+
+        synchronized (this) {
+            entries.clear();
+            ranking.clear();
+            for (PostHotScore score : scores) {
+                Post post = posts.get(score.getPostId());
+                if (post == null) {
+                    continue;
+                }
+                place(new Entry(score.getPostId(), score.getScore(), exponent(WEIGHT_POST, post.getCreatedAt())));
+            }
+        }
+    }
+
+    /**
+     * 读取不在内存中的帖子热度分，没有记录时按计数补算
+     */
+    private Entry loadEntry(Long postId) {
+        Post post = postMapper.selectOneById(postId);
+        if (post == null || !Objects.equals(post.getStatus(), 0)) {
+            return null;
+        }
+        PostHotScore stored = postHotScoreMapper.selectOneById(postId);
+        if (stored == null || stored.getScore() == null) {
+            return seed(post);
+        }
+        return new Entry(postId, stored.getScore(), exponent(WEIGHT_POST, post.getCreatedAt()));
+    }
+
+    private Map<Long, Post> loadPosts(List<Long> postIds) {
+        if (postIds.isEmpty()) {
+            return Map.of();
+        }
+        QueryWrapper query = QueryWrapper.create()
+                .select("id, created_at")
+                .from("posts")
+                .where(Post::getId).in(postIds);
+        return postMapper.selectListByQuery(query).stream()
+                .collect(Collectors.toMap(Post::getId, post -> post));
+    }
+
+    private Entry seed(Post post) {
+        double base = exponent(WEIGHT_POST, post.getCreatedAt());
+        double engagement = WEIGHT_LIKE * orZero(post.getLikeCount())
+                + WEIGHT_COLLECT * orZero(post.getCollectCount())
+                + WEIGHT_SHARE * orZero(post.getShareCount())
+                + WEIGHT_COMMENT * orZero(post.getCommentCount());
+        double score = engagement > 0 ? logAdd(base, exponent(engagement, post.getCreatedAt())) : base;
+        return new Entry(post.getId(), score, base);
+    }
+
+    /**
+     * 放入排行并在超出容量时淘汰最低分，调用方需持有this锁
+     */
+    private void place(Entry entry) {
+        Entry previous = entries.remove(entry.postId());
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        if (ranking.size() >= capacity && ORDER.compare(entry, ranking.last()) > 0) {
+            // 低于排行最低分且排行已满，只保留在脏表中等待刷盘
+            snapshot = null;
+            return;
+        }
+        entries.put(entry.postId(), entry);
+        ranking.add(entry);
+        while (ranking.size() > capacity) {
+            Entry evicted = ranking.pollLast();
+            entries.remove(evicted.postId());
+        }
+        snapshot = null;
+    }
+
+    /**
+     * 移出内存排行，不影响脏表与数据库
+     */
+    private synchronized void evict(Long postId) {
+        Entry existing = entries.remove(postId);
+        if (existing != null) {
+            ranking.remove(existing);
+            snapshot = null;
+        }
+    }
+
+    private synchronized Entry lastEntry() {
+        return ranking.isEmpty() ? null : ranking.last();
+    }
+
+    private long[] currentSnapshot() {
+        long[] current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                long[] ids = new long[ranking.size()];
+                Iterator<Entry> iterator = ranking.iterator();
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = iterator.next().postId();
+                }
+                snapshot = ids;
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 计算 ln(weight * e^(λ * t))，t为相对基准时间的秒数
+     */
+    private double exponent(double weight, LocalDateTime time) {
+        LocalDateTime at = time != null ? time : LocalDateTime.now();
+        long seconds = at.atZone(ZoneId.systemDefault()).toEpochSecond() - EPOCH_SECONDS;
+        double lambda = Math.log(2) / (halfLifeHours * 3600);
+        return Math.log(weight) + lambda * seconds;
+    }
+
+    /**
+     * 对数空间加法：ln(e^a + e^b)
+     */
+    static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        double min = Math.min(a, b);
+        return max + Math.log1p(Math.exp(min - max));
+    }
+
+    /**
+     * 对数空间减法：ln(e^a - e^b)，结果不低于floor（帖子自身的基础分）
+     */
+    static double logSubtract(double a, double b, double floor) {
+        if (b >= a) {
+            return floor;
+        }
+        return Math.max(floor, a + Math.log1p(-Math.exp(b - a)));
+    }
+
+    private static PostHotScore toRow(Entry entry, LocalDateTime now) {
+        PostHotScore row = new PostHotScore();
+        row.setPostId(entry.postId());
+        row.setScore(entry.score());
+        row.setUpdatedAt(now);
+        return row;
+    }
+
+    private static int orZero(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * 排行条目
+     *
+     * @param postId 帖子ID
+     * @param score  热度分（对数空间）
+     * @param floor  帖子自身的基础分，撤销互动时分数不会低于该值
+     */
+    private record Entry(long postId, double score, double floor) {
+    }
+}
@@ -0,0 +1,274 @@
+package org.example.herizon.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.CountMinSketch;
+import org.example.herizon.common.SpaceSaving;
+import org.example.herizon.dto.HotSearchDTO;
+import org.example.herizon.dto.HotSearchTermDTO;
+import org.example.herizon.entity.SketchSnapshot;
+import org.example.herizon.mapper.SketchSnapshotMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 热搜榜服务
+ * <p>
+ * 不记录搜索日志，而是把每次搜索的规范化关键词计入内存中的时间分桶统计：
+ * - 最近一小时：12个5分钟桶；最近一天：24个1小时桶，均为环形复用
+ * - 每个桶包含一个 Count-Min Sketch（估计任意词的次数）和一个 Space-Saving（追踪高频候选词）
+ * - 窗口榜单 = 窗口内所有桶的候选词并集，按各桶 Count-Min 估计值之和排序取前k个
+ * <p>
+ * 榜单由定时任务计算后缓存，读取为O(1)；统计结构定期快照到数据库，重启后恢复
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class HotSearchService implements ApplicationRunner {
+
+    private static final String SNAPSHOT_NAME = "hot_search";
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final long FIVE_MINUTES = 5 * 60 * 1000L;
+
+    private static final long ONE_HOUR = 60 * 60 * 1000L;
+
+    private static final int SKETCH_DEPTH = 4;
+
+    private static final int SKETCH_WIDTH = 1024;
+
+    private static final int HEAVY_HITTER_CAPACITY = 100;
+
+    /**
+     * 超过该长度的搜索词不计入热搜，避免粘贴的长文本占用候选位
+     */
+    private static final int MAX_KEYWORD_LENGTH = 32;
+
+    @Autowired
+    private SketchSnapshotMapper sketchSnapshotMapper;
+
+    /**
+     * 每个窗口返回的热搜词数量
+     */
+    @Value("${app.search.hot.top-k:10}")
+    private int topK;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    private final Ring hourRing = new Ring(12, FIVE_MINUTES);
+
+    private final Ring dayRing = new Ring(24, ONE_HOUR);
+
+    /**
+     * 缓存的榜单，由定时任务刷新
+     */
+    private volatile HotSearchDTO board = new HotSearchDTO(List.of(), List.of(), null);
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            SketchSnapshot snapshot = sketchSnapshotMapper.selectOneById(SNAPSHOT_NAME);
+            if (snapshot != null && snapshot.getPayload() != null) {
+                restore(snapshot.getPayload());
+                log.info("热搜统计已从快照恢复，快照时间{}", snapshot.getUpdatedAt());
+            }
+        } catch (RuntimeException | IOException e) {
+            // 恢复失败时从空统计开始，不影响服务启动
+            log.warn("热搜统计快照恢复失败: {}", e.getMessage());
+        }
+        refresh();
+    }
+
+    /**
+     * 记录一次搜索
+     *
+     * @param keyword 原始搜索词
+     */
+    public void record(String keyword) {
+        String normalized = SearchTokenizer.normalize(keyword);
+        if (normalized.isEmpty() || normalized.length() > MAX_KEYWORD_LENGTH) {
+            return;
+        }
+        long now = clock.millis();
+        synchronized (this) {
+            hourRing.add(normalized, now);
+            dayRing.add(normalized, now);
+        }
+    }
+
+    /**
+     * 获取热搜榜（定时计算的缓存结果）
+     */
+    public HotSearchDTO getHotSearches() {
+        return board;
+    }
+
+    /**
+     * 定时重新计算榜单
+     */
+    @Scheduled(fixedDelayString = "${app.search.hot.refresh-interval-ms:10000}")
+    public void refresh() {
+        long now = clock.millis();
+        List<HotSearchTermDTO> hour;
+        List<HotSearchTermDTO> day;
+        synchronized (this) {
+            hour = hourRing.top(topK, now);
+            day = dayRing.top(topK, now);
+        }
+        board = new HotSearchDTO(hour, day, LocalDateTime.now(clock));
+    }
+
+    /**
+     * 定时把统计结构快照到数据库
+     */
+    @Scheduled(fixedDelayString = "${app.search.hot.snapshot-interval-ms:300000}",
+            initialDelayString = "${app.search.hot.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        byte[] payload;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(SNAPSHOT_VERSION);
+            synchronized (this) {
+                hourRing.writeTo(out);
+                dayRing.writeTo(out);
+            }
+            out.flush();
+            payload = buffer.toByteArray();
+        } catch (IOException e) {
+            log.warn("热搜统计序列化失败: {}", e.getMessage());
+            return;
+        }
+        sketchSnapshotMapper.upsert(SNAPSHOT_NAME, payload, LocalDateTime.now(clock));
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.warn("停机前保存热搜统计失败: {}", e.getMessage());
+        }
+    }
+
+    private void restore(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        if (in.readInt() != SNAPSHOT_VERSION) {
+            log.warn("热搜统计快照版本不匹配，已忽略");
+            return;
+        }
+        synchronized (this) {
+            hourRing.readFrom(in);
+            dayRing.readFrom(in);
+        }
+    }
+
+    /**
+     * 时间分桶环，桶序号为 时间戳 / 桶长度，按序号对桶数取模复用槽位
+     * <p>
+     * 槽位中的桶序号落后于当前窗口时视为过期：写入时清空复用，统计时跳过
+     */
+    private static final class Ring {
+
+        private final long bucketMillis;
+
+        private final long[] epochs;
+
+        private final CountMinSketch[] sketches;
+
+        private final SpaceSaving[] heavyHitters;
+
+        Ring(int buckets, long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+            this.epochs = new long[buckets];
+            this.sketches = new CountMinSketch[buckets];
+            this.heavyHitters = new SpaceSaving[buckets];
+            for (int i = 0; i < buckets; i++) {
+                epochs[i] = -1;
+                sketches[i] = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+                heavyHitters[i] = new SpaceSaving(HEAVY_HITTER_CAPACITY);
+            }
+        }
+
+        void add(String keyword, long now) {
+            long epoch = now / bucketMillis;
+            int slot = (int) (epoch % epochs.length);
+            if (epochs[slot] != epoch) {
+                epochs[slot] = epoch;
+                sketches[slot].clear();
+                heavyHitters[slot].clear();
+            }
+            sketches[slot].add(keyword, 1);
+            heavyHitters[slot].add(keyword, 1);
+        }
+
+        List<HotSearchTermDTO> top(int k, long now) {
+            long current = now / bucketMillis;
+            Set<String> candidates = new HashSet<>();
+            for (int slot = 0; slot < epochs.length; slot++) {
+                if (isLive(slot, current)) {
+                    candidates.addAll(heavyHitters[slot].candidates());
+                }
+            }
+            return candidates.stream()
+                    .map(keyword -> new HotSearchTermDTO(keyword, estimate(keyword, current)))
+                    .sorted(Comparator.comparing(HotSearchTermDTO::getCount, Comparator.reverseOrder())
+                            .thenComparing(HotSearchTermDTO::getKeyword))
+                    .limit(k)
+                    .toList();
+        }
+
+        private long estimate(String keyword, long current) {
+            long sum = 0;
+            for (int slot = 0; slot < epochs.length; slot++) {
+                if (isLive(slot, current)) {
+                    sum += sketches[slot].estimate(keyword);
+                }
+            }
+            return sum;
+        }
+
+        private boolean isLive(int slot, long current) {
+            return epochs[slot] > current - epochs.length && epochs[slot] <= current;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(epochs.length);
+            for (int slot = 0; slot < epochs.length; slot++) {
+                out.writeLong(epochs[slot]);
+                sketches[slot].writeTo(out);
+                heavyHitters[slot].writeTo(out);
+            }
+        }
+
+        void readFrom(DataInputStream in) throws IOException {
+            int buckets = in.readInt();
+            if (buckets != epochs.length) {
+                throw new IOException("分桶数量不匹配");
+            }
+            for (int slot = 0; slot < buckets; slot++) {
+                epochs[slot] = in.readLong();
+                sketches[slot] = CountMinSketch.readFrom(in);
+                heavyHitters[slot] = SpaceSaving.readFrom(in);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.herizon.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.common.TransactionHooks;
+import org.example.herizon.dto.PostDTO;
+import org.example.herizon.entity.UserAction;
+import org.example.herizon.mapper.UserActionMapper;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * 用户点赞/收藏状态服务
+ * <p>
+ * 每个活跃用户在内存中保存两个压缩位图（Roaring Bitmap）：已点赞的帖子ID集合与已收藏的帖子ID集合，
+ * 帖子详情和各列表接口据此标记 isLiked / isCollected，一页帖子只需若干次内存查找，不再逐帖查询 user_actions：
+ * - 首次访问时一次查询加载该用户全部点赞/收藏记录，按容量淘汰，长时间未访问的用户过期释放
+ * - 点赞/收藏切换在事务提交后更新已缓存的位图；位图按写时复制替换，读取无需加锁
+ *
+ * @author Kokoa
+ */
+@Service
+public class InteractionStateService {
+
+    @Autowired
+    private UserActionMapper userActionMapper;
+
+    private final Cache<Long, State> cache;
+
+    public InteractionStateService(@Value("${app.interaction-state.max-users:10000}") long maxUsers,
+                                   @Value("${app.interaction-state.ttl-minutes:30}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * 用户是否点赞了帖子
+     */
+    public boolean isLiked(Long userId, Long postId) {
+        return userId != null && postId != null && state(userId).liked().contains(postId);
+    }
+
+    /**
+     * 用户是否收藏了帖子
+     */
+    public boolean isCollected(Long userId, Long postId) {
+        return userId != null && postId != null && state(userId).collected().contains(postId);
+    }
+
+    /**
+     * 为一页帖子标记当前用户的点赞/收藏状态，未登录时不做处理
+     *
+     * @param userId 当前用户ID，可为null
+     * @param posts  帖子DTO列表
+     */
+    public void stamp(Long userId, Collection<PostDTO> posts) {
+        if (userId == null || posts == null || posts.isEmpty()) {
+            return;
+        }
+        State state = state(userId);
+        for (PostDTO post : posts) {
+            if (post != null && post.getId() != null) {
+                post.setIsLiked(state.liked().contains(post.getId()));
+                post.setIsCollected(state.collected().contains(post.getId()));
+            }
+        }
+    }
+
+    /**
+     * 点赞/收藏切换后更新已缓存的位图，在事务中调用时推迟到提交之后
+     *
+     * @param userId     用户ID
+     * @param targetType 目标类型，只处理post
+     * @param targetId   目标ID
+     * @param actionType 行为类型：0=点赞，1=收藏
+     * @param added      true=新增，false=取消
+     */
+    public void onToggle(Long userId, String targetType, Long targetId, Integer actionType, boolean added) {
+        if (userId == null || targetId == null || !"post".equals(targetType)
+                || actionType == null || (actionType != 0 && actionType != 1)) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> apply(userId, targetId, actionType, added));
+    }
+
+    private void apply(Long userId, Long postId, int actionType, boolean added) {
+        // 未缓存的用户无需处理，下次访问时从数据库加载；加载进行中时等待加载完成后再更新
+        cache.asMap().computeIfPresent(userId, (key, state) -> state.with(actionType, postId, added));
+    }
+
+    private State state(Long userId) {
+        return cache.get(userId, this::load);
+    }
+
+    private State load(Long userId) {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select("target_id, action_type")
+                .from("user_actions")
+                .where("user_id = ?", userId)
+                .and("target_type = 'post'")
+                .and("action_type IN (0, 1)")
+                .and("deleted = 0");
+        Roaring64Bitmap liked = new Roaring64Bitmap();
+        Roaring64Bitmap collected = new Roaring64Bitmap();
+        for (UserAction action : userActionMapper.selectListByQuery(queryWrapper)) {
+            if (action.getTargetId() == null || action.getActionType() == null) {
+                continue;
+            }
+            (action.getActionType() == 0 ? liked : collected).addLong(action.getTargetId());
+        }
+        liked.runOptimize();
+        collected.runOptimize();
+        return new State(liked, collected);
+    }
+
+    /**
+     * 用户的点赞/收藏位图，创建后不再修改
+     *
+     * @param liked     已点赞的帖子ID
+     * @param collected 已收藏的帖子ID
+     */
+    private record State(Roaring64Bitmap liked, Roaring64Bitmap collected) {
+
+        State with(int actionType, Long postId, boolean added) {
+            Roaring64Bitmap source = actionType == 0 ? liked : collected;
+            if (source.contains(postId) == added) {
+                return this;
+            }
+            Roaring64Bitmap copy = source.clone();
+            if (added) {
+                copy.addLong(postId);
+            } else {
+                copy.removeLong(postId);
+            }
+            return actionType == 0 ? new State(copy, collected) : new State(liked, copy);
+        }
+    }
+}
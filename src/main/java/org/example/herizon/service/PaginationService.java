@@ -0,0 +1,176 @@
+package org.example.herizon.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybatisflex.core.BaseMapper;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.util.MapperUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.PageResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 分页查询服务（免COUNT分页 + 总数缓存）
+ * <p>
+ * MyBatis-Flex的paginate每页都会对同一个关联、过滤后的查询再执行一次COUNT(*)，
+ * 在首页、话题页等列表上这次统计的成本与查询本页数据相当。本服务改为：
+ * 1. 每页多取一条数据判断是否还有下一页（hasMore），不执行COUNT
+ * 2. 确实需要总数时，从按key缓存的统计值中读取；缓存过期后先返回旧值，
+ *    同时在后台线程重新统计（stale-while-revalidate），请求线程不等待COUNT
+ * 3. 翻到最后一页时可以精确得到总数，顺便校正缓存
+ * <p>
+ * 搜索关键词等key的数量不可控，统计值缓存按数量上限淘汰最久未用的key
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class PaginationService {
+
+    private final long countTtlSeconds;
+
+    private final Cache<String, CachedCount> counts;
+
+    /**
+     * 正在后台刷新的key，避免同一个统计被重复提交
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "page-count-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PaginationService(@Value("${app.pagination.count-ttl-seconds:60}") long countTtlSeconds,
+                             @Value("${app.pagination.max-cached-counts:2048}") long maxCachedCounts) {
+        this.countTtlSeconds = countTtlSeconds;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxCachedCounts)
+                .build();
+    }
+
+    /**
+     * 免COUNT分页查询
+     *
+     * @param mapper       实体对应的Mapper
+     * @param queryWrapper 查询条件（含排序，不含limit）
+     * @param current      当前页码（从1开始）
+     * @param size         每页大小
+     * @param countKey     总数缓存key，为null表示不需要总数
+     * @param <T>          实体类型
+     * @return 分页结果，hasMore始终准确，total来自缓存（countKey为null时不返回）
+     */
+    public <T> PageResult<T> paginate(BaseMapper<T> mapper,
+                                      QueryWrapper queryWrapper,
+                                      Integer current,
+                                      Integer size,
+                                      String countKey) {
+        long offset = (long) (current - 1) * size;
+        QueryWrapper countQuery = countKey != null ? queryWrapper.clone() : null;
+
+        queryWrapper.limit(offset, size + 1);
+        List<T> records = new ArrayList<>(mapper.selectListByQuery(queryWrapper));
+        boolean hasMore = records.size() > size;
+        if (hasMore) {
+            records = records.subList(0, size);
+        }
+
+        Long total = null;
+        if (countKey != null) {
+            // 本页之前的数据量加上本页数据量，是总数的下界
+            long seen = offset + records.size() + (hasMore ? 1 : 0);
+            if (!hasMore && (!records.isEmpty() || offset == 0)) {
+                // 最后一页可以直接得到精确总数
+                total = seen;
+                putCount(countKey, total);
+            } else {
+                long cachedTotal = getCount(countKey,
+                        () -> mapper.selectCountByQuery(MapperUtil.optimizeCountQueryWrapper(countQuery)));
+                // 越过末尾的空页不能据此推断总数
+                total = records.isEmpty() ? cachedTotal : Math.max(seen, cachedTotal);
+            }
+        }
+        return PageResult.ofHasMore(records, total, (long) current, (long) size, hasMore);
+    }
+
+    /**
+     * 读取缓存的统计值
+     * <p>
+     * 首次读取时同步统计；之后缓存过期只触发后台刷新，立即返回旧值
+     *
+     * @param countKey 缓存key
+     * @param counter  实际执行统计的逻辑
+     * @return 统计值
+     */
+    public long getCount(String countKey, Supplier<Long> counter) {
+        CachedCount cached = counts.getIfPresent(countKey);
+        if (cached == null) {
+            long value = counter.get();
+            putCount(countKey, value);
+            return value;
+        }
+        if (System.currentTimeMillis() - cached.loadedAt() > countTtlSeconds * 1000 && refreshing.add(countKey)) {
+            refresher.execute(() -> {
+                try {
+                    putCount(countKey, counter.get());
+                } catch (RuntimeException e) {
+                    log.warn("后台刷新分页总数失败: key={}, {}", countKey, e.getMessage());
+                } finally {
+                    refreshing.remove(countKey);
+                }
+            });
+        }
+        return cached.value();
+    }
+
+    /**
+     * 使指定前缀的统计值过期
+     * <p>
+     * 数据发生增删时调用，下次读取仍返回旧值并在后台重新统计
+     *
+     * @param keyPrefix key前缀
+     */
+    public void invalidate(String keyPrefix) {
+        counts.asMap().replaceAll((key, cached) -> key.startsWith(keyPrefix)
+                ? new CachedCount(cached.value(), 0L)
+                : cached);
+    }
+
+    /**
+     * 使单个统计值过期
+     *
+     * @param countKey 缓存key
+     */
+    public void evict(String countKey) {
+        counts.asMap().computeIfPresent(countKey, (key, cached) -> new CachedCount(cached.value(), 0L));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void putCount(String countKey, long value) {
+        counts.put(countKey, new CachedCount(value, System.currentTimeMillis()));
+    }
+
+    /**
+     * 缓存的统计值
+     *
+     * @param value    统计值
+     * @param loadedAt 统计时间（毫秒）
+     */
+    private record CachedCount(long value, long loadedAt) {
+    }
+}
@@ -0,0 +1,523 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.TransactionHooks;
+import org.example.herizon.entity.Post;
+import org.example.herizon.entity.Tag;
+import org.example.herizon.mapper.PostMapper;
+import org.example.herizon.mapper.TagMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 帖子全文检索服务（内存倒排索引）
+ * <p>
+ * 替代原先的 title LIKE '%kw%' OR content LIKE '%kw%' 全表扫描：
+ * - 标题和正文经SearchTokenizer切分为中文一元组、二元组、词典整词和英文词后写入倒排表
+ * - 搜索词的全部匹配词项都命中的帖子才算匹配，按BM25相关性叠加时间新鲜度排序
+ * - 发帖、删帖时增量更新索引（在事务中调用时推迟到提交之后）；启动时以及每天定时从数据库完整重建
+ * <p>
+ * 重建在新索引对象上进行，期间的增量更新会记录下来，重建完成后补放到新索引再切换，
+ * 重建过程中搜索仍由旧索引提供
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class PostSearchService implements ApplicationRunner {
+
+    /**
+     * 标题词频权重：标题中的词项按该倍数计入词频
+     */
+    private static final int TITLE_WEIGHT = 3;
+
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private PostMapper postMapper;
+
+    @Autowired
+    private TagMapper tagMapper;
+
+    /**
+     * 新鲜度权重：刚发布的帖子相关性最多放大到 (1 + recencyWeight) 倍
+     */
+    @Value("${app.search.recency-weight:0.5}")
+    private double recencyWeight;
+
+    /**
+     * 新鲜度半衰期（天）
+     */
+    @Value("${app.search.recency-half-life-days:30}")
+    private double recencyHalfLifeDays;
+
+    private volatile Index index = new Index(Set.of());
+
+    private volatile boolean ready = false;
+
+    /**
+     * 重建期间记录的增量更新，重建完成后补放到新索引；为null表示当前没有重建
+     */
+    private List<Consumer<Index>> pendingUpdates;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * 索引是否已完成首次构建
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 从数据库完整重建索引
+     */
+    @Scheduled(cron = "${app.search.rebuild-cron:0 30 4 * * *}")
+    public void rebuild() {
+        synchronized (this) {
+            if (pendingUpdates != null) {
+                return;
+            }
+            pendingUpdates = new ArrayList<>();
+        }
+        Index rebuilt = null;
+        try {
+            rebuilt = new Index(loadDictionary());
+            long lastId = 0;
+            while (true) {
+                QueryWrapper query = QueryWrapper.create()
+                        .select("id, title, content, created_at")
+                        .from("posts")
+                        .where("id > ?", lastId)
+                        .and("status = 0")
+                        .orderBy("id ASC")
+                        .limit(CHUNK_SIZE);
+                List<Post> posts = postMapper.selectListByQuery(query);
+                if (posts.isEmpty()) {
+                    break;
+                }
+                for (Post post : posts) {
+                    rebuilt.add(post);
+                }
+                lastId = posts.get(posts.size() - 1).getId();
+            }
+        } catch (RuntimeException e) {
+            log.warn("搜索索引重建失败，继续使用旧索引: {}", e.getMessage());
+            rebuilt = null;
+        } finally {
+            synchronized (this) {
+                if (rebuilt != null) {
+                    for (Consumer<Index> update : pendingUpdates) {
+                        update.accept(rebuilt);
+                    }
+                    index = rebuilt;
+                    ready = true;
+                    log.info("搜索索引重建完成，共{}个帖子", rebuilt.liveCount());
+                }
+                pendingUpdates = null;
+            }
+        }
+    }
+
+    /**
+     * 新帖子加入索引，在事务中调用时推迟到提交之后
+     */
+    public void onPostCreated(Post post) {
+        if (post == null || post.getId() == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> apply(target -> target.add(post)));
+    }
+
+    /**
+     * 帖子删除或下架后移出索引，在事务中调用时推迟到提交之后
+     */
+    public void onPostRemoved(Long postId) {
+        if (postId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> apply(target -> target.remove(postId)));
+    }
+
+    /**
+     * 统计匹配搜索词的帖子数量
+     *
+     * @param keyword 搜索词
+     * @return 匹配数量
+     */
+    public long count(String keyword) {
+        return index.match(SearchTokenizer.tokenizeQuery(keyword)).length;
+    }
+
+    /**
+     * 按相关性搜索帖子
+     *
+     * @param keyword 搜索词
+     * @param offset  起始位置
+     * @param limit   获取数量
+     * @return 按得分降序的命中结果
+     */
+    public List<Hit> search(String keyword, int offset, int limit) {
+        return searchPage(keyword, offset, limit).hits();
+    }
+
+    /**
+     * 按相关性搜索帖子，同时返回匹配总数
+     * <p>
+     * 总数取自本页使用的同一次匹配，不再单独统计
+     *
+     * @param keyword 搜索词
+     * @param offset  起始位置
+     * @param limit   获取数量
+     * @return 本页命中结果与匹配总数
+     */
+    public SearchPage searchPage(String keyword, int offset, int limit) {
+        SearchPage top = index.search(keyword, offset + limit, null, recencyWeight, recencyHalfLifeDays);
+        List<Hit> hits = top.hits();
+        return new SearchPage(offset >= hits.size() ? List.of() : hits.subList(offset, hits.size()), top.total());
+    }
+
+    /**
+     * 游标方式搜索：返回排在(score, postId)之后的命中结果
+     *
+     * @param keyword   搜索词
+     * @param lastScore 上一页最后一条的得分，为null表示第一页
+     * @param lastId    上一页最后一条的帖子ID
+     * @param limit     获取数量
+     * @return 按得分降序的命中结果
+     */
+    public List<Hit> searchAfter(String keyword, Double lastScore, Long lastId, int limit) {
+        Hit after = lastScore != null ? new Hit(lastId, lastScore) : null;
+        return index.search(keyword, limit, after, recencyWeight, recencyHalfLifeDays).hits();
+    }
+
+    private synchronized void apply(Consumer<Index> update) {
+        update.accept(index);
+        if (pendingUpdates != null) {
+            pendingUpdates.add(update);
+        }
+    }
+
+    /**
+     * 以标签名作为分词词典，标签名即社区内的高频领域词
+     */
+    private Set<String> loadDictionary() {
+        return tagMapper.selectListByQuery(QueryWrapper.create().select("name").from("tags")).stream()
+                .map(Tag::getName)
+                .filter(name -> name != null && name.length() > 2)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * 搜索命中结果
+     *
+     * @param postId 帖子ID
+     * @param score  得分（相关性 × 新鲜度）
+     */
+    public record Hit(Long postId, double score) {
+    }
+
+    /**
+     * 一页搜索结果
+     *
+     * @param hits  本页命中结果，按得分降序
+     * @param total 匹配搜索词的帖子总数
+     */
+    public record SearchPage(List<Hit> hits, long total) {
+    }
+
+    /**
+     * 排序规则：得分降序，得分相同按帖子ID降序
+     */
+    private static final Comparator<Hit> HIT_ORDER = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparing(Comparator.comparing(Hit::postId).reversed());
+
+    /**
+     * 倒排索引
+     * <p>
+     * 文档以内部编号（追加顺序）存储，每个词项的倒排表是按文档编号递增的数组；
+     * 删除只打标记，下次重建时彻底清除。
+     * 增删持有写锁，匹配与搜索持有读锁，多个搜索可以并发执行，只与写入互斥
+     */
+    private static final class Index {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Set<String> dictionary;
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Map<Long, Integer> docByPostId = new HashMap<>();
+        private final BitSet deleted = new BitSet();
+        private long[] postIds = new long[1024];
+        private int[] lengths = new int[1024];
+        private long[] createdAt = new long[1024];
+        private int docCount;
+        private int liveCount;
+        private long totalLength;
+
+        Index(Set<String> dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        int liveCount() {
+            return liveCount;
+        }
+
+        void add(Post post) {
+            lock.writeLock().lock();
+            try {
+                addLocked(post);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long postId) {
+            lock.writeLock().lock();
+            try {
+                removeLocked(postId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * 所有词项都命中且未删除的文档编号，升序
+         */
+        int[] match(List<String> terms) {
+            lock.readLock().lock();
+            try {
+                return matchLocked(terms);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        SearchPage search(String keyword, int limit, Hit after, double recencyWeight, double halfLifeDays) {
+            lock.readLock().lock();
+            try {
+                return searchLocked(keyword, limit, after, recencyWeight, halfLifeDays);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void addLocked(Post post) {
+            if (docByPostId.containsKey(post.getId())) {
+                removeLocked(post.getId());
+            }
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : SearchTokenizer.tokenize(post.getTitle(), dictionary)) {
+                frequencies.merge(token, TITLE_WEIGHT, Integer::sum);
+            }
+            for (String token : SearchTokenizer.tokenize(post.getContent(), dictionary)) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+
+            int doc = docCount;
+            if (doc == postIds.length) {
+                int capacity = doc * 2;
+                postIds = Arrays.copyOf(postIds, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                createdAt = Arrays.copyOf(createdAt, capacity);
+            }
+            int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+            postIds[doc] = post.getId();
+            lengths[doc] = length;
+            LocalDateTime time = post.getCreatedAt() != null ? post.getCreatedAt() : LocalDateTime.now();
+            createdAt[doc] = time.atZone(ZoneId.systemDefault()).toEpochSecond();
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, key -> new Postings()).append(doc, tf));
+
+            docByPostId.put(post.getId(), doc);
+            totalLength += length;
+            liveCount++;
+            docCount++;
+        }
+
+        private void removeLocked(Long postId) {
+            Integer doc = docByPostId.remove(postId);
+            if (doc == null) {
+                return;
+            }
+            deleted.set(doc);
+            totalLength -= lengths[doc];
+            liveCount--;
+        }
+
+        /**
+         * 从最短的倒排表开始逐个取候选文档，在其余倒排表中跳跃查找，
+         * 不为每个词项物化完整的文档集合，常见单字的长倒排表只被少量访问
+         */
+        private int[] matchLocked(List<String> terms) {
+            if (terms.isEmpty()) {
+                return new int[0];
+            }
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            Postings shortest = lists.get(0);
+            int[] cursors = new int[lists.size()];
+            int[] result = new int[shortest.size];
+            int count = 0;
+            candidates:
+            for (int i = 0; i < shortest.size; i++) {
+                int doc = shortest.docs[i];
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                for (int j = 1; j < lists.size(); j++) {
+                    Postings other = lists.get(j);
+                    cursors[j] = other.advance(cursors[j], doc);
+                    if (cursors[j] >= other.size) {
+                        break candidates;
+                    }
+                    if (other.docs[cursors[j]] != doc) {
+                        continue candidates;
+                    }
+                }
+                result[count++] = doc;
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        private SearchPage searchLocked(String keyword, int limit, Hit after,
+                                        double recencyWeight, double halfLifeDays) {
+            int[] matched = matchLocked(SearchTokenizer.tokenizeQuery(keyword));
+            if (matched.length == 0 || limit <= 0) {
+                return new SearchPage(List.of(), matched.length);
+            }
+
+            // 匹配词项加上命中词典的整词共同参与打分，词频按匹配文档的顺序对齐
+            List<int[]> termFrequencies = new ArrayList<>();
+            List<Double> idf = new ArrayList<>();
+            for (String term : SearchTokenizer.tokenizeQuery(keyword, dictionary)) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                termFrequencies.add(list.frequenciesOf(matched));
+                double df = list.size;
+                idf.add(Math.log(1 + (liveCount - df + 0.5) / (df + 0.5)));
+            }
+
+            double averageLength = liveCount > 0 ? (double) totalLength / liveCount : 1;
+            long now = System.currentTimeMillis() / 1000;
+            PriorityQueue<Hit> top = new PriorityQueue<>(HIT_ORDER.reversed());
+            for (int i = 0; i < matched.length; i++) {
+                int doc = matched[i];
+                double norm = BM25_K1 * (1 - BM25_B + BM25_B * lengths[doc] / averageLength);
+                double bm25 = 0;
+                for (int t = 0; t < termFrequencies.size(); t++) {
+                    int tf = termFrequencies.get(t)[i];
+                    if (tf > 0) {
+                        bm25 += idf.get(t) * tf * (BM25_K1 + 1) / (tf + norm);
+                    }
+                }
+                double ageDays = Math.max(0, now - createdAt[doc]) / 86400.0;
+                double freshness = 1 + recencyWeight * Math.pow(0.5, ageDays / halfLifeDays);
+                Hit hit = new Hit(postIds[doc], bm25 * freshness);
+                if (after != null && HIT_ORDER.compare(hit, after) <= 0) {
+                    continue;
+                }
+                top.offer(hit);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<Hit> result = new ArrayList<>(top);
+            result.sort(HIT_ORDER);
+            return new SearchPage(result, matched.length);
+        }
+    }
+
+    /**
+     * 单个词项的倒排表：按文档编号递增的(文档编号, 词频)数组
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void append(int doc, int tf) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = tf;
+            size++;
+        }
+
+        /**
+         * 从from开始查找第一个文档编号不小于target的位置，先倍增步长再二分，没有时返回size
+         */
+        int advance(int from, int target) {
+            if (from >= size || docs[from] >= target) {
+                return from;
+            }
+            int low = from;
+            int high = from + 1;
+            int step = 1;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = low + step;
+            }
+            int index = Arrays.binarySearch(docs, low + 1, Math.min(high, size), target);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        /**
+         * 按匹配文档的顺序取出各文档中的词频，不含该词项的文档为0
+         *
+         * @param matched 升序的文档编号
+         */
+        int[] frequenciesOf(int[] matched) {
+            int[] result = new int[matched.length];
+            int cursor = 0;
+            for (int i = 0; i < matched.length; i++) {
+                cursor = advance(cursor, matched[i]);
+                if (cursor >= size) {
+                    break;
+                }
+                if (docs[cursor] == matched[i]) {
+                    result[i] = frequencies[cursor];
+                }
+            }
+            return result;
+        }
+    }
+}
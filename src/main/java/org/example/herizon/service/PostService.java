@@ -1,13 +1,13 @@
 package org.example.herizon.service;
 
-import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
-import com.mybatisflex.core.row.Row;
+import org.example.herizon.common.PageCursor;
 import org.example.herizon.common.PageResult;
 import org.example.herizon.dto.CreatePostRequest;
 import org.example.herizon.dto.PollOptionDTO;
 import org.example.herizon.dto.PostDTO;
 import org.example.herizon.dto.TagDTO;
+import org.example.herizon.dto.UserSummary;
 import org.example.herizon.entity.*;
 import org.example.herizon.mapper.*;
 import org.springframework.beans.BeanUtils;
@@ -21,7 +21,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -66,18 +65,56 @@ public class PostService{
     @Autowired
     private FollowService followService;
 
+    @Autowired
+    private HotRankingService hotRankingService;
+
+    @Autowired
+    private PaginationService paginationService;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private HotSearchService hotSearchService;
+
+    @Autowired
+    private UserSummaryService userSummaryService;
+
+    @Autowired
+    private DataLoaderService dataLoaderService;
+
+    @Autowired
+    private TagDictionaryService tagDictionaryService;
+
+    @Autowired
+    private ViewCountService viewCountService;
+
+    @Autowired
+    private UniqueViewerService uniqueViewerService;
+
+    @Autowired
+    private InteractionStateService interactionStateService;
+
+    @Autowired
+    private ActionService actionService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
     /**
-     * 搜索帖子（模糊匹配）
+     * 搜索帖子（全文检索）
      * <p>
      * 根据关键词搜索帖子，支持：
-     * 1. 对标题和内容进行模糊匹配（LIKE查询）
-     * 2. 按创建时间倒序排列（最新的在前）
+     * 1. 对标题和内容进行全文检索（中文二元组 + 英文词）
+     * 2. 按相关性叠加时间新鲜度排序
      * 3. 仅返回正常状态的帖子
      * <p>
      * 技术实现：
-     * - 使用 LIKE '%keyword%' 进行模糊匹配
-     * - 在title或content中匹配即返回结果
-     * - ORDER BY created_at DESC 确保最新帖子优先
+     * - PostSearchService维护内存倒排索引，命中的帖子ID按得分排序后批量加载
+     * - 索引首次构建完成前，退回 LIKE '%keyword%' 模糊匹配并按创建时间倒序
      *
      * @param keyword 搜索关键词（会自动去除首尾空格）
      * @param current 当前页码
@@ -93,43 +130,245 @@ public class PostService{
             return PageResult.of(List.of(), 0L, (long) current, (long) size);
         }
 
-        // 构建模糊搜索查询
-        // 技术要点：
-        // 1. 使用 LEFT JOIN 获取用户信息（昵称、头像、角色）
-        // 2. WHERE条件：status=0（正常帖子）AND (title LIKE '%keyword%' OR content LIKE '%keyword%')
-        // 3. ORDER BY created_at DESC（最新发布优先）
-        QueryWrapper queryWrapper = QueryWrapper.create()
+        // 只统计第一页，翻页不算作新的搜索
+        if (current == 1) {
+            hotSearchService.record(cleanKeyword);
+        }
+
+        if (postSearchService.isReady()) {
+            long offset = (long) (current - 1) * size;
+            PostSearchService.SearchPage page = postSearchService.searchPage(cleanKeyword, (int) offset, size);
+            List<Long> postIds = page.hits().stream()
+                    .map(PostSearchService.Hit::postId)
+                    .collect(Collectors.toList());
+            long total = page.total();
+            List<PostDTO> postDTOs = convertToDTOList(loadPostsInOrder(postIds));
+            return PageResult.ofHasMore(postDTOs, total, (long) current, (long) size, offset + postIds.size() < total);
+        }
+
+        // 构建模糊搜索查询，ORDER BY created_at DESC（最新发布优先）
+        QueryWrapper queryWrapper = buildSearchQuery(cleanKeyword)
+                .orderBy("posts.created_at DESC"); // 按时间降序（最新的在前）
+
+        // 执行分页查询（不执行COUNT，总数取缓存值）
+        PageResult<Post> page = paginationService.paginate(postMapper, queryWrapper, current, size, "posts:search:" + cleanKeyword);
+
+        // 转换为DTO（包含标签、用户操作状态等完整信息）
+        return page.withRecords(convertToDTOList(page.getRecords()));
+    }
+
+    /**
+     * 搜索帖子（游标分页）
+     * <p>
+     * 与searchPosts匹配规则一致，从游标位置之后继续查询，不执行COUNT统计，适合小程序无限滚动。
+     * 索引可用时游标记录(得分, ID)，否则记录(created_at, ID)
+     *
+     * @param keyword 搜索关键词
+     * @param cursor  上一页返回的游标，为空表示第一页
+     * @param size    每页大小
+     * @return 游标分页结果
+     */
+    public PageResult<PostDTO> searchPostsByCursor(String keyword, String cursor, Integer size) {
+        String cleanKeyword = keyword != null ? keyword.trim() : "";
+        if (cleanKeyword.isEmpty()) {
+            return PageResult.ofCursor(List.of(), null, (long) size);
+        }
+        if (cursor == null || cursor.isBlank()) {
+            hotSearchService.record(cleanKeyword);
+        }
+        if (!postSearchService.isReady()) {
+            return paginateByCursor(buildSearchQuery(cleanKeyword), cursor, size);
+        }
+
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        Double lastScore = pageCursor != null ? pageCursor.getScore() : null;
+        Long lastId = pageCursor != null ? pageCursor.getId() : null;
+
+        // 多取一条用于判断是否还有下一页
+        List<PostSearchService.Hit> hits = postSearchService.searchAfter(cleanKeyword, lastScore, lastId, size + 1);
+        boolean hasMore = hits.size() > size;
+        if (hasMore) {
+            hits = hits.subList(0, size);
+        }
+
+        List<Long> postIds = hits.stream().map(PostSearchService.Hit::postId).collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            PostSearchService.Hit last = hits.get(hits.size() - 1);
+            nextCursor = PageCursor.ofScore(last.score(), last.postId());
+        }
+        return PageResult.ofCursor(convertToDTOList(loadPostsInOrder(postIds)), nextCursor, (long) size);
+    }
+
+    /**
+     * 构建帖子模糊搜索查询（不含排序）
+     * <p>
+     * 技术要点：
+     * 1. 使用 LEFT JOIN 获取用户信息（昵称、头像、角色）
+     * 2. WHERE条件：status=0（正常帖子）AND (title LIKE '%keyword%' OR content LIKE '%keyword%')
+     */
+    private QueryWrapper buildSearchQuery(String cleanKeyword) {
+        return QueryWrapper.create()
                 .select("posts.*, users.username, users.nickname, users.avatar, users.role")
                 .from("posts")
                 .leftJoin("users").on("posts.user_id = users.id")
                 .where("posts.status = 0") // 仅查询正常状态的帖子
                 .and("(posts.title LIKE ? OR posts.content LIKE ?)",
-                     "%" + cleanKeyword + "%", "%" + cleanKeyword + "%") // 模糊匹配标题或内容
-                .orderBy("posts.created_at DESC"); // 按时间降序（最新的在前）
+                     "%" + cleanKeyword + "%", "%" + cleanKeyword + "%"); // 模糊匹配标题或内容
+    }
 
-        // 执行分页查询
-        Page<Post> page = postMapper.paginate(Page.of(current, size), queryWrapper);
+    /**
+     * 首页帖子列表（按热度排序）
+     * <p>
+     * 排序来自HotRankingService维护的内存热门排行：
+     * 1. 每次点赞、收藏等互动按时间衰减累加热度，新互动权重更高
+     * 2. 分页直接从内存排行截取帖子ID，再按ID批量加载帖子
+     * 3. 排行尚未加载完成时退回数据库多列排序
+     * 多截取一条判断是否还有下一页，不统计帖子总数
+     *
+     * @param current 当前页码
+     * @param size    每页大小
+     * @return 分页结果，按热度排序的帖子列表（hasMore准确，不含总数）
+     */
+    public PageResult<PostDTO> getHomePostList(Integer current, Integer size){
+        if( !hotRankingService.isReady() ){
+            return getHomePostListFromDatabase(current, size);
+        }
 
-        // 转换为DTO（包含标签、用户操作状态等完整信息）
-        List<PostDTO> postDTOs = convertToDTOList(page.getRecords());
+        long offset = (long) (current - 1) * size;
+        List<Long> postIds = hotRankingService.getPage(offset, size + 1);
+        boolean hasMore = postIds.size() > size;
+        if( hasMore ){
+            postIds = postIds.subList(0, size);
+        }
+        List<PostDTO> postDTOs = convertToDTOList(loadPostsInOrder(postIds));
+        return PageResult.ofHasMore(postDTOs, null, (long) current, (long) size, hasMore);
+    }
+
+    /**
+     * 首页帖子列表（游标分页）
+     * <p>
+     * 游标记录上一页最后一个帖子的热度分和ID，下一页从热门排行中该位置之后继续截取，
+     * 浏览过程中新帖子进入排行不会导致后续页重复或遗漏
+     *
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param size   每页大小
+     * @return 游标分页结果，按热度排序
+     */
+    public PageResult<PostDTO> getHomePostListByCursor(String cursor, Integer size){
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        Double lastScore = pageCursor != null ? pageCursor.getScore() : null;
+        Long lastId = pageCursor != null ? pageCursor.getId() : null;
+
+        // 多取一条用于判断是否还有下一页
+        List<PostHotScore> ranked = hotRankingService.getPageAfter(lastScore, lastId, size + 1);
+        boolean hasMore = ranked.size() > size;
+        if( hasMore ){
+            ranked = ranked.subList(0, size);
+        }
+
+        List<Long> postIds = ranked.stream().map(PostHotScore::getPostId).collect(Collectors.toList());
+        List<PostDTO> postDTOs = convertToDTOList(loadPostsInOrder(postIds));
+
+        String nextCursor = null;
+        if( hasMore ){
+            PostHotScore last = ranked.get(ranked.size() - 1);
+            nextCursor = PageCursor.ofScore(last.getScore(), last.getPostId());
+        }
+        return PageResult.ofCursor(postDTOs, nextCursor, (long) size);
+    }
+
+    /**
+     * 关注时间线（游标分页）
+     * <p>
+     * 展示当前用户关注的人发布的帖子，按发布时间倒序。
+     * 条目来自TimelineService维护的收件箱（普通作者写扩散）与大V帖子的读时合并，
+     * 不再对全部关注对象执行 user_id IN (...) ORDER BY created_at
+     *
+     * @param userId 当前用户ID
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param size   每页大小
+     * @return 游标分页结果，按发布时间倒序
+     */
+    public PageResult<PostDTO> getFollowingFeed(Long userId, String cursor, Integer size){
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        LocalDateTime lastCreatedAt = pageCursor != null ? pageCursor.getTime() : null;
+        Long lastId = pageCursor != null ? pageCursor.getId() : null;
+
+        // 多取一条用于判断是否还有下一页
+        List<UserInbox> entries = timelineService.getTimeline(userId, lastCreatedAt, lastId, size + 1);
+        boolean hasMore = entries.size() > size;
+        if( hasMore ){
+            entries = entries.subList(0, size);
+        }
 
-        // 返回分页结果
-        return PageResult.of(postDTOs, page.getTotalRow(), (long) current, (long) size);
+        List<Long> postIds = entries.stream().map(UserInbox::getPostId).collect(Collectors.toList());
+        List<PostDTO> postDTOs = convertToDTOList(loadPostsInOrder(postIds));
+
+        String nextCursor = null;
+        if( hasMore ){
+            UserInbox last = entries.get(entries.size() - 1);
+            nextCursor = PageCursor.ofTime(last.getCreatedAt(), last.getPostId());
+        }
+        return PageResult.ofCursor(postDTOs, nextCursor, (long) size);
     }
 
     /**
-     * 首页帖子列表（系统变更后的简化版）
+     * 收藏列表（页码分页），按收藏时间倒序
      * <p>
-     * 根据系统变更要求：
-     * 1. 移除所有筛选条件，仅展示全部帖子
-     * 2. 实现简单的推荐算法排序
-     * 3. 不再支持复杂的排序选项和标签筛选
+     * 先按收藏记录的覆盖索引取出一页帖子ID，再批量组装完整DTO（作者、标签、投票选项），
+     * 每页的查询次数固定，与收藏数量无关；已删除或被隐藏的帖子不展示
      *
+     * @param userId  用户ID
      * @param current 当前页码
      * @param size    每页大小
-     * @return 分页结果，按推荐算法排序的帖子列表
+     * @return 分页结果
      */
-    public PageResult<PostDTO> getHomePostList(Integer current, Integer size){
+    public PageResult<PostDTO> getCollections(Long userId, Integer current, Integer size){
+        PageResult<UserAction> page = actionService.getCollectionPage(userId, current, size);
+        List<Long> postIds = page.getRecords().stream().map(UserAction::getTargetId).collect(Collectors.toList());
+        return page.withRecords(convertToDTOList(loadPostsInOrder(postIds)));
+    }
+
+    /**
+     * 收藏列表（游标分页），按收藏时间倒序
+     *
+     * @param userId 用户ID
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param size   每页大小
+     * @return 游标分页结果
+     */
+    public PageResult<PostDTO> getCollectionsByCursor(Long userId, String cursor, Integer size){
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        LocalDateTime lastCollectedAt = pageCursor != null ? pageCursor.getTime() : null;
+        Long lastId = pageCursor != null ? pageCursor.getId() : null;
+
+        // 多取一条用于判断是否还有下一页
+        List<UserAction> entries = actionService.getCollectionEntries(userId, lastCollectedAt, lastId, size + 1);
+        boolean hasMore = entries.size() > size;
+        if( hasMore ){
+            entries = entries.subList(0, size);
+        }
+
+        List<Long> postIds = entries.stream().map(UserAction::getTargetId).collect(Collectors.toList());
+        List<PostDTO> postDTOs = convertToDTOList(loadPostsInOrder(postIds));
+
+        String nextCursor = null;
+        if( hasMore ){
+            UserAction last = entries.get(entries.size() - 1);
+            nextCursor = PageCursor.ofTime(last.getCreatedAt(), last.getTargetId());
+        }
+        return PageResult.ofCursor(postDTOs, nextCursor, (long) size);
+    }
+
+    /**
+     * 首页帖子列表的数据库排序实现（热门排行加载前使用）
+     *
+     * @param current 当前页码
+     * @param size    每页大小
+     * @return 分页结果，按点赞、收藏、分享、时间多级排序
+     */
+    private PageResult<PostDTO> getHomePostListFromDatabase(Integer current, Integer size){
         // 创建查询包装器，仅查询正常状态的帖子
         // 选择帖子所有字段以及用户的nickname、avatar、role（用于前端显示）
         QueryWrapper queryWrapper = QueryWrapper.create()
@@ -138,7 +377,6 @@ public class PostService{
                 .leftJoin("users").on("posts.user_id = users.id")
                 .where("posts.status = 0");  // 只查询正常状态的帖子
 
-        // 实现简化的推荐算法排序（修复MyBatis-Flex SQL安全检查问题）
         // 为避免SQL安全检查问题，使用多级排序而非算术表达式
         // 1. 优先按点赞数排序（主要热度指标）
         // 2. 其次按收藏数排序（用户价值指标）
@@ -149,13 +387,34 @@ public class PostService{
                 .orderBy("posts.share_count DESC")
                 .orderBy("posts.created_at DESC");
 
-        // 执行分页查询
-        Page<Post> page = postMapper.paginate(Page.of(current, size), queryWrapper);
+        // 执行分页查询（不执行COUNT，只返回hasMore）
+        PageResult<Post> page = paginationService.paginate(postMapper, queryWrapper, current, size, null);
 
         // 转换为DTO
-        List<PostDTO> postDTOs = convertToDTOList(page.getRecords());
+        return page.withRecords(convertToDTOList(page.getRecords()));
+    }
 
-        return PageResult.of(postDTOs, page.getTotalRow(), (long) current, (long) size);
+    /**
+     * 按给定ID顺序批量加载正常状态的帖子
+     * <p>
+     * 已删除或下架的帖子会被跳过，其余帖子保持传入的顺序
+     *
+     * @param postIds 帖子ID列表（有序）
+     * @return 帖子列表，顺序与postIds一致
+     */
+    private List<Post> loadPostsInOrder(List<Long> postIds) {
+        if (postIds == null || postIds.isEmpty()) {
+            return List.of();
+        }
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .where(Post::getId).in(postIds)
+                .and("status = 0");
+        Map<Long, Post> postMap = postMapper.selectListByQuery(queryWrapper).stream()
+                .collect(Collectors.toMap(Post::getId, post -> post));
+        return postIds.stream()
+                .map(postMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -169,25 +428,41 @@ public class PostService{
      * @return 分页结果，该标签下的帖子列表
      */
     public PageResult<PostDTO> getPostsByTag(Long tagId, Integer current, Integer size){
-        // 创建查询包装器，筛选指定标签的帖子
-        // 选择帖子所有字段以及用户的nickname、avatar、role（用于前端显示）
-        QueryWrapper queryWrapper = QueryWrapper.create()
-                .select("posts.*, users.username, users.nickname, users.avatar, users.role")
-                .from("posts")
-                .leftJoin("users").on("posts.user_id = users.id")
-                .where("posts.status = 0")
-                // 使用EXISTS子查询筛选标签
-                .and("EXISTS (SELECT 1 FROM post_tags WHERE post_tags.post_id = posts.id AND post_tags.tag_id = ? AND post_tags.deleted = 0)", tagId)
-                // 按时间降序排序显示最新内容
+        // 筛选指定标签的帖子，按时间降序排序显示最新内容
+        QueryWrapper queryWrapper = buildTagQuery(tagId)
                 .orderBy("posts.created_at DESC");
 
-        // 执行分页查询
-        Page<Post> page = postMapper.paginate(Page.of(current, size), queryWrapper);
+        // 执行分页查询（不执行COUNT，只返回hasMore）
+        PageResult<Post> page = paginationService.paginate(postMapper, queryWrapper, current, size, null);
 
         // 转换为DTO
-        List<PostDTO> postDTOs = convertToDTOList(page.getRecords());
+        return page.withRecords(convertToDTOList(page.getRecords()));
+    }
 
-        return PageResult.of(postDTOs, page.getTotalRow(), (long) current, (long) size);
+    /**
+     * 根据标签查询帖子列表（游标分页）
+     *
+     * @param tagId  标签ID
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param size   每页大小
+     * @return 游标分页结果，按时间降序
+     */
+    public PageResult<PostDTO> getPostsByTagByCursor(Long tagId, String cursor, Integer size){
+        return paginateByCursor(buildTagQuery(tagId), cursor, size);
+    }
+
+    /**
+     * 构建标签帖子查询（不含排序）
+     * <p>
+     * 选择帖子所有字段以及用户的nickname、avatar、role（用于前端显示），使用EXISTS子查询筛选标签
+     */
+    private QueryWrapper buildTagQuery(Long tagId){
+        return QueryWrapper.create()
+                .select("posts.*, users.username, users.nickname, users.avatar, users.role")
+                .from("posts")
+                .leftJoin("users").on("posts.user_id = users.id")
+                .where("posts.status = 0")
+                .and("EXISTS (SELECT 1 FROM post_tags WHERE post_tags.post_id = posts.id AND post_tags.tag_id = ? AND post_tags.deleted = 0)", tagId);
     }
 
     /**
@@ -219,26 +494,39 @@ public class PostService{
      *
      * @param id            帖子ID
      * @param currentUserId 当前用户ID，可为null。如果提供，会查询用户对该帖子的操作状态
+     * @param deviceId      设备ID，可为null。未登录时作为独立访客标识
      * @return 帖子详情DTO，如果帖子不存在返回null
      */
-    public PostDTO getPostById(Long id, Long currentUserId){
+    public PostDTO getPostById(Long id, Long currentUserId, String deviceId){
         Post post = postMapper.selectOneById(id);
         if( post==null ){
             return null;
         }
+        // 审核中（含举报达到阈值自动隐藏）的帖子只对作者和管理员可见
+        if( !Objects.equals(post.getStatus(), 0) && !Objects.equals(post.getUserId(), currentUserId) ){
+            UserSummary viewer = currentUserId != null ? userSummaryService.get(currentUserId) : null;
+            if( viewer==null || !viewer.isAdmin() ){
+                return null;
+            }
+        }
 
-        // 自动累加浏览量（处理空值避免异常）
-        int currentViewCount = post.getViewCount() != null ? post.getViewCount() : 0;
-        post.setViewCount(currentViewCount + 1);
-        post.setUpdatedAt(LocalDateTime.now());
-        postMapper.update(post);
+        // 浏览量先计入内存缓冲，定时批量写库；返回值合并尚未写库的增量
+        viewCountService.increment(id);
+        long viewCount = (post.getViewCount() != null ? post.getViewCount() : 0) + viewCountService.pending(id);
+        post.setViewCount((int) viewCount);
+
+        // 独立访客优先以用户ID标识，未登录时使用设备ID
+        String viewerId = currentUserId != null ? "u:" + currentUserId
+                : (deviceId != null && !deviceId.isBlank() ? "d:" + deviceId : null);
+        uniqueViewerService.record(id, viewerId);
 
         PostDTO postDTO = convertToDTO(post);
+        postDTO.setUniqueViewerCount(uniqueViewerService.estimate(id));
 
         // 如果提供了当前用户ID，查询用户对该帖子的操作状态
         if( currentUserId!=null ){
-            postDTO.setIsLiked(hasUserAction(currentUserId, id, "post", 0));
-            postDTO.setIsCollected(hasUserAction(currentUserId, id, "post", 1));
+            postDTO.setIsLiked(interactionStateService.isLiked(currentUserId, id));
+            postDTO.setIsCollected(interactionStateService.isCollected(currentUserId, id));
             if( currentUserId!=null && !currentUserId.equals(post.getUserId()) ) {
                 postDTO.setIsAuthorFollowed(followService.isFollowing(currentUserId, post.getUserId()));
             }
@@ -305,6 +593,7 @@ public class PostService{
         post.setShareCount(0);
         post.setCollectCount(0);
         post.setCommentCount(0);  // 添加评论数初始化
+        post.setVoteCount(0);
         post.setCreatedAt(LocalDateTime.now());
         post.setUpdatedAt(LocalDateTime.now());
         post.setStatus(0);
@@ -322,6 +611,7 @@ public class PostService{
                 option.setPostId(post.getId());                      // 关联帖子ID
                 option.setOptionText(request.getPollOptions().get(i)); // 选项文本
                 option.setDisplayOrder(i + 1);                       // 显示顺序（从1开始）
+                option.setVoteCount(0);                              // 初始得票数
                 option.setCreatedAt(LocalDateTime.now());            // 创建时间
                 option.setDeleted(0);                                 // 逻辑删除标记（0=正常）
                 pollOptionMapper.insert(option);                     // 插入数据库
@@ -352,6 +642,17 @@ public class PostService{
             }
         }
 
+        // 新帖子进入首页热门排行，列表总数缓存过期
+        hotRankingService.onPostCreated(post);
+        paginationService.invalidate("posts:");
+        userStatsService.onPostCreated(userId);
+
+        // 事务提交后异步扇出到粉丝的关注时间线
+        timelineService.onPostCreated(post);
+
+        // 加入搜索索引
+        postSearchService.onPostCreated(post);
+
         return post;
     }
 
@@ -412,13 +713,13 @@ public class PostService{
                 .map(Post::getUserId)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
-        Map<Long, User> userMap = loadUsers(userIds);
+        Map<Long, UserSummary> userMap = dataLoaderService.users().loadAll(userIds);
 
         List<Long> postIds = validPosts.stream()
                 .map(Post::getId)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        Map<Long, List<TagDTO>> tagMap = loadTagsByPostIds(postIds);
+        Map<Long, List<TagDTO>> tagMap = dataLoaderService.loader("post-tags", this::loadTagsByPostIds).loadAll(postIds);
         Map<Long, List<PollOptionDTO>> pollOptionMap = loadPollOptionsByPostIds(validPosts);
 
         return validPosts.stream()
@@ -427,14 +728,14 @@ public class PostService{
     }
 
     private PostDTO buildPostDTO(Post post,
-                                 Map<Long, User> userMap,
+                                 Map<Long, UserSummary> userMap,
                                  Map<Long, List<TagDTO>> tagMap,
                                  Map<Long, List<PollOptionDTO>> pollOptionMap) {
 
         PostDTO dto = new PostDTO();
         BeanUtils.copyProperties(post, dto);
 
-        User user = userMap.get(post.getUserId());
+        UserSummary user = userMap.get(post.getUserId());
         if (user != null) {
             dto.setUsername(user.getUsername());
             dto.setNickname(user.getNickname());
@@ -454,24 +755,6 @@ public class PostService{
         return dto;
     }
 
-    private Map<Long, User> loadUsers(Set<Long> userIds) {
-        if (userIds == null || userIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
-        QueryWrapper queryWrapper = QueryWrapper.create()
-                .where(User::getId).in(userIds);
-        List<User> users = userMapper.selectListByQuery(queryWrapper);
-
-        Map<Long, User> result = new HashMap<>();
-        for (User user : users) {
-            if (user != null && user.getId() != null) {
-                result.put(user.getId(), user);
-            }
-        }
-        return result;
-    }
-
     private Map<Long, List<TagDTO>> loadTagsByPostIds(Collection<Long> postIds) {
         if (postIds == null || postIds.isEmpty()) {
             return Collections.emptyMap();
@@ -493,15 +776,19 @@ public class PostService{
             return Collections.emptyMap();
         }
 
-        QueryWrapper tagQuery = QueryWrapper.create()
-                .where(Tag::getId).in(tagIds)
-                .and(Tag::getDeleted).eq(0);
-        List<Tag> tags = tagMapper.selectListByQuery(tagQuery);
-
-        Map<Long, Tag> tagMap = new HashMap<>();
-        for (Tag tag : tags) {
-            if (tag != null && tag.getId() != null) {
-                tagMap.put(tag.getId(), tag);
+        // 标签详情优先从常驻字典读取，字典未加载时才查询标签表
+        Map<Long, Tag> tagMap;
+        if (tagDictionaryService.isReady()) {
+            tagMap = tagDictionaryService.getAll(tagIds);
+        } else {
+            QueryWrapper tagQuery = QueryWrapper.create()
+                    .where(Tag::getId).in(tagIds)
+                    .and(Tag::getDeleted).eq(0);
+            tagMap = new HashMap<>();
+            for (Tag tag : tagMapper.selectListByQuery(tagQuery)) {
+                if (tag != null && tag.getId() != null) {
+                    tagMap.put(tag.getId(), tag);
+                }
             }
         }
 
@@ -549,33 +836,6 @@ public class PostService{
             return Collections.emptyMap();
         }
 
-        Set<Long> optionIds = options.stream()
-                .map(PollOption::getId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-
-        Map<Long, Integer> voteCountMap = new HashMap<>();
-        if (!optionIds.isEmpty()) {
-            QueryWrapper voteCountQuery = QueryWrapper.create()
-                    .select("option_id AS optionId")
-                    .select("COUNT(*) AS voteCount")
-                    .from("user_votes")
-                    .where(UserVote::getOptionId).in(optionIds)
-                    .and(UserVote::getDeleted).eq(0)
-                    .groupBy("option_id");
-            List<Row> rows = userVoteMapper.selectRowsByQuery(voteCountQuery);
-            for (Row row : rows) {
-                if (row == null) {
-                    continue;
-                }
-                Long optionId = toLong(resolveColumnValue(row, "optionId"));
-                Long count = toLong(resolveColumnValue(row, "voteCount"));
-                if (optionId != null) {
-                    voteCountMap.put(optionId, count != null ? count.intValue() : 0);
-                }
-            }
-        }
-
         Map<Long, List<PollOptionDTO>> result = new HashMap<>();
         for (PollOption option : options) {
             if (option == null || option.getPostId() == null || option.getId() == null) {
@@ -585,72 +845,24 @@ public class PostService{
             dto.setId(option.getId());
             dto.setOptionText(option.getOptionText());
             dto.setDisplayOrder(option.getDisplayOrder());
-            dto.setVoteCount(voteCountMap.getOrDefault(option.getId(), 0));
+            dto.setVoteCount(option.getVoteCount() != null ? option.getVoteCount() : 0);
             result.computeIfAbsent(option.getPostId(), key -> new ArrayList<>()).add(dto);
         }
         return result;
     }
 
-    private Object resolveColumnValue(Row row, String alias) {
-        if (row == null || alias == null) {
-            return null;
-        }
-        Object value = row.get(alias);
-        if (value != null) {
-            return value;
-        }
-        String upper = alias.toUpperCase(Locale.ROOT);
-        value = row.get(upper);
-        if (value != null) {
-            return value;
-        }
-        return row.get(alias.replaceAll("([A-Z])", "_$1").toUpperCase(Locale.ROOT));
-    }
-
-    private Long toLong(Object value) {
-        if (value instanceof Number) {
-            return ((Number) value).longValue();
-        }
-        if (value instanceof String string) {
-            try {
-                return Long.parseLong(string);
-            } catch (NumberFormatException ignored) {
-                return null;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * 检查用户是否对目标对象执行了特定操作
-     *
-     * @param userId     用户ID
-     * @param targetId   目标对象ID
-     * @param targetType 目标对象类型
-     * @param actionType 操作类型：0=点赞，1=收藏，2=分享，3=举报
-     * @return true=已执行该操作，false=未执行
-     */
-    private boolean hasUserAction(Long userId, Long targetId, String targetType, Integer actionType){
-        QueryWrapper queryWrapper = QueryWrapper.create()
-                .where("user_id = ?", userId)
-                .and("target_id = ?", targetId)
-                .and("target_type = ?", targetType)
-                .and("action_type = ?", actionType)
-                .and("deleted = 0");
-
-        return userActionMapper.selectCountByQuery(queryWrapper) > 0;
-    }
-
     /**
      * 对投票帖进行投票
      * <p>
      * 业务规则：
      * 1. 验证帖子是否存在且为投票帖（post_type=1）
      * 2. 验证投票选项是否属于该帖子
-     * 3. 检查用户是否已投票，如已投票则先撤回原投票
-     * 4. 创建新的投票记录
+     * 3. 检查用户是否已投票，如已投票则在原记录上改投
+     * 4. 未投票时创建新的投票记录
+     * 5. 同步原子增减poll_options.vote_count与posts.vote_count
      * <p>
-     * 并发控制：通过数据库唯一约束uk_user_post保证每人每帖只有一个有效投票
+     * 并发控制：通过数据库唯一约束uk_user_post保证每人每帖只有一个有效投票，
+     * 改投以原选项为条件更新，并发改投只有一个成功
      *
      * @param postId   投票帖ID
      * @param optionId 所选选项ID
@@ -689,13 +901,18 @@ public class PostService{
             throw new RuntimeException("您已对该选项投过票");
         }
 
-        // 5. 如果已投票但选择不同选项，则撤回原投票（逻辑删除）
+        // 5. 如果已投票但选择不同选项，则在原记录上改投，票数从原选项移到新选项，总票数不变
         if( existingVote!=null ){
-            existingVote.setDeleted(1);
-            userVoteMapper.update(existingVote);
+            Long oldOptionId = existingVote.getOptionId();
+            if( userVoteMapper.switchOption(existingVote.getId(), oldOptionId, optionId)==0 ){
+                throw new RuntimeException("投票状态已变化，请刷新后重试");
+            }
+            pollOptionMapper.incrementVoteCount(oldOptionId, -1);
+            pollOptionMapper.incrementVoteCount(optionId, 1);
+            return;
         }
 
-        // 6. 创建新的投票记录
+        // 6. 创建新的投票记录（并发重复投票由唯一约束uk_user_post拦截，事务回滚后计数不受影响）
         UserVote newVote = new UserVote();
         newVote.setUserId(userId);
         newVote.setPostId(postId);
@@ -703,6 +920,8 @@ public class PostService{
         newVote.setCreatedAt(LocalDateTime.now());
         newVote.setDeleted(0);
         userVoteMapper.insert(newVote);
+        pollOptionMapper.incrementVoteCount(optionId, 1);
+        postMapper.incrementVoteCount(postId, 1);
     }
 
     /**
@@ -737,23 +956,75 @@ public class PostService{
      * @return 分页的帖子DTO列表
      */
     public PageResult<PostDTO> getUserPosts(Long userId, Integer current, Integer size) {
-        // 创建查询包装器，筛选指定用户的帖子
-        // 查询帖子所有字段以及用户信息
-        QueryWrapper queryWrapper = QueryWrapper.create()
+        // 筛选指定用户的帖子，按创建时间降序排列
+        QueryWrapper queryWrapper = buildUserPostsQuery(userId)
+                .orderBy("posts.created_at DESC");
+
+        // 执行分页查询（不执行COUNT，总数取缓存值）
+        PageResult<Post> page = paginationService.paginate(postMapper, queryWrapper, current, size, "posts:user:" + userId);
+
+        // 转换为DTO
+        return page.withRecords(convertToDTOList(page.getRecords()));
+    }
+
+    /**
+     * 查询指定用户发布的帖子列表（游标分页）
+     *
+     * @param userId 用户ID
+     * @param cursor 上一页返回的游标，为空表示第一页
+     * @param size   每页大小
+     * @return 游标分页结果，按时间降序
+     */
+    public PageResult<PostDTO> getUserPostsByCursor(Long userId, String cursor, Integer size) {
+        return paginateByCursor(buildUserPostsQuery(userId), cursor, size);
+    }
+
+    /**
+     * 构建用户帖子查询（不含排序），查询帖子所有字段以及用户信息
+     */
+    private QueryWrapper buildUserPostsQuery(Long userId) {
+        return QueryWrapper.create()
                 .select("posts.*, users.username, users.nickname, users.avatar, users.role")
                 .from("posts")
                 .leftJoin("users").on("posts.user_id = users.id")
                 .where("posts.user_id = ?", userId)
-                .and("posts.deleted = 0")
-                .orderBy("posts.created_at DESC");  // 按创建时间降序排列
+                .and("posts.deleted = 0");
+    }
 
-        // 执行分页查询
-        Page<Post> page = postMapper.paginate(Page.of(current, size), queryWrapper);
+    /**
+     * 按(created_at, id)降序执行游标分页
+     * <p>
+     * 条件写成 created_at &lt; ? OR (created_at = ? AND id &lt; ?) 而非行构造器比较，
+     * 以便MySQL直接在created_at索引上做范围扫描；多取一条用于判断是否还有下一页，
+     * 不再执行COUNT统计
+     *
+     * @param queryWrapper 不含排序的查询条件
+     * @param cursor       上一页返回的游标，为空表示第一页
+     * @param size         每页大小
+     * @return 游标分页结果
+     */
+    private PageResult<PostDTO> paginateByCursor(QueryWrapper queryWrapper, String cursor, Integer size) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        if (pageCursor != null) {
+            LocalDateTime createdAt = pageCursor.getTime();
+            queryWrapper.and("(posts.created_at < ? OR (posts.created_at = ? AND posts.id < ?))",
+                    createdAt, createdAt, pageCursor.getId());
+        }
+        queryWrapper.orderBy("posts.created_at DESC", "posts.id DESC")
+                .limit(size + 1);
 
-        // 转换为DTO
-        List<PostDTO> postDTOs = convertToDTOList(page.getRecords());
+        List<Post> posts = postMapper.selectListByQuery(queryWrapper);
+        boolean hasMore = posts.size() > size;
+        if (hasMore) {
+            posts = posts.subList(0, size);
+        }
 
-        return PageResult.of(postDTOs, page.getTotalRow(), (long) current, (long) size);
+        String nextCursor = null;
+        if (hasMore) {
+            Post last = posts.get(posts.size() - 1);
+            nextCursor = PageCursor.ofTime(last.getCreatedAt(), last.getId());
+        }
+        return PageResult.ofCursor(convertToDTOList(posts), nextCursor, (long) size);
     }
 
     /**
@@ -773,10 +1044,11 @@ public class PostService{
                 .where("posts.deleted = 0")
                 .orderBy("posts.created_at DESC");
 
-        Page<Post> page = postMapper.paginate(Page.of(current, size), queryWrapper);
-        List<PostDTO> postDTOs = convertToDTOList(page.getRecords());
+        // 执行分页查询（不执行COUNT，总数取缓存值）
+        PageResult<Post> page = paginationService.paginate(postMapper, queryWrapper, current, size, "posts:admin");
 
-        return PageResult.of(postDTOs, page.getTotalRow(), (long) current, (long) size);
+        // 转换为DTO
+        return page.withRecords(convertToDTOList(page.getRecords()));
     }
 
     /**
@@ -801,22 +1073,29 @@ public class PostService{
             throw new RuntimeException("帖子不存在或已被删除");
         }
 
-        User user = userMapper.selectOneById(userId);
+        UserSummary user = userSummaryService.get(userId);
         if (user == null) {
             throw new RuntimeException("用户不存在");
         }
 
         boolean isOwner = Objects.equals(post.getUserId(), userId);
-        boolean isAdmin = user.getRole() != null && user.getRole() == 2;
+        boolean isAdmin = user.isAdmin();
         if (!isOwner && !isAdmin) {
             throw new RuntimeException("无权删除该帖子");
         }
 
+        userStatsService.onPostDeleted(post);
         post.setDeleted(1);
         post.setStatus(1);
         post.setUpdatedAt(LocalDateTime.now());
         postMapper.update(post);
 
+        // 移出首页热门排行和关注时间线，列表总数缓存过期
+        hotRankingService.remove(postId);
+        timelineService.onPostDeleted(postId);
+        postSearchService.onPostRemoved(postId);
+        paginationService.invalidate("posts:");
+
         // 同步逻辑删除帖子与标签关联
         QueryWrapper tagQuery = QueryWrapper.create()
                 .where("post_id = ?", postId)
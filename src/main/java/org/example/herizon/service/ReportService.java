@@ -0,0 +1,215 @@
+package org.example.herizon.service;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.mybatisflex.core.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.PageResult;
+import org.example.herizon.entity.Comment;
+import org.example.herizon.entity.Post;
+import org.example.herizon.entity.ReportAggregate;
+import org.example.herizon.enums.ReportStatus;
+import org.example.herizon.mapper.CommentMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.example.herizon.mapper.ReportAggregateMapper;
+import org.example.herizon.mapper.UserActionMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 举报服务
+ * <p>
+ * 举报记录仍写入 user_actions（action_type = 3），按被举报对象汇总到 report_aggregates：
+ * - 同一用户对同一对象只计一次，重复举报只更新举报原因
+ * - 首次举报时在同一事务中原子累加汇总行的举报人数
+ * - 举报人数达到阈值（app.report.hide-threshold）时自动隐藏内容：帖子置为审核中（status = 2），
+ *   评论置为举报隐藏（status = 2），并移出热门排行与搜索索引，被隐藏的帖子不计入作者的发帖数
+ * - 管理员审核队列直接按汇总表的 (status, report_count) 索引分页，无需扫描 user_actions
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class ReportService {
+
+    /**
+     * 被隐藏帖子与评论的状态值
+     */
+    private static final int CONTENT_HIDDEN = 2;
+
+    @Autowired
+    private UserActionMapper userActionMapper;
+
+    @Autowired
+    private ReportAggregateMapper reportAggregateMapper;
+
+    @Autowired
+    private PostMapper postMapper;
+
+    @Autowired
+    private CommentMapper commentMapper;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private HotRankingService hotRankingService;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private PaginationService paginationService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    /**
+     * 自动隐藏阈值：举报人数达到该值时隐藏内容等待审核
+     */
+    @Value("${app.report.hide-threshold:5}")
+    private int hideThreshold;
+
+    /**
+     * 举报原因最大长度
+     */
+    @Value("${app.report.max-reason-length:500}")
+    private int maxReasonLength;
+
+    /**
+     * 举报帖子或评论
+     *
+     * @param userId     举报用户ID
+     * @param targetId   被举报对象ID
+     * @param targetType 被举报对象类型：post / comment
+     * @param reason     举报原因
+     * @return true=本次举报使内容被自动隐藏
+     */
+    @Transactional
+    public boolean report(Long userId, Long targetId, String targetType, String reason) {
+        if (userId == null) {
+            throw new RuntimeException("用户未登录");
+        }
+        if (targetId == null) {
+            throw new RuntimeException("目标ID不能为空");
+        }
+        if (!"post".equals(targetType) && !"comment".equals(targetType)) {
+            throw new RuntimeException("不支持举报该类型的内容");
+        }
+        String cleanReason = reason == null ? "" : reason.trim();
+        if (cleanReason.isEmpty()) {
+            throw new RuntimeException("举报原因不能为空");
+        }
+        if (cleanReason.length() > maxReasonLength) {
+            throw new RuntimeException("举报原因不能超过" + maxReasonLength + "个字符");
+        }
+
+        String extraData = JSONObject.of("reason", cleanReason).toJSONString();
+        if (userActionMapper.insertReport(userId, targetId, targetType, extraData) == 0) {
+            userActionMapper.updateReport(userId, targetId, targetType, extraData);
+            return false;
+        }
+
+        reportAggregateMapper.increment(targetType, targetId, cleanReason);
+        if (reportAggregateMapper.markHidden(targetType, targetId, hideThreshold) == 0) {
+            return false;
+        }
+        hide(targetType, targetId);
+        return true;
+    }
+
+    /**
+     * 分页获取举报审核队列，按举报人数从多到少排列
+     *
+     * @param status  汇总状态
+     * @param current 当前页码
+     * @param size    每页数量
+     * @return 举报汇总分页结果
+     */
+    public PageResult<ReportAggregate> getQueue(ReportStatus status, Integer current, Integer size) {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .where(ReportAggregate::getStatus).eq(status.getValue())
+                .orderBy(ReportAggregate::getReportCount, false)
+                .orderBy(ReportAggregate::getLastReportedAt, false);
+
+        return paginationService.paginate(reportAggregateMapper, queryWrapper, current, size,
+                "reports:" + status.getCode());
+    }
+
+    /**
+     * 处理举报
+     * <p>
+     * 确认违规时删除内容；驳回时恢复被自动隐藏的内容，之后该对象的新举报只累加人数不再自动隐藏
+     *
+     * @param targetType 被举报对象类型
+     * @param targetId   被举报对象ID
+     * @param violation  true=确认违规，false=驳回
+     * @param adminId    处理管理员ID（调用方已校验权限）
+     */
+    @Transactional
+    public void resolve(String targetType, Long targetId, boolean violation, Long adminId) {
+        ReportStatus result = violation ? ReportStatus.CONFIRMED : ReportStatus.DISMISSED;
+        if (reportAggregateMapper.resolve(targetType, targetId, result.getValue(), adminId) == 0) {
+            throw new RuntimeException("举报不存在或已处理");
+        }
+
+        // 内容可能已被作者自行删除，此时只需结案
+        if (violation) {
+            if ("post".equals(targetType)) {
+                if (postMapper.selectOneById(targetId) != null) {
+                    postService.deletePost(targetId, adminId);
+                }
+            } else if (commentMapper.selectOneById(targetId) != null) {
+                commentService.deleteComment(targetId, adminId);
+            }
+        } else {
+            restore(targetType, targetId);
+        }
+        paginationService.invalidate("reports:");
+    }
+
+    private void hide(String targetType, Long targetId) {
+        paginationService.invalidate("reports:");
+        if ("post".equals(targetType)) {
+            if (postMapper.updateStatus(targetId, 0, CONTENT_HIDDEN) == 0) {
+                return;
+            }
+            userStatsService.onPostVisibilityChanged(postMapper.selectOneById(targetId).getUserId(), false);
+            hotRankingService.remove(targetId);
+            postSearchService.onPostRemoved(targetId);
+            paginationService.invalidate("posts:");
+        } else {
+            if (commentMapper.updateStatus(targetId, 0, CONTENT_HIDDEN) == 0) {
+                return;
+            }
+            onCommentVisibilityChanged(targetId, false);
+        }
+        log.info("{}{}举报人数达到{}，已自动隐藏等待审核", targetType, targetId, hideThreshold);
+    }
+
+    private void restore(String targetType, Long targetId) {
+        if ("post".equals(targetType)) {
+            if (postMapper.updateStatus(targetId, CONTENT_HIDDEN, 0) == 0) {
+                return;
+            }
+            Post post = postMapper.selectOneById(targetId);
+            userStatsService.onPostVisibilityChanged(post.getUserId(), true);
+            hotRankingService.restore(targetId);
+            postSearchService.onPostCreated(post);
+            paginationService.invalidate("posts:");
+        } else if (commentMapper.updateStatus(targetId, CONTENT_HIDDEN, 0) == 1) {
+            onCommentVisibilityChanged(targetId, true);
+        }
+    }
+
+    private void onCommentVisibilityChanged(Long commentId, boolean visible) {
+        Comment comment = commentMapper.selectOneById(commentId);
+        if (comment != null) {
+            commentService.onVisibilityChanged(comment, visible);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.herizon.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 搜索分词器
+ * <p>
+ * 针对中英文混排的帖子内容：
+ * - 连续的中文片段切成二元组（"职场妈妈" → 职场、场妈、妈妈）；建索引时每个汉字另外作为一元组输出，
+ *   单字搜索词直接按一元组匹配
+ * - 中文片段中命中词典的词额外作为整词输出（正向最大匹配），用于提升整词命中的相关性
+ * - 英文和数字按连续字母数字切词并转为小写
+ * - 标点、空白、表情等其余字符作为分隔符
+ *
+ * @author Kokoa
+ */
+public final class SearchTokenizer {
+
+    /**
+     * 词典词的最大长度
+     */
+    private static final int MAX_WORD_LENGTH = 8;
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * 切分文档文本，输出所有索引词项（可重复，用于统计词频），包含每个汉字的一元组
+     *
+     * @param text       待切分文本
+     * @param dictionary 中文词典，可为空
+     * @return 词项列表
+     */
+    public static List<String> tokenize(String text, Set<String> dictionary) {
+        return tokenize(text, dictionary, true);
+    }
+
+    /**
+     * 切分搜索词，只输出用于匹配的词项（二元组、单字与英文词），不含词典整词
+     * <p>
+     * 所有匹配词项都命中的帖子才算匹配，效果接近原先的 LIKE '%keyword%'；
+     * 多字的中文片段只按二元组匹配，只有单独一个汉字的片段才按一元组匹配
+     *
+     * @param keyword 搜索词
+     * @return 去重后的匹配词项
+     */
+    public static List<String> tokenizeQuery(String keyword) {
+        return tokenizeQuery(keyword, Set.of());
+    }
+
+    /**
+     * 切分搜索词，输出匹配词项以及命中词典的整词，用于相关性打分
+     *
+     * @param keyword    搜索词
+     * @param dictionary 中文词典，可为空
+     * @return 去重后的词项
+     */
+    public static List<String> tokenizeQuery(String keyword, Set<String> dictionary) {
+        return tokenize(keyword, dictionary, false).stream().distinct().toList();
+    }
+
+    private static List<String> tokenize(String text, Set<String> dictionary, boolean unigrams) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                addCjkTokens(text.substring(start, i), dictionary, unigrams, tokens);
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(text.charAt(i)) && !isCjk(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 规范化搜索词：去除首尾空白、合并连续空白、英文转小写
+     *
+     * @param keyword 原始搜索词
+     * @return 规范化后的搜索词，空白返回空字符串
+     */
+    public static String normalize(String keyword) {
+        if (keyword == null) {
+            return "";
+        }
+        return keyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static void addCjkTokens(String run, Set<String> dictionary, boolean unigrams, List<String> tokens) {
+        if (run.length() == 1) {
+            tokens.add(run);
+            return;
+        }
+        for (int i = 0; i < run.length(); i++) {
+            if (unigrams) {
+                tokens.add(run.substring(i, i + 1));
+            }
+            if (i + 1 < run.length()) {
+                tokens.add(run.substring(i, i + 2));
+            }
+        }
+        if (dictionary == null || dictionary.isEmpty()) {
+            return;
+        }
+        // 正向最大匹配，整词只在长度大于2时额外输出（二元组已覆盖双字词）
+        int i = 0;
+        while (i < run.length()) {
+            int matched = 0;
+            for (int len = Math.min(MAX_WORD_LENGTH, run.length() - i); len > 2; len--) {
+                if (dictionary.contains(run.substring(i, i + len))) {
+                    matched = len;
+                    break;
+                }
+            }
+            if (matched > 0) {
+                tokens.add(run.substring(i, i + matched));
+                i += matched;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN;
+    }
+}
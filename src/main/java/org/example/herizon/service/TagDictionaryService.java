@@ -0,0 +1,164 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.TransactionHooks;
+import org.example.herizon.dto.TagDTO;
+import org.example.herizon.dto.TagDictionaryDTO;
+import org.example.herizon.entity.Tag;
+import org.example.herizon.mapper.TagMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 标签字典服务
+ * <p>
+ * 标签表很小且很少变化，常驻内存一份不可变的全量字典（ID → 标签）：
+ * - 帖子列表组装标签时只需查询 post_tags 关联，标签详情直接从字典读取
+ * - 小程序通过 GET /tags/dictionary 整体缓存字典，版本号（ETag）不变时返回304
+ * - 标签联想索引也由字典刷新时一并重建，不再单独查询标签表
+ * <p>
+ * 标签增删改的事务提交后立即刷新；post_count 随发帖变化，由定时任务周期性刷新
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class TagDictionaryService implements ApplicationRunner {
+
+    @Autowired
+    private TagMapper tagMapper;
+
+    @Autowired
+    private TagSuggestService tagSuggestService;
+
+    /**
+     * 当前字典快照，为null表示尚未完成首次加载
+     */
+    private volatile Snapshot snapshot;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    /**
+     * 字典是否已完成加载
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * 按ID批量获取标签，已删除或不存在的标签不包含在结果中
+     * <p>
+     * 返回的标签为字典共享对象，调用方不得修改
+     *
+     * @param tagIds 标签ID集合
+     * @return 标签ID到标签的映射
+     */
+    public Map<Long, Tag> getAll(Collection<Long> tagIds) {
+        Snapshot current = snapshot;
+        if (current == null || tagIds == null || tagIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Tag> result = new HashMap<>();
+        for (Long tagId : tagIds) {
+            Tag tag = current.tags().get(tagId);
+            if (tag != null) {
+                result.put(tagId, tag);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取完整字典，用于客户端整体缓存
+     */
+    public TagDictionaryDTO getDictionary() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new RuntimeException("标签字典尚未加载完成");
+        }
+        return new TagDictionaryDTO(current.version(), current.entries());
+    }
+
+    /**
+     * 标签变更后刷新字典，在事务中调用时推迟到提交之后，保证读到已提交的数据
+     */
+    public void onTagsChanged() {
+        TransactionHooks.afterCommit(this::refresh);
+    }
+
+    /**
+     * 从数据库全量加载标签并整体替换字典，同时重建标签联想索引
+     */
+    @Scheduled(fixedDelayString = "${app.tag.dictionary-refresh-interval-ms:600000}",
+            initialDelayString = "${app.tag.dictionary-refresh-interval-ms:600000}")
+    public void refresh() {
+        try {
+            List<Tag> tags = tagMapper.selectListByQuery(QueryWrapper.create()
+                    .where("deleted = 0"));
+            snapshot = buildSnapshot(tags);
+            tagSuggestService.rebuild(tags);
+        } catch (RuntimeException e) {
+            // 刷新失败时保留旧字典（首次加载失败则退回数据库查询）
+            log.warn("标签字典刷新失败: {}", e.getMessage());
+        }
+    }
+
+    private static Snapshot buildSnapshot(List<Tag> tags) {
+        List<Tag> sorted = tags.stream()
+                .filter(tag -> tag.getId() != null)
+                .sorted(Comparator.comparing(Tag::getId))
+                .toList();
+
+        Map<Long, Tag> byId = new HashMap<>();
+        long hash = 0xcbf29ce484222325L;
+        for (Tag tag : sorted) {
+            byId.put(tag.getId(), tag);
+            // 版本号取字典内容的64位FNV-1a哈希，多实例间内容相同则版本号一致
+            String line = tag.getId() + "|" + tag.getName() + "|" + Objects.toString(tag.getDescription(), "")
+                    + "|" + tag.getPostCount() + "\n";
+            for (byte b : line.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+        }
+        List<TagDTO> entries = sorted.stream()
+                .map(TagDictionaryService::toDTO)
+                .toList();
+        return new Snapshot(Map.copyOf(byId), entries, Long.toHexString(hash));
+    }
+
+    private static TagDTO toDTO(Tag tag) {
+        TagDTO dto = new TagDTO();
+        dto.setId(tag.getId());
+        dto.setName(tag.getName());
+        dto.setDescription(tag.getDescription());
+        dto.setPostCount(tag.getPostCount());
+        dto.setCreatedAt(tag.getCreatedAt());
+        return dto;
+    }
+
+    /**
+     * 字典快照，构建完成后不再修改
+     *
+     * @param tags    ID到标签的映射
+     * @param entries 按ID排序的标签DTO，用于接口返回
+     * @param version 内容版本号
+     */
+    private record Snapshot(Map<Long, Tag> tags, List<TagDTO> entries, String version) {
+    }
+}
@@ -42,6 +42,12 @@ public class TagService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private TagSuggestService tagSuggestService;
+
+    @Autowired
+    private TagDictionaryService tagDictionaryService;
+
     /**
      * 分页查询标签列表
      *
@@ -124,6 +130,7 @@ public class TagService {
 
         // 保存到数据库
         tagMapper.insert(tag);
+        tagDictionaryService.onTagsChanged();
 
         return convertToDTO(tag);
     }
@@ -153,25 +160,35 @@ public class TagService {
         tag.setDescription(request.getDescription());
 
         tagMapper.update(tag);
+        tagDictionaryService.onTagsChanged();
 
         return convertToDTO(tag);
     }
 
     /**
-     * 搜索标签
+     * 搜索标签（发帖时的标签联想）
      * <p>
-     * 根据关键词搜索标签名称，支持模糊匹配
+     * 根据关键词搜索标签名称，支持子串、全拼与拼音首字母匹配。
+     * 优先使用内存联想索引，索引首次构建完成前退回 LIKE 模糊匹配
      *
      * @param keyword 搜索关键词
-     * @param limit   返回结果数量限制
+     * @param limit   返回结果数量限制，最多 {@link TagSuggestService#MAX_SUGGESTIONS} 个
      * @return 匹配的标签列表，按帖子数量降序排序
      */
     public List<TagDTO> searchTags(String keyword, Integer limit) {
+        // 两种匹配方式使用相同的上限，联想索引每个节点只保存这么多候选
+        int cappedLimit = Math.max(0, Math.min(limit, TagSuggestService.MAX_SUGGESTIONS));
+        if (tagSuggestService.isReady()) {
+            return tagSuggestService.suggest(keyword, cappedLimit).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        }
+
         QueryWrapper queryWrapper = QueryWrapper.create()
                 .where("name LIKE ?", "%" + keyword + "%")
                 .and("deleted = 0")
                 .orderBy("post_count DESC", "created_at DESC")
-                .limit(limit);
+                .limit(cappedLimit);
 
         List<Tag> tags = tagMapper.selectListByQuery(queryWrapper);
         return tags.stream()
@@ -237,6 +254,8 @@ public class TagService {
             postTag.setDeleted(1);
             postTagMapper.update(postTag);
         });
+
+        tagDictionaryService.onTagsChanged();
     }
 
     /**
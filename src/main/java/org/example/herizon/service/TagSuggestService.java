@@ -0,0 +1,189 @@
+package org.example.herizon.service;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+import org.example.herizon.entity.Tag;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 标签联想服务
+ * <p>
+ * 发帖选择标签时每次按键都会触发联想，标签数量少且很少变化，因此在内存中维护前缀树：
+ * - 标签名的每个后缀都作为键插入，保持原先 LIKE '%kw%' 的子串匹配效果
+ * - 标签名的全拼（"zhichangmama"）与拼音首字母（"zcmm"）作为键插入，支持拼音输入联想
+ * - 每个节点预先保存经过该节点的前 {@link #MAX_SUGGESTIONS} 个标签（按帖子数量、创建时间降序），查询只需沿前缀走到节点
+ * <p>
+ * 前缀树整体不可变：标签字典（TagDictionaryService）每次刷新后用最新的标签重新构建并整体替换
+ * （copy-on-write），读取无需加锁
+ *
+ * @author Kokoa
+ */
+@Service
+public class TagSuggestService {
+
+    /**
+     * 每个节点保存的最大候选数量，也是标签搜索接口 limit 参数的上限
+     */
+    static final int MAX_SUGGESTIONS = 50;
+
+    /**
+     * 与原先 SQL 的 ORDER BY post_count DESC, created_at DESC 一致，再按ID降序保证顺序稳定
+     */
+    private static final Comparator<Tag> RANKING = Comparator
+            .comparing((Tag tag) -> tag.getPostCount() != null ? tag.getPostCount() : 0, Comparator.reverseOrder())
+            .thenComparing(Tag::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Tag::getId, Comparator.reverseOrder());
+
+    private static final HanyuPinyinOutputFormat PINYIN_FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        PINYIN_FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        PINYIN_FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        PINYIN_FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    /**
+     * 当前生效的前缀树，为null表示尚未完成首次构建
+     */
+    private volatile Node root;
+
+    /**
+     * 索引是否已完成构建
+     */
+    public boolean isReady() {
+        return root != null;
+    }
+
+    /**
+     * 联想标签
+     *
+     * @param keyword 用户输入（中文、全拼或拼音首字母，忽略大小写与空白）
+     * @param limit   返回数量，超过 {@link #MAX_SUGGESTIONS} 时按上限返回
+     * @return 匹配的标签，按帖子数量、创建时间降序
+     */
+    public List<Tag> suggest(String keyword, int limit) {
+        Node node = root;
+        String key = normalize(keyword);
+        if (node == null || key.isEmpty()) {
+            return List.of();
+        }
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return List.copyOf(node.top.subList(0, Math.min(limit, node.top.size())));
+    }
+
+    /**
+     * 用全量标签构建新的前缀树并替换当前索引
+     *
+     * @param tags 全部未删除的标签
+     */
+    public void rebuild(List<Tag> tags) {
+        root = build(tags);
+    }
+
+    /**
+     * 构建前缀树，插入键的同时维护沿途每个节点的候选列表
+     */
+    static Node build(List<Tag> tags) {
+        List<Tag> ranked = new ArrayList<>(tags);
+        ranked.sort(RANKING);
+
+        Node root = new Node();
+        // 按排名顺序插入，节点候选列表只需追加且达到上限后不再变化
+        for (Tag tag : ranked) {
+            for (String key : keysOf(tag.getName())) {
+                Node node = root;
+                for (int i = 0; i < key.length(); i++) {
+                    node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                    node.add(tag);
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * 计算标签的所有索引键：标签名的各个后缀、全拼、拼音首字母
+     */
+    static Set<String> keysOf(String name) {
+        Set<String> keys = new LinkedHashSet<>();
+        String normalized = normalize(name);
+        for (int i = 0; i < normalized.length(); i++) {
+            keys.add(normalized.substring(i));
+        }
+
+        StringBuilder full = new StringBuilder();
+        StringBuilder initials = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            String pinyin = toPinyin(c);
+            if (pinyin != null) {
+                full.append(pinyin);
+                initials.append(pinyin.charAt(0));
+            } else {
+                full.append(c);
+                initials.append(c);
+            }
+        }
+        keys.add(full.toString());
+        keys.add(initials.toString());
+        keys.remove("");
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replaceAll("\\s+", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 汉字转拼音，多音字取第一个读音；非汉字返回null
+     */
+    private static String toPinyin(char c) {
+        if (Character.UnicodeScript.of(c) != Character.UnicodeScript.HAN) {
+            return null;
+        }
+        try {
+            String[] readings = PinyinHelper.toHanyuPinyinStringArray(c, PINYIN_FORMAT);
+            return readings != null && readings.length > 0 ? readings[0] : null;
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            return null;
+        }
+    }
+
+    /**
+     * 前缀树节点，构建完成后不再修改
+     */
+    static final class Node {
+
+        private final Map<Character, Node> children = new HashMap<>();
+
+        private final List<Tag> top = new ArrayList<>();
+
+        private void add(Tag tag) {
+            // 同一标签的多个键可能经过同一节点（如全拼与后缀），只保留一次
+            if (top.size() < MAX_SUGGESTIONS && !top.contains(tag)) {
+                top.add(tag);
+            }
+        }
+    }
+}
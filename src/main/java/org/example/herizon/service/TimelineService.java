@@ -0,0 +1,324 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.TransactionHooks;
+import org.example.herizon.entity.Post;
+import org.example.herizon.entity.UserFollow;
+import org.example.herizon.entity.UserStats;
+import org.example.herizon.entity.UserInbox;
+import org.example.herizon.mapper.PostMapper;
+import org.example.herizon.mapper.UserFollowMapper;
+import org.example.herizon.mapper.UserInboxMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 关注时间线服务（混合扇出）
+ * <p>
+ * 写扩散（fan-out-on-write）：
+ * - 作者发帖并提交事务后，在后台线程中分批读取粉丝列表，把帖子ID写入每个粉丝的收件箱
+ * - 关注时补入对方最近的帖子，取消关注时清理对方的帖子
+ * <p>
+ * 读扩散（fan-out-on-read）：
+ * - 粉丝数超过阈值的大V发帖不做写扩散，避免一次发帖写入海量收件箱
+ * - 读取时间线时，再从当前用户关注的大V的帖子中按时间合并
+ * - 粉丝数回落到阈值以下的作者移出大V集合前，先把其最近的帖子补入粉丝收件箱，
+ *   作为大V期间未扇出的帖子不会从时间线中消失
+ * <p>
+ * 收件箱定期裁剪，每个用户只保留最新的若干条
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class TimelineService {
+
+    @Autowired
+    private UserInboxMapper userInboxMapper;
+
+    @Autowired
+    private UserFollowMapper userFollowMapper;
+
+    @Autowired
+    private PostMapper postMapper;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    @Qualifier("feedTaskExecutor")
+    private TaskExecutor feedTaskExecutor;
+
+    /**
+     * 粉丝数超过该值的作者改为读时合并
+     */
+    @Value("${app.feed.inbox.celebrity-threshold:5000}")
+    private int celebrityThreshold;
+
+    /**
+     * 每批写入的粉丝数量
+     */
+    @Value("${app.feed.inbox.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 每个收件箱保留的最大条数
+     */
+    @Value("${app.feed.inbox.max-size:800}")
+    private int maxInboxSize;
+
+    /**
+     * 新关注时补入的帖子数量
+     */
+    @Value("${app.feed.inbox.backfill-size:20}")
+    private int backfillSize;
+
+    /**
+     * 当前的大V集合，由定时任务刷新
+     */
+    private volatile Set<Long> celebrities = Set.of();
+
+    /**
+     * 新帖子发布后扇出到粉丝收件箱
+     * <p>
+     * 在事务提交后才提交到后台线程，保证后台线程能读到新帖子且事务回滚时不会扇出
+     *
+     * @param post 新创建的帖子
+     */
+    public void onPostCreated(Post post) {
+        Long postId = post.getId();
+        Long authorId = post.getUserId();
+        LocalDateTime createdAt = post.getCreatedAt();
+        Runnable task = () -> fanOut(postId, authorId, createdAt);
+
+        TransactionHooks.afterCommit(() -> feedTaskExecutor.execute(task));
+    }
+
+    /**
+     * 关注后把对方最近的帖子补入收件箱（大V的帖子读时合并，无需补入）
+     */
+    public void onFollow(Long followerId, Long followeeId) {
+        if (!isCelebrity(followeeId)) {
+            userInboxMapper.backfillFromAuthor(followerId, followeeId, backfillSize);
+        }
+    }
+
+    /**
+     * 取消关注后从收件箱移除对方的帖子
+     */
+    public void onUnfollow(Long followerId, Long followeeId) {
+        userInboxMapper.deleteByQuery(QueryWrapper.create()
+                .where(UserInbox::getUserId).eq(followerId)
+                .and(UserInbox::getAuthorId).eq(followeeId));
+    }
+
+    /**
+     * 帖子删除后从所有收件箱移除
+     */
+    public void onPostDeleted(Long postId) {
+        userInboxMapper.deleteByQuery(QueryWrapper.create()
+                .where(UserInbox::getPostId).eq(postId));
+    }
+
+    /**
+     * 读取关注时间线中排在(createdAt, postId)之后的条目
+     * <p>
+     * 结果由两部分按(created_at, post_id)倒序合并：
+     * 1. 当前用户收件箱中的帖子
+     * 2. 当前用户关注的大V直接从posts表读取的帖子
+     *
+     * @param userId    当前用户ID
+     * @param createdAt 上一页最后一条的发布时间，为null表示第一页
+     * @param postId    上一页最后一条的帖子ID
+     * @param limit     获取数量
+     * @return 时间线条目（帖子ID、作者、发布时间）
+     */
+    public List<UserInbox> getTimeline(Long userId, LocalDateTime createdAt, Long postId, int limit) {
+        QueryWrapper inboxQuery = QueryWrapper.create()
+                .where(UserInbox::getUserId).eq(userId)
+                .orderBy("created_at DESC", "post_id DESC")
+                .limit(limit);
+        if (createdAt != null) {
+            inboxQuery.and("(created_at < ? OR (created_at = ? AND post_id < ?))", createdAt, createdAt, postId);
+        }
+        List<UserInbox> merged = new ArrayList<>(userInboxMapper.selectListByQuery(inboxQuery));
+
+        List<Long> followedCelebrities = findFollowedCelebrities(userId);
+        if (!followedCelebrities.isEmpty()) {
+            QueryWrapper postQuery = QueryWrapper.create()
+                    .select("id, user_id, created_at")
+                    .from("posts")
+                    .where(Post::getUserId).in(followedCelebrities)
+                    .and("status = 0")
+                    .orderBy("created_at DESC", "id DESC")
+                    .limit(limit);
+            if (createdAt != null) {
+                postQuery.and("(created_at < ? OR (created_at = ? AND id < ?))", createdAt, createdAt, postId);
+            }
+            for (Post post : postMapper.selectListByQuery(postQuery)) {
+                UserInbox entry = new UserInbox();
+                entry.setUserId(userId);
+                entry.setPostId(post.getId());
+                entry.setAuthorId(post.getUserId());
+                entry.setCreatedAt(post.getCreatedAt());
+                merged.add(entry);
+            }
+        }
+
+        // 作者刚成为大V时，旧帖子可能同时出现在收件箱和读时合并结果中，按帖子ID去重
+        Map<Long, UserInbox> unique = new LinkedHashMap<>();
+        merged.stream()
+                .sorted(Comparator.comparing(UserInbox::getCreatedAt, Comparator.reverseOrder())
+                        .thenComparing(UserInbox::getPostId, Comparator.reverseOrder()))
+                .forEach(entry -> unique.putIfAbsent(entry.getPostId(), entry));
+        return unique.values().stream().limit(limit).collect(Collectors.toList());
+    }
+
+    /**
+     * 定时刷新大V集合
+     * <p>
+     * 不再是大V的作者先把最近的帖子补入粉丝收件箱，补入完成后才从读时合并中移除
+     */
+    @Scheduled(fixedDelayString = "${app.feed.inbox.celebrity-refresh-ms:600000}")
+    public void refreshCelebrities() {
+        Set<Long> refreshed;
+        try {
+            refreshed = Set.copyOf(userFollowMapper.selectFolloweeIdsWithFollowersOver(celebrityThreshold));
+        } catch (RuntimeException e) {
+            log.warn("刷新大V列表失败: {}", e.getMessage());
+            return;
+        }
+        Set<Long> retained = new HashSet<>(refreshed);
+        for (Long authorId : celebrities) {
+            if (!refreshed.contains(authorId) && !backfillDemoted(authorId)) {
+                // 补入失败时继续读时合并，下次刷新再试
+                retained.add(authorId);
+            }
+        }
+        celebrities = Set.copyOf(retained);
+    }
+
+    /**
+     * 定时裁剪超长的收件箱
+     */
+    @Scheduled(fixedDelayString = "${app.feed.inbox.trim-interval-ms:3600000}")
+    public void trimInboxes() {
+        try {
+            List<Long> userIds = userInboxMapper.selectOversizedUserIds(maxInboxSize);
+            for (Long userId : userIds) {
+                userInboxMapper.trim(userId, maxInboxSize);
+            }
+            if (!userIds.isEmpty()) {
+                log.info("已裁剪{}个用户的关注时间线收件箱", userIds.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("裁剪收件箱失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 分批写入粉丝收件箱
+     */
+    private void fanOut(Long postId, Long authorId, LocalDateTime createdAt) {
+        if (isCelebrity(authorId)) {
+            return;
+        }
+        try {
+            forEachFollowerBatch(authorId,
+                    followerIds -> userInboxMapper.insertBatch(followerIds, postId, authorId, createdAt));
+        } catch (RuntimeException e) {
+            log.warn("帖子扇出到粉丝收件箱失败: postId={}, {}", postId, e.getMessage());
+        }
+    }
+
+    /**
+     * 把不再是大V的作者最近的帖子分批补入粉丝收件箱
+     *
+     * @return 是否全部补入成功
+     */
+    private boolean backfillDemoted(Long authorId) {
+        try {
+            forEachFollowerBatch(authorId,
+                    followerIds -> userInboxMapper.backfillFromAuthorBatch(followerIds, authorId, backfillSize));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("补入原大V帖子失败: authorId={}, {}", authorId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 按user_follow.id游标分批遍历作者的粉丝，避免一次加载全部粉丝
+     */
+    private void forEachFollowerBatch(Long authorId, Consumer<List<Long>> action) {
+        long lastId = 0;
+        while (true) {
+            List<UserFollow> batch = userFollowMapper.selectListByQuery(QueryWrapper.create()
+                    .select("id, follower_id")
+                    .from("user_follow")
+                    .where(UserFollow::getFolloweeId).eq(authorId)
+                    .and(UserFollow::getId).gt(lastId)
+                    .orderBy(UserFollow::getId, true)
+                    .limit(batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            action.accept(batch.stream()
+                    .map(UserFollow::getFollowerId)
+                    .collect(Collectors.toList()));
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    /**
+     * 判断作者是否为大V
+     * <p>
+     * 大V集合定时刷新，刚越过阈值的作者在刷新前按user_stats中的粉丝数判断（主键查询）
+     */
+    private boolean isCelebrity(Long authorId) {
+        if (celebrities.contains(authorId)) {
+            return true;
+        }
+        UserStats stats = userStatsService.get(authorId);
+        int followers = stats != null && stats.getFollowerCount() != null ? stats.getFollowerCount() : 0;
+        if (followers <= celebrityThreshold) {
+            return false;
+        }
+        // 立即加入大V集合，保证读时合并能覆盖到本次未扇出的帖子
+        Set<Long> updated = new HashSet<>(celebrities);
+        updated.add(authorId);
+        celebrities = Set.copyOf(updated);
+        return true;
+    }
+
+    private List<Long> findFollowedCelebrities(Long userId) {
+        Set<Long> current = celebrities;
+        if (current.isEmpty()) {
+            return List.of();
+        }
+        List<Object> ids = userFollowMapper.selectObjectListByQuery(QueryWrapper.create()
+                .select("followee_id")
+                .from("user_follow")
+                .where(UserFollow::getFollowerId).eq(userId)
+                .and(UserFollow::getFolloweeId).in(current));
+        return ids.stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,226 @@
+package org.example.herizon.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.HyperLogLog;
+import org.example.herizon.entity.PostUniqueViewer;
+import org.example.herizon.entity.PostViewerSketch;
+import org.example.herizon.mapper.PostUniqueViewerMapper;
+import org.example.herizon.mapper.PostViewerSketchMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 帖子独立访客估计服务
+ * <p>
+ * view_count 会被刷新页面重复累加，独立访客数用 HyperLogLog 估计，不保存 (用户, 帖子) 明细：
+ * - 详情页访问时以用户ID或设备ID为访客标识，加入内存中当天该帖子的草图
+ * - 定时把内存草图与库中当天草图合并后以旧草图为条件写回 post_viewer_sketches（每帖每天一行，稀疏编码通常只有几十字节）
+ * - 每日合并任务把前几天的草图并入 post_unique_viewers 累计草图，并清理超过保留期的每日草图
+ * <p>
+ * 草图合并是幂等的，重复合并、多实例交错写入都不会多计；估计值为累计草图、未合并的每日草图与内存草图之并
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class UniqueViewerService {
+
+    /**
+     * 合并任务每页读取的每日草图数
+     */
+    private static final int ROLLUP_PAGE_SIZE = 500;
+
+    /**
+     * 刷写时与其他实例冲突的最大重试次数，超过后放回内存等下次刷写
+     */
+    private static final int FLUSH_CAS_ATTEMPTS = 5;
+
+    @Autowired
+    private PostViewerSketchMapper postViewerSketchMapper;
+
+    @Autowired
+    private PostUniqueViewerMapper postUniqueViewerMapper;
+
+    /**
+     * 每日草图保留天数，合并后超过保留期的删除
+     */
+    @Value("${app.unique-viewer.retention-days:30}")
+    private int retentionDays;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * 尚未写库的草图：(帖子ID, 日期) → 草图
+     */
+    private final ConcurrentHashMap<PendingKey, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次访问
+     *
+     * @param postId   帖子ID
+     * @param viewerId 访客标识（用户ID或设备ID），为空时不计入
+     */
+    public void record(Long postId, String viewerId) {
+        if (postId == null || viewerId == null || viewerId.isBlank()) {
+            return;
+        }
+        PendingKey key = new PendingKey(postId, LocalDate.now(clock));
+        // compute与flush中的remove对同一键是原子的，取出后的新访问会进入新草图
+        pending.compute(key, (k, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog();
+            target.add(viewerId);
+            return target;
+        });
+    }
+
+    /**
+     * 估计帖子的累计独立访客数
+     *
+     * @param postId 帖子ID
+     * @return 独立访客数估计值
+     */
+    public long estimate(Long postId) {
+        HyperLogLog union = new HyperLogLog();
+        try {
+            for (byte[] sketch : postViewerSketchMapper.selectSketchesForEstimate(postId)) {
+                union.merge(HyperLogLog.fromBytes(sketch));
+            }
+        } catch (RuntimeException e) {
+            log.warn("读取帖子{}的访客草图失败: {}", postId, e.getMessage());
+        }
+        // 内存中只有当天（跨零点时还有前一天）的草图尚未写库
+        LocalDate today = LocalDate.now(clock);
+        for (LocalDate date : List.of(today.minusDays(1), today)) {
+            HyperLogLog sketch = pending.get(new PendingKey(postId, date));
+            if (sketch != null) {
+                union.merge(sketch);
+            }
+        }
+        return union.estimate();
+    }
+
+    /**
+     * 定时把内存草图与库中当天草图合并后写回
+     */
+    @Scheduled(fixedDelayString = "${app.unique-viewer.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        for (PendingKey key : new ArrayList<>(pending.keySet())) {
+            HyperLogLog sketch = pending.remove(key);
+            if (sketch == null) {
+                continue;
+            }
+            try {
+                writeDaily(key, sketch);
+            } catch (RuntimeException e) {
+                // 放回内存，下次刷写时重试；期间的新访问一并合入
+                pending.merge(key, sketch, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                });
+                log.warn("帖子{}的访客草图写入失败，将在下次重试: {}", key.postId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 把内存草图并入库中当天草图
+     * <p>
+     * 读取-合并-写回之间可能有其他实例写入，写回以读取到的旧草图为条件（首次写入用 INSERT IGNORE），
+     * 更新0行说明被抢先，重新读取后再合并
+     */
+    private void writeDaily(PendingKey key, HyperLogLog sketch) {
+        for (int attempt = 0; attempt < FLUSH_CAS_ATTEMPTS; attempt++) {
+            byte[] stored = postViewerSketchMapper.selectSketch(key.postId(), key.date());
+            HyperLogLog merged = HyperLogLog.fromBytes(stored);
+            merged.merge(sketch);
+            int updated = stored == null
+                    ? postViewerSketchMapper.insertIfAbsent(key.postId(), key.date(), merged.toBytes())
+                    : postViewerSketchMapper.compareAndSet(key.postId(), key.date(), stored, merged.toBytes());
+            if (updated > 0) {
+                return;
+            }
+        }
+        throw new RuntimeException("访客草图写入冲突次数过多");
+    }
+
+    /**
+     * 每日把今天之前尚未合并的每日草图并入累计草图，并清理超过保留期的每日草图
+     *
+     * @return 被合并的每日草图数
+     */
+    @Scheduled(cron = "${app.unique-viewer.rollup-cron:0 30 4 * * *}")
+    public int rollup() {
+        LocalDate today = LocalDate.now(clock);
+        int rolled = 0;
+        long afterPostId = 0;
+        LocalDate afterStatDate = LocalDate.EPOCH;
+        try {
+            while (true) {
+                List<PostViewerSketch> page = postViewerSketchMapper.selectUnrolled(
+                        today, afterPostId, afterStatDate, ROLLUP_PAGE_SIZE);
+                if (page.isEmpty()) {
+                    break;
+                }
+                Map<Long, List<PostViewerSketch>> byPost = new LinkedHashMap<>();
+                for (PostViewerSketch daily : page) {
+                    byPost.computeIfAbsent(daily.getPostId(), k -> new ArrayList<>()).add(daily);
+                }
+                for (Map.Entry<Long, List<PostViewerSketch>> entry : byPost.entrySet()) {
+                    rolled += rollupPost(entry.getKey(), entry.getValue());
+                }
+                PostViewerSketch last = page.get(page.size() - 1);
+                afterPostId = last.getPostId();
+                afterStatDate = last.getStatDate();
+                if (page.size() < ROLLUP_PAGE_SIZE) {
+                    break;
+                }
+            }
+            postViewerSketchMapper.deleteRolledUpBefore(today.minusDays(retentionDays));
+        } catch (RuntimeException e) {
+            log.warn("访客草图合并失败: {}", e.getMessage());
+        }
+        if (rolled > 0) {
+            log.info("访客草图合并完成，合并{}个每日草图", rolled);
+        }
+        return rolled;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private int rollupPost(Long postId, List<PostViewerSketch> dailySketches) {
+        PostUniqueViewer existing = postUniqueViewerMapper.selectOneById(postId);
+        HyperLogLog total = HyperLogLog.fromBytes(existing != null ? existing.getSketch() : null);
+        for (PostViewerSketch daily : dailySketches) {
+            total.merge(HyperLogLog.fromBytes(daily.getSketch()));
+        }
+        postUniqueViewerMapper.upsert(postId, total.toBytes());
+        // 先写累计草图再标记，中途失败只会导致下次重复合并，不会丢失
+        for (PostViewerSketch daily : dailySketches) {
+            postViewerSketchMapper.markRolledUp(postId, daily.getStatDate(), daily.getSketch());
+        }
+        return dailySketches.size();
+    }
+
+    /**
+     * 内存草图的键
+     *
+     * @param postId 帖子ID
+     * @param date   访问日期
+     */
+    private record PendingKey(Long postId, LocalDate date) {
+    }
+}
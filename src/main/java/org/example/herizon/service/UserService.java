@@ -3,8 +3,7 @@ package org.example.herizon.service;
 import com.mybatisflex.core.query.QueryWrapper;
 import org.example.herizon.dto.*;
 import org.example.herizon.entity.User;
-import org.example.herizon.mapper.PostMapper;
-import org.example.herizon.mapper.UserActionMapper;
+import org.example.herizon.entity.UserStats;
 import org.example.herizon.mapper.UserMapper;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,10 +32,7 @@ public class UserService {
     private UserMapper userMapper;
 
     @Autowired
-    private PostMapper postMapper;
-
-    @Autowired
-    private UserActionMapper userActionMapper;
+    private UserStatsService userStatsService;
 
     @Autowired
     private WechatService wechatService;
@@ -44,6 +40,9 @@ public class UserService {
     @Autowired
     private FollowService followService;
 
+    @Autowired
+    private UserSummaryService userSummaryService;
+
     /**
      * 密码加密器，使用BCrypt算法
      */
@@ -140,7 +139,8 @@ public class UserService {
         UserProfileDTO profile = convertToProfileDTO(user, false);
         if (viewerUserId != null && !viewerUserId.equals(userId)) {
             profile.setIsFollowing(followService.isFollowing(viewerUserId, userId));
-            profile.setIsMutualFollow(followService.isFollowing(userId, viewerUserId));
+            // 两次判断都查当前用户自己的关注/粉丝集合，浏览不同用户的资料页时无需加载对方的关系
+            profile.setIsMutualFollow(followService.isFollowedBy(viewerUserId, userId));
         }
         return profile;
     }
@@ -202,6 +202,7 @@ public class UserService {
         if (changed) {
             user.setUpdatedAt(LocalDateTime.now());
             userMapper.update(user);
+            userSummaryService.invalidate(currentUserId);
         }
 
         return convertToProfileDTO(user, true);
@@ -370,30 +371,12 @@ public class UserService {
             dto.setQuestionnaireData(null);
         }
 
-        // 计算用户发帖数量
-        QueryWrapper postCountQuery = QueryWrapper.create()
-                .where("user_id = ?", user.getId())
-                .and("status = 0")
-                .and("deleted = 0");
-        int postCount = (int) postMapper.selectCountByQuery(postCountQuery);
-        dto.setPostCount(postCount);
-
-        // 计算用户获得的总点赞数
-        // 重要：MyBatis-Flex不支持表别名，必须使用完整表名
-        QueryWrapper likeCountQuery = QueryWrapper.create()
-                .select("COUNT(*)")
-                .from("user_actions")
-                .leftJoin("posts").on("user_actions.target_id = posts.id")
-                .where("posts.user_id = ?", user.getId())
-                .and("user_actions.target_type = 'post'")
-                .and("user_actions.action_type = 0")
-                .and("user_actions.deleted = 0");
-        int totalLikes = (int) userActionMapper.selectCountByQuery(likeCountQuery);
-        dto.setTotalLikes(totalLikes);
-
-        // ������ע/��˿����
-        dto.setFollowingCount(followService.countFollowing(user.getId()));
-        dto.setFollowersCount(followService.countFollowers(user.getId()));
+        // 发帖数、获赞数、关注/粉丝数按主键读取user_stats，不再实时聚合posts与user_follow
+        UserStats userStats = userStatsService.get(user.getId());
+        dto.setPostCount(userStats.getPostCount());
+        dto.setTotalLikes((int) Math.min(userStats.getLikeCount(), Integer.MAX_VALUE));
+        dto.setFollowingCount(userStats.getFollowingCount().longValue());
+        dto.setFollowersCount(userStats.getFollowerCount().longValue());
         dto.setIsFollowing(Boolean.FALSE);
         dto.setIsMutualFollow(Boolean.FALSE);
 
@@ -507,6 +490,7 @@ public class UserService {
 
             user.setUpdatedAt(LocalDateTime.now());
             userMapper.update(user);
+            userSummaryService.invalidate(currentUserId);
 
         } catch (Exception e) {
             // 记录错误日志
@@ -572,6 +556,7 @@ public class UserService {
 
         user.setUpdatedAt(LocalDateTime.now());
         userMapper.update(user);
+        userSummaryService.invalidate(user.getId());
 
         return user;
     }
@@ -766,6 +751,7 @@ public class UserService {
 
         user.setUpdatedAt(LocalDateTime.now());
         userMapper.update(user);
+        userSummaryService.invalidate(user.getId());
 
         return user;
     }
@@ -873,7 +859,7 @@ public class UserService {
      * 获取用户统计数据
      * <p>
      * 统计用户的发帖数、关注数、粉丝数、获赞数、被收藏数
-     * 所有计数都通过实时查询获取，确保数据准确性
+     * 计数由 user_stats 随发帖、删帖、关注、点赞、收藏同步维护，这里只做一次主键读取
      *
      * @param userId 用户ID
      * @return 用户统计数据DTO
@@ -886,43 +872,17 @@ public class UserService {
             throw new RuntimeException("用户不存在");
         }
 
-        // Step 2: 统计发帖数量
-        QueryWrapper postsQuery = QueryWrapper.create()
-                .select("COUNT(*)")
-                .from("posts")
-                .where("user_id = ? AND deleted = 0", userId);
-        Object postsCountObj = postMapper.selectObjectByQuery(postsQuery);
-        Long postsCount = postsCountObj != null ? ((Number) postsCountObj).longValue() : 0L;
-
-        // Step 3: 统计关注数量（用户关注的其他人）
-        Long followingCount = followService.countFollowing(userId);
-        Long followersCount = followService.countFollowers(userId);
-// Step 5: 统计获赞总数（用户的帖子被点赞的总数）
-        QueryWrapper likesQuery = QueryWrapper.create()
-                .select("COUNT(*)")
-                .from("user_actions")
-                .where("target_id IN (SELECT id FROM posts WHERE user_id = ? AND deleted = 0) " +
-                       "AND action_type = 0 AND deleted = 0 AND target_type = 'post'", userId);
-        Object likesCountObj = userActionMapper.selectObjectByQuery(likesQuery);
-        Long likesCount = likesCountObj != null ? ((Number) likesCountObj).longValue() : 0L;
-
-        // Step 6: 统计被收藏总数（用户的帖子被收藏的总数）
-        QueryWrapper collectsQuery = QueryWrapper.create()
-                .select("COUNT(*)")
-                .from("user_actions")
-                .where("target_id IN (SELECT id FROM posts WHERE user_id = ? AND deleted = 0) " +
-                       "AND action_type = 1 AND deleted = 0 AND target_type = 'post'", userId);
-        Object collectsCountObj = userActionMapper.selectObjectByQuery(collectsQuery);
-        Long collectsCount = collectsCountObj != null ? ((Number) collectsCountObj).longValue() : 0L;
+        // Step 2: 按主键读取user_stats中维护的各项计数
+        UserStats userStats = userStatsService.get(userId);
 
         // Step 7: 构建并返回统计DTO
         UserStatsDTO stats = new UserStatsDTO();
         stats.setUserId(userId);
-        stats.setPostsCount(postsCount);
-        stats.setFollowingCount(followingCount);
-        stats.setFollowersCount(followersCount);
-        stats.setLikesCount(likesCount);
-        stats.setCollectsCount(collectsCount);
+        stats.setPostsCount(userStats.getPostCount().longValue());
+        stats.setFollowingCount(userStats.getFollowingCount().longValue());
+        stats.setFollowersCount(userStats.getFollowerCount().longValue());
+        stats.setLikesCount(userStats.getLikeCount());
+        stats.setCollectsCount(userStats.getCollectCount());
 
         return stats;
     }
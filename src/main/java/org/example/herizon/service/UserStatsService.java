@@ -0,0 +1,195 @@
+package org.example.herizon.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.IdRanges;
+import org.example.herizon.entity.Post;
+import org.example.herizon.entity.UserStats;
+import org.example.herizon.mapper.UserStatsMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 用户统计服务
+ * <p>
+ * 资料页、统计接口和关注列表的发帖数、关注数、粉丝数、获赞数、被收藏数都从 user_stats 按主键读取，
+ * 不再对 posts、user_follow 做实时聚合：
+ * - 发帖、删帖、帖子隐藏/恢复、关注切换在各自的事务中调用本服务增减计数
+ * - 获赞数与被收藏数随帖子计数一起更新（见 {@link ActionCountService}）
+ * - 增减只作用于已有的统计行；统计行缺失（历史用户或新用户）时不按增量插入，而是在读取时按当前数据重建
+ * - 定时任务按用户ID分段重建全部统计行，校正手工修数据等原因造成的偏差
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class UserStatsService {
+
+    @Autowired
+    private UserStatsMapper userStatsMapper;
+
+    /**
+     * 重建时每段覆盖的用户ID数量
+     */
+    @Value("${app.user-stats.rebuild-chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * 读取用户统计，统计行不存在时按需重建
+     *
+     * @param userId 用户ID
+     * @return 用户统计，用户不存在时各项为0
+     */
+    public UserStats get(Long userId) {
+        return getAll(List.of(userId)).get(userId);
+    }
+
+    /**
+     * 批量读取用户统计，缺失的统计行一次重建
+     *
+     * @param userIds 用户ID
+     * @return 用户ID → 用户统计，每个传入的ID都有对应值
+     */
+    public Map<Long, UserStats> getAll(Collection<Long> userIds) {
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, UserStats> result = new HashMap<>();
+        for (UserStats stats : userStatsMapper.selectListByIds(ids)) {
+            result.put(stats.getUserId(), stats);
+        }
+        List<Long> missing = ids.stream().filter(id -> !result.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            userStatsMapper.rebuild(0, 0, missing);
+            for (UserStats stats : userStatsMapper.selectListByIds(missing)) {
+                result.put(stats.getUserId(), stats);
+            }
+        }
+        for (Long id : ids) {
+            result.computeIfAbsent(id, UserStatsService::delta);
+        }
+        return result;
+    }
+
+    /**
+     * 发布帖子后作者发帖数加一
+     */
+    public void onPostCreated(Long userId) {
+        UserStats delta = delta(userId);
+        delta.setPostCount(1);
+        apply(List.of(delta));
+    }
+
+    /**
+     * 删除帖子后扣减作者的发帖数（仅当删除前为公开状态）以及该帖子累计的获赞数、被收藏数
+     *
+     * @param post 删除前的帖子
+     */
+    public void onPostDeleted(Post post) {
+        UserStats delta = delta(post.getUserId());
+        delta.setPostCount(Objects.equals(post.getStatus(), 0) ? -1 : 0);
+        delta.setLikeCount(-orZero(post.getLikeCount()));
+        delta.setCollectCount(-orZero(post.getCollectCount()));
+        apply(List.of(delta));
+    }
+
+    /**
+     * 帖子被隐藏或恢复显示后调整作者的发帖数
+     *
+     * @param userId  作者ID
+     * @param visible true=恢复显示，false=被隐藏
+     */
+    public void onPostVisibilityChanged(Long userId, boolean visible) {
+        UserStats delta = delta(userId);
+        delta.setPostCount(visible ? 1 : -1);
+        apply(List.of(delta));
+    }
+
+    /**
+     * 关注切换后调整关注人的关注数与被关注人们的粉丝数，一条语句完成
+     *
+     * @param followerId 关注人ID
+     * @param changes    被关注人ID → 增量（+1关注，-1取消）
+     */
+    public void onFollowToggled(Long followerId, Map<Long, Integer> changes) {
+        // 按用户ID排序写入，互相关注的并发请求以相同顺序加锁
+        Map<Long, UserStats> deltas = new TreeMap<>();
+        for (Map.Entry<Long, Integer> change : changes.entrySet()) {
+            UserStats follower = deltas.computeIfAbsent(followerId, UserStatsService::delta);
+            follower.setFollowingCount(follower.getFollowingCount() + change.getValue());
+            UserStats followee = deltas.computeIfAbsent(change.getKey(), UserStatsService::delta);
+            followee.setFollowerCount(followee.getFollowerCount() + change.getValue());
+        }
+        deltas.values().removeIf(delta -> delta.getFollowingCount() == 0 && delta.getFollowerCount() == 0);
+        apply(deltas.values());
+    }
+
+    /**
+     * 帖子点赞/收藏计数写库时同步累加作者的获赞数与被收藏数
+     *
+     * @param likeDeltas    帖子ID → 点赞数增量
+     * @param collectDeltas 帖子ID → 收藏数增量，键集合与likeDeltas相同
+     */
+    public void onPostCountersChanged(Map<Long, Long> likeDeltas, Map<Long, Long> collectDeltas) {
+        if (!likeDeltas.isEmpty()) {
+            userStatsMapper.incrementReceived(likeDeltas, collectDeltas);
+        }
+    }
+
+    /**
+     * 按用户ID分段重建全部统计行
+     *
+     * @return 影响行数
+     */
+    @Scheduled(cron = "${app.user-stats.rebuild-cron:0 0 6 * * *}")
+    public int rebuild() {
+        int affected = 0;
+        try {
+            affected = IdRanges.sum(userStatsMapper, "users", chunkSize,
+                    (from, to) -> userStatsMapper.rebuild(from, to, null));
+        } catch (RuntimeException e) {
+            log.warn("用户统计重建失败: {}", e.getMessage());
+        }
+        if (affected > 0) {
+            log.info("用户统计重建完成，影响{}行", affected);
+        }
+        return affected;
+    }
+
+    private void apply(Collection<UserStats> deltas) {
+        List<UserStats> rows = new ArrayList<>(deltas.size());
+        for (UserStats delta : deltas) {
+            if (delta.getUserId() != null) {
+                rows.add(delta);
+            }
+        }
+        if (!rows.isEmpty()) {
+            userStatsMapper.increment(rows);
+        }
+    }
+
+    private static UserStats delta(Long userId) {
+        UserStats delta = new UserStats();
+        delta.setUserId(userId);
+        delta.setPostCount(0);
+        delta.setFollowingCount(0);
+        delta.setFollowerCount(0);
+        delta.setLikeCount(0L);
+        delta.setCollectCount(0L);
+        return delta;
+    }
+
+    private static long orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.herizon.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.common.TransactionHooks;
+import org.example.herizon.dto.UserSummary;
+import org.example.herizon.entity.User;
+import org.example.herizon.mapper.UserMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 用户摘要缓存服务
+ * <p>
+ * 帖子、评论、关注列表、反馈等列表在展示作者时只需要昵称、头像和角色，
+ * 统一从这里按ID批量获取，不再各自查询完整的用户行：
+ * - 只查询摘要字段，不读取问卷数据和微信会话密钥
+ * - 批量获取时一次查询加载所有未命中的用户
+ * - 按容量淘汰，并设置写入后过期时间兜底（多实例部署时其他实例的修改最终可见）
+ * <p>
+ * 用户资料、角色或微信登录信息变更后调用 invalidate 使缓存失效
+ *
+ * @author Kokoa
+ */
+@Service
+public class UserSummaryService {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private final Cache<Long, UserSummary> cache;
+
+    public UserSummaryService(@Value("${app.user-summary.max-size:10000}") long maxSize,
+                              @Value("${app.user-summary.ttl-minutes:30}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+    }
+
+    /**
+     * 获取单个用户摘要
+     *
+     * @param userId 用户ID
+     * @return 用户摘要，用户不存在或已删除时返回null
+     */
+    public UserSummary get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return getAll(Set.of(userId)).get(userId);
+    }
+
+    /**
+     * 批量获取用户摘要，未命中的用户一次查询加载
+     *
+     * @param userIds 用户ID集合
+     * @return 用户ID到摘要的映射，不存在的用户不包含在结果中
+     */
+    public Map<Long, UserSummary> getAll(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> keys = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return cache.getAll(keys, this::load);
+    }
+
+    /**
+     * 使用户摘要失效
+     * <p>
+     * 在事务中调用时提交后再失效一次，避免提交前并发读取把旧数据重新写入缓存
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.invalidate(userId);
+        TransactionHooks.afterCommit(() -> cache.invalidate(userId));
+    }
+
+    private Map<Long, UserSummary> load(Set<? extends Long> userIds) {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select("id, username, nickname, avatar, role")
+                .from("users")
+                .where(User::getId).in(userIds);
+        Map<Long, UserSummary> result = new HashMap<>();
+        for (User user : userMapper.selectListByQuery(queryWrapper)) {
+            if (user != null && user.getId() != null) {
+                result.put(user.getId(), UserSummary.of(user));
+            }
+        }
+        return result;
+    }
+}
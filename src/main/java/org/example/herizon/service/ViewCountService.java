@@ -0,0 +1,121 @@
+package org.example.herizon.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.mapper.PostMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 帖子浏览量缓冲计数服务
+ * <p>
+ * 详情页每次访问不再读出整行、加一后整行写回（会重写content等大字段，且并发访问会丢失计数），而是：
+ * - 浏览量先累加到内存中的分段计数表，按线程分散到不同分段，热门帖子的并发累加不争用同一把锁
+ * - 定时把各分段的增量取出合并，按批执行 UPDATE posts SET view_count = view_count + ?
+ * - 停机前再刷写一次；写库失败时增量放回内存，下次重试
+ * <p>
+ * 读取详情时把尚未刷写的增量加到数据库中的浏览量上，用户看到的计数不会滞后
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class ViewCountService {
+
+    private static final int STRIPES = 16;
+
+    /**
+     * 每条UPDATE语句最多包含的帖子数
+     */
+    private static final int CHUNK_SIZE = 200;
+
+    @Autowired
+    private PostMapper postMapper;
+
+    /**
+     * 分段计数表：帖子ID → 未刷写的增量
+     */
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<Long, Long>[] stripes = new ConcurrentHashMap[STRIPES];
+
+    /**
+     * 已从计数表取出、正在写库的增量，写库期间读取仍能看到这部分计数
+     */
+    private final ConcurrentHashMap<Long, Long> flushing = new ConcurrentHashMap<>();
+
+    public ViewCountService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * 记录一次浏览
+     *
+     * @param postId 帖子ID
+     */
+    public void increment(Long postId) {
+        int stripe = (int) (Thread.currentThread().threadId() % STRIPES);
+        stripes[stripe].merge(postId, 1L, Long::sum);
+    }
+
+    /**
+     * 尚未写入数据库的浏览量增量
+     *
+     * @param postId 帖子ID
+     * @return 未刷写的增量
+     */
+    public long pending(Long postId) {
+        long sum = flushing.getOrDefault(postId, 0L);
+        for (ConcurrentHashMap<Long, Long> stripe : stripes) {
+            sum += stripe.getOrDefault(postId, 0L);
+        }
+        return sum;
+    }
+
+    /**
+     * 定时把增量批量写入数据库
+     */
+    @Scheduled(fixedDelayString = "${app.view-count.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        // remove与merge对同一键是原子的，取出后的新浏览会重新计入计数表，不会丢失
+        for (ConcurrentHashMap<Long, Long> stripe : stripes) {
+            for (Long postId : stripe.keySet()) {
+                Long delta = stripe.remove(postId);
+                if (delta != null) {
+                    flushing.merge(postId, delta, Long::sum);
+                }
+            }
+        }
+        if (flushing.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Long>> pending = new ArrayList<>(flushing.entrySet());
+        for (int from = 0; from < pending.size(); from += CHUNK_SIZE) {
+            List<Map.Entry<Long, Long>> chunk = pending.subList(from, Math.min(from + CHUNK_SIZE, pending.size()));
+            Map<Long, Long> deltas = new HashMap<>();
+            chunk.forEach(entry -> deltas.put(entry.getKey(), entry.getValue()));
+            try {
+                postMapper.incrementViewCounts(deltas);
+            } catch (RuntimeException e) {
+                // 保留在flushing中，下次刷写时重试
+                log.warn("浏览量刷写失败，{}个帖子的增量将在下次重试: {}", deltas.size(), e.getMessage());
+                continue;
+            }
+            deltas.keySet().forEach(flushing::remove);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
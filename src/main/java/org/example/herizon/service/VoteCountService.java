@@ -0,0 +1,63 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.herizon.common.IdRanges;
+import org.example.herizon.mapper.PollOptionMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * 投票计数校准服务
+ * <p>
+ * poll_options.vote_count 与 posts.vote_count 在投票时原子增减，列表展示直接读取，不再 GROUP BY user_votes。
+ * 冗余计数可能因手工修数据、整行更新覆盖等原因偏离，本服务定期按 user_votes 重新统计：
+ * - 按帖子ID分段执行，每段一条 UPDATE ... JOIN (SELECT ... GROUP BY)，避免长事务和大范围锁
+ * - 只更新与统计结果不一致的行
+ *
+ * @author Kokoa
+ */
+@Slf4j
+@Service
+public class VoteCountService {
+
+    @Autowired
+    private PostMapper postMapper;
+
+    @Autowired
+    private PollOptionMapper pollOptionMapper;
+
+    /**
+     * 每段覆盖的帖子ID数量
+     */
+    @Value("${app.poll.reconcile-chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * 全量校准投票计数
+     *
+     * @return 被校正的行数（选项与帖子合计）
+     */
+    @Scheduled(cron = "${app.poll.reconcile-cron:0 0 5 * * *}")
+    public int reconcile() {
+        int corrected = 0;
+        try {
+            // 只需覆盖到最大的投票帖ID
+            long maxPollPostId = IdRanges.maxId(postMapper, QueryWrapper.create()
+                    .select("MAX(id)")
+                    .from("posts")
+                    .where("post_type = 1"));
+            corrected = IdRanges.sum(maxPollPostId, chunkSize,
+                    (from, to) -> pollOptionMapper.reconcileVoteCounts(from, to) + postMapper.reconcileVoteCounts(from, to));
+        } catch (RuntimeException e) {
+            log.warn("投票计数校准失败: {}", e.getMessage());
+        }
+        if (corrected > 0) {
+            log.info("投票计数校准完成，校正{}行", corrected);
+        }
+        return corrected;
+    }
+}
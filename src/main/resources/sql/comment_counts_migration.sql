@@ -0,0 +1,23 @@
+-- 为已有的 comments 表增加有效回复数字段
+-- 历史数据的 reply_count 与 posts.comment_count 由 CommentCountService 的校准任务回填，
+-- 也可以手动执行下面两条语句立即回填
+
+alter table comments
+    add reply_count int default 0 not null comment '有效直接回复数量（状态正常且未删除）' after like_count;
+
+update comments c
+    left join (select parent_id, count(*) as replies
+               from comments
+               where status = 0
+                 and deleted = 0
+                 and parent_id is not null
+               group by parent_id) r on r.parent_id = c.id
+set c.reply_count = coalesce(r.replies, 0);
+
+update posts p
+    left join (select post_id, count(*) as cnt
+               from comments
+               where status = 0
+                 and deleted = 0
+               group by post_id) c on c.post_id = p.id
+set p.comment_count = coalesce(c.cnt, 0), p.updated_at = p.updated_at;
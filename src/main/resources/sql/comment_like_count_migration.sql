@@ -0,0 +1,14 @@
+-- 为已有的 comments 表增加点赞数字段，并按 user_actions 回填
+-- 新建库（comments.sql / herizon.sql）无需执行；回填之后由 ActionCountService 的校准任务保持一致
+
+alter table comments
+    add like_count int default 0 not null comment '点赞数量' after content;
+
+update comments c
+    join (select target_id, count(*) as likes
+          from user_actions
+          where target_type = 'comment'
+            and action_type = 0
+            and deleted = 0
+          group by target_id) a on a.target_id = c.id
+set c.like_count = a.likes;
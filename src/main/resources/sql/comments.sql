@@ -5,9 +5,14 @@ create table comments
     post_id    bigint                             not null comment '所属帖子ID，关联posts表',
     user_id    bigint                             not null comment '评论者用户ID，关联users表',
     parent_id  bigint                             null comment '父评论ID，用于实现嵌套评论，顶级评论为null',
+    root_id    bigint                             null comment '所在评论树的顶级评论ID，顶级评论为自身ID',
+    depth      int      default 0                 not null comment '层级深度，0表示顶级评论',
+    path       varchar(1000) charset ascii default '' not null comment '物化路径：祖先及自身ID补零到12位后以/结尾依次拼接',
     content    text                               not null comment '评论内容',
+    like_count int      default 0                 not null comment '点赞数量',
+    reply_count int     default 0                 not null comment '有效直接回复数量（状态正常且未删除）',
     created_at datetime default CURRENT_TIMESTAMP not null comment '创建时间',
-    status     tinyint  default 0                 not null comment '状态: 0=正常, 1=删除',
+    status     tinyint  default 0                 not null comment '状态: 0=正常, 1=删除, 2=举报隐藏待审核',
     deleted    tinyint  default 0                 not null comment '逻辑删除标记: 0=正常, 1=删除',
     constraint comments_ibfk_1
         foreign key (post_id) references posts (id)
@@ -36,6 +41,9 @@ create index idx_parent_id
 create index idx_post_id
     on comments (post_id);
 
+create index idx_root_path
+    on comments (root_id, path);
+
 create index idx_status
     on comments (status);
 
@@ -0,0 +1,27 @@
+-- 为已有的 comments 表增加评论树字段并回填历史数据
+-- 新建库（comments.sql / herizon.sql）只需执行最后的 update 回填初始化数据
+
+alter table comments
+    add root_id bigint                             null comment '所在评论树的顶级评论ID，顶级评论为自身ID' after parent_id,
+    add depth   int      default 0                 not null comment '层级深度，0表示顶级评论' after root_id,
+    add path    varchar(1000) charset ascii default '' not null comment '物化路径：祖先及自身ID补零到12位后以/结尾依次拼接' after depth;
+
+create index idx_root_path
+    on comments (root_id, path);
+
+-- 从顶级评论开始逐层向下生成路径，只回填尚未生成路径的评论，可重复执行
+update comments c
+    join (with recursive tree (id, root_id, depth, path) as (
+              select id, id, 0, cast(concat(lpad(id, 12, '0'), '/') as char(1000) charset ascii)
+              from comments
+              where parent_id is null
+              union all
+              select child.id, tree.root_id, tree.depth + 1, concat(tree.path, lpad(child.id, 12, '0'), '/')
+              from comments child
+                       join tree on child.parent_id = tree.id)
+          select id, root_id, depth, path
+          from tree) t on t.id = c.id
+set c.root_id = t.root_id,
+    c.depth   = t.depth,
+    c.path    = t.path
+where c.path = '';
@@ -0,0 +1,14 @@
+create table follow_suggestions
+(
+    user_id      bigint                             not null comment '用户ID，关联users表'
+        primary key,
+    candidates   blob                               not null comment '推荐候选，按排名顺序每人16字节：用户ID(8) + 共同关注人数(4) + 共同兴趣标签数(4)',
+    generated_at datetime default CURRENT_TIMESTAMP not null comment '本次计算时间',
+    constraint follow_suggestions_ibfk_1
+        foreign key (user_id) references users (id)
+            on delete cascade
+)
+    comment '可能认识的人推荐表：定时按二度关注关系批量计算，接口按主键读取';
+
+create index idx_generated_at
+    on follow_suggestions (generated_at);
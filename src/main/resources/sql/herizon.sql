@@ -5,6 +5,7 @@ create table poll_options
     post_id       bigint                             not null comment '帖子ID',
     option_text   varchar(200)                       not null comment '选项名称',
     display_order int                                not null comment '选项显示顺序',
+    vote_count    int      default 0                 not null comment '得票数，投票时原子增减，定时按user_votes校准',
     created_at    datetime default CURRENT_TIMESTAMP null comment '创建时间',
     deleted       tinyint  default 0                 null comment '逻辑删除，0=未删除，1=已删除'
 )
@@ -157,10 +158,11 @@ create table posts
     share_count   int      default 0                 not null comment '分享数量',
     collect_count int      default 0                 not null comment '收藏数量',
     comment_count int      default 0                 not null comment '评论数量',
+    vote_count    int      default 0                 not null comment '投票帖总票数，投票时原子增减',
     image_urls    json                               null comment '图片URL列表（JSON数组）',
     created_at    datetime default CURRENT_TIMESTAMP not null comment '创建时间',
     updated_at    datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
-    status        tinyint  default 0                 not null comment '状态: 0=正常, 1=删除, 2=审核中',
+    status        tinyint  default 0                 not null comment '状态: 0=正常, 1=删除, 2=审核中（含举报达到阈值后自动隐藏）',
     deleted       tinyint  default 0                 not null comment '逻辑删除标记: 0=正常, 1=删除',
     constraint posts_ibfk_1
         foreign key (user_id) references users (id)
@@ -175,9 +177,14 @@ create table comments
     post_id    bigint                             not null comment '所属帖子ID，关联posts表',
     user_id    bigint                             not null comment '评论者用户ID，关联users表',
     parent_id  bigint                             null comment '父评论ID，用于实现嵌套评论，顶级评论为null',
+    root_id    bigint                             null comment '所在评论树的顶级评论ID，顶级评论为自身ID',
+    depth      int      default 0                 not null comment '层级深度，0表示顶级评论',
+    path       varchar(1000) charset ascii default '' not null comment '物化路径：祖先及自身ID补零到12位后以/结尾依次拼接',
     content    text                               not null comment '评论内容',
+    like_count int      default 0                 not null comment '点赞数量',
+    reply_count int     default 0                 not null comment '有效直接回复数量（状态正常且未删除）',
     created_at datetime default CURRENT_TIMESTAMP not null comment '创建时间',
-    status     tinyint  default 0                 not null comment '状态: 0=正常, 1=删除',
+    status     tinyint  default 0                 not null comment '状态: 0=正常, 1=删除, 2=举报隐藏待审核',
     deleted    tinyint  default 0                 not null comment '逻辑删除标记: 0=正常, 1=删除',
     constraint comments_ibfk_1
         foreign key (post_id) references posts (id)
@@ -206,6 +213,9 @@ create index idx_parent_id
 create index idx_post_id
     on comments (post_id);
 
+create index idx_root_path
+    on comments (root_id, path);
+
 create index idx_status
     on comments (status);
 
@@ -266,6 +276,9 @@ create index idx_status
 create index idx_user_id
     on posts (user_id);
 
+create index idx_user_time
+    on posts (user_id asc, deleted asc, created_at desc);
+
 create table user_actions
 (
     id          bigint auto_increment comment '行为记录ID，主键自增'
@@ -275,10 +288,10 @@ create table user_actions
     target_type varchar(20)                        not null comment '目标对象类型: post=帖子, comment=评论',
     action_type tinyint                            not null comment '行为类型: 0=点赞, 1=收藏, 2=分享, 3=举报',
     extra_data  json                               null comment '额外数据(JSON格式，如举报原因)',
-    created_at  datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    created_at  datetime default CURRENT_TIMESTAMP not null comment '创建时间（取消后重新生效时刷新，收藏列表按此排序）',
     deleted     tinyint  default 0                 not null comment '逻辑删除标记: 0=正常, 1=删除',
     constraint uk_user_target_action
-        unique (user_id, target_id, target_type, action_type, deleted),
+        unique (user_id, target_id, target_type, action_type),
     constraint user_actions_ibfk_1
         foreign key (user_id) references users (id)
             on delete cascade
@@ -297,13 +310,17 @@ create index idx_deleted
 create index idx_target
     on user_actions (target_id, target_type);
 
+create index idx_user_collect
+    on user_actions (user_id, action_type, target_type, deleted, created_at, target_id);
+
 create table user_follow
 (
     id          bigint auto_increment comment '粉丝关系ID'
         primary key,
     follower_id bigint                             not null comment '关注人ID，引用users.id',
     followee_id bigint                             not null comment '被关注人ID，引用users.id',
-    created_at  datetime default CURRENT_TIMESTAMP not null comment '关注时间',
+    created_at  datetime default CURRENT_TIMESTAMP not null comment '关注时间（取消后重新关注时刷新）',
+    deleted     tinyint  default 0                 not null comment '逻辑删除标记: 0=关注中, 1=已取消',
     constraint uk_follower_followee
         unique (follower_id, followee_id),
     constraint fk_user_follow_follower
@@ -400,3 +417,125 @@ where (`herizon`.`users`.`deleted` = 0);
 
 -- comment on column users_wechat_view.deleted not supported: 逻辑删除标记: 0=正常, 1=删除
 
+
+create table post_hot_scores
+(
+    post_id    bigint                             not null comment '帖子ID，关联posts表'
+        primary key,
+    score      double                             not null comment '时间衰减热度分（对数空间，可直接比较大小）',
+    updated_at datetime default CURRENT_TIMESTAMP not null comment '最近一次刷盘时间',
+    constraint post_hot_scores_ibfk_1
+        foreign key (post_id) references posts (id)
+            on delete cascade
+)
+    comment '帖子热度分表：首页热门排序引擎的持久化快照' engine = InnoDB;
+
+create index idx_score
+    on post_hot_scores (score desc, post_id desc);
+
+create table user_inbox
+(
+    user_id    bigint   not null comment '收件人用户ID（关注者），引用users.id',
+    post_id    bigint   not null comment '帖子ID，关联posts表',
+    author_id  bigint   not null comment '帖子作者ID（被关注人）',
+    created_at datetime not null comment '帖子发布时间，用于时间线排序',
+    primary key (user_id, post_id),
+    constraint user_inbox_ibfk_1
+        foreign key (post_id) references posts (id)
+            on delete cascade
+)
+    comment '关注时间线收件箱：作者发帖后写入各关注者的收件箱' engine = InnoDB;
+
+create index idx_user_time
+    on user_inbox (user_id asc, created_at desc, post_id desc);
+
+create index idx_user_author
+    on user_inbox (user_id, author_id);
+
+
+create table sketch_snapshots
+(
+    name       varchar(64)                        not null comment '快照名称，如hot_search'
+        primary key,
+    payload    longblob                           not null comment '序列化后的内存统计结构',
+    updated_at datetime default CURRENT_TIMESTAMP not null comment '最近一次快照时间'
+)
+    comment '内存统计快照表：热搜等内存概率统计结构的定期持久化' engine = InnoDB;
+
+create table post_viewer_sketches
+(
+    post_id    bigint                             not null comment '帖子ID，关联posts表',
+    stat_date  date                               not null comment '统计日期',
+    sketch     blob                               not null comment '当日访客的HyperLogLog草图',
+    rolled_up  tinyint  default 0                 not null comment '是否已合并进累计草图：0-否，1-是',
+    updated_at datetime default CURRENT_TIMESTAMP not null comment '最近一次写入时间',
+    primary key (post_id, stat_date),
+    constraint post_viewer_sketches_ibfk_1
+        foreign key (post_id) references posts (id)
+            on delete cascade
+)
+    comment '帖子每日独立访客草图表：按天记录访客基数，次日合并进累计草图' engine = InnoDB;
+
+create index idx_rolled_up
+    on post_viewer_sketches (rolled_up, stat_date);
+
+create table post_unique_viewers
+(
+    post_id    bigint                             not null comment '帖子ID，关联posts表'
+        primary key,
+    sketch     blob                               not null comment '累计访客的HyperLogLog草图（已合并的每日草图之并）',
+    updated_at datetime default CURRENT_TIMESTAMP not null comment '最近一次合并时间',
+    constraint post_unique_viewers_ibfk_1
+        foreign key (post_id) references posts (id)
+            on delete cascade
+)
+    comment '帖子累计独立访客草图表' engine = InnoDB;
+
+create table report_aggregates
+(
+    target_type      varchar(20)                        not null comment '被举报对象类型: post=帖子, comment=评论',
+    target_id        bigint                             not null comment '被举报对象ID',
+    report_count     int      default 0                 not null comment '举报人数（同一用户重复举报只计一次）',
+    status           tinyint  default 0                 not null comment '处理状态: 0=待处理, 1=已自动隐藏待审核, 2=已驳回, 3=已确认违规',
+    last_reason      varchar(500)                       null comment '最近一次举报原因',
+    last_reported_at datetime default CURRENT_TIMESTAMP not null comment '最近一次举报时间',
+    hidden_at        datetime                           null comment '达到阈值被自动隐藏的时间',
+    resolved_by      bigint                             null comment '处理管理员ID',
+    resolved_at      datetime                           null comment '处理时间',
+    primary key (target_type, target_id)
+)
+    comment '举报汇总表：按被举报对象汇总举报人数，供自动隐藏与管理员审核队列使用' engine = InnoDB;
+
+create index idx_queue
+    on report_aggregates (status, report_count, last_reported_at);
+
+create table user_stats
+(
+    user_id         bigint                             not null comment '用户ID，关联users表'
+        primary key,
+    post_count      int      default 0                 not null comment '公开帖子数（未删除且状态正常）',
+    following_count int      default 0                 not null comment '关注数',
+    follower_count  int      default 0                 not null comment '粉丝数',
+    like_count      bigint   default 0                 not null comment '帖子累计获赞数（未删除帖子）',
+    collect_count   bigint   default 0                 not null comment '帖子累计被收藏数（未删除帖子）',
+    updated_at      datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '最近一次变更时间',
+    constraint user_stats_ibfk_1
+        foreign key (user_id) references users (id)
+            on delete cascade
+)
+    comment '用户统计表：发帖、关注、粉丝、获赞、被收藏计数，随业务操作在同一事务中增减，定时分段重建' engine = InnoDB;
+
+create table follow_suggestions
+(
+    user_id      bigint                             not null comment '用户ID，关联users表'
+        primary key,
+    candidates   blob                               not null comment '推荐候选，按排名顺序每人16字节：用户ID(8) + 共同关注人数(4) + 共同兴趣标签数(4)',
+    generated_at datetime default CURRENT_TIMESTAMP not null comment '本次计算时间',
+    constraint follow_suggestions_ibfk_1
+        foreign key (user_id) references users (id)
+            on delete cascade
+)
+    comment '可能认识的人推荐表：定时按二度关注关系批量计算，接口按主键读取' engine = InnoDB;
+
+create index idx_generated_at
+    on follow_suggestions (generated_at);
@@ -5,6 +5,7 @@ create table poll_options
     post_id       bigint                             not null comment '帖子ID',
     option_text   varchar(200)                       not null comment '选项名称',
     display_order int                                not null comment '选项显示顺序',
+    vote_count    int      default 0                 not null comment '得票数，投票时原子增减，定时按user_votes校准',
     created_at    datetime default CURRENT_TIMESTAMP null comment '创建时间',
     deleted       tinyint  default 0                 null comment '逻辑删除，0=未删除，1=已删除'
 )
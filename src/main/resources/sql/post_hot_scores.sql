@@ -0,0 +1,15 @@
+create table post_hot_scores
+(
+    post_id    bigint                             not null comment '帖子ID，关联posts表'
+        primary key,
+    score      double                             not null comment '时间衰减热度分（对数空间，可直接比较大小）',
+    updated_at datetime default CURRENT_TIMESTAMP not null comment '最近一次刷盘时间',
+    constraint post_hot_scores_ibfk_1
+        foreign key (post_id) references posts (id)
+            on delete cascade
+)
+    comment '帖子热度分表：首页热门排序引擎的持久化快照';
+
+create index idx_score
+    on post_hot_scores (score desc, post_id desc);
+
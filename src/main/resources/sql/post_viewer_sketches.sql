@@ -0,0 +1,28 @@
+create table post_viewer_sketches
+(
+    post_id    bigint                             not null comment '帖子ID，关联posts表',
+    stat_date  date                               not null comment '统计日期',
+    sketch     blob                               not null comment '当日访客的HyperLogLog草图',
+    rolled_up  tinyint  default 0                 not null comment '是否已合并进累计草图：0-否，1-是',
+    updated_at datetime default CURRENT_TIMESTAMP not null comment '最近一次写入时间',
+    primary key (post_id, stat_date),
+    constraint post_viewer_sketches_ibfk_1
+        foreign key (post_id) references posts (id)
+            on delete cascade
+)
+    comment '帖子每日独立访客草图表：按天记录访客基数，次日合并进累计草图';
+
+create index idx_rolled_up
+    on post_viewer_sketches (rolled_up, stat_date);
+
+create table post_unique_viewers
+(
+    post_id    bigint                             not null comment '帖子ID，关联posts表'
+        primary key,
+    sketch     blob                               not null comment '累计访客的HyperLogLog草图（已合并的每日草图之并）',
+    updated_at datetime default CURRENT_TIMESTAMP not null comment '最近一次合并时间',
+    constraint post_unique_viewers_ibfk_1
+        foreign key (post_id) references posts (id)
+            on delete cascade
+)
+    comment '帖子累计独立访客草图表';
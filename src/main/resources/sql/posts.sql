@@ -11,6 +11,7 @@
     share_count   int      default 0                 not null comment '鍒嗕韩鏁伴噺',
     collect_count int      default 0                 not null comment '鏀惰棌鏁伴噺',
     comment_count int      default 0                 not null comment '璇勮鏁伴噺',
+    vote_count    int      default 0                 not null comment '投票帖总票数，投票时原子增减',
     image_urls    json                               null comment '鍥剧墖URL鍒楄〃锛圝SON鏁扮粍锛?,
     created_at    datetime default CURRENT_TIMESTAMP not null comment '鍒涘缓鏃堕棿',
     updated_at    datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '鏇存柊鏃堕棿',
@@ -49,6 +50,9 @@ create index idx_status
 create index idx_user_id
     on posts (user_id);
 
+create index idx_user_time
+    on posts (user_id asc, deleted asc, created_at desc);
+
 INSERT INTO herizon.posts (id, user_id, title, content, post_type, view_count, like_count, share_count, collect_count, comment_count, image_urls, created_at, updated_at, status, deleted) VALUES (1, 1001, '2025骞磋亴鍦哄コ鎬ф湀钖揪8978鍏冿紒鍒嗕韩鎴戠殑AIGC鎶€鑳芥彁鍗囦箣璺?, '鏍规嵁鏈€鏂拌皟鐮旓紝2025骞磋亴鍦哄コ鎬у钩鍧囨湀钖揪8978鍏冿紝姣斿幓骞村闀?0.3%锛佹垜鍒氶€氳繃鍏ㄥ浗鐢熸垚寮忎汉宸ユ櫤鑳斤紙AIGC锛夋妧鏈簲鐢ㄨ亴涓氬煿璁€冭瘯锛岃繖涓瘉涔︾湡鐨勫緢鏈夊惈閲戦噺銆傜幇鍦?0%鐨勫伐浣滈兘浼氭秹鍙婃彁绀鸿瘝宸ョ▼锛屾帉鎻hatGPT銆丮idjourney绛夊伐鍏峰凡鎴愬繀澶囨妧鑳姐€傚垎浜涔犺鐐癸細1.鍙傚姞澶嶆棪AIGC鐮斾慨鐝?2.鑰冨彇瀹樻柟鑱屼笟璇佷功 3.瀹炴搷缁冧範鎻愮ず璇嶇紪鍐?4.瀛︿細AI瑙嗛鍒朵綔銆傚コ鎬у湪AI鎺ュ彈搴︿笂姣旂敺鎬ф洿楂橈紝鎴戜滑瑕佹姄浣忚繖涓紭鍔匡紒', 0, 2161, 289, 45, 1, 0, null, '2025-01-29 10:30:00', '2025-09-29 21:18:20', 0, 0);
 INSERT INTO herizon.posts (id, user_id, title, content, post_type, view_count, like_count, share_count, collect_count, comment_count, image_urls, created_at, updated_at, status, deleted) VALUES (2, 1002, '鑱屽満濡堝鐨勬暟瀛楀寲杞瀷锛?5%鐨勬垜浠凡鍦ㄤ娇鐢ˋI宸ュ叿骞宠　宸ヤ綔涓庡搴?, '鏅鸿仈鎷涜仒鎶ュ憡鏄剧ず锛?5%鐨勮亴鍦哄濡堝凡寮€濮嬩娇鐢ㄦ暟瀛楀寲宸ュ叿锛屾瘮鍘诲勾鎻愬崌6.4%锛佷綔涓轰簩瀹濆+閮ㄩ棬涓荤锛屽垎浜垜鐨勬暟瀛楀寲骞宠　鏈細1.鐢ˋI鍔╂墜鍒跺畾姣忔棩璁″垝鍜屼紭鍏堢骇鎺掑簭 2.鍒╃敤鏅鸿兘瀹跺眳鍑忓皯瀹跺姟鏃堕棿 3.閫氳繃杩滅▼鍔炲叕宸ュ叿瀹炵幇鐏垫椿宸ヤ綔 4.AI鑲插効鍔╂墜甯姪鏁欒偛瑙勫垝銆?5.3%鑱屽満濡堝鍋氳繃鍏ㄨ亴濡堝锛?6.7%閲嶈繑鑱屽満锛屾垜浠瀛︿細鎷ユ姳鎶€鏈彉闈┿€傝浣忥細鎶€鑳借凯浠ｂ啋鏁堢巼璺冭縼鈫掕亴涓氶煣鎬э紒', 0, 2758, 357, 67, 1, 0, null, '2025-01-28 16:20:00', '2025-10-11 21:13:38', 0, 0);
 INSERT INTO herizon.posts (id, user_id, title, content, post_type, view_count, like_count, share_count, collect_count, comment_count, image_urls, created_at, updated_at, status, deleted) VALUES (3, 1003, '濂虫€ф嫨涓氭剰鎰挎瘮鐢锋€ф洿寮猴紒50.5%鐨勬垜浠効鎰忛噸鏂版嫨涓氳繘鍏ユ柊琛屼笟', '鏈€鏂版暟鎹渿鎾硷細50.5%濂虫€ф効鎰忛噸鏂版嫨涓氳繘鍏ユ柊琛屼笟锛屾槑鏄鹃珮浜庣敺鎬х殑43.9%锛?2.7%濂虫€у€惧悜閫氳繃鑰冭瘉鎻愬崌绔炰簤鍔涳紝鑰岀敺鎬у彧鏈?3.9%銆傛垜灏辨槸娲荤敓鐢熺殑渚嬪瓙锛?0宀佷粠浼犵粺琛屼笟杞叆AIGC棰嗗煙銆傚垎浜浆鍨嬪績寰楋細1.閫夋嫨鏈夊墠鏅殑缁嗗垎璧涢亾锛堝AI+鏁欒偛锛?.绯荤粺瀛︿範鑰岄潪纰庣墖鍖栵紙鎶ュ悕涓撲笟鍩硅鐝級3.鎵惧埌闈犺氨瀵煎笀鎴栫ぞ缇?4.淇濇寔瀛︿範鑺傚涓嶆€ヨ簛 5.鍑嗗鍏呰冻璧勯噾鏀拺銆傜幇鍦ㄨ柂璧勭炕鍊嶏紝濂虫€х殑瀛︿範閫傚簲鍔涚湡鐨勫緢寮猴紒', 0, 1878, 234, 41, 0, 0, null, '2025-01-27 14:45:00', '2025-09-29 21:18:20', 0, 0);
@@ -0,0 +1,17 @@
+create table report_aggregates
+(
+    target_type      varchar(20)                        not null comment '被举报对象类型: post=帖子, comment=评论',
+    target_id        bigint                             not null comment '被举报对象ID',
+    report_count     int      default 0                 not null comment '举报人数（同一用户重复举报只计一次）',
+    status           tinyint  default 0                 not null comment '处理状态: 0=待处理, 1=已自动隐藏待审核, 2=已驳回, 3=已确认违规',
+    last_reason      varchar(500)                       null comment '最近一次举报原因',
+    last_reported_at datetime default CURRENT_TIMESTAMP not null comment '最近一次举报时间',
+    hidden_at        datetime                           null comment '达到阈值被自动隐藏的时间',
+    resolved_by      bigint                             null comment '处理管理员ID',
+    resolved_at      datetime                           null comment '处理时间',
+    primary key (target_type, target_id)
+)
+    comment '举报汇总表：按被举报对象汇总举报人数，供自动隐藏与管理员审核队列使用';
+
+create index idx_queue
+    on report_aggregates (status, report_count, last_reported_at);
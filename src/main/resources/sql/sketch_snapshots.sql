@@ -0,0 +1,9 @@
+create table sketch_snapshots
+(
+    name       varchar(64)                        not null comment '快照名称，如hot_search'
+        primary key,
+    payload    longblob                           not null comment '序列化后的内存统计结构',
+    updated_at datetime default CURRENT_TIMESTAMP not null comment '最近一次快照时间'
+)
+    comment '内存统计快照表：热搜等内存概率统计结构的定期持久化';
+
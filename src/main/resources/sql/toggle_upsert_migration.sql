@@ -0,0 +1,25 @@
+-- 已有数据库升级：点赞/收藏/举报与关注改为单条 upsert 切换
+-- 新建库（user_actions.sql / user_follow.sql / herizon.sql）无需执行
+
+-- 旧唯一键包含 deleted，同一行为可能同时存在 deleted=0 与 deleted=1 两行；
+-- 保留有效的一行，删除已取消的一行后才能建立不含 deleted 的唯一键
+delete cancelled
+from user_actions cancelled
+         join user_actions active
+              on active.user_id = cancelled.user_id
+                  and active.target_id = cancelled.target_id
+                  and active.target_type = cancelled.target_type
+                  and active.action_type = cancelled.action_type
+                  and active.deleted = 0
+where cancelled.deleted = 1;
+
+-- 同一条语句中删除并重建唯一键，user_id 外键始终有可用的索引
+alter table user_actions
+    drop index uk_user_target_action,
+    add constraint uk_user_target_action
+        unique (user_id, target_id, target_type, action_type);
+
+-- 取消关注原先是物理删除，已有的关系都是关注中
+alter table user_follow
+    modify created_at datetime default CURRENT_TIMESTAMP not null comment '关注时间（取消后重新关注时刷新）',
+    add deleted tinyint default 0 not null comment '逻辑删除标记: 0=关注中, 1=已取消' after created_at;
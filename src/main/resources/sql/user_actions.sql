@@ -7,10 +7,10 @@ create table user_actions
     target_type varchar(20)                        not null comment '目标对象类型: post=帖子, comment=评论',
     action_type tinyint                            not null comment '行为类型: 0=点赞, 1=收藏, 2=分享, 3=举报',
     extra_data  json                               null comment '额外数据(JSON格式，如举报原因)',
-    created_at  datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    created_at  datetime default CURRENT_TIMESTAMP not null comment '创建时间（取消后重新生效时刷新，收藏列表按此排序）',
     deleted     tinyint  default 0                 not null comment '逻辑删除标记: 0=正常, 1=删除',
     constraint uk_user_target_action
-        unique (user_id, target_id, target_type, action_type, deleted),
+        unique (user_id, target_id, target_type, action_type),
     constraint user_actions_ibfk_1
         foreign key (user_id) references users (id)
             on delete cascade
@@ -29,6 +29,9 @@ create index idx_deleted
 create index idx_target
     on user_actions (target_id, target_type);
 
+create index idx_user_collect
+    on user_actions (user_id, action_type, target_type, deleted, created_at, target_id);
+
 create index idx_user_id
     on user_actions (user_id);
 
@@ -0,0 +1,7 @@
+-- 已有数据库升级：收藏列表按收藏时间分页所需的覆盖索引
+-- 新建库（user_actions.sql / herizon.sql）无需执行
+
+-- 收藏列表按 (user_id, action_type, target_type, deleted) 定位，按 created_at, target_id 游标翻页，
+-- 只读取索引即可得到一页收藏的目标ID与收藏时间；InnoDB 在线建索引，不阻塞点赞收藏写入
+create index idx_user_collect
+    on user_actions (user_id, action_type, target_type, deleted, created_at, target_id);
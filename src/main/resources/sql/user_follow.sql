@@ -4,7 +4,8 @@ create table user_follow
         primary key,
     follower_id bigint                             not null comment '关注人ID，引用users.id',
     followee_id bigint                             not null comment '被关注人ID，引用users.id',
-    created_at  datetime default CURRENT_TIMESTAMP not null comment '关注时间',
+    created_at  datetime default CURRENT_TIMESTAMP not null comment '关注时间（取消后重新关注时刷新）',
+    deleted     tinyint  default 0                 not null comment '逻辑删除标记: 0=关注中, 1=已取消',
     constraint uk_follower_followee
         unique (follower_id, followee_id),
     constraint fk_user_follow_followee
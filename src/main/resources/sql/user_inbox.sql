@@ -0,0 +1,19 @@
+create table user_inbox
+(
+    user_id    bigint   not null comment '收件人用户ID（关注者），引用users.id',
+    post_id    bigint   not null comment '帖子ID，关联posts表',
+    author_id  bigint   not null comment '帖子作者ID（被关注人）',
+    created_at datetime not null comment '帖子发布时间，用于时间线排序',
+    primary key (user_id, post_id),
+    constraint user_inbox_ibfk_1
+        foreign key (post_id) references posts (id)
+            on delete cascade
+)
+    comment '关注时间线收件箱：作者发帖后写入各关注者的收件箱';
+
+create index idx_user_time
+    on user_inbox (user_id asc, created_at desc, post_id desc);
+
+create index idx_user_author
+    on user_inbox (user_id, author_id);
+
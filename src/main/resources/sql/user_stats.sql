@@ -0,0 +1,15 @@
+create table user_stats
+(
+    user_id         bigint                             not null comment '用户ID，关联users表'
+        primary key,
+    post_count      int      default 0                 not null comment '公开帖子数（未删除且状态正常）',
+    following_count int      default 0                 not null comment '关注数',
+    follower_count  int      default 0                 not null comment '粉丝数',
+    like_count      bigint   default 0                 not null comment '帖子累计获赞数（未删除帖子）',
+    collect_count   bigint   default 0                 not null comment '帖子累计被收藏数（未删除帖子）',
+    updated_at      datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '最近一次变更时间',
+    constraint user_stats_ibfk_1
+        foreign key (user_id) references users (id)
+            on delete cascade
+)
+    comment '用户统计表：发帖、关注、粉丝、获赞、被收藏计数，随业务操作在同一事务中增减，定时分段重建';
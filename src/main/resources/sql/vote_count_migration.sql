@@ -0,0 +1,24 @@
+-- 为已有的 poll_options 与 posts 表增加得票数字段，并按 user_votes 回填
+-- 新建库（poll_options.sql / posts.sql / herizon.sql）无需执行；回填之后由 VoteCountService 的校准任务保持一致
+
+alter table poll_options
+    add vote_count int default 0 not null comment '得票数，投票时原子增减，定时按user_votes校准' after display_order;
+
+alter table posts
+    add vote_count int default 0 not null comment '投票帖总票数，投票时原子增减' after comment_count;
+
+update poll_options o
+    join (select option_id, count(*) as cnt
+          from user_votes
+          where deleted = 0
+          group by option_id) v on v.option_id = o.id
+set o.vote_count = v.cnt;
+
+update posts p
+    join (select post_id, count(*) as cnt
+          from user_votes
+          where deleted = 0
+          group by post_id) v on v.post_id = p.id
+set p.vote_count = v.cnt,
+    p.updated_at = p.updated_at
+where p.post_type = 1;
@@ -0,0 +1,206 @@
+package org.example.herizon.benchmark;
+
+import org.example.herizon.mapper.UserFollowMapper;
+import org.example.herizon.service.FollowGraphService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 关注判断基准测试：内存关注关系图 vs 原来的逐次 user_follow 查询
+ * <p>
+ * graph* 使用随机生成的关系图（10000个用户、每人关注200人），无需数据库；
+ * query* 通过 JDBC 执行原 FollowService 生成的同一条SQL，需要传入
+ * -Dbench.jdbc-url、-Dbench.jdbc-user、-Dbench.jdbc-password 指向有 user_follow 数据的库，
+ * 未配置时只运行 graph*。查询路径未计入连接池与 MyBatis 映射开销，结果是其耗时下限
+ * <p>
+ * 运行：mvn test-compile 后执行本类的 main 方法
+ *
+ * @author Kokoa
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FollowGraphBenchmark {
+
+    /**
+     * 一页关注/粉丝列表的候选用户数
+     */
+    private static final int PAGE_SIZE = 20;
+
+    @State(Scope.Benchmark)
+    public static class GraphState {
+
+        private static final int USERS = 10_000;
+
+        private static final int FOLLOWS_PER_USER = 200;
+
+        FollowGraphService followGraphService;
+
+        final long[][] followees = new long[USERS + 1][];
+
+        private final ThreadLocal<Long> loadingUser = new ThreadLocal<>();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int user = 1; user <= USERS; user++) {
+                Set<Long> ids = new HashSet<>();
+                while (ids.size() < FOLLOWS_PER_USER) {
+                    ids.add((long) random.nextInt(1, USERS + 1));
+                }
+                followees[user] = ids.stream().mapToLong(Long::longValue).toArray();
+            }
+
+            // 加载时按当前预热的用户返回其关注列表，只在预热阶段被调用
+            UserFollowMapper mapper = (UserFollowMapper) Proxy.newProxyInstance(
+                    UserFollowMapper.class.getClassLoader(), new Class<?>[]{UserFollowMapper.class},
+                    (proxy, method, args) -> {
+                        List<Object> ids = new ArrayList<>();
+                        for (long id : followees[loadingUser.get().intValue()]) {
+                            ids.add(id);
+                        }
+                        return ids;
+                    });
+            // 容量留足余量，测量期间全部用户常驻内存
+            followGraphService = new FollowGraphService((long) USERS * (FOLLOWS_PER_USER + 1) * 4, 60);
+            ReflectionTestUtils.setField(followGraphService, "userFollowMapper", mapper);
+            for (long user = 1; user <= USERS; user++) {
+                loadingUser.set(user);
+                followGraphService.isFollowing(user, 0L);
+            }
+            loadingUser.remove();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class QueryState {
+
+        Connection connection;
+
+        PreparedStatement exists;
+
+        PreparedStatement among;
+
+        final List<long[]> pairs = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            String url = System.getProperty("bench.jdbc-url");
+            if (url == null) {
+                throw new IllegalStateException("未配置 bench.jdbc-url，跳过查询路径");
+            }
+            connection = DriverManager.getConnection(url,
+                    System.getProperty("bench.jdbc-user"), System.getProperty("bench.jdbc-password"));
+            try (PreparedStatement sample = connection.prepareStatement(
+                    "SELECT follower_id, followee_id FROM user_follow WHERE deleted = 0 LIMIT 10000");
+                 ResultSet rs = sample.executeQuery()) {
+                while (rs.next()) {
+                    pairs.add(new long[]{rs.getLong(1), rs.getLong(2)});
+                }
+            }
+            if (pairs.isEmpty()) {
+                throw new IllegalStateException("user_follow 中没有可用于测试的关注关系");
+            }
+            exists = connection.prepareStatement(
+                    "SELECT 1 FROM user_follow WHERE follower_id = ? AND followee_id = ? AND deleted = 0 LIMIT 1");
+            among = connection.prepareStatement("SELECT followee_id FROM user_follow WHERE follower_id = ? "
+                    + "AND followee_id IN (" + "?,".repeat(PAGE_SIZE - 1) + "?) AND deleted = 0");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        final SplittableRandom random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public boolean graphIsFollowing(GraphState graph, Cursor cursor) {
+        long follower = cursor.random.nextInt(1, GraphState.USERS + 1);
+        return graph.followGraphService.isFollowing(follower, (long) cursor.random.nextInt(1, GraphState.USERS + 1));
+    }
+
+    @Benchmark
+    public Set<Long> graphFollowingAmongPage(GraphState graph, Cursor cursor) {
+        long follower = cursor.random.nextInt(1, GraphState.USERS + 1);
+        List<Long> candidates = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            candidates.add((long) cursor.random.nextInt(1, GraphState.USERS + 1));
+        }
+        return graph.followGraphService.followingAmong(follower, candidates);
+    }
+
+    @Benchmark
+    public boolean queryIsFollowing(QueryState query, Cursor cursor) throws SQLException {
+        long[] pair = query.pairs.get(cursor.random.nextInt(query.pairs.size()));
+        query.exists.setLong(1, pair[0]);
+        query.exists.setLong(2, pair[1]);
+        try (ResultSet rs = query.exists.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    @Benchmark
+    public Set<Long> queryFollowingAmongPage(QueryState query, Cursor cursor) throws SQLException {
+        query.among.setLong(1, query.pairs.get(cursor.random.nextInt(query.pairs.size()))[0]);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            query.among.setLong(i + 2, query.pairs.get(cursor.random.nextInt(query.pairs.size()))[1]);
+        }
+        Set<Long> result = new HashSet<>();
+        try (ResultSet rs = query.among.executeQuery()) {
+            while (rs.next()) {
+                result.add(rs.getLong(1));
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        if (System.getProperty("bench.jdbc-url") == null) {
+            options.include(FollowGraphBenchmark.class.getSimpleName() + ".graph");
+        } else {
+            options.include(FollowGraphBenchmark.class.getSimpleName())
+                    .jvmArgsAppend("-Dbench.jdbc-url=" + System.getProperty("bench.jdbc-url"),
+                            "-Dbench.jdbc-user=" + System.getProperty("bench.jdbc-user", ""),
+                            "-Dbench.jdbc-password=" + System.getProperty("bench.jdbc-password", ""));
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.herizon.service;
+
+import org.example.herizon.mapper.CommentMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActionCountServiceTests {
+
+    @Mock
+    private PostMapper postMapper;
+
+    @Mock
+    private CommentMapper commentMapper;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @InjectMocks
+    private ActionCountService actionCountService;
+
+    @Test
+    void directModeAppliesEachToggleImmediately() {
+        actionCountService.onToggle("post", 1L, 0, 1);
+        actionCountService.onToggle("post", 1L, 1, -1);
+        actionCountService.onToggle("comment", 5L, 0, 1);
+        actionCountService.onToggle("comment", 5L, 1, 1);
+        actionCountService.onToggle("user", 9L, 4, 1);
+
+        verify(postMapper).incrementActionCounts(1L, 1, 0);
+        verify(postMapper).incrementActionCounts(1L, 0, -1);
+        verify(commentMapper).incrementLikeCount(5L, 1);
+        verifyNoMoreInteractions(postMapper, commentMapper);
+    }
+
+    @Test
+    void writeBehindCoalescesBurstIntoOneUpdatePerTarget() throws InterruptedException {
+        ReflectionTestUtils.setField(actionCountService, "writeBehind", true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> actionCountService.onToggle("post", 1L, 0, 1));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        actionCountService.onToggle("post", 1L, 1, 1);
+        actionCountService.onToggle("post", 1L, 0, -1);
+        verifyNoInteractions(postMapper);
+
+        actionCountService.flush();
+        verify(postMapper).incrementActionCounts(1L, 999, 1);
+
+        actionCountService.flush();
+        verifyNoMoreInteractions(postMapper);
+    }
+
+    @Test
+    void failedFlushRetriesWithNewDeltas() {
+        ReflectionTestUtils.setField(actionCountService, "writeBehind", true);
+        when(commentMapper.incrementLikeCount(eq(5L), anyLong()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+
+        actionCountService.onToggle("comment", 5L, 0, 1);
+        actionCountService.flush();
+        actionCountService.onToggle("comment", 5L, 0, 1);
+        actionCountService.flush();
+
+        verify(commentMapper).incrementLikeCount(5L, 1);
+        verify(commentMapper).incrementLikeCount(5L, 2);
+    }
+
+    @Test
+    void batchTogglesIssueOneStatementPerTable() {
+        actionCountService.onToggles(List.of(
+                new ActionCountService.Toggle("post", 1L, 0, 1),
+                new ActionCountService.Toggle("post", 1L, 1, 1),
+                new ActionCountService.Toggle("post", 2L, 0, -1),
+                new ActionCountService.Toggle("post", 3L, 0, 1),
+                new ActionCountService.Toggle("post", 3L, 0, -1),
+                new ActionCountService.Toggle("comment", 5L, 0, 1),
+                new ActionCountService.Toggle("user", 9L, 4, 1)));
+
+        verify(postMapper).incrementActionCountsBatch(Map.of(1L, 1L, 2L, -1L), Map.of(1L, 1L, 2L, 0L));
+        verify(commentMapper).incrementLikeCounts(Map.of(5L, 1L));
+        verify(userStatsService).onPostCountersChanged(Map.of(1L, 1L, 2L, -1L), Map.of(1L, 1L, 2L, 0L));
+        verifyNoMoreInteractions(postMapper, commentMapper, userStatsService);
+    }
+
+    @Test
+    void reconcileWalksPostsAndCommentsInChunks() {
+        ReflectionTestUtils.setField(actionCountService, "chunkSize", 100);
+        when(postMapper.selectObjectByQuery(any())).thenReturn(250L);
+        when(commentMapper.selectObjectByQuery(any())).thenReturn(80L);
+        when(postMapper.reconcileActionCounts(anyLong(), anyLong())).thenReturn(1);
+        when(commentMapper.reconcileLikeCounts(anyLong(), anyLong())).thenReturn(2);
+
+        assertEquals(5, actionCountService.reconcile());
+
+        verify(postMapper).reconcileActionCounts(1, 100);
+        verify(postMapper).reconcileActionCounts(101, 200);
+        verify(postMapper).reconcileActionCounts(201, 250);
+        verify(commentMapper).reconcileLikeCounts(1, 80);
+    }
+}
@@ -0,0 +1,239 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.dto.BatchActionItem;
+import org.example.herizon.dto.BatchActionResultDTO;
+import org.example.herizon.entity.UserAction;
+import org.example.herizon.mapper.UserActionMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActionServiceTests {
+
+    @Mock
+    private UserActionMapper userActionMapper;
+
+    @Mock
+    private ActionCountService actionCountService;
+
+    @Mock
+    private InteractionStateService interactionStateService;
+
+    @Mock
+    private HotRankingService hotRankingService;
+
+    @Mock
+    private PaginationService paginationService;
+
+    @Mock
+    private FollowService followService;
+
+    @InjectMocks
+    private ActionService actionService;
+
+    @Test
+    void toggleReportsInsertedAndFlippedStates() {
+        when(userActionMapper.toggle(1L, 2L, "post", 0)).thenReturn(1, 2, 2);
+        when(userActionMapper.selectState(1L, 2L, "post", 0))
+                .thenReturn(state(2L, "post", 0, 1), state(2L, "post", 0, 0));
+
+        assertTrue(actionService.toggleLike(1L, 2L, "post"));
+        assertFalse(actionService.toggleLike(1L, 2L, "post"));
+        assertTrue(actionService.toggleLike(1L, 2L, "post"));
+
+        verify(actionCountService, times(2)).onToggle("post", 2L, 0, 1);
+        verify(actionCountService).onToggle("post", 2L, 0, -1);
+        verify(interactionStateService).onToggle(1L, "post", 2L, 0, false);
+    }
+
+    @Test
+    void unlikeSubtractsHotScoreAtOriginalLikeTime() {
+        LocalDateTime likedAt = LocalDateTime.of(2025, 10, 1, 12, 0);
+        UserAction cancelled = state(2L, "post", 0, 1);
+        cancelled.setCreatedAt(likedAt);
+        when(userActionMapper.toggle(1L, 2L, "post", 0)).thenReturn(1, 2);
+        when(userActionMapper.selectState(1L, 2L, "post", 0)).thenReturn(cancelled);
+
+        actionService.toggleLike(1L, 2L, "post");
+        actionService.toggleLike(1L, 2L, "post");
+
+        verify(hotRankingService).onInteraction(2L, HotRankingService.WEIGHT_LIKE, true, null);
+        verify(hotRankingService).onInteraction(2L, HotRankingService.WEIGHT_LIKE, false, likedAt);
+    }
+
+    @Test
+    void concurrentDoubleTapsOnOnePairStayConsistent() throws InterruptedException {
+        UpsertRow row = new UpsertRow();
+        when(userActionMapper.toggle(1L, 2L, "post", 0)).thenAnswer(invocation -> row.toggle());
+        when(userActionMapper.selectState(1L, 2L, "post", 0)).thenAnswer(invocation -> state(2L, "post", 0, row.deleted));
+        AtomicInteger netDelta = new AtomicInteger();
+        doAnswer(invocation -> netDelta.addAndGet(invocation.getArgument(3)))
+                .when(actionCountService).onToggle(eq("post"), eq(2L), eq(0), anyInt());
+
+        int threads = 16;
+        int tapsPerThread = 201;
+        List<Boolean> results = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < tapsPerThread; i++) {
+                    try {
+                        results.add(actionService.toggleLike(1L, 2L, "post"));
+                    } finally {
+                        row.commit();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        int total = threads * tapsPerThread;
+        boolean finalActive = row.deleted == 0;
+        assertEquals(total, results.size());
+        assertEquals(total % 2 == 1, finalActive);
+        assertEquals(finalActive ? 1 : 0, netDelta.get());
+        assertEquals(finalActive ? 1 : 0,
+                results.stream().filter(Boolean::booleanValue).count() - results.stream().filter(r -> !r).count());
+        // 按加锁顺序观察到的状态严格交替：新增、取消、新增……
+        for (int i = 0; i < row.history.size(); i++) {
+            assertEquals(i % 2 == 0, row.history.get(i));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchCoalescesTapsIntoOneUpsertAndOneReadBack() {
+        ReflectionTestUtils.setField(actionService, "batchMaxSize", 100);
+        when(userActionMapper.selectStates(eq(1L), anyCollection())).thenReturn(List.of(
+                state(20L, "post", 0, 0), state(10L, "post", 1, 0), state(5L, "comment", 0, 1)));
+        Map<Long, Boolean> follows = new LinkedHashMap<>();
+        follows.put(9L, true);
+        when(followService.toggleFollows(eq(1L), anyMap())).thenReturn(follows);
+
+        List<BatchActionResultDTO> results = actionService.batch(1L, List.of(
+                item("like", 20L, null), item("LIKE", 20L, "post"), item("like", 20L, " Post "),
+                item("collect", 10L, null), item("collect", 10L, null),
+                item("like", 5L, "comment"),
+                item("follow", 9L, null)));
+
+        assertEquals(List.of("like:20:true", "collect:10:true", "like:5:false", "follow:9:true"),
+                results.stream().map(r -> r.getAction() + ":" + r.getTargetId() + ":" + r.getActive()).toList());
+
+        ArgumentCaptor<List<UserAction>> toggled = ArgumentCaptor.forClass(List.class);
+        verify(userActionMapper).toggleBatch(eq(1L), toggled.capture());
+        assertEquals(List.of(5L, 20L), toggled.getValue().stream().map(UserAction::getTargetId).toList());
+        verify(userActionMapper, times(1)).selectStates(eq(1L), anyCollection());
+        verify(userActionMapper, never()).toggle(anyLong(), anyLong(), anyString(), anyInt());
+
+        ArgumentCaptor<List<ActionCountService.Toggle>> counts = ArgumentCaptor.forClass(List.class);
+        verify(actionCountService).onToggles(counts.capture());
+        assertEquals(List.of(new ActionCountService.Toggle("comment", 5L, 0, -1),
+                new ActionCountService.Toggle("post", 20L, 0, 1)), counts.getValue());
+        verify(interactionStateService).onToggle(1L, "post", 20L, 0, true);
+        verify(paginationService, never()).evict(anyString());
+        verify(followService).toggleFollows(1L, Map.of(9L, 1));
+    }
+
+    @Test
+    void batchRejectsUnknownActionBeforeWriting() {
+        ReflectionTestUtils.setField(actionService, "batchMaxSize", 100);
+
+        assertThrows(RuntimeException.class, () -> actionService.batch(1L, List.of(
+                item("like", 1L, null), item("share", 2L, null))));
+        assertThrows(RuntimeException.class, () -> actionService.batch(1L, List.of(item("like", null, null))));
+
+        verifyNoInteractions(userActionMapper, followService, actionCountService);
+    }
+
+    @Test
+    void collectionEntriesSeekByCollectTimeOnUserActions() {
+        LocalDateTime collectedAt = LocalDateTime.of(2025, 10, 1, 12, 0);
+        when(userActionMapper.selectListByQuery(any(QueryWrapper.class))).thenReturn(List.of());
+
+        actionService.getCollectionEntries(1L, collectedAt, 30L, 21);
+
+        ArgumentCaptor<QueryWrapper> query = ArgumentCaptor.forClass(QueryWrapper.class);
+        verify(userActionMapper).selectListByQuery(query.capture());
+        String sql = query.getValue().toSQL();
+        assertTrue(sql.contains("FROM `user_actions`"), sql);
+        assertTrue(sql.contains("action_type = 1"), sql);
+        assertTrue(sql.contains("(created_at < '2025-10-01 12:00:00' OR (created_at = '2025-10-01 12:00:00' AND target_id < 30))"), sql);
+        assertTrue(sql.contains("ORDER BY created_at DESC, target_id DESC LIMIT 21"), sql);
+        assertFalse(sql.contains("posts"), sql);
+    }
+
+    private static BatchActionItem item(String action, Long targetId, String targetType) {
+        BatchActionItem item = new BatchActionItem();
+        item.setAction(action);
+        item.setTargetId(targetId);
+        item.setTargetType(targetType);
+        return item;
+    }
+
+    private static UserAction state(Long targetId, String targetType, int actionType, int deleted) {
+        UserAction action = new UserAction();
+        action.setTargetId(targetId);
+        action.setTargetType(targetType);
+        action.setActionType(actionType);
+        action.setDeleted(deleted);
+        return action;
+    }
+
+    /**
+     * 模拟带唯一键的单行upsert：语句持有行锁直到事务提交
+     */
+    private static class UpsertRow {
+
+        private final ReentrantLock rowLock = new ReentrantLock();
+
+        private final List<Boolean> history = new ArrayList<>();
+
+        private volatile Integer deleted;
+
+        int toggle() {
+            rowLock.lock();
+            if (deleted == null) {
+                deleted = 0;
+                history.add(true);
+                return 1;
+            }
+            deleted = 1 - deleted;
+            history.add(deleted == 0);
+            return 2;
+        }
+
+        void commit() {
+            if (rowLock.isHeldByCurrentThread()) {
+                rowLock.unlock();
+            }
+        }
+    }
+}
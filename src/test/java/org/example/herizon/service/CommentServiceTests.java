@@ -0,0 +1,290 @@
+package org.example.herizon.service;
+
+import org.example.herizon.common.PageResult;
+import org.example.herizon.dto.CommentDTO;
+import org.example.herizon.dto.CreateCommentRequest;
+import org.example.herizon.dto.UserSummary;
+import org.example.herizon.entity.Comment;
+import org.example.herizon.entity.Post;
+import org.example.herizon.mapper.CommentMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.apache.ibatis.annotations.Select;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommentServiceTests {
+
+    @Mock
+    private CommentMapper commentMapper;
+
+    @Mock
+    private PostMapper postMapper;
+
+    @Mock
+    private PaginationService paginationService;
+
+    @Mock
+    private UserSummaryService userSummaryService;
+
+    @InjectMocks
+    private CommentService commentService;
+
+    @BeforeEach
+    void setUp() {
+        DataLoaderService dataLoaderService = new DataLoaderService();
+        ReflectionTestUtils.setField(dataLoaderService, "userSummaryService", userSummaryService);
+        ReflectionTestUtils.setField(dataLoaderService, "postMapper", postMapper);
+        ReflectionTestUtils.setField(dataLoaderService, "commentMapper", commentMapper);
+        ReflectionTestUtils.setField(commentService, "dataLoaderService", dataLoaderService);
+
+        lenient().when(userSummaryService.getAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().collect(Collectors.toMap(Function.identity(), CommentServiceTests::user));
+        });
+        lenient().when(postMapper.selectListByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(CommentServiceTests::post).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void postCommentPageIsAssembledInConstantQueries() {
+        Comment first = comment(1L, 101L, null);
+        Comment second = comment(2L, 102L, null);
+        Comment firstReply = comment(11L, 103L, 1L);
+        Comment secondReply = comment(12L, 104L, 2L);
+        Comment withoutReplies = comment(3L, 101L, null);
+        first.setReplyCount(1);
+        second.setReplyCount(3);
+        when(paginationService.<Comment>paginate(any(), any(), eq(1), eq(10), eq("comments:post:10")))
+                .thenReturn(PageResult.of(List.of(first, second, withoutReplies), 3L, 1L, 10L));
+        when(commentMapper.selectFirstReplies(List.of(1L, 2L), 2)).thenReturn(List.of(firstReply, secondReply));
+
+        List<CommentDTO> result = commentService.getPostComments(10L, 1, 10).getRecords();
+
+        assertEquals(List.of(1L, 2L, 3L), result.stream().map(CommentDTO::getId).toList());
+        CommentDTO reply = result.get(1).getReplies().get(0);
+        assertEquals("user104", reply.getUsername());
+        assertEquals("user102", reply.getParentUsername());
+        assertEquals("post10", reply.getPostTitle());
+        assertEquals(1, reply.getLevel());
+        assertEquals(0, result.get(0).getLevel());
+        assertEquals(1, result.get(0).getReplyCount());
+        assertEquals(3, result.get(1).getReplyCount());
+        assertEquals(0, reply.getReplyCount());
+        assertTrue(reply.getReplies().isEmpty());
+
+        verify(userSummaryService).getAll(Set.of(101L, 102L, 103L, 104L));
+        verify(postMapper).selectListByIds(anyCollection());
+        // 子评论的父评论就是本页评论，不再回查
+        verify(commentMapper, never()).selectListByIds(anyCollection());
+        verify(commentMapper, never()).selectOneById(any());
+        verify(commentMapper, never()).selectCountByQuery(any());
+        verify(commentMapper, never()).selectListByQuery(any());
+        verify(postMapper, never()).selectOneById(any());
+    }
+
+    @Test
+    void inlineRepliesKeepFieldsReadFromWindowedQuery() throws NoSuchMethodException {
+        Comment parent = comment(1L, 101L, null);
+        parent.setReplyCount(1);
+        when(paginationService.<Comment>paginate(any(), any(), eq(1), eq(10), eq("comments:post:10")))
+                .thenReturn(PageResult.of(List.of(parent), 1L, 1L, 10L));
+        // 模拟的回复只带有 selectFirstReplies 实际查询的列
+        when(commentMapper.selectFirstReplies(List.of(1L), 2))
+                .thenReturn(List.of(selectedColumnsOnly(comment(11L, 103L, 1L))));
+
+        CommentDTO reply = commentService.getPostComments(10L, 1, 10).getRecords().get(0).getReplies().get(0);
+
+        assertEquals(1, reply.getLevel());
+        assertEquals(0, reply.getReplyCount());
+    }
+
+    @Test
+    void levelComesFromDepthAndParentsLoadInOneBatch() {
+        Comment middle = comment(3L, 103L, 1L);
+        Comment otherMiddle = comment(4L, 104L, 2L);
+        when(commentMapper.selectListByIds(anyCollection())).thenReturn(List.of(middle, otherMiddle));
+        Comment deep = comment(5L, 105L, 3L);
+        deep.setDepth(2);
+        Comment otherDeep = comment(6L, 105L, 4L);
+        otherDeep.setDepth(2);
+        when(paginationService.<Comment>paginate(any(), any(), eq(1), eq(10), eq("comments:user:105")))
+                .thenReturn(PageResult.of(List.of(deep, otherDeep), 2L, 1L, 10L));
+
+        List<CommentDTO> result = commentService.getUserComments(105L, 1, 10).getRecords();
+
+        assertEquals(List.of(2, 2), result.stream().map(CommentDTO::getLevel).toList());
+        assertEquals(List.of("user103", "user104"), result.stream().map(CommentDTO::getParentUsername).toList());
+        verify(commentMapper).selectListByIds(Set.of(3L, 4L));
+        verify(userSummaryService).getAll(anyCollection());
+    }
+
+    @Test
+    void replyExtendsParentPathAndRoot() {
+        Post post = post(10L);
+        post.setStatus(0);
+        post.setDeleted(0);
+        when(postMapper.selectOneById(10L)).thenReturn(post);
+        Comment parent = comment(11L, 101L, 1L);
+        parent.setRootId(1L);
+        parent.setPath("000000000001/000000000011/");
+        when(commentMapper.selectOneById(11L)).thenReturn(parent);
+        when(commentMapper.insert(any(Comment.class))).thenAnswer(invocation -> {
+            Comment inserted = invocation.getArgument(0, Comment.class);
+            // insert 会写入null字段，非空列在插入前必须有值
+            assertEquals("", inserted.getPath());
+            assertEquals(1L, inserted.getRootId());
+            inserted.setId(25L);
+            return 1;
+        });
+        CreateCommentRequest request = new CreateCommentRequest();
+        request.setPostId(10L);
+        request.setParentId(11L);
+        request.setContent("reply");
+
+        Comment reply = commentService.createComment(request, 102L);
+
+        assertEquals(1L, reply.getRootId());
+        assertEquals(2, reply.getDepth());
+        assertEquals("000000000001/000000000011/000000000025/", reply.getPath());
+        verify(commentMapper).update(reply);
+        verify(commentMapper).incrementReplyCount(11L, 1);
+        verify(postMapper).incrementCommentCount(10L, 1);
+    }
+
+    @Test
+    void deletingCommentWithRepliesLeavesPlaceholderAndDecrementsCounts() {
+        Comment target = comment(11L, 101L, 1L);
+        target.setReplyCount(2);
+        target.setLikeCount(7);
+        when(commentMapper.selectOneById(11L)).thenReturn(target);
+        when(userSummaryService.get(101L)).thenReturn(user(101L));
+
+        commentService.deleteComment(11L, 101L);
+
+        verify(commentMapper).update(argThat((Comment update) -> update.getId() == 11L
+                && update.getStatus() == 1
+                && "[该评论已被删除]".equals(update.getContent())
+                && update.getDeleted() == null
+                && update.getReplyCount() == null
+                && update.getLikeCount() == null));
+        verify(commentMapper).incrementReplyCount(1L, -1);
+        verify(postMapper).incrementCommentCount(10L, -1);
+        verify(commentMapper, never()).selectCountByQuery(any());
+    }
+
+    @Test
+    void deletingHiddenCommentLeavesCountsAlone() {
+        Comment target = comment(12L, 101L, null);
+        target.setStatus(2);
+        when(commentMapper.selectOneById(12L)).thenReturn(target);
+        when(userSummaryService.get(101L)).thenReturn(user(101L));
+
+        commentService.deleteComment(12L, 101L);
+
+        verify(commentMapper).update(argThat((Comment update) -> update.getDeleted() == 1));
+        verify(commentMapper, never()).incrementReplyCount(anyLong(), anyInt());
+        verify(postMapper, never()).incrementCommentCount(anyLong(), anyInt());
+    }
+
+    @Test
+    void loadedEntitiesAreReusedWithinOneRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(commentMapper.selectListByQuery(any())).thenReturn(List.of(comment(1L, 101L, null), comment(2L, 101L, null)));
+
+        commentService.getLatestComments(2);
+        List<CommentDTO> again = commentService.getLatestComments(2);
+
+        assertEquals("user101", again.get(1).getUsername());
+        verify(userSummaryService).getAll(anyCollection());
+        verify(postMapper).selectListByIds(anyCollection());
+    }
+
+    @Test
+    void levelIsCappedForDeepReplies() {
+        Comment parent = comment(3L, 103L, 1L);
+        when(commentMapper.selectListByIds(anyCollection())).thenReturn(List.of(parent));
+        Comment shallow = comment(5L, 105L, 3L);
+        shallow.setDepth(10);
+        Comment deep = comment(6L, 105L, 3L);
+        deep.setDepth(42);
+        when(paginationService.<Comment>paginate(any(), any(), eq(1), eq(10), eq("comments:user:105")))
+                .thenReturn(PageResult.of(List.of(shallow, deep), 2L, 1L, 10L));
+
+        List<CommentDTO> result = commentService.getUserComments(105L, 1, 10).getRecords();
+
+        // depth可达75层，显示层级仍与原先一样最多为10
+        assertEquals(List.of(10, 10), result.stream().map(CommentDTO::getLevel).toList());
+    }
+
+    private static Comment comment(Long id, Long userId, Long parentId) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setPostId(10L);
+        comment.setUserId(userId);
+        comment.setParentId(parentId);
+        comment.setDepth(parentId == null ? 0 : 1);
+        comment.setReplyCount(0);
+        comment.setContent("comment" + id);
+        comment.setStatus(0);
+        comment.setDeleted(0);
+        return comment;
+    }
+
+    /**
+     * 按 selectFirstReplies 外层 SELECT 的列复制实体，未查询的列保持为null
+     */
+    private static Comment selectedColumnsOnly(Comment source) throws NoSuchMethodException {
+        String sql = String.join("", CommentMapper.class
+                .getMethod("selectFirstReplies", Collection.class, int.class)
+                .getAnnotation(Select.class).value());
+        String columns = sql.substring(sql.indexOf("SELECT ") + "SELECT ".length(), sql.indexOf(" FROM ("));
+        BeanWrapper from = new BeanWrapperImpl(source);
+        BeanWrapper to = new BeanWrapperImpl(new Comment());
+        for (String column : columns.split(",")) {
+            String property = JdbcUtils.convertUnderscoreNameToPropertyName(column.trim());
+            to.setPropertyValue(property, from.getPropertyValue(property));
+        }
+        return (Comment) to.getWrappedInstance();
+    }
+
+    private static Post post(Long id) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle("post" + id);
+        return post;
+    }
+
+    private static UserSummary user(Long id) {
+        return new UserSummary(id, "user" + id, null, null, 0);
+    }
+}
@@ -1,6 +1,9 @@
 package org.example.herizon.service;
 
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.dto.FeedbackAdminViewDTO;
 import org.example.herizon.dto.FeedbackRequest;
+import org.example.herizon.dto.UserSummary;
 import org.example.herizon.entity.Feedback;
 import org.example.herizon.entity.User;
 import org.example.herizon.mapper.FeedbackMapper;
@@ -11,8 +14,16 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +35,9 @@ class FeedbackServiceTests {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private UserSummaryService userSummaryService;
+
     @InjectMocks
     private FeedbackService feedbackService;
 
@@ -77,7 +91,7 @@ class FeedbackServiceTests {
         admin.setId(8L);
         admin.setRole(2);
 
-        when(userMapper.selectOneById(8L)).thenReturn(admin);
+        when(userSummaryService.get(8L)).thenReturn(UserSummary.of(admin));
 
         Feedback feedback = new Feedback();
         feedback.setId(99L);
@@ -94,4 +108,43 @@ class FeedbackServiceTests {
         assertEquals(admin.getId(), feedback.getAdminId());
         verify(feedbackMapper).update(feedback);
     }
+
+    @Test
+    void listFeedbackForAdmin_loadsAllSubmittersWithOneBatch() {
+        DataLoaderService dataLoaderService = new DataLoaderService();
+        ReflectionTestUtils.setField(dataLoaderService, "userSummaryService", userSummaryService);
+        FeedbackService service = new FeedbackService(feedbackMapper, userMapper, userSummaryService, dataLoaderService);
+
+        User admin = new User();
+        admin.setId(8L);
+        admin.setRole(2);
+        when(userSummaryService.get(8L)).thenReturn(UserSummary.of(admin));
+        when(feedbackMapper.selectListByQuery(any(QueryWrapper.class))).thenReturn(List.of(
+                feedback(1L, 101L), feedback(2L, 102L), feedback(3L, 101L), feedback(4L, 103L), feedback(5L, 102L)));
+        when(userSummaryService.getAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().collect(Collectors.toMap(Function.identity(),
+                    id -> new UserSummary(id, "user" + id, null, null, 1)));
+        });
+
+        List<FeedbackAdminViewDTO> views = service.listFeedbackForAdmin(8L, null);
+
+        // 五条反馈来自三个用户，只有一次批量加载（一条 IN 查询），不逐条查询
+        verify(userSummaryService, times(1)).getAll(anyCollection());
+        verify(userSummaryService).getAll(Set.of(101L, 102L, 103L));
+        verify(userSummaryService, times(1)).get(anyLong());
+        verify(userMapper, never()).selectOneById(any());
+        assertEquals(List.of("user101", "user102", "user101", "user103", "user102"),
+                views.stream().map(FeedbackAdminViewDTO::getUsername).toList());
+    }
+
+    private static Feedback feedback(Long id, Long userId) {
+        Feedback feedback = new Feedback();
+        feedback.setId(id);
+        feedback.setUserId(userId);
+        feedback.setType("bug");
+        feedback.setStatus("pending");
+        feedback.setDeleted(0);
+        return feedback;
+    }
 }
@@ -0,0 +1,67 @@
+package org.example.herizon.service;
+
+import org.example.herizon.mapper.UserFollowMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FollowGraphServiceTests {
+
+    @Mock
+    private UserFollowMapper userFollowMapper;
+
+    private FollowGraphService followGraphService;
+
+    @BeforeEach
+    void setUp() {
+        followGraphService = new FollowGraphService(1000, 30);
+        ReflectionTestUtils.setField(followGraphService, "userFollowMapper", userFollowMapper);
+    }
+
+    @Test
+    void answersChecksAndBatchLookupsFromOneLoad() {
+        when(userFollowMapper.selectObjectListByQuery(any())).thenReturn(List.of(2L, 3L, 5_000_000_000L));
+
+        assertTrue(followGraphService.isFollowing(1L, 2L));
+        assertFalse(followGraphService.isFollowing(1L, 4L));
+        assertFalse(followGraphService.isFollowing(1L, 1L));
+        assertEquals(Set.of(3L, 5_000_000_000L),
+                followGraphService.followingAmong(1L, List.of(3L, 4L, 5_000_000_000L)));
+
+        verify(userFollowMapper, times(1)).selectObjectListByQuery(any());
+    }
+
+    @Test
+    void togglesUpdateBothCachedSidesWithoutReloading() {
+        when(userFollowMapper.selectObjectListByQuery(any())).thenReturn(List.of(2L), List.of());
+        assertTrue(followGraphService.isFollowing(1L, 2L));
+        assertFalse(followGraphService.isFollowedBy(3L, 1L));
+
+        followGraphService.onToggle(1L, 2L, false);
+        followGraphService.onToggle(1L, 3L, true);
+
+        assertFalse(followGraphService.isFollowing(1L, 2L));
+        assertTrue(followGraphService.isFollowing(1L, 3L));
+        assertTrue(followGraphService.isFollowedBy(3L, 1L));
+        verify(userFollowMapper, times(2)).selectObjectListByQuery(any());
+    }
+
+    @Test
+    void toggleForUncachedUsersDoesNotQuery() {
+        followGraphService.onToggle(1L, 2L, true);
+
+        assertEquals(Set.of(), followGraphService.followersAmong(null, List.of(1L)));
+        verifyNoInteractions(userFollowMapper);
+    }
+}
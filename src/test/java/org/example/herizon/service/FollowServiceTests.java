@@ -0,0 +1,169 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.common.PageResult;
+import org.example.herizon.dto.FollowUserDTO;
+import org.example.herizon.dto.UserSummary;
+import org.example.herizon.entity.UserFollow;
+import org.example.herizon.entity.UserStats;
+import org.example.herizon.mapper.UserFollowMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FollowServiceTests {
+
+    @Mock
+    private UserFollowMapper userFollowMapper;
+
+    @Mock
+    private PaginationService paginationService;
+
+    @Mock
+    private TimelineService timelineService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private FollowGraphService followGraphService;
+
+    @Mock
+    private UserSummaryService userSummaryService;
+
+    @InjectMocks
+    private FollowService followService;
+
+    @Test
+    void rejectsSelfFollow() {
+        assertThrows(RuntimeException.class, () -> followService.toggleFollow(1L, 1L));
+        verifyNoInteractions(userFollowMapper);
+    }
+
+    @Test
+    void concurrentTogglesOnOnePairKeepTimelineBalanced() throws InterruptedException {
+        ReentrantLock rowLock = new ReentrantLock();
+        Integer[] deleted = {null};
+        when(userFollowMapper.toggle(1L, 2L)).thenAnswer(invocation -> {
+            rowLock.lock();
+            if (deleted[0] == null) {
+                deleted[0] = 0;
+                return 1;
+            }
+            deleted[0] = 1 - deleted[0];
+            return 2;
+        });
+        when(userFollowMapper.selectDeleted(1L, 2L)).thenAnswer(invocation -> deleted[0]);
+        AtomicInteger follows = new AtomicInteger();
+        AtomicInteger unfollows = new AtomicInteger();
+        doAnswer(invocation -> follows.incrementAndGet()).when(timelineService).onFollow(1L, 2L);
+        doAnswer(invocation -> unfollows.incrementAndGet()).when(timelineService).onUnfollow(1L, 2L);
+
+        int threads = 12;
+        int tapsPerThread = 100;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < tapsPerThread; i++) {
+                    try {
+                        followService.toggleFollow(1L, 2L);
+                    } finally {
+                        if (rowLock.isHeldByCurrentThread()) {
+                            rowLock.unlock();
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(threads * tapsPerThread, follows.get() + unfollows.get());
+        assertEquals(follows.get(), unfollows.get());
+        assertEquals(1, deleted[0]);
+        verify(followGraphService, times(follows.get())).onToggle(1L, 2L, true);
+        verify(followGraphService, times(unfollows.get())).onToggle(1L, 2L, false);
+    }
+
+    @Test
+    void getFollowing_loadsUsersStatsAndRelationsWithOneBatchEach() {
+        DataLoaderService dataLoaderService = new DataLoaderService();
+        ReflectionTestUtils.setField(dataLoaderService, "userSummaryService", userSummaryService);
+        ReflectionTestUtils.setField(dataLoaderService, "userStatsService", userStatsService);
+        ReflectionTestUtils.setField(followService, "dataLoaderService", dataLoaderService);
+
+        List<UserFollow> relations = List.of(relation(1L, 11L), relation(1L, 12L), relation(1L, 13L));
+        when(paginationService.paginate(eq(userFollowMapper), any(QueryWrapper.class), eq(1), eq(20),
+                eq("follow:following:1"))).thenReturn(PageResult.of(relations, 3L, 1L, 20L));
+        when(userSummaryService.getAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().collect(Collectors.toMap(Function.identity(),
+                    id -> new UserSummary(id, "user" + id, null, null, 1)));
+        });
+        when(userStatsService.getAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().collect(Collectors.toMap(Function.identity(), FollowServiceTests::stats));
+        });
+        when(followGraphService.followersAmong(eq(1L), anyCollection())).thenReturn(Set.of(12L));
+        when(followGraphService.followingAmong(eq(5L), anyCollection())).thenReturn(Set.of(13L));
+
+        List<FollowUserDTO> dtos = followService.getFollowing(1L, 5L, 1, 20).getRecords();
+
+        // 三个关注对象：用户、统计、关系各只加载一次，不逐个查询
+        Set<Long> targets = Set.of(11L, 12L, 13L);
+        verify(userSummaryService, times(1)).getAll(anyCollection());
+        verify(userSummaryService).getAll(targets);
+        verify(userStatsService, times(1)).getAll(anyCollection());
+        verify(userStatsService).getAll(targets);
+        verify(userStatsService, never()).get(anyLong());
+        verify(followGraphService, times(1)).followersAmong(anyLong(), anyCollection());
+        verify(followGraphService, times(1)).followingAmong(anyLong(), anyCollection());
+        verify(followGraphService, never()).isFollowedBy(anyLong(), anyLong());
+
+        assertEquals(List.of(11L, 12L, 13L), dtos.stream().map(FollowUserDTO::getId).toList());
+        assertEquals(List.of(false, true, false), dtos.stream().map(FollowUserDTO::getIsMutualFollow).toList());
+        assertEquals(List.of(false, false, true), dtos.stream().map(FollowUserDTO::getIsFollowing).toList());
+        assertEquals(110L, dtos.get(0).getFollowersCount());
+    }
+
+    private static UserFollow relation(Long followerId, Long followeeId) {
+        UserFollow relation = new UserFollow();
+        relation.setFollowerId(followerId);
+        relation.setFolloweeId(followeeId);
+        relation.setDeleted(0);
+        return relation;
+    }
+
+    private static UserStats stats(Long userId) {
+        UserStats stats = new UserStats();
+        stats.setUserId(userId);
+        stats.setFollowerCount((int) (userId * 10));
+        stats.setFollowingCount(1);
+        stats.setPostCount(2);
+        return stats;
+    }
+}
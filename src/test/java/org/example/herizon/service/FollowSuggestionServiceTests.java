@@ -0,0 +1,141 @@
+package org.example.herizon.service;
+
+import org.example.herizon.common.LongIntCounter;
+import org.example.herizon.dto.FollowSuggestionDTO;
+import org.example.herizon.dto.UserSummary;
+import org.example.herizon.entity.FollowSuggestion;
+import org.example.herizon.entity.UserFollow;
+import org.example.herizon.mapper.FollowSuggestionMapper;
+import org.example.herizon.mapper.PostTagMapper;
+import org.example.herizon.mapper.UserFollowMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FollowSuggestionServiceTests {
+
+    @Mock
+    private FollowSuggestionMapper followSuggestionMapper;
+
+    @Mock
+    private UserFollowMapper userFollowMapper;
+
+    @Mock
+    private PostTagMapper postTagMapper;
+
+    @Mock
+    private FollowGraphService followGraphService;
+
+    @Mock
+    private UserSummaryService userSummaryService;
+
+    @InjectMocks
+    private FollowSuggestionService followSuggestionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(followSuggestionService, "suggestionSize", 50);
+        ReflectionTestUtils.setField(followSuggestionService, "maxFanout", 2000);
+        ReflectionTestUtils.setField(followSuggestionService, "parallelism", 2);
+        ReflectionTestUtils.setField(followSuggestionService, "chunkSize", 2);
+    }
+
+    @Test
+    void ranksByMutualFollowsThenSharedTags() {
+        // 1 关注 2、3、4；2、3 都关注 5，2 关注 6，4 关注 7；6、7 各被一人带出，7 与 1 有相同标签
+        Map<Long, long[]> following = Map.of(
+                1L, new long[]{2, 3, 4},
+                2L, new long[]{1, 3, 5, 6},
+                3L, new long[]{5},
+                4L, new long[]{7},
+                9L, new long[]{1});
+        Map<Long, long[]> tags = Map.of(1L, new long[]{10, 11}, 7L, new long[]{11, 12});
+
+        List<FollowSuggestionService.Candidate> ranked =
+                FollowSuggestionService.rank(1L, following, tags, new LongIntCounter(4), 50, 2000);
+
+        assertEquals(List.of(new FollowSuggestionService.Candidate(5L, 2, 0),
+                new FollowSuggestionService.Candidate(7L, 1, 1),
+                new FollowSuggestionService.Candidate(6L, 1, 0)), ranked);
+        assertEquals(ranked, FollowSuggestionService.unpack(FollowSuggestionService.pack(ranked)));
+
+        assertEquals(List.of(new FollowSuggestionService.Candidate(5L, 2, 0)),
+                FollowSuggestionService.rank(1L, following, tags, new LongIntCounter(4), 1, 2000));
+        // 2 关注了4人，超过扇出上限后不再经由 2 扩展
+        assertEquals(List.of(new FollowSuggestionService.Candidate(7L, 1, 1),
+                        new FollowSuggestionService.Candidate(5L, 1, 0)),
+                FollowSuggestionService.rank(1L, following, tags, new LongIntCounter(4), 50, 3));
+        assertTrue(FollowSuggestionService.rank(5L, following, tags, new LongIntCounter(4), 50, 2000).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildScoresPartitionsInParallelAndDropsStaleRows() {
+        when(userFollowMapper.selectObjectByQuery(any())).thenReturn(4L);
+        when(userFollowMapper.selectEdges(1, 2)).thenReturn(List.of(edge(1L, 2L), edge(2L, 3L)));
+        when(userFollowMapper.selectEdges(3, 4)).thenReturn(List.of(edge(3L, 4L), edge(4L, 1L)));
+        when(postTagMapper.selectUserTags(anyLong(), anyLong())).thenReturn(List.of());
+        List<FollowSuggestion> written = new ArrayList<>();
+        when(followSuggestionMapper.upsertBatch(anyCollection())).thenAnswer(invocation -> {
+            synchronized (written) {
+                written.addAll(invocation.getArgument(0, Collection.class));
+            }
+            return 1;
+        });
+
+        assertEquals(4, followSuggestionService.rebuild());
+
+        Map<Long, Long> topCandidate = new HashMap<>();
+        for (FollowSuggestion row : written) {
+            topCandidate.put(row.getUserId(), FollowSuggestionService.unpack(row.getCandidates()).get(0).userId());
+        }
+        assertEquals(Map.of(1L, 3L, 2L, 4L, 3L, 1L, 4L, 2L), topCandidate);
+        verify(followSuggestionMapper).deleteGeneratedBefore(written.get(0).getGeneratedAt());
+    }
+
+    @Test
+    void servingIsOneLookupAndSkipsUsersFollowedSinceLastRun() {
+        FollowSuggestion row = new FollowSuggestion();
+        row.setUserId(1L);
+        row.setCandidates(FollowSuggestionService.pack(List.of(
+                new FollowSuggestionService.Candidate(5L, 3, 0),
+                new FollowSuggestionService.Candidate(6L, 2, 1),
+                new FollowSuggestionService.Candidate(7L, 1, 0))));
+        when(followSuggestionMapper.selectOneById(1L)).thenReturn(row);
+        when(followGraphService.followingAmong(1L, List.of(5L, 6L, 7L))).thenReturn(Set.of(5L));
+        when(userSummaryService.getAll(List.of(6L, 7L))).thenReturn(Map.of(6L, user(6L), 7L, user(7L)));
+
+        List<FollowSuggestionDTO> result = followSuggestionService.getSuggestions(1L, 2);
+
+        assertEquals(List.of(6L, 7L), result.stream().map(FollowSuggestionDTO::getId).toList());
+        assertEquals(2, result.get(0).getMutualFollowCount());
+        verifyNoInteractions(userFollowMapper, postTagMapper);
+    }
+
+    private static UserFollow edge(Long followerId, Long followeeId) {
+        UserFollow follow = new UserFollow();
+        follow.setFollowerId(followerId);
+        follow.setFolloweeId(followeeId);
+        return follow;
+    }
+
+    private static UserSummary user(Long id) {
+        return new UserSummary(id, "user" + id, null, null, 0);
+    }
+}
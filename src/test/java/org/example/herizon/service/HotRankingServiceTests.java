@@ -0,0 +1,250 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.common.TransactionHooks;
+import org.example.herizon.entity.Post;
+import org.example.herizon.entity.PostHotScore;
+import org.example.herizon.mapper.PostHotScoreMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotRankingServiceTests {
+
+    @Mock
+    private PostMapper postMapper;
+
+    @Mock
+    private PostHotScoreMapper postHotScoreMapper;
+
+    @InjectMocks
+    private HotRankingService hotRankingService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(hotRankingService, "capacity", 3);
+        ReflectionTestUtils.setField(hotRankingService, "halfLifeHours", 24d);
+        hotRankingService.run(null);
+    }
+
+    @Test
+    void interactions_reorderRanking() {
+        LocalDateTime now = LocalDateTime.now();
+        hotRankingService.onPostCreated(post(1L, now.minusMinutes(3)));
+        hotRankingService.onPostCreated(post(2L, now.minusMinutes(2)));
+        hotRankingService.onPostCreated(post(3L, now.minusMinutes(1)));
+
+        assertEquals(List.of(3L, 2L, 1L), hotRankingService.getPage(0, 10));
+
+        hotRankingService.onInteraction(1L, HotRankingService.WEIGHT_COLLECT, true, now);
+        assertEquals(List.of(1L, 3L, 2L), hotRankingService.getPage(0, 10));
+
+        hotRankingService.onInteraction(1L, HotRankingService.WEIGHT_COLLECT, false, now);
+        assertEquals(List.of(3L, 2L, 1L), hotRankingService.getPage(0, 10));
+    }
+
+    @Test
+    void undo_subtractsContributionAtOriginalTime() {
+        LocalDateTime likedAt = LocalDateTime.now().minusHours(30);
+        hotRankingService.onPostCreated(post(1L, likedAt));
+        double base = score(1L);
+
+        hotRankingService.onInteraction(1L, HotRankingService.WEIGHT_LIKE, true, likedAt);
+        hotRankingService.onInteraction(1L, HotRankingService.WEIGHT_LIKE, true, likedAt);
+        hotRankingService.onInteraction(1L, HotRankingService.WEIGHT_LIKE, false, likedAt);
+
+        // 发帖权重为2、点赞权重为1，同一时刻的一个点赞贡献为发帖基础分的一半
+        assertEquals(HotRankingService.logAdd(base, base - Math.log(2)), score(1L), 1e-9);
+    }
+
+    @Test
+    void postCreatedInRolledBackTransaction_neverEntersRanking() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            hotRankingService.onPostCreated(post(1L, LocalDateTime.now()));
+            hotRankingService.onPostCreated(post(2L, LocalDateTime.now()));
+            assertEquals(0, hotRankingService.size());
+
+            // 只提交第二个事务
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.get(1).afterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(2L), hotRankingService.getPage(0, 10));
+        hotRankingService.flush();
+        verify(postHotScoreMapper).upsertBatch(argThat(rows -> rows.size() == 1
+                && rows.iterator().next().getPostId() == 2L));
+    }
+
+    @Test
+    void removeInRolledBackTransaction_keepsPostRanked() {
+        hotRankingService.onPostCreated(post(1L, LocalDateTime.now()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            hotRankingService.remove(1L);
+            assertEquals(List.of(1L), hotRankingService.getPage(0, 10));
+        } finally {
+            // 未触发afterCommit即视为回滚
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(1L), hotRankingService.getPage(0, 10));
+        verify(postHotScoreMapper, never()).deleteById(any());
+
+        hotRankingService.remove(1L);
+        assertEquals(List.of(), hotRankingService.getPage(0, 10));
+        verify(postHotScoreMapper).deleteById(1L);
+    }
+
+    @Test
+    void removeFromAnotherAfterCommitCallback_runsImmediately() {
+        hotRankingService.onPostCreated(post(1L, LocalDateTime.now()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // 如举报处理在提交后回调中下架帖子：此时再登记的回调不会被执行，应直接生效
+            TransactionHooks.afterCommit(() -> hotRankingService.remove(1L));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+            assertEquals(List.of(), hotRankingService.getPage(0, 10));
+            verify(postHotScoreMapper).deleteById(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void flush_dropsEntriesThatCannotBeWritten() {
+        LocalDateTime now = LocalDateTime.now();
+        hotRankingService.onPostCreated(post(1L, now.minusMinutes(1)));
+        hotRankingService.onPostCreated(post(2L, now));
+        when(postHotScoreMapper.upsertBatch(anyCollection())).thenAnswer(invocation -> {
+            Collection<PostHotScore> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getPostId() == 2L)) {
+                throw new DataIntegrityViolationException("post_hot_scores_ibfk_1");
+            }
+            return rows.size();
+        });
+
+        hotRankingService.flush();
+        hotRankingService.flush();
+
+        // 整批一次，逐条各一次，之后脏表已清空
+        verify(postHotScoreMapper, times(3)).upsertBatch(anyCollection());
+        assertEquals(List.of(1L), hotRankingService.getPage(0, 10));
+    }
+
+    @Test
+    void getPage_excludesRankedPostsFromTailInSql() {
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= 3; id++) {
+            hotRankingService.onPostCreated(post(id, now.minusMinutes(10 - id)));
+        }
+        when(postHotScoreMapper.selectListByQuery(any(QueryWrapper.class)))
+                .thenReturn(List.of(row(8L), row(7L)));
+
+        assertEquals(List.of(3L, 2L, 1L, 8L, 7L), hotRankingService.getPage(0, 5));
+
+        ArgumentCaptor<QueryWrapper> query = ArgumentCaptor.forClass(QueryWrapper.class);
+        // 第一次查询是启动时加载排行
+        verify(postHotScoreMapper, times(2)).selectListByQuery(query.capture());
+        String sql = query.getValue().toSQL();
+        assertTrue(sql.contains("(score < "), sql);
+        assertTrue(sql.contains("AND `post_id` NOT IN (3, 2, 1)"), sql);
+        assertTrue(sql.contains("LIMIT 0, 2"), sql);
+    }
+
+    @Test
+    void newPosts_evictLowestWhenFull() {
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= 4; id++) {
+            hotRankingService.onPostCreated(post(id, now.minusHours(10 - id)));
+        }
+
+        assertEquals(3, hotRankingService.size());
+        assertEquals(List.of(4L, 3L), hotRankingService.getPage(0, 2));
+        assertEquals(List.of(2L), hotRankingService.getPage(2, 2));
+    }
+
+    @Test
+    void getPageAfter_continuesFromCursorWhenNewPostsArrive() {
+        LocalDateTime now = LocalDateTime.now();
+        hotRankingService.onPostCreated(post(1L, now.minusMinutes(2)));
+        hotRankingService.onPostCreated(post(2L, now.minusMinutes(1)));
+
+        List<PostHotScore> first = hotRankingService.getPageAfter(null, null, 1);
+        assertEquals(2L, first.get(0).getPostId());
+
+        hotRankingService.onPostCreated(post(3L, now));
+        PostHotScore last = first.get(first.size() - 1);
+        List<PostHotScore> second = hotRankingService.getPageAfter(last.getScore(), last.getPostId(), 10);
+
+        assertEquals(List.of(1L), second.stream().map(PostHotScore::getPostId).toList());
+    }
+
+    @Test
+    void flush_writesDirtyScoresOnce() {
+        hotRankingService.onPostCreated(post(1L, LocalDateTime.now()));
+
+        hotRankingService.flush();
+        hotRankingService.flush();
+
+        verify(postHotScoreMapper, times(1)).upsertBatch(anyCollection());
+    }
+
+    @Test
+    void logSubtract_neverDropsBelowFloor() {
+        double base = Math.log(2);
+        double withLike = HotRankingService.logAdd(base, 0);
+
+        assertEquals(Math.log(3), withLike, 1e-9);
+        assertEquals(base, HotRankingService.logSubtract(withLike, 0, base), 1e-9);
+        assertEquals(base, HotRankingService.logSubtract(base, 0, base), 1e-9);
+    }
+
+    private double score(Long postId) {
+        return hotRankingService.getPageAfter(null, null, 10).stream()
+                .filter(row -> row.getPostId().equals(postId))
+                .findFirst()
+                .orElseThrow()
+                .getScore();
+    }
+
+    private static PostHotScore row(Long postId) {
+        PostHotScore row = new PostHotScore();
+        row.setPostId(postId);
+        row.setScore(0d);
+        return row;
+    }
+
+    private static Post post(Long id, LocalDateTime createdAt) {
+        Post post = new Post();
+        post.setId(id);
+        post.setCreatedAt(createdAt);
+        post.setStatus(0);
+        return post;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.herizon.service;
+
+import org.example.herizon.dto.HotSearchDTO;
+import org.example.herizon.dto.HotSearchTermDTO;
+import org.example.herizon.entity.SketchSnapshot;
+import org.example.herizon.mapper.SketchSnapshotMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotSearchServiceTests {
+
+    private static final Instant START = Instant.parse("2025-10-01T04:00:00Z");
+
+    @Mock
+    private SketchSnapshotMapper sketchSnapshotMapper;
+
+    @InjectMocks
+    private HotSearchService hotSearchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(hotSearchService, "topK", 2);
+        useClock(START);
+    }
+
+    @Test
+    void refresh_ranksTermsPerWindowAndExpiresOldBuckets() {
+        record("职场妈妈", 3);
+        record("  AI  工具 ", 1);
+        useClock(START.plus(Duration.ofMinutes(90)));
+        record("ai 工具", 2);
+        record("读书会", 1);
+        hotSearchService.refresh();
+
+        HotSearchDTO board = hotSearchService.getHotSearches();
+        assertEquals(List.of("ai 工具", "读书会"), keywords(board.getHour()));
+        assertEquals(List.of("ai 工具", "职场妈妈"), keywords(board.getDay()));
+        assertEquals(3L, board.getDay().get(0).getCount());
+    }
+
+    @Test
+    void snapshot_restoresCountsAfterRestart() {
+        record("职场妈妈", 2);
+        hotSearchService.snapshot();
+        ArgumentCaptor<byte[]> payload = ArgumentCaptor.forClass(byte[].class);
+        verify(sketchSnapshotMapper).upsert(eq("hot_search"), payload.capture(), any());
+
+        HotSearchService restarted = new HotSearchService();
+        ReflectionTestUtils.setField(restarted, "sketchSnapshotMapper", sketchSnapshotMapper);
+        ReflectionTestUtils.setField(restarted, "topK", 2);
+        ReflectionTestUtils.setField(restarted, "clock", Clock.fixed(START, ZoneId.of("UTC")));
+        SketchSnapshot snapshot = new SketchSnapshot();
+        snapshot.setName("hot_search");
+        snapshot.setPayload(payload.getValue());
+        when(sketchSnapshotMapper.selectOneById("hot_search")).thenReturn(snapshot);
+        restarted.run(null);
+
+        assertEquals(List.of("职场妈妈"), keywords(restarted.getHotSearches().getHour()));
+        assertEquals(2L, restarted.getHotSearches().getHour().get(0).getCount());
+    }
+
+    private void record(String keyword, int times) {
+        for (int i = 0; i < times; i++) {
+            hotSearchService.record(keyword);
+        }
+    }
+
+    private void useClock(Instant instant) {
+        ReflectionTestUtils.setField(hotSearchService, "clock", Clock.fixed(instant, ZoneId.of("UTC")));
+    }
+
+    private static List<String> keywords(List<HotSearchTermDTO> terms) {
+        return terms.stream().map(HotSearchTermDTO::getKeyword).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.herizon.service;
+
+import org.example.herizon.dto.PostDTO;
+import org.example.herizon.entity.UserAction;
+import org.example.herizon.mapper.UserActionMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InteractionStateServiceTests {
+
+    @Mock
+    private UserActionMapper userActionMapper;
+
+    private InteractionStateService interactionStateService;
+
+    @BeforeEach
+    void setUp() {
+        interactionStateService = new InteractionStateService(100, 30);
+        ReflectionTestUtils.setField(interactionStateService, "userActionMapper", userActionMapper);
+    }
+
+    @Test
+    void stampsWholePageFromOneLoad() {
+        when(userActionMapper.selectListByQuery(any())).thenReturn(List.of(
+                action(1L, 0), action(2L, 1), action(3L, 0), action(3L, 1), action(5_000_000_000L, 0)));
+
+        List<PostDTO> page = List.of(post(1L), post(2L), post(3L), post(4L), post(5_000_000_000L));
+        interactionStateService.stamp(7L, page);
+        interactionStateService.stamp(7L, page);
+
+        assertEquals(List.of(true, false, true, false, true), page.stream().map(PostDTO::getIsLiked).toList());
+        assertEquals(List.of(false, true, true, false, false), page.stream().map(PostDTO::getIsCollected).toList());
+        verify(userActionMapper, times(1)).selectListByQuery(any());
+    }
+
+    @Test
+    void togglesUpdateCachedUserWithoutReloading() {
+        when(userActionMapper.selectListByQuery(any())).thenReturn(List.of(action(1L, 0)));
+        assertTrue(interactionStateService.isLiked(7L, 1L));
+
+        interactionStateService.onToggle(7L, "post", 1L, 0, false);
+        interactionStateService.onToggle(7L, "post", 2L, 1, true);
+        interactionStateService.onToggle(7L, "comment", 3L, 0, true);
+
+        assertFalse(interactionStateService.isLiked(7L, 1L));
+        assertTrue(interactionStateService.isCollected(7L, 2L));
+        assertFalse(interactionStateService.isLiked(7L, 3L));
+        verify(userActionMapper, times(1)).selectListByQuery(any());
+    }
+
+    @Test
+    void toggleForUncachedUserAndAnonymousStampDoNotQuery() {
+        interactionStateService.onToggle(8L, "post", 1L, 0, true);
+
+        PostDTO post = post(1L);
+        interactionStateService.stamp(null, List.of(post));
+
+        assertNull(post.getIsLiked());
+        verifyNoInteractions(userActionMapper);
+    }
+
+    private static UserAction action(Long postId, int actionType) {
+        UserAction action = new UserAction();
+        action.setTargetId(postId);
+        action.setActionType(actionType);
+        return action;
+    }
+
+    private static PostDTO post(Long id) {
+        PostDTO dto = new PostDTO();
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.herizon.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.common.PageResult;
+import org.example.herizon.entity.Post;
+import org.example.herizon.mapper.PostMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaginationServiceTests {
+
+    @Mock
+    private PostMapper postMapper;
+
+    private PaginationService paginationService;
+
+    @BeforeEach
+    void setUp() {
+        paginationService = new PaginationService(60, 16);
+    }
+
+    @Test
+    void paginate_countsOnceAndReusesCachedTotal() {
+        when(postMapper.selectListByQuery(any(QueryWrapper.class))).thenReturn(posts(11));
+        when(postMapper.selectCountByQuery(any(QueryWrapper.class))).thenReturn(42L);
+
+        PageResult<Post> first = paginationService.paginate(postMapper, QueryWrapper.create(), 1, 10, "posts:home");
+        PageResult<Post> second = paginationService.paginate(postMapper, QueryWrapper.create(), 2, 10, "posts:home");
+
+        assertEquals(10, first.getRecords().size());
+        assertTrue(first.getHasMore());
+        assertEquals(42L, first.getTotal());
+        assertEquals(5L, first.getPages());
+        assertEquals(42L, second.getTotal());
+        verify(postMapper, times(1)).selectCountByQuery(any(QueryWrapper.class));
+    }
+
+    @Test
+    void paginate_lastPageCorrectsTotalWithoutCounting() {
+        when(postMapper.selectListByQuery(any(QueryWrapper.class))).thenReturn(posts(3));
+
+        PageResult<Post> page = paginationService.paginate(postMapper, QueryWrapper.create(), 3, 10, "posts:tag:1");
+
+        assertFalse(page.getHasMore());
+        assertEquals(23L, page.getTotal());
+        assertEquals(23L, paginationService.getCount("posts:tag:1", () -> fail("不应再次统计")));
+        verify(postMapper, never()).selectCountByQuery(any(QueryWrapper.class));
+    }
+
+    @Test
+    void paginate_withoutCountKeySkipsTotal() {
+        when(postMapper.selectListByQuery(any(QueryWrapper.class))).thenReturn(posts(10));
+
+        PageResult<Post> page = paginationService.paginate(postMapper, QueryWrapper.create(), 1, 10, null);
+
+        assertFalse(page.getHasMore());
+        assertNull(page.getTotal());
+        verify(postMapper, never()).selectCountByQuery(any(QueryWrapper.class));
+    }
+
+    @Test
+    void cachedCounts_evictOnlyBeyondTheLimit() {
+        for (int i = 0; i < 20; i++) {
+            long value = i;
+            paginationService.getCount("posts:search:" + i, () -> value);
+        }
+
+        Cache<?, ?> counts = (Cache<?, ?>) ReflectionTestUtils.getField(paginationService, "counts");
+        counts.cleanUp();
+        // 超出上限时只淘汰多出的key，不再整体清空
+        assertEquals(16, counts.estimatedSize());
+    }
+
+    private static List<Post> posts(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(id -> {
+            Post post = new Post();
+            post.setId(id);
+            return post;
+        }).toList();
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.entity.Post;
+import org.example.herizon.mapper.PostMapper;
+import org.example.herizon.mapper.TagMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostSearchServiceTests {
+
+    @Mock
+    private PostMapper postMapper;
+
+    @Mock
+    private TagMapper tagMapper;
+
+    @InjectMocks
+    private PostSearchService postSearchService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(postSearchService, "recencyWeight", 0.5);
+        ReflectionTestUtils.setField(postSearchService, "recencyHalfLifeDays", 30d);
+
+        LocalDateTime now = LocalDateTime.now();
+        when(postMapper.selectListByQuery(any(QueryWrapper.class)))
+                .thenReturn(List.of(
+                        post(1L, "职场妈妈的时间管理", "分享AI工具提升效率", now.minusDays(5)),
+                        post(2L, "AIGC证书备考", "职场新人如何学习AI", now.minusDays(1)),
+                        post(3L, "周末读书会", "聊聊妈妈们的职场困境", now.minusDays(2))))
+                .thenReturn(List.of());
+        postSearchService.rebuild();
+    }
+
+    @Test
+    void search_requiresAllTermsAndPrefersTitleMatches() {
+        List<Long> ids = postSearchService.search("职场妈妈", 0, 10).stream()
+                .map(PostSearchService.Hit::postId)
+                .toList();
+
+        assertEquals(List.of(1L), ids);
+        assertEquals(3, postSearchService.count("职场"));
+        assertEquals(List.of(2L, 1L), postSearchService.search("ai", 0, 10).stream()
+                .map(PostSearchService.Hit::postId)
+                .toList());
+    }
+
+    @Test
+    void incrementalUpdates_areVisibleImmediately() {
+        postSearchService.onPostCreated(post(4L, "职场妈妈经验谈", "", LocalDateTime.now()));
+        postSearchService.onPostRemoved(1L);
+
+        assertEquals(List.of(4L), postSearchService.search("职场妈妈", 0, 10).stream()
+                .map(PostSearchService.Hit::postId)
+                .toList());
+    }
+
+    @Test
+    void searchPage_returnsTotalFromSameMatch() {
+        postSearchService.onPostRemoved(3L);
+
+        PostSearchService.SearchPage page = postSearchService.searchPage("职场", 1, 1);
+
+        assertEquals(2, page.total());
+        assertEquals(List.of(1L), page.hits().stream().map(PostSearchService.Hit::postId).toList());
+        assertEquals(2, postSearchService.count("职场"));
+        assertEquals(0, postSearchService.searchPage("职场 周末", 0, 10).total());
+    }
+
+    @Test
+    void count_intersectsLongPostingLists() {
+        long expected = 0;
+        for (long id = 10; id < 1010; id++) {
+            boolean both = id % 7 == 0;
+            postSearchService.onPostCreated(post(id, "职场日常", both ? "读书笔记" : "", LocalDateTime.now()));
+            expected += both ? 1 : 0;
+        }
+        postSearchService.onPostRemoved(14L);
+        expected--;
+        // 原有帖子中3号同时包含两个词
+        expected++;
+
+        assertEquals(expected, postSearchService.count("职场 读书"));
+    }
+
+    @Test
+    void updatesInRolledBackTransaction_neverReachTheIndex() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            postSearchService.onPostCreated(post(4L, "职场妈妈经验谈", "", LocalDateTime.now()));
+            postSearchService.onPostRemoved(1L);
+        } finally {
+            // 未触发afterCommit即视为回滚
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(1L), postSearchService.search("职场妈妈", 0, 10).stream()
+                .map(PostSearchService.Hit::postId)
+                .toList());
+    }
+
+    @Test
+    void search_matchesSingleCharacterQueriesInsideLongerRuns() {
+        assertEquals(1, postSearchService.count("读"));
+        assertEquals(2, postSearchService.count("书"));
+        assertEquals(List.of(1L, 3L), postSearchService.search("妈", 0, 10).stream()
+                .map(PostSearchService.Hit::postId)
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    void tokenizer_splitsCjkIntoBigramsAndKeepsDictionaryWords() {
+        assertEquals(List.of("职场", "场妈", "妈妈", "ai", "工具"),
+                SearchTokenizer.tokenizeQuery("职场妈妈，AI工具"));
+        assertEquals(List.of("职", "职场", "场", "场妈", "妈", "妈妈", "妈", "ai", "工", "工具", "具"),
+                SearchTokenizer.tokenize("职场妈妈，AI工具", Set.of()));
+        assertEquals(List.of("书"), SearchTokenizer.tokenizeQuery("书"));
+        assertTrue(SearchTokenizer.tokenize("女性领导力提升", Set.of("领导力")).contains("领导力"));
+        assertTrue(SearchTokenizer.tokenizeQuery("女性领导力", Set.of("领导力")).contains("领导力"));
+    }
+
+    private static Post post(Long id, String title, String content, LocalDateTime createdAt) {
+        Post post = new Post();
+        post.setId(id);
+        post.setTitle(title);
+        post.setContent(content);
+        post.setCreatedAt(createdAt);
+        return post;
+    }
+}
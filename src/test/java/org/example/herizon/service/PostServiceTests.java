@@ -0,0 +1,182 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.common.PageResult;
+import org.example.herizon.dto.PostDTO;
+import org.example.herizon.dto.TagDTO;
+import org.example.herizon.dto.UserSummary;
+import org.example.herizon.entity.PollOption;
+import org.example.herizon.entity.Post;
+import org.example.herizon.entity.PostTag;
+import org.example.herizon.entity.Tag;
+import org.example.herizon.entity.UserVote;
+import org.example.herizon.mapper.PollOptionMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.example.herizon.mapper.PostTagMapper;
+import org.example.herizon.mapper.TagMapper;
+import org.example.herizon.mapper.UserVoteMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostServiceTests {
+
+    @Mock
+    private PostMapper postMapper;
+
+    @Mock
+    private PollOptionMapper pollOptionMapper;
+
+    @Mock
+    private UserVoteMapper userVoteMapper;
+
+    @Mock
+    private PostTagMapper postTagMapper;
+
+    @Mock
+    private TagMapper tagMapper;
+
+    @Mock
+    private PaginationService paginationService;
+
+    @Mock
+    private UserSummaryService userSummaryService;
+
+    @Mock
+    private TagDictionaryService tagDictionaryService;
+
+    @InjectMocks
+    private PostService postService;
+
+    @BeforeEach
+    void setUp() {
+        Post post = new Post();
+        post.setId(10L);
+        post.setPostType(1);
+        post.setDeleted(0);
+        lenient().when(postMapper.selectOneById(10L)).thenReturn(post);
+
+        PollOption option = new PollOption();
+        option.setId(2L);
+        option.setPostId(10L);
+        option.setDeleted(0);
+        lenient().when(pollOptionMapper.selectOneById(2L)).thenReturn(option);
+    }
+
+    @Test
+    void vote_firstVoteIncrementsOptionAndPostTotals() {
+        postService.vote(10L, 2L, 1L);
+
+        verify(userVoteMapper).insert(any(UserVote.class));
+        verify(pollOptionMapper).incrementVoteCount(2L, 1);
+        verify(postMapper).incrementVoteCount(10L, 1);
+    }
+
+    @Test
+    void vote_switchMovesCountWithoutChangingTotal() {
+        UserVote existing = new UserVote();
+        existing.setId(7L);
+        existing.setOptionId(1L);
+        when(userVoteMapper.selectOneByQuery(any(QueryWrapper.class))).thenReturn(existing);
+        when(userVoteMapper.switchOption(7L, 1L, 2L)).thenReturn(1);
+
+        postService.vote(10L, 2L, 1L);
+
+        verify(pollOptionMapper).incrementVoteCount(1L, -1);
+        verify(pollOptionMapper).incrementVoteCount(2L, 1);
+        verify(postMapper, never()).incrementVoteCount(anyLong(), anyInt());
+        verify(userVoteMapper, never()).insert(any(UserVote.class));
+    }
+
+    @Test
+    void vote_concurrentSwitchIsRejected() {
+        UserVote existing = new UserVote();
+        existing.setId(7L);
+        existing.setOptionId(1L);
+        when(userVoteMapper.selectOneByQuery(any(QueryWrapper.class))).thenReturn(existing);
+        when(userVoteMapper.switchOption(7L, 1L, 2L)).thenReturn(0);
+
+        assertThrows(RuntimeException.class, () -> postService.vote(10L, 2L, 1L));
+        verify(pollOptionMapper, never()).incrementVoteCount(anyLong(), anyInt());
+    }
+
+    @Test
+    void getPostsByTag_loadsAuthorsTagsAndPollOptionsWithOneQueryEach() {
+        DataLoaderService dataLoaderService = new DataLoaderService();
+        ReflectionTestUtils.setField(dataLoaderService, "userSummaryService", userSummaryService);
+        ReflectionTestUtils.setField(postService, "dataLoaderService", dataLoaderService);
+
+        List<Post> posts = List.of(post(1L, 7L, 0), post(2L, 8L, 0), post(3L, 7L, 0), post(4L, 9L, 1));
+        when(paginationService.paginate(eq(postMapper), any(QueryWrapper.class), eq(1), eq(10), isNull()))
+                .thenReturn(PageResult.of(posts, 4L, 1L, 10L));
+        when(userSummaryService.getAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().collect(Collectors.toMap(Function.identity(),
+                    id -> new UserSummary(id, "user" + id, null, null, 1)));
+        });
+        when(postTagMapper.selectListByQuery(any(QueryWrapper.class))).thenReturn(List.of(
+                postTag(1L, 100L), postTag(2L, 100L), postTag(2L, 101L), postTag(3L, 101L)));
+        when(tagDictionaryService.isReady()).thenReturn(true);
+        when(tagDictionaryService.getAll(anyCollection())).thenReturn(Map.of(100L, tag(100L, "读书"), 101L, tag(101L, "旅行")));
+        PollOption option = new PollOption();
+        option.setId(40L);
+        option.setPostId(4L);
+        when(pollOptionMapper.selectListByQuery(any(QueryWrapper.class))).thenReturn(List.of(option));
+
+        List<PostDTO> dtos = postService.getPostsByTag(100L, 1, 10).getRecords();
+
+        // 四个帖子：作者、帖子标签、标签详情、投票选项各只查询一次，不随帖子数增长
+        verify(userSummaryService, times(1)).getAll(anyCollection());
+        verify(userSummaryService).getAll(Set.of(7L, 8L, 9L));
+        ArgumentCaptor<QueryWrapper> relationQuery = ArgumentCaptor.forClass(QueryWrapper.class);
+        verify(postTagMapper, times(1)).selectListByQuery(relationQuery.capture());
+        assertTrue(relationQuery.getValue().toSQL().contains("IN (1, 2, 3, 4)"));
+        verify(tagDictionaryService, times(1)).getAll(Set.of(100L, 101L));
+        verify(tagMapper, never()).selectListByQuery(any(QueryWrapper.class));
+        verify(pollOptionMapper, times(1)).selectListByQuery(any(QueryWrapper.class));
+
+        assertEquals(List.of("user7", "user8", "user7", "user9"), dtos.stream().map(PostDTO::getUsername).toList());
+        assertEquals(List.of("读书", "旅行"), dtos.get(1).getTags().stream().map(TagDTO::getName).toList());
+        assertEquals(1, dtos.get(3).getPollOptions().size());
+    }
+
+    private static Post post(Long id, Long userId, int postType) {
+        Post post = new Post();
+        post.setId(id);
+        post.setUserId(userId);
+        post.setPostType(postType);
+        post.setDeleted(0);
+        return post;
+    }
+
+    private static PostTag postTag(Long postId, Long tagId) {
+        PostTag relation = new PostTag();
+        relation.setPostId(postId);
+        relation.setTagId(tagId);
+        return relation;
+    }
+
+    private static Tag tag(Long id, String name) {
+        Tag tag = new Tag();
+        tag.setId(id);
+        tag.setName(name);
+        return tag;
+    }
+}
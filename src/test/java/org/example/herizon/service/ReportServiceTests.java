@@ -0,0 +1,123 @@
+package org.example.herizon.service;
+
+import org.example.herizon.entity.Post;
+import org.example.herizon.mapper.CommentMapper;
+import org.example.herizon.mapper.PostMapper;
+import org.example.herizon.mapper.ReportAggregateMapper;
+import org.example.herizon.mapper.UserActionMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTests {
+
+    @Mock
+    private UserActionMapper userActionMapper;
+
+    @Mock
+    private ReportAggregateMapper reportAggregateMapper;
+
+    @Mock
+    private PostMapper postMapper;
+
+    @Mock
+    private CommentMapper commentMapper;
+
+    @Mock
+    private PostService postService;
+
+    @Mock
+    private CommentService commentService;
+
+    @Mock
+    private HotRankingService hotRankingService;
+
+    @Mock
+    private PostSearchService postSearchService;
+
+    @Mock
+    private PaginationService paginationService;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @InjectMocks
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reportService, "hideThreshold", 3);
+        ReflectionTestUtils.setField(reportService, "maxReasonLength", 500);
+    }
+
+    @Test
+    void repeatedReportFromSameUserCountsOnce() {
+        when(userActionMapper.insertReport(eq(1L), eq(9L), eq("post"), anyString())).thenReturn(1, 0);
+
+        assertFalse(reportService.report(1L, 9L, "post", "广告"));
+        assertFalse(reportService.report(1L, 9L, "post", "广告\"}, \"x\": \"y"));
+
+        verify(reportAggregateMapper, times(1)).increment("post", 9L, "广告");
+        verify(userActionMapper).updateReport(1L, 9L, "post", "{\"reason\":\"广告\\\"}, \\\"x\\\": \\\"y\"}");
+        verify(postMapper, never()).updateStatus(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void crossingThresholdHidesPostOnce() {
+        when(userActionMapper.insertReport(anyLong(), eq(9L), eq("post"), anyString())).thenReturn(1);
+        when(reportAggregateMapper.markHidden("post", 9L, 3)).thenReturn(0, 0, 1, 0);
+        when(postMapper.updateStatus(9L, 0, 2)).thenReturn(1);
+        Post post = new Post();
+        post.setId(9L);
+        post.setUserId(7L);
+        when(postMapper.selectOneById(9L)).thenReturn(post);
+
+        assertFalse(reportService.report(1L, 9L, "post", "spam"));
+        assertFalse(reportService.report(2L, 9L, "post", "spam"));
+        assertTrue(reportService.report(3L, 9L, "post", "spam"));
+        assertFalse(reportService.report(4L, 9L, "post", "spam"));
+
+        verify(postMapper, times(1)).updateStatus(9L, 0, 2);
+        verify(hotRankingService).remove(9L);
+        verify(postSearchService).onPostRemoved(9L);
+        verify(userStatsService, times(1)).onPostVisibilityChanged(7L, false);
+    }
+
+    @Test
+    void invalidReportsAreRejectedBeforeWriting() {
+        assertThrows(RuntimeException.class, () -> reportService.report(1L, 9L, "user", "spam"));
+        assertThrows(RuntimeException.class, () -> reportService.report(1L, 9L, "post", "   "));
+        assertThrows(RuntimeException.class, () -> reportService.report(1L, 9L, "post", "x".repeat(501)));
+
+        verifyNoInteractions(userActionMapper, reportAggregateMapper);
+    }
+
+    @Test
+    void dismissingRestoresHiddenPost() {
+        Post post = new Post();
+        post.setId(9L);
+        post.setUserId(7L);
+        when(reportAggregateMapper.resolve("post", 9L, 2, 100L)).thenReturn(1);
+        when(postMapper.updateStatus(9L, 2, 0)).thenReturn(1);
+        when(postMapper.selectOneById(9L)).thenReturn(post);
+
+        reportService.resolve("post", 9L, false, 100L);
+
+        verify(hotRankingService).restore(9L);
+        verify(postSearchService).onPostCreated(post);
+        verify(userStatsService).onPostVisibilityChanged(7L, true);
+        verify(postService, never()).deletePost(anyLong(), anyLong());
+
+        when(reportAggregateMapper.resolve("post", 9L, 3, 100L)).thenReturn(0);
+        assertThrows(RuntimeException.class, () -> reportService.resolve("post", 9L, true, 100L));
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.dto.TagDTO;
+import org.example.herizon.entity.Tag;
+import org.example.herizon.mapper.TagMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TagDictionaryServiceTests {
+
+    @Mock
+    private TagMapper tagMapper;
+
+    @Mock
+    private TagSuggestService tagSuggestService;
+
+    @InjectMocks
+    private TagDictionaryService tagDictionaryService;
+
+    @Test
+    void refresh_versionChangesOnlyWhenContentChanges() {
+        when(tagMapper.selectListByQuery(any(QueryWrapper.class)))
+                .thenReturn(List.of(tag(2L, "职业规划", 12), tag(1L, "职场妈妈", 5)))
+                .thenReturn(List.of(tag(1L, "职场妈妈", 5), tag(2L, "职业规划", 12)))
+                .thenReturn(List.of(tag(1L, "职场妈妈", 6), tag(2L, "职业规划", 12)));
+
+        tagDictionaryService.refresh();
+        String first = tagDictionaryService.getDictionary().getVersion();
+        tagDictionaryService.refresh();
+        String second = tagDictionaryService.getDictionary().getVersion();
+        tagDictionaryService.refresh();
+        String third = tagDictionaryService.getDictionary().getVersion();
+
+        assertEquals(first, second);
+        assertNotEquals(second, third);
+        assertEquals(List.of(1L, 2L), tagDictionaryService.getDictionary().getTags().stream()
+                .map(TagDTO::getId)
+                .toList());
+        verify(tagSuggestService, times(3)).rebuild(anyList());
+    }
+
+    @Test
+    void getAll_returnsOnlyKnownTags() {
+        when(tagMapper.selectListByQuery(any(QueryWrapper.class))).thenReturn(List.of(tag(1L, "职场妈妈", 5)));
+        tagDictionaryService.refresh();
+
+        assertEquals(Set.of(1L), tagDictionaryService.getAll(List.of(1L, 9L)).keySet());
+    }
+
+    private static Tag tag(Long id, String name, int postCount) {
+        Tag tag = new Tag();
+        tag.setId(id);
+        tag.setName(name);
+        tag.setPostCount(postCount);
+        return tag;
+    }
+}
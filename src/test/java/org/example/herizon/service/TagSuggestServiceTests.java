@@ -0,0 +1,79 @@
+package org.example.herizon.service;
+
+import org.example.herizon.entity.Tag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagSuggestServiceTests {
+
+    private final TagSuggestService tagSuggestService = new TagSuggestService();
+
+    @BeforeEach
+    void setUp() {
+        tagSuggestService.rebuild(List.of(
+                tag(1L, "职场妈妈", 5),
+                tag(2L, "职业规划", 12),
+                tag(3L, "AI工具", 3)));
+    }
+
+    @Test
+    void suggest_matchesSubstringPinyinAndInitialsRankedByPostCount() {
+        assertEquals(List.of(1L), ids(tagSuggestService.suggest("妈妈", 10)));
+        assertEquals(List.of(2L, 1L), ids(tagSuggestService.suggest("zhi", 10)));
+        assertEquals(List.of(1L), ids(tagSuggestService.suggest("ZC mm", 10)));
+        assertEquals(List.of(3L), ids(tagSuggestService.suggest("aig", 10)));
+        assertEquals(List.of(2L), ids(tagSuggestService.suggest("zy", 1)));
+        assertTrue(tagSuggestService.suggest("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void rebuild_replacesIndexWithLatestTags() {
+        tagSuggestService.rebuild(List.of(tag(4L, "读书会", 0)));
+
+        assertTrue(tagSuggestService.suggest("zc", 10).isEmpty());
+        assertEquals(List.of(4L), ids(tagSuggestService.suggest("dsh", 10)));
+    }
+
+    @Test
+    void suggest_breaksPostCountTiesByNewestFirst() {
+        LocalDateTime now = LocalDateTime.of(2025, 10, 1, 12, 0);
+        Tag older = tag(5L, "读书", 4);
+        older.setCreatedAt(now.minusDays(3));
+        Tag newer = tag(6L, "读书会", 4);
+        newer.setCreatedAt(now);
+        tagSuggestService.rebuild(List.of(older, newer));
+
+        assertEquals(List.of(6L, 5L), ids(tagSuggestService.suggest("读书", 10)));
+    }
+
+    @Test
+    void suggest_keepsCandidatesUpToDocumentedMaximum() {
+        List<Tag> tags = new ArrayList<>();
+        for (long id = 1; id <= TagSuggestService.MAX_SUGGESTIONS + 10; id++) {
+            tags.add(tag(id, "话题" + id, (int) id));
+        }
+        tagSuggestService.rebuild(tags);
+
+        assertEquals(50, TagSuggestService.MAX_SUGGESTIONS);
+        assertEquals(TagSuggestService.MAX_SUGGESTIONS, tagSuggestService.suggest("话题", 50).size());
+        assertEquals(TagSuggestService.MAX_SUGGESTIONS, tagSuggestService.suggest("ht", 100).size());
+    }
+
+    private static List<Long> ids(List<Tag> tags) {
+        return tags.stream().map(Tag::getId).toList();
+    }
+
+    private static Tag tag(Long id, String name, int postCount) {
+        Tag tag = new Tag();
+        tag.setId(id);
+        tag.setName(name);
+        tag.setPostCount(postCount);
+        return tag;
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.entity.Post;
+import org.example.herizon.entity.UserFollow;
+import org.example.herizon.entity.UserInbox;
+import org.example.herizon.entity.UserStats;
+import org.example.herizon.mapper.PostMapper;
+import org.example.herizon.mapper.UserFollowMapper;
+import org.example.herizon.mapper.UserInboxMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TimelineServiceTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 10, 1, 12, 0);
+
+    @Mock
+    private UserInboxMapper userInboxMapper;
+
+    @Mock
+    private UserFollowMapper userFollowMapper;
+
+    @Mock
+    private PostMapper postMapper;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private TaskExecutor feedTaskExecutor;
+
+    @InjectMocks
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(timelineService, "celebrityThreshold", 2);
+        ReflectionTestUtils.setField(timelineService, "batchSize", 500);
+    }
+
+    @Test
+    void getTimeline_mergesCelebrityPostsAndDeduplicates() {
+        when(userFollowMapper.selectFolloweeIdsWithFollowersOver(2)).thenReturn(List.of(9L));
+        timelineService.refreshCelebrities();
+
+        when(userInboxMapper.selectListByQuery(any(QueryWrapper.class)))
+                .thenReturn(List.of(inbox(30L, NOW.minusMinutes(1)), inbox(10L, NOW.minusMinutes(30))));
+        when(userFollowMapper.selectObjectListByQuery(any(QueryWrapper.class))).thenReturn(List.of(9L));
+        when(postMapper.selectListByQuery(any(QueryWrapper.class)))
+                .thenReturn(List.of(post(20L, NOW.minusMinutes(10)), post(10L, NOW.minusMinutes(30))));
+
+        List<UserInbox> timeline = timelineService.getTimeline(1L, null, null, 10);
+
+        assertEquals(List.of(30L, 20L, 10L), timeline.stream().map(UserInbox::getPostId).toList());
+    }
+
+    @Test
+    void onPostCreated_skipsFanOutForCelebrity() {
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(feedTaskExecutor).execute(any(Runnable.class));
+        UserStats stats = new UserStats();
+        stats.setUserId(9L);
+        stats.setFollowerCount(3);
+        when(userStatsService.get(9L)).thenReturn(stats);
+
+        Post post = post(1L, NOW);
+        post.setUserId(9L);
+        timelineService.onPostCreated(post);
+
+        verify(userInboxMapper, never()).insertBatch(anyCollection(), anyLong(), anyLong(), any());
+        verify(userFollowMapper, never()).selectCountByQuery(any(QueryWrapper.class));
+    }
+
+    @Test
+    void refreshCelebrities_backfillsFollowersOfDemotedAuthor() {
+        ReflectionTestUtils.setField(timelineService, "backfillSize", 20);
+        when(userFollowMapper.selectFolloweeIdsWithFollowersOver(2)).thenReturn(List.of(9L), List.of());
+        timelineService.refreshCelebrities();
+        when(userFollowMapper.selectListByQuery(any(QueryWrapper.class)))
+                .thenReturn(List.of(follow(1L, 101L), follow(2L, 102L)))
+                .thenReturn(List.of());
+
+        timelineService.refreshCelebrities();
+
+        verify(userInboxMapper).backfillFromAuthorBatch(List.of(101L, 102L), 9L, 20);
+        // 降级后不再读时合并
+        when(userInboxMapper.selectListByQuery(any(QueryWrapper.class))).thenReturn(List.of());
+        timelineService.getTimeline(101L, null, null, 10);
+        verify(postMapper, never()).selectListByQuery(any(QueryWrapper.class));
+    }
+
+    @Test
+    void refreshCelebrities_keepsMergingWhenBackfillFails() {
+        when(userFollowMapper.selectFolloweeIdsWithFollowersOver(2)).thenReturn(List.of(9L), List.of());
+        timelineService.refreshCelebrities();
+        when(userFollowMapper.selectListByQuery(any(QueryWrapper.class))).thenThrow(new RuntimeException("db down"));
+
+        timelineService.refreshCelebrities();
+
+        when(userInboxMapper.selectListByQuery(any(QueryWrapper.class))).thenReturn(List.of());
+        when(userFollowMapper.selectObjectListByQuery(any(QueryWrapper.class))).thenReturn(List.of(9L));
+        timelineService.getTimeline(101L, null, null, 10);
+        verify(postMapper).selectListByQuery(any(QueryWrapper.class));
+    }
+
+    private static UserFollow follow(Long id, Long followerId) {
+        UserFollow follow = new UserFollow();
+        follow.setId(id);
+        follow.setFollowerId(followerId);
+        return follow;
+    }
+
+    private static UserInbox inbox(Long postId, LocalDateTime createdAt) {
+        UserInbox entry = new UserInbox();
+        entry.setUserId(1L);
+        entry.setPostId(postId);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+
+    private static Post post(Long id, LocalDateTime createdAt) {
+        Post post = new Post();
+        post.setId(id);
+        post.setUserId(9L);
+        post.setCreatedAt(createdAt);
+        return post;
+    }
+}
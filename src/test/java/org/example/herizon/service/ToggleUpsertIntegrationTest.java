@@ -0,0 +1,167 @@
+package org.example.herizon.service;
+
+import org.example.herizon.dto.UserRegistrationRequest;
+import org.example.herizon.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 点赞、关注切换的并发集成测试
+ * <p>
+ * 与 ActionServiceTests、FollowServiceTests 中模拟行锁的并发测试不同，这里连接真实的MySQL：
+ * - 多线程对同一 (用户, 目标) 反复切换，每次调用是独立提交的事务（因此不使用@Transactional回滚）
+ * - 验证唯一键 uk_user_target_action / uk_follower_followee 下始终只有一行记录
+ * - 验证已提交的切换结果严格交替，最终状态与提交次数的奇偶一致
+ * 被数据库判为死锁而回滚的调用不改变状态，不计入提交次数
+ * <p>
+ * 测试用户在结束后删除
+ *
+ * @author Kokoa
+ */
+@SpringBootTest
+class ToggleUpsertIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int TAPS_PER_THREAD = 25;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ActionService actionService;
+
+    @Autowired
+    private FollowService followService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long otherUserId;
+
+    @BeforeEach
+    void setUp() {
+        userId = register().getId();
+        otherUserId = register().getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long id : List.of(userId, otherUserId)) {
+            jdbcTemplate.update("DELETE FROM user_actions WHERE user_id = ?", id);
+            jdbcTemplate.update("DELETE FROM user_follow WHERE follower_id = ? OR followee_id = ?", id, id);
+            jdbcTemplate.update("DELETE FROM user_stats WHERE user_id = ?", id);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+        }
+    }
+
+    /**
+     * 测试场景：同一用户对同一评论并发连点
+     * <p>
+     * 验证点：
+     * 1. user_actions 中该 (用户, 目标, 行为) 只有一行
+     * 2. 已提交的切换中“点赞”比“取消”恰好多0或1次，与最终状态一致
+     */
+    @Test
+    void concurrentLikeTogglesKeepOneRowAndAlternate() throws Exception {
+        // 目标使用不存在的评论ID，计数更新影响0行，只观察 user_actions 本身
+        long commentId = -userId;
+        List<Boolean> committed = hammer(() -> actionService.toggleLike(userId, commentId, "comment"));
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_actions WHERE user_id = ? AND target_id = ? AND target_type = 'comment' AND action_type = 0",
+                Integer.class, userId, commentId);
+        assertEquals(1, rows, "唯一键下同一行为只应有一行记录");
+
+        Integer deleted = jdbcTemplate.queryForObject(
+                "SELECT deleted FROM user_actions WHERE user_id = ? AND target_id = ? AND target_type = 'comment' AND action_type = 0",
+                Integer.class, userId, commentId);
+        assertAlternating(committed, deleted == 0);
+    }
+
+    /**
+     * 测试场景：同一用户对同一用户并发连点关注
+     * <p>
+     * 验证点：
+     * 1. user_follow 中该关注关系只有一行
+     * 2. 已提交的切换结果与最终状态一致
+     */
+    @Test
+    void concurrentFollowTogglesKeepOneRowAndAlternate() throws Exception {
+        List<Boolean> committed = hammer(() -> followService.toggleFollow(userId, otherUserId));
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_follow WHERE follower_id = ? AND followee_id = ?",
+                Integer.class, userId, otherUserId);
+        assertEquals(1, rows, "唯一键下同一关注关系只应有一行记录");
+
+        Integer deleted = jdbcTemplate.queryForObject(
+                "SELECT deleted FROM user_follow WHERE follower_id = ? AND followee_id = ?",
+                Integer.class, userId, otherUserId);
+        assertAlternating(committed, deleted == 0);
+    }
+
+    /**
+     * 多线程同时发起切换，返回已提交的切换结果
+     */
+    private List<Boolean> hammer(Callable<Boolean> toggle) throws InterruptedException {
+        List<Boolean> committed = Collections.synchronizedList(new ArrayList<>());
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < TAPS_PER_THREAD; i++) {
+                    try {
+                        committed.add(toggle.call());
+                    } catch (PessimisticLockingFailureException e) {
+                        // 死锁回滚，本次切换未生效
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "并发切换应在超时前完成");
+        assertTrue(failures.isEmpty(), () -> "切换不应失败: " + failures.get(0));
+        assertFalse(committed.isEmpty(), "至少应有一次切换提交");
+        return committed;
+    }
+
+    private void assertAlternating(List<Boolean> committed, boolean finalActive) {
+        long activated = committed.stream().filter(Boolean::booleanValue).count();
+        long cancelled = committed.size() - activated;
+        assertEquals(committed.size() % 2 == 1, finalActive, "最终状态应与提交次数的奇偶一致");
+        assertEquals(finalActive ? 1 : 0, activated - cancelled, "生效与取消应严格交替");
+    }
+
+    private User register() {
+        String uniqueSuffix = System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8);
+        UserRegistrationRequest request = new UserRegistrationRequest();
+        request.setUsername("toggle_user_" + uniqueSuffix);
+        request.setEmail("toggle_" + uniqueSuffix + "@example.com");
+        request.setPassword("herizon");
+        return userService.register(request);
+    }
+}
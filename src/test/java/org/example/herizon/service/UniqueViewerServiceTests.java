@@ -0,0 +1,211 @@
+package org.example.herizon.service;
+
+import org.example.herizon.common.HyperLogLog;
+import org.example.herizon.entity.PostUniqueViewer;
+import org.example.herizon.entity.PostViewerSketch;
+import org.example.herizon.mapper.PostUniqueViewerMapper;
+import org.example.herizon.mapper.PostViewerSketchMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UniqueViewerServiceTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 10, 15);
+
+    @Mock
+    private PostViewerSketchMapper postViewerSketchMapper;
+
+    @Mock
+    private PostUniqueViewerMapper postUniqueViewerMapper;
+
+    @InjectMocks
+    private UniqueViewerService uniqueViewerService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(uniqueViewerService, "clock",
+                Clock.fixed(TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+        ReflectionTestUtils.setField(uniqueViewerService, "retentionDays", 30);
+    }
+
+    @Test
+    void hyperLogLogEstimatesWithinErrorAndMergesIdempotently() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 60000; i++) {
+            first.add("u:" + i);
+        }
+        for (int i = 40000; i < 100000; i++) {
+            second.add("u:" + i);
+        }
+
+        first.merge(second);
+        first.merge(second);
+        long estimate = first.estimate();
+        assertTrue(Math.abs(estimate - 100000) < 100000 * 0.06, "estimate=" + estimate);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(first.toBytes());
+        assertEquals(estimate, restored.estimate());
+    }
+
+    @Test
+    void sparseSketchStaysSmallAndRoundTrips() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 20; i++) {
+            sketch.add("d:" + i);
+            sketch.add("d:" + i);
+        }
+
+        byte[] bytes = sketch.toBytes();
+        assertTrue(bytes.length <= 1 + 20 * 3);
+        assertEquals(sketch.estimate(), HyperLogLog.fromBytes(bytes).estimate());
+        assertTrue(Math.abs(sketch.estimate() - 20) <= 1);
+        assertEquals(0, HyperLogLog.fromBytes(null).estimate());
+    }
+
+    @Test
+    void repeatedViewsFromSameViewerCountOnce() {
+        when(postViewerSketchMapper.selectSketchesForEstimate(1L)).thenReturn(List.of());
+
+        for (int i = 0; i < 50; i++) {
+            uniqueViewerService.record(1L, "u:7");
+        }
+        uniqueViewerService.record(1L, "d:abc");
+        uniqueViewerService.record(1L, null);
+
+        assertEquals(2, uniqueViewerService.estimate(1L));
+    }
+
+    @Test
+    void estimateUnionsStoredAndPendingSketches() {
+        HyperLogLog stored = new HyperLogLog();
+        stored.add("u:1");
+        stored.add("u:2");
+        when(postViewerSketchMapper.selectSketchesForEstimate(1L)).thenReturn(List.of(stored.toBytes()));
+
+        uniqueViewerService.record(1L, "u:2");
+        uniqueViewerService.record(1L, "u:3");
+
+        assertEquals(3, uniqueViewerService.estimate(1L));
+    }
+
+    @Test
+    void flushMergesWithStoredDailySketch() {
+        HyperLogLog stored = new HyperLogLog();
+        stored.add("u:1");
+        byte[] storedBytes = stored.toBytes();
+        when(postViewerSketchMapper.selectSketch(1L, TODAY)).thenReturn(storedBytes);
+        when(postViewerSketchMapper.compareAndSet(eq(1L), eq(TODAY), eq(storedBytes), any())).thenReturn(1);
+
+        uniqueViewerService.record(1L, "u:2");
+        uniqueViewerService.flush();
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(postViewerSketchMapper).compareAndSet(eq(1L), eq(TODAY), eq(storedBytes), captor.capture());
+        assertEquals(2, HyperLogLog.fromBytes(captor.getValue()).estimate());
+
+        uniqueViewerService.flush();
+        verify(postViewerSketchMapper, times(1)).compareAndSet(any(), any(), any(), any());
+        verify(postViewerSketchMapper, never()).insertIfAbsent(any(), any(), any());
+    }
+
+    @Test
+    void flushRereadsWhenAnotherInstanceWroteFirst() {
+        HyperLogLog other = new HyperLogLog();
+        other.add("u:9");
+        byte[] otherBytes = other.toBytes();
+        // 读到空行后另一实例先插入了当天草图，INSERT IGNORE 落空，重读后以其草图为条件写回
+        when(postViewerSketchMapper.selectSketch(1L, TODAY)).thenReturn(null).thenReturn(otherBytes);
+        when(postViewerSketchMapper.insertIfAbsent(eq(1L), eq(TODAY), any())).thenReturn(0);
+        when(postViewerSketchMapper.compareAndSet(eq(1L), eq(TODAY), eq(otherBytes), any())).thenReturn(1);
+
+        uniqueViewerService.record(1L, "u:1");
+        uniqueViewerService.flush();
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(postViewerSketchMapper).compareAndSet(eq(1L), eq(TODAY), eq(otherBytes), captor.capture());
+        assertEquals(2, HyperLogLog.fromBytes(captor.getValue()).estimate());
+    }
+
+    @Test
+    void failedFlushKeepsSketchForRetry() {
+        when(postViewerSketchMapper.selectSketch(1L, TODAY)).thenReturn(null);
+        when(postViewerSketchMapper.insertIfAbsent(eq(1L), eq(TODAY), any()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+
+        uniqueViewerService.record(1L, "u:1");
+        uniqueViewerService.flush();
+        uniqueViewerService.record(1L, "u:2");
+        uniqueViewerService.flush();
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(postViewerSketchMapper, times(2)).insertIfAbsent(eq(1L), eq(TODAY), captor.capture());
+        assertEquals(2, HyperLogLog.fromBytes(captor.getValue()).estimate());
+    }
+
+    @Test
+    void flushGivesUpAfterRepeatedConflictsAndKeepsSketch() {
+        when(postViewerSketchMapper.selectSketch(1L, TODAY)).thenReturn(null);
+        when(postViewerSketchMapper.insertIfAbsent(eq(1L), eq(TODAY), any())).thenReturn(0);
+        when(postViewerSketchMapper.selectSketchesForEstimate(1L)).thenReturn(List.of());
+
+        uniqueViewerService.record(1L, "u:1");
+        uniqueViewerService.flush();
+
+        verify(postViewerSketchMapper, times(5)).insertIfAbsent(eq(1L), eq(TODAY), any());
+        assertEquals(1, uniqueViewerService.estimate(1L));
+    }
+
+    @Test
+    void rollupMergesDailySketchesIntoTotal() {
+        HyperLogLog total = new HyperLogLog();
+        total.add("u:1");
+        PostUniqueViewer existing = new PostUniqueViewer();
+        existing.setPostId(1L);
+        existing.setSketch(total.toBytes());
+        when(postUniqueViewerMapper.selectOneById(1L)).thenReturn(existing);
+
+        PostViewerSketch dayOne = daily(1L, TODAY.minusDays(2), "u:1", "u:2");
+        PostViewerSketch dayTwo = daily(1L, TODAY.minusDays(1), "u:3");
+        when(postViewerSketchMapper.selectUnrolled(eq(TODAY), anyLong(), any(), anyInt()))
+                .thenReturn(List.of(dayOne, dayTwo));
+
+        assertEquals(2, uniqueViewerService.rollup());
+
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(postUniqueViewerMapper).upsert(eq(1L), captor.capture());
+        assertEquals(3, HyperLogLog.fromBytes(captor.getValue()).estimate());
+        verify(postViewerSketchMapper).markRolledUp(1L, dayOne.getStatDate(), dayOne.getSketch());
+        verify(postViewerSketchMapper).markRolledUp(1L, dayTwo.getStatDate(), dayTwo.getSketch());
+        verify(postViewerSketchMapper).deleteRolledUpBefore(TODAY.minusDays(30));
+    }
+
+    private static PostViewerSketch daily(Long postId, LocalDate date, String... viewers) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (String viewer : viewers) {
+            sketch.add(viewer);
+        }
+        PostViewerSketch row = new PostViewerSketch();
+        row.setPostId(postId);
+        row.setStatDate(date);
+        row.setSketch(sketch.toBytes());
+        return row;
+    }
+}
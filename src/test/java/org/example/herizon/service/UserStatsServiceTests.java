@@ -0,0 +1,106 @@
+package org.example.herizon.service;
+
+import org.example.herizon.entity.Post;
+import org.example.herizon.entity.UserStats;
+import org.example.herizon.mapper.UserStatsMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatsServiceTests {
+
+    @Mock
+    private UserStatsMapper userStatsMapper;
+
+    @InjectMocks
+    private UserStatsService userStatsService;
+
+    @Test
+    void readsByPrimaryKeyAndBackfillsMissingRowsOnce() {
+        when(userStatsMapper.selectListByIds(List.of(1L, 2L, 3L))).thenReturn(List.of(stats(1L, 4)));
+        when(userStatsMapper.selectListByIds(List.of(2L, 3L))).thenReturn(List.of(stats(2L, 1)));
+
+        Map<Long, UserStats> result = userStatsService.getAll(List.of(1L, 2L, 1L, 3L));
+
+        assertEquals(4, result.get(1L).getPostCount());
+        assertEquals(1, result.get(2L).getPostCount());
+        assertEquals(0, result.get(3L).getPostCount());
+        assertEquals(0L, result.get(3L).getLikeCount());
+        verify(userStatsMapper).rebuild(0, 0, List.of(2L, 3L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void followTogglesWriteOneRowPerUserInIdOrder() {
+        Map<Long, Integer> changes = new LinkedHashMap<>();
+        changes.put(9L, 1);
+        changes.put(2L, -1);
+        changes.put(5L, 1);
+
+        userStatsService.onFollowToggled(3L, changes);
+
+        ArgumentCaptor<List<UserStats>> rows = ArgumentCaptor.forClass(List.class);
+        verify(userStatsMapper).increment(rows.capture());
+        List<UserStats> written = new ArrayList<>(rows.getValue());
+        assertEquals(List.of(2L, 3L, 5L, 9L), written.stream().map(UserStats::getUserId).toList());
+        assertEquals(List.of(-1, 0, 1, 1), written.stream().map(UserStats::getFollowerCount).toList());
+        assertEquals(List.of(0, 1, 0, 0), written.stream().map(UserStats::getFollowingCount).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deletingHiddenPostKeepsPostCountButDropsReceivedCounts() {
+        Post post = new Post();
+        post.setUserId(7L);
+        post.setStatus(2);
+        post.setLikeCount(12);
+        post.setCollectCount(3);
+
+        userStatsService.onPostDeleted(post);
+
+        ArgumentCaptor<List<UserStats>> rows = ArgumentCaptor.forClass(List.class);
+        verify(userStatsMapper).increment(rows.capture());
+        UserStats delta = rows.getValue().get(0);
+        assertEquals(0, delta.getPostCount());
+        assertEquals(-12L, delta.getLikeCount());
+        assertEquals(-3L, delta.getCollectCount());
+    }
+
+    @Test
+    void rebuildWalksUsersInChunks() {
+        ReflectionTestUtils.setField(userStatsService, "chunkSize", 100);
+        when(userStatsMapper.selectObjectByQuery(any())).thenReturn(230L);
+        when(userStatsMapper.rebuild(anyLong(), anyLong(), isNull())).thenReturn(2);
+
+        assertEquals(6, userStatsService.rebuild());
+
+        verify(userStatsMapper).rebuild(1, 100, null);
+        verify(userStatsMapper).rebuild(101, 200, null);
+        verify(userStatsMapper).rebuild(201, 230, null);
+    }
+
+    private static UserStats stats(Long userId, int postCount) {
+        UserStats stats = new UserStats();
+        stats.setUserId(userId);
+        stats.setPostCount(postCount);
+        stats.setFollowingCount(0);
+        stats.setFollowerCount(0);
+        stats.setLikeCount(0L);
+        stats.setCollectCount(0L);
+        return stats;
+    }
+}
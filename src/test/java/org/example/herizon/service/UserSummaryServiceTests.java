@@ -0,0 +1,65 @@
+package org.example.herizon.service;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import org.example.herizon.dto.UserSummary;
+import org.example.herizon.entity.User;
+import org.example.herizon.mapper.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserSummaryServiceTests {
+
+    private UserMapper userMapper;
+
+    private UserSummaryService userSummaryService;
+
+    @BeforeEach
+    void setUp() {
+        userMapper = mock(UserMapper.class);
+        userSummaryService = new UserSummaryService(100, 30);
+        ReflectionTestUtils.setField(userSummaryService, "userMapper", userMapper);
+    }
+
+    @Test
+    void getAll_loadsOnlyMissesInOneQuery() {
+        when(userMapper.selectListByQuery(any(QueryWrapper.class)))
+                .thenReturn(List.of(user(1L, "小红"), user(2L, "小蓝")))
+                .thenReturn(List.of(user(3L, "小绿")));
+
+        Map<Long, UserSummary> first = userSummaryService.getAll(List.of(1L, 2L));
+        Map<Long, UserSummary> second = userSummaryService.getAll(Set.of(1L, 3L));
+
+        assertEquals("小蓝", first.get(2L).getNickname());
+        assertEquals(Set.of(1L, 3L), second.keySet());
+        verify(userMapper, times(2)).selectListByQuery(any(QueryWrapper.class));
+    }
+
+    @Test
+    void invalidate_reloadsUpdatedProfile() {
+        when(userMapper.selectListByQuery(any(QueryWrapper.class)))
+                .thenReturn(List.of(user(1L, "小红")))
+                .thenReturn(List.of(user(1L, "新昵称")));
+
+        assertEquals("小红", userSummaryService.get(1L).getNickname());
+        userSummaryService.invalidate(1L);
+
+        assertEquals("新昵称", userSummaryService.get(1L).getNickname());
+    }
+
+    private static User user(Long id, String nickname) {
+        User user = new User();
+        user.setId(id);
+        user.setNickname(nickname);
+        user.setRole(1);
+        return user;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.herizon.service;
+
+import org.example.herizon.mapper.PostMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewCountServiceTests {
+
+    @Mock
+    private PostMapper postMapper;
+
+    @InjectMocks
+    private ViewCountService viewCountService;
+
+    @Test
+    void concurrentViewsAreNeitherLostNorDoubleCountedAcrossFlushes() throws InterruptedException {
+        AtomicLong written = new AtomicLong();
+        when(postMapper.incrementViewCounts(anyMap())).thenAnswer(invocation -> {
+            Map<Long, Long> deltas = invocation.getArgument(0);
+            written.addAndGet(deltas.getOrDefault(1L, 0L));
+            return deltas.size();
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    viewCountService.increment(1L);
+                    if (i % 2_000 == 0) {
+                        viewCountService.flush();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(80_000, written.get() + viewCountService.pending(1L));
+        viewCountService.flush();
+        assertEquals(80_000, written.get());
+        assertEquals(0, viewCountService.pending(1L));
+    }
+
+    @Test
+    void failedFlushKeepsDeltasForRetry() {
+        when(postMapper.incrementViewCounts(anyMap()))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(1);
+        viewCountService.increment(5L);
+        viewCountService.increment(5L);
+
+        viewCountService.flush();
+        assertEquals(2, viewCountService.pending(5L));
+
+        viewCountService.flush();
+        assertEquals(0, viewCountService.pending(5L));
+        verify(postMapper, times(2)).incrementViewCounts(Map.of(5L, 2L));
+    }
+}